@@ -0,0 +1,197 @@
+package ru.javaboys.huntyhr.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.jmix.core.DataManager;
+import io.jmix.core.SaveContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.javaboys.huntyhr.entity.LlmResponseCacheEntity;
+import ru.javaboys.huntyhr.util.Hashes;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Кэширующая обёртка над {@link OpenAiServiceImpl} для структурированных вызовов.
+ * <p>
+ * Ключ — SHA-256 от модели, температуры, текста system/user сообщений и имени целевого класса.
+ * Ответ хранится как JSON: в памяти (LRU с TTL) и в {@code LLM_RESPONSE_CACHE_ENTITY}.
+ * Свободный диалог ({@link #talkToChatGPT}) не кэшируется — он завязан на память разговора.
+ */
+@Service
+@Primary
+@Slf4j
+public class CachingOpenAiService implements OpenAiService {
+
+    private final OpenAiServiceImpl delegate;
+    private final DataManager dm;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final String model;
+    private final String temperature;
+    private final Duration ttl;
+
+    private final Cache<String, String> memory;
+
+    private final Counter memoryHits;
+    private final Counter dbHits;
+    private final Counter misses;
+
+    public CachingOpenAiService(OpenAiServiceImpl delegate,
+                                DataManager dm,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${hunty.llm-cache.enabled:true}") boolean enabled,
+                                @Value("${hunty.llm-cache.ttl-hours:168}") long ttlHours,
+                                @Value("${hunty.llm-cache.max-entries:5000}") long maxEntries,
+                                @Value("${spring.ai.openai.chat.options.model:}") String model,
+                                @Value("${spring.ai.openai.chat.options.temperature:}") String temperature) {
+        this.delegate = delegate;
+        this.dm = dm;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.model = model;
+        this.temperature = temperature;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.memory = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+
+        this.memoryHits = Counter.builder("hunty.llm.cache").tag("result", "hit").tag("tier", "memory")
+                .register(meterRegistry);
+        this.dbHits = Counter.builder("hunty.llm.cache").tag("result", "hit").tag("tier", "db")
+                .register(meterRegistry);
+        this.misses = Counter.builder("hunty.llm.cache").tag("result", "miss").tag("tier", "none")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String talkToChatGPT(String conversationId, SystemMessage systemMessage, UserMessage userMessage) {
+        return delegate.talkToChatGPT(conversationId, systemMessage, userMessage);
+    }
+
+    @Override
+    public <T> T structuredTalkToChatGPT(String conversationId, SystemMessage systemMessage, UserMessage userMessage, Class<T> classType) {
+        if (!enabled) {
+            return delegate.structuredTalkToChatGPT(conversationId, systemMessage, userMessage, classType);
+        }
+
+        String key = cacheKey(systemMessage, userMessage, classType);
+
+        String json = memory.getIfPresent(key);
+        if (json != null) {
+            T cached = deserialize(json, classType);
+            if (cached != null) {
+                memoryHits.increment();
+                return cached;
+            }
+        }
+
+        Optional<LlmResponseCacheEntity> stored = load(key);
+        if (stored.isPresent()) {
+            T cached = deserialize(stored.get().getResponseJson(), classType);
+            if (cached != null) {
+                dbHits.increment();
+                memory.put(key, stored.get().getResponseJson());
+                return cached;
+            }
+        }
+
+        misses.increment();
+        T response = delegate.structuredTalkToChatGPT(conversationId, systemMessage, userMessage, classType);
+        if (response != null) {
+            store(key, classType, response);
+        }
+        return response;
+    }
+
+    /**
+     * Удаляет просроченные записи из таблицы кэша.
+     */
+    @Scheduled(fixedRate = 60 * 60 * 1000)
+    public void evictExpired() {
+        if (!enabled) return;
+        try {
+            List<LlmResponseCacheEntity> expired = dm.unconstrained().load(LlmResponseCacheEntity.class)
+                    .query("select c from LlmResponseCacheEntity c where c.expiresAt < :now")
+                    .parameter("now", LocalDateTime.now())
+                    .list();
+            if (!expired.isEmpty()) {
+                dm.unconstrained().save(new SaveContext().removing(expired.toArray()));
+                log.info("Evicted {} expired LLM cache entries", expired.size());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to evict expired LLM cache entries: {}", e.getMessage());
+        }
+    }
+
+    private Optional<LlmResponseCacheEntity> load(String key) {
+        try {
+            return dm.unconstrained().load(LlmResponseCacheEntity.class)
+                    .query("select c from LlmResponseCacheEntity c where c.cacheKey = :key and c.expiresAt > :now")
+                    .parameter("key", key)
+                    .parameter("now", LocalDateTime.now())
+                    .optional();
+        } catch (Exception e) {
+            log.warn("LLM cache lookup failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void store(String key, Class<?> classType, Object response) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(response);
+        } catch (Exception e) {
+            log.warn("LLM response of type {} is not serializable, skipping cache: {}", classType.getName(), e.getMessage());
+            return;
+        }
+        memory.put(key, json);
+
+        LocalDateTime now = LocalDateTime.now();
+        LlmResponseCacheEntity entity = dm.unconstrained().load(LlmResponseCacheEntity.class)
+                .query("select c from LlmResponseCacheEntity c where c.cacheKey = :key")
+                .parameter("key", key)
+                .optional()
+                .orElseGet(() -> dm.create(LlmResponseCacheEntity.class));
+        entity.setCacheKey(key);
+        entity.setModel(model);
+        entity.setTargetClass(classType.getName());
+        entity.setResponseJson(json);
+        entity.setCreatedAt(now);
+        entity.setExpiresAt(now.plus(ttl));
+        try {
+            // отдельная транзакция: конфликт по ключу не должен откатывать транзакцию вызывающего
+            dm.unconstrained().save(new SaveContext().saving(entity).setJoinTransaction(false));
+        } catch (Exception e) {
+            log.debug("LLM cache entry {} was not stored: {}", key, e.getMessage());
+        }
+    }
+
+    private <T> T deserialize(String json, Class<T> classType) {
+        try {
+            return objectMapper.readValue(json, classType);
+        } catch (Exception e) {
+            // DTO мог измениться после записи в кэш — считаем это промахом
+            log.debug("Failed to read cached LLM response as {}: {}", classType.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private String cacheKey(SystemMessage systemMessage, UserMessage userMessage, Class<?> classType) {
+        return Hashes.sha256Parts(model, temperature, systemMessage.getContent(), userMessage.getContent(),
+                classType.getName());
+    }
+}
@@ -0,0 +1,305 @@
+package ru.javaboys.huntyhr.ai;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Клиентский «регулятор» вызовов LLM.
+ * <ul>
+ *     <li>не больше {@code max-concurrent} запросов одновременно (остальные ждут в очереди);</li>
+ *     <li>бюджет запросов и токенов в минуту (token bucket, токены оцениваются по длине промпта);</li>
+ *     <li>повтор 429/5xx/сетевых ошибок с экспоненциальной задержкой и jitter;</li>
+ *     <li>circuit breaker: после серии неудач вызовы сразу отклоняются до истечения паузы, затем
+ *     пропускается ровно один пробный вызов, его результат закрывает или снова открывает breaker.</li>
+ * </ul>
+ * Ожидание бюджета и паузы между повторами проходят без занятого слота, слот держится только на время
+ * самого запроса.
+ * Метрики: {@code hunty.llm.queue.depth}, {@code hunty.llm.wait}, {@code hunty.llm.calls}.
+ */
+@Component
+@Slf4j
+public class LlmCallGovernor {
+
+    private enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+    private final Budget requestBudget;
+    private final Budget tokenBudget;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final int failureThreshold;
+    private final long openDurationMs;
+
+    private final Timer waitTimer;
+    private final Counter successCounter;
+    private final Counter retryCounter;
+    private final Counter failureCounter;
+    private final Counter rejectedCounter;
+
+    // состояние breaker меняется только под монитором this
+    private CircuitState circuitState = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    public LlmCallGovernor(MeterRegistry meterRegistry,
+                           @Value("${hunty.llm.max-concurrent:4}") int maxConcurrent,
+                           @Value("${hunty.llm.acquire-timeout-ms:300000}") long acquireTimeoutMs,
+                           @Value("${hunty.llm.requests-per-minute:300}") int requestsPerMinute,
+                           @Value("${hunty.llm.tokens-per-minute:150000}") int tokensPerMinute,
+                           @Value("${hunty.llm.retry.max-attempts:5}") int maxAttempts,
+                           @Value("${hunty.llm.retry.initial-backoff-ms:1000}") long initialBackoffMs,
+                           @Value("${hunty.llm.retry.max-backoff-ms:30000}") long maxBackoffMs,
+                           @Value("${hunty.llm.circuit.failure-threshold:5}") int failureThreshold,
+                           @Value("${hunty.llm.circuit.open-seconds:60}") long openSeconds) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.requestBudget = new Budget(requestsPerMinute);
+        this.tokenBudget = new Budget(tokensPerMinute);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = TimeUnit.SECONDS.toMillis(openSeconds);
+
+        Gauge.builder("hunty.llm.queue.depth", permits, Semaphore::getQueueLength).register(meterRegistry);
+        Gauge.builder("hunty.llm.in-flight", permits, s -> maxConcurrent - s.availablePermits()).register(meterRegistry);
+        this.waitTimer = Timer.builder("hunty.llm.wait").register(meterRegistry);
+        this.successCounter = Counter.builder("hunty.llm.calls").tag("result", "success").register(meterRegistry);
+        this.retryCounter = Counter.builder("hunty.llm.calls").tag("result", "retry").register(meterRegistry);
+        this.failureCounter = Counter.builder("hunty.llm.calls").tag("result", "failure").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("hunty.llm.calls").tag("result", "rejected").register(meterRegistry);
+    }
+
+    /**
+     * Выполняет вызов LLM с учётом всех ограничений.
+     *
+     * @param estimatedTokens оценка токенов запроса + ответа для бюджета TPM
+     */
+    public <T> T call(int estimatedTokens, Supplier<T> action) {
+        boolean probe = admit();
+        boolean settled = false;
+        try {
+            long waitStarted = System.nanoTime();
+            tokenBudget.reserve(estimatedTokens);
+            for (int attempt = 1; ; attempt++) {
+                requestBudget.reserve(1);
+                acquirePermit();
+                if (attempt == 1) {
+                    waitTimer.record(System.nanoTime() - waitStarted, TimeUnit.NANOSECONDS);
+                }
+                RuntimeException error;
+                try {
+                    T result = action.get();
+                    onSuccess();
+                    settled = true;
+                    return result;
+                } catch (RuntimeException e) {
+                    error = e;
+                } finally {
+                    permits.release();
+                }
+
+                if (!isRetryable(error)) {
+                    // ошибка запроса/разбора ответа не говорит о недоступности провайдера: он ответил
+                    if (probe) {
+                        onProbeAnswered();
+                        settled = true;
+                    }
+                    throw error;
+                }
+                if (attempt >= maxAttempts) {
+                    onFailure(error, probe);
+                    settled = true;
+                    throw new LlmUnavailableException("LLM недоступна после " + attempt + " попыток", error);
+                }
+                // Retry-After провайдера уважаем, но не дольше максимальной паузы
+                long delay = Math.max(backoff(attempt), Math.min(retryAfterMs(error), maxBackoffMs));
+                retryCounter.increment();
+                log.warn("LLM call failed (attempt {}/{}), retry in {} ms: {}", attempt, maxAttempts, delay, error.getMessage());
+                sleep(delay);
+            }
+        } finally {
+            if (probe && !settled) {
+                // проба не дошла до провайдера (не дождались слота, прерывание) — пробует следующий вызов
+                abortProbe();
+            }
+        }
+    }
+
+    /**
+     * Грубая оценка числа токенов: ~4 символа на токен плюс запас на ответ.
+     */
+    public static int estimateTokens(String... texts) {
+        long chars = 0;
+        for (String t : texts) {
+            if (t != null) chars += t.length();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, chars / 4 + 1000);
+    }
+
+    private void acquirePermit() {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejectedCounter.increment();
+                throw new LlmUnavailableException("Не дождались свободного слота для вызова LLM");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LlmUnavailableException("Ожидание вызова LLM прервано", e);
+        }
+    }
+
+    /**
+     * Пропускает вызов через breaker.
+     *
+     * @return true, если вызов — единственный пробный после паузы
+     */
+    synchronized boolean admit() {
+        switch (circuitState) {
+            case CLOSED:
+                return false;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < openDurationMs) {
+                    rejectedCounter.increment();
+                    throw new LlmUnavailableException("LLM временно отключена после серии ошибок");
+                }
+                circuitState = CircuitState.HALF_OPEN;
+                return true;
+            default:
+                // пробный вызов уже идёт — остальные ждут его результата
+                rejectedCounter.increment();
+                throw new LlmUnavailableException("LLM проверяется пробным вызовом после серии ошибок");
+        }
+    }
+
+    private synchronized void onSuccess() {
+        successCounter.increment();
+        consecutiveFailures = 0;
+        if (circuitState != CircuitState.CLOSED) {
+            log.info("LLM circuit breaker closed");
+        }
+        circuitState = CircuitState.CLOSED;
+    }
+
+    private synchronized void onProbeAnswered() {
+        consecutiveFailures = 0;
+        if (circuitState == CircuitState.HALF_OPEN) {
+            log.info("LLM circuit breaker closed: provider answered the probe");
+            circuitState = CircuitState.CLOSED;
+        }
+    }
+
+    private synchronized void onFailure(RuntimeException e, boolean probe) {
+        failureCounter.increment();
+        consecutiveFailures++;
+        if (probe || consecutiveFailures >= failureThreshold) {
+            if (circuitState != CircuitState.OPEN) {
+                log.error("LLM circuit breaker opened after {} failures: {}", consecutiveFailures, e.getMessage());
+            }
+            circuitState = CircuitState.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    private synchronized void abortProbe() {
+        if (circuitState == CircuitState.HALF_OPEN) {
+            // openedAt не трогаем: пауза уже прошла, следующий вызов сразу станет пробным
+            circuitState = CircuitState.OPEN;
+        }
+    }
+
+    synchronized String circuitState() {
+        return circuitState.name();
+    }
+
+    private long backoff(int attempt) {
+        long exp = Math.min(maxBackoffMs, initialBackoffMs * (1L << Math.min(attempt - 1, 20)));
+        // full jitter, чтобы параллельные повторы не били в провайдера одновременно
+        return ThreadLocalRandom.current().nextLong(exp / 2, exp + 1);
+    }
+
+    static boolean isRetryable(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof LlmHttpStatusException h) {
+                return h.isRetryable();
+            }
+            if (t instanceof RestClientResponseException r) {
+                int status = r.getStatusCode().value();
+                return status == 429 || status == 408 || status >= 500;
+            }
+            if (t instanceof TransientAiException || t instanceof ResourceAccessException) {
+                return true;
+            }
+            if (t instanceof NonTransientAiException) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static long retryAfterMs(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof LlmHttpStatusException h && h.getRetryAfterMs() != null) {
+                return h.getRetryAfterMs();
+            }
+        }
+        return 0;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LlmUnavailableException("Ожидание повтора вызова LLM прервано", e);
+        }
+    }
+
+    /**
+     * Token bucket ёмкостью perMinute с равномерным пополнением. Резерв может уходить в минус —
+     * вызывающий ждёт, пока долг не будет погашен.
+     */
+    private static class Budget {
+        private final double capacity;
+        private final double refillPerMs;
+        private double available;
+        private long lastRefill;
+
+        Budget(int perMinute) {
+            this.capacity = Math.max(1, perMinute);
+            this.refillPerMs = capacity / 60_000.0;
+            this.available = capacity;
+            this.lastRefill = System.currentTimeMillis();
+        }
+
+        void reserve(int amount) {
+            long waitMs;
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                available = Math.min(capacity, available + (now - lastRefill) * refillPerMs);
+                lastRefill = now;
+                available -= Math.min(amount, capacity);
+                waitMs = available >= 0 ? 0 : (long) Math.ceil(-available / refillPerMs);
+            }
+            if (waitMs > 0) {
+                sleep(waitMs);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ru.javaboys.huntyhr.ai;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * HTTP-ошибка провайдера LLM с кодом ответа. Классификация повторов в {@link LlmCallGovernor} идёт по коду,
+ * а не по тексту сообщения: 429 и 5xx — временные, остальные 4xx — ошибка запроса.
+ */
+public class LlmHttpStatusException extends RuntimeException {
+
+    private final int statusCode;
+    @Nullable
+    private final Long retryAfterMs;
+
+    public LlmHttpStatusException(int statusCode, @Nullable Long retryAfterMs, String message) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Пауза из заголовка {@code Retry-After}, если провайдер её прислал.
+     */
+    @Nullable
+    public Long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+
+    public boolean isRateLimited() {
+        return statusCode == 429;
+    }
+
+    public boolean isRetryable() {
+        return statusCode == 429 || statusCode == 408 || statusCode >= 500;
+    }
+}
@@ -0,0 +1,16 @@
+package ru.javaboys.huntyhr.ai;
+
+/**
+ * LLM недоступна: открыт circuit breaker, не дождались слота или исчерпаны повторы.
+ * В отличие от «пустого» ответа модели, такую ошибку нельзя маскировать заглушкой — вызов нужно повторить позже.
+ */
+public class LlmUnavailableException extends RuntimeException {
+
+    public LlmUnavailableException(String message) {
+        super(message);
+    }
+
+    public LlmUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
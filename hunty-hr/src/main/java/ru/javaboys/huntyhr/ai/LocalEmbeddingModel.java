@@ -0,0 +1,103 @@
+package ru.javaboys.huntyhr.ai;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Локальная замена embedding-модели провайдера для разработки, тестов и стендов без ключа OpenAI
+ * ({@code hunty.embeddings.provider=local}).
+ * <p>
+ * Hashing trick: слова и пары соседних слов раскладываются по {@link #DIMENSIONS} корзинам со знаком,
+ * вектор нормируется. Семантики синонимов нет, но общие термины (технологии, роли) дают близость,
+ * а результат детерминирован и одинаков на всех узлах.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "hunty.embeddings.provider", havingValue = "local")
+public class LocalEmbeddingModel implements EmbeddingModel {
+
+    public static final String MODEL = "local-hashing-512";
+    static final int DIMENSIONS = 512;
+
+    // буквы/цифры плюс «хвосты» вроде c++, c#, .net
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}][\\p{L}\\p{N}+#.]*");
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        List<Embedding> embeddings = new ArrayList<>(request.getInstructions().size());
+        for (int i = 0; i < request.getInstructions().size(); i++) {
+            embeddings.add(new Embedding(embed(request.getInstructions().get(i)), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[DIMENSIONS];
+        String previous = null;
+        Matcher m = TOKEN.matcher(text == null ? "" : text.toLowerCase(Locale.ROOT));
+        while (m.find()) {
+            String token = trimDots(m.group());
+            if (token.isEmpty()) continue;
+            add(vector, token, 1f);
+            if (previous != null) {
+                add(vector, previous + ' ' + token, 0.5f);
+            }
+            previous = token;
+        }
+        return normalize(vector);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getFormattedContent());
+    }
+
+    @Override
+    public int dimensions() {
+        return DIMENSIONS;
+    }
+
+    private static void add(float[] vector, String feature, float weight) {
+        int h = mix(feature.hashCode());
+        // старший бит — знак: коллизии разных признаков в среднем гасят друг друга
+        vector[Math.floorMod(h, DIMENSIONS)] += (h & 0x80000000) == 0 ? weight : -weight;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    private static String trimDots(String token) {
+        int end = token.length();
+        while (end > 0 && token.charAt(end - 1) == '.') end--;
+        return token.substring(0, end);
+    }
+
+    private static float[] normalize(float[] v) {
+        double norm = 0;
+        for (float x : v) norm += x * x;
+        if (norm == 0) return v;
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < v.length; i++) {
+            v[i] *= scale;
+        }
+        return v;
+    }
+}
@@ -1,8 +1,16 @@
 package ru.javaboys.huntyhr.ai;
 
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseErrorHandler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 
 @Configuration
 public class OpenAiConfig {
@@ -11,4 +19,34 @@ public class OpenAiConfig {
     public ChatClient chatClient(ChatClient.Builder chatClientBuilder) {
         return chatClientBuilder.build();
     }
+
+    /**
+     * Заменяет обработчик ошибок Spring AI: вместо Transient/NonTransient с кодом в тексте сообщения
+     * бросает {@link LlmHttpStatusException} с кодом ответа и {@code Retry-After}.
+     */
+    @Bean
+    public ResponseErrorHandler llmResponseErrorHandler() {
+        return new ResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) throws IOException {
+                return response.getStatusCode().isError();
+            }
+
+            @Override
+            public void handleError(URI url, HttpMethod method, ClientHttpResponse response) throws IOException {
+                int status = response.getStatusCode().value();
+                String body = new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8);
+                throw new LlmHttpStatusException(status, retryAfterMs(response.getHeaders().getFirst("Retry-After")),
+                        status + " - " + StringUtils.abbreviate(body, 2000));
+            }
+        };
+    }
+
+    private static Long retryAfterMs(String header) {
+        if (header == null || !StringUtils.isNumeric(header.trim())) {
+            // дату в Retry-After провайдеры LLM не присылают — обходимся обычным backoff
+            return null;
+        }
+        return Long.parseLong(header.trim()) * 1000;
+    }
 }
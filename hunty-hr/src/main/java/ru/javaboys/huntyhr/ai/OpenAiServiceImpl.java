@@ -18,6 +18,7 @@ import java.util.List;
 public class OpenAiServiceImpl implements OpenAiService {
 
     private final ChatClient chatClient;
+    private final LlmCallGovernor governor;
 
     @Override
     public String talkToChatGPT(String conversationId, SystemMessage systemMessage, UserMessage userMessage) {
@@ -25,13 +26,13 @@ public class OpenAiServiceImpl implements OpenAiService {
         promptMessages.add(systemMessage);
         promptMessages.add(userMessage);
 
-        String fullResponse = chatClient
+        String fullResponse = governor.call(estimateTokens(systemMessage, userMessage), () -> chatClient
                 .prompt(new Prompt(promptMessages))
                 .advisors(advisor -> advisor
                         .param("chat_memory_conversation_id", conversationId)
                         .param("chat_memory_response_size", 1000))
                 .call()
-                .content();
+                .content());
 
         return fullResponse;
     }
@@ -42,14 +43,18 @@ public class OpenAiServiceImpl implements OpenAiService {
         promptMessages.add(systemMessage);
         promptMessages.add(userMessage);
 
-        T fullResponse = chatClient
+        T fullResponse = governor.call(estimateTokens(systemMessage, userMessage), () -> chatClient
                 .prompt(new Prompt(promptMessages))
                 .advisors(advisor -> advisor
                         .param("chat_memory_conversation_id", conversationId)
                         .param("chat_memory_response_size", 1000))
                 .call()
-                .entity(classType);
+                .entity(classType));
 
         return fullResponse;
     }
+
+    private static int estimateTokens(SystemMessage systemMessage, UserMessage userMessage) {
+        return LlmCallGovernor.estimateTokens(systemMessage.getContent(), userMessage.getContent());
+    }
 }
@@ -1,17 +1,22 @@
 package ru.javaboys.huntyhr.ai;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import ru.javaboys.huntyhr.ai.dto.MatchScore;
 import ru.javaboys.huntyhr.ai.dto.ResumeInfo;
 import ru.javaboys.huntyhr.ai.dto.VacancyInfo;
+import ru.javaboys.huntyhr.service.impl.SkillTaxonomyService;
 
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Set;
 
 @Service
+@RequiredArgsConstructor
 public class RankingService {
 
+    private final SkillTaxonomyService skillTaxonomyService;
+
     public MatchScore scoreResumeAgainstVacancy(ResumeInfo resume, VacancyInfo vacancy) {
         if (resume == null || vacancy == null) {
             return new MatchScore(0, "Нет данных для сравнения");
@@ -20,10 +25,10 @@ public class RankingService {
         StringBuilder expl = new StringBuilder();
 
         // 1) Skills overlap 0..50
-        Set<String> req = normalizeSet(vacancy.getRequiredSkills());
-        Set<String> got = normalizeSet(resume.getSkills());
-        int overlap = 0;
-        for (String s : req) if (got.contains(s)) overlap++;
+        // через справочник: синонимы совпадают, пересечение — AND битовых множеств
+        SkillTaxonomyService.SkillSet req = skillTaxonomyService.toSkillSet(vacancy.getRequiredSkills());
+        SkillTaxonomyService.SkillSet got = skillTaxonomyService.toSkillSet(resume.getSkills());
+        int overlap = req.overlap(got);
         double skillsPart = req.isEmpty() ? 0 : (50.0 * overlap / req.size());
         score += skillsPart;
         expl.append(String.format(Locale.US, "Навыки: совпало %d из %d (%.1f). ", overlap, req.size(), skillsPart));
@@ -0,0 +1,42 @@
+package ru.javaboys.huntyhr.config;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Общий пул для фоновой работы сервисов (индексация, поиск дублей, подбор вакансий, напоминания).
+ * <p>
+ * Сервис получает из него свою очередь {@link #sequential()}: задачи одного сервиса выполняются по одной,
+ * как раньше на собственном однопоточном executor, но потоки общие и останавливаются вместе с контекстом.
+ * Сам пул не публикуется как {@link Executor}, чтобы не подменять executor Spring Boot по умолчанию.
+ */
+@Component
+public class BackgroundExecutor {
+
+    private final ThreadPoolTaskExecutor pool;
+
+    public BackgroundExecutor(@Value("${hunty.background.pool-size:6}") int poolSize) {
+        this.pool = new ThreadPoolTaskExecutor();
+        pool.setCorePoolSize(Math.max(1, poolSize));
+        pool.setMaxPoolSize(Math.max(1, poolSize));
+        pool.setThreadNamePrefix("hunty-bg-");
+        pool.initialize();
+    }
+
+    /**
+     * Очередь, задачи которой выполняются строго по одной в порядке постановки.
+     */
+    public Executor sequential() {
+        return MoreExecutors.newSequentialExecutor(pool);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
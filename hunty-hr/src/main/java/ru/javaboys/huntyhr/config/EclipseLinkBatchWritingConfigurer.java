@@ -0,0 +1,41 @@
+package ru.javaboys.huntyhr.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.persistence.config.PersistenceUnitProperties;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Включает JDBC batch writing EclipseLink в persistence unit основного хранилища: INSERT/UPDATE одного
+ * {@code SaveContext} уходят пачками, а драйвер Postgres ({@code reWriteBatchedInserts}) склеивает их
+ * в multi-row insert.
+ * <p>
+ * Свойства кладутся прямо в {@code jpaPropertyMap} фабрики до её инициализации — так они гарантированно
+ * доходят до EclipseLink, а не лежат в {@code application.properties} без эффекта.
+ */
+@Slf4j
+@Component
+public class EclipseLinkBatchWritingConfigurer implements BeanPostProcessor, EnvironmentAware {
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof LocalContainerEntityManagerFactoryBean factory) {
+            String mode = environment.getProperty("hunty.persistence.batch-writing", "JDBC");
+            String size = environment.getProperty("hunty.persistence.batch-size", "100");
+            factory.getJpaPropertyMap().put(PersistenceUnitProperties.BATCH_WRITING, mode);
+            factory.getJpaPropertyMap().put(PersistenceUnitProperties.BATCH_WRITING_SIZE, size);
+            log.info("EclipseLink batch writing for '{}': {} x {}", beanName, mode, size);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.javaboys.huntyhr.config;
+
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import ru.javaboys.huntyhr.job.FullTextBackfillQuartzJob;
+
+@Configuration
+public class FullTextQuartzConfig {
+
+    // триггер ставит FullTextSearchService при старте узла
+    @Bean
+    public JobDetail fullTextBackfillJobDetail() {
+        return JobBuilder.newJob(FullTextBackfillQuartzJob.class)
+                .withIdentity(FullTextBackfillQuartzJob.JOB_KEY)
+                .storeDurably()
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package ru.javaboys.huntyhr.config;
+
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import ru.javaboys.huntyhr.job.IdentityFullPassQuartzJob;
+
+@Configuration
+public class IdentityQuartzConfig {
+
+    @Bean
+    public JobDetail identityFullPassJobDetail() {
+        return JobBuilder.newJob(IdentityFullPassQuartzJob.class)
+                .withIdentity(IdentityFullPassQuartzJob.JOB_KEY)
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger identityFullPassJobTrigger(JobDetail identityFullPassJobDetail,
+                                              @Value("${hunty.identity.full-pass-cron:0 0 3 * * ?}") String cron) {
+        return TriggerBuilder.newTrigger()
+                .forJob(identityFullPassJobDetail)
+                .withIdentity("identityFullPassTrigger", "hunty")
+                .withSchedule(CronScheduleBuilder.cronSchedule(cron)
+                        .withMisfireHandlingInstructionDoNothing())
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package ru.javaboys.huntyhr.config;
+
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import ru.javaboys.huntyhr.job.JavaBoysEmailSendingJob;
+import ru.javaboys.huntyhr.job.NotificationJob;
+
+/**
+ * Джобы напоминаний и отправки писем: в кластерном JDBC-хранилище Quartz каждое срабатывание выполняется
+ * ровно на одном узле.
+ */
+@Configuration
+public class NotificationQuartzConfig {
+
+    @Bean
+    public JobDetail interviewReminderJobDetail() {
+        return JobBuilder.newJob(NotificationJob.class)
+                .withIdentity(NotificationJob.JOB_KEY)
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger interviewReminderJobTrigger(JobDetail interviewReminderJobDetail,
+                                               @Value("${hunty.reminders.poll-seconds:300}") int pollSeconds) {
+        return TriggerBuilder.newTrigger()
+                .forJob(interviewReminderJobDetail)
+                .withIdentity("interviewReminderTrigger", "hunty")
+                .withSchedule(SimpleScheduleBuilder.repeatSecondlyForever(pollSeconds)
+                        .withMisfireHandlingInstructionNextWithRemainingCount())
+                .build();
+    }
+
+    @Bean
+    public JobDetail emailSendingJobDetail() {
+        return JobBuilder.newJob(JavaBoysEmailSendingJob.class)
+                .withIdentity(JavaBoysEmailSendingJob.JOB_KEY)
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger emailSendingJobTrigger(JobDetail emailSendingJobDetail,
+                                         @Value("${hunty.email-sending.poll-seconds:60}") int pollSeconds) {
+        return TriggerBuilder.newTrigger()
+                .forJob(emailSendingJobDetail)
+                .withIdentity("emailSendingTrigger", "hunty")
+                .withSchedule(SimpleScheduleBuilder.repeatSecondlyForever(pollSeconds)
+                        .withMisfireHandlingInstructionNextWithRemainingCount())
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package ru.javaboys.huntyhr.config;
+
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import ru.javaboys.huntyhr.job.RescoringQuartzJob;
+
+@Configuration
+public class RescoringQuartzConfig {
+
+    @Bean
+    public JobDetail rescoringJobDetail() {
+        return JobBuilder.newJob(RescoringQuartzJob.class)
+                .withIdentity(RescoringQuartzJob.JOB_KEY)
+                .storeDurably()
+                .build();
+    }
+
+    @Bean
+    public Trigger rescoringJobTrigger(JobDetail rescoringJobDetail,
+                                       @Value("${hunty.rescoring.poll-seconds:60}") int pollSeconds) {
+        return TriggerBuilder.newTrigger()
+                .forJob(rescoringJobDetail)
+                .withIdentity("rescoringTrigger", "hunty")
+                .withSchedule(SimpleScheduleBuilder.repeatSecondlyForever(pollSeconds)
+                        .withMisfireHandlingInstructionNextWithRemainingCount())
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package ru.javaboys.huntyhr.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Ответ LLM при пакетной оценке одного резюме против нескольких вакансий.
+ */
+@Data
+public class CandidateVacancyBatchDto {
+    private List<Item> items;
+
+    @Data
+    public static class Item {
+        private Integer index;  // номер вакансии в запросе
+        private Integer tech;   // 0..100
+        private Integer comm;   // 0..100
+        private Integer cases;  // 0..100
+        private String summary; // 1-2 предложения
+    }
+}
@@ -0,0 +1,26 @@
+package ru.javaboys.huntyhr.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Объединённый ответ LLM: баллы скоринга и отчёт по резюме за один запрос.
+ */
+@Data
+public class ScreeningResultDto {
+    private Integer tech;   // 0..100
+    private Integer comm;   // 0..100
+    private Integer cases;  // 0..100
+    private Integer total;  // игнорируем с точки зрения истины, считаем на бэке
+
+    private String overall;
+    private List<String> matches;
+    private List<String> redFlags;
+    private List<String> strengths;
+    private List<String> gaps;
+    private List<String> hardMatches;
+    private List<String> softMatches;
+    private List<String> risks;
+    private List<String> recommendations;
+}
@@ -14,6 +14,7 @@ import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @JmixEntity
@@ -68,6 +69,17 @@ public class ApplicationEntity {
     @ManyToOne(fetch = FetchType.LAZY)
     private VacancyPipelineStageEntity stage;
 
+    @Column(name = "SCORED_AT")
+    private LocalDateTime scoredAt;
+
+    public LocalDateTime getScoredAt() {
+        return scoredAt;
+    }
+
+    public void setScoredAt(LocalDateTime scoredAt) {
+        this.scoredAt = scoredAt;
+    }
+
     public String getScreeningSummaryHtml() {
         return screeningSummaryHtml;
     }
@@ -0,0 +1,66 @@
+package ru.javaboys.huntyhr.entity;
+
+import java.util.UUID;
+
+import io.jmix.core.DeletePolicy;
+import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.entity.annotation.OnDelete;
+import io.jmix.core.metamodel.annotation.JmixEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/**
+ * Ключ блокировки кандидата (фамилия+дата рождения, хвост телефона, триграмма фамилии и т.п.).
+ * Кандидаты сравниваются попарно только внутри общего ключа.
+ */
+@JmixEntity
+@Table(name = "CANDIDATE_BLOCKING_KEY_ENTITY", indexes = {
+        @Index(name = "IDX_CANDIDATE_BLOCKING_KEY_ENTITY_KEY", columnList = "BLOCKING_KEY"),
+        @Index(name = "IDX_CANDIDATE_BLOCKING_KEY_ENTITY_CANDIDATE", columnList = "CANDIDATE_ID")
+})
+@Entity
+public class CandidateBlockingKeyEntity {
+    @JmixGeneratedValue
+    @Column(name = "ID", nullable = false)
+    @Id
+    private UUID id;
+
+    @JoinColumn(name = "CANDIDATE_ID", nullable = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @OnDelete(DeletePolicy.CASCADE)
+    private CandidateEntity candidate;
+
+    @Column(name = "BLOCKING_KEY", nullable = false, length = 128)
+    private String blockingKey;
+
+    public String getBlockingKey() {
+        return blockingKey;
+    }
+
+    public void setBlockingKey(String blockingKey) {
+        this.blockingKey = blockingKey;
+    }
+
+    public CandidateEntity getCandidate() {
+        return candidate;
+    }
+
+    public void setCandidate(CandidateEntity candidate) {
+        this.candidate = candidate;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+}
@@ -0,0 +1,114 @@
+package ru.javaboys.huntyhr.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import io.jmix.core.DeletePolicy;
+import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.entity.annotation.OnDelete;
+import io.jmix.core.metamodel.annotation.JmixEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/**
+ * Кандидат на слияние: пара карточек, похожих на одного человека. Пара хранится упорядоченной
+ * ({@code candidateA.id < candidateB.id}), поэтому повторно не создаётся.
+ */
+@JmixEntity
+@Table(name = "CANDIDATE_DUPLICATE_ENTITY", indexes = {
+        @Index(name = "IDX_CANDIDATE_DUPLICATE_ENTITY_PAIR", columnList = "CANDIDATE_A_ID, CANDIDATE_B_ID", unique = true),
+        @Index(name = "IDX_CANDIDATE_DUPLICATE_ENTITY_CANDIDATE_B", columnList = "CANDIDATE_B_ID"),
+        @Index(name = "IDX_CANDIDATE_DUPLICATE_ENTITY_STATUS", columnList = "STATUS")
+})
+@Entity
+public class CandidateDuplicateEntity {
+    @JmixGeneratedValue
+    @Column(name = "ID", nullable = false)
+    @Id
+    private UUID id;
+
+    @JoinColumn(name = "CANDIDATE_A_ID", nullable = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @OnDelete(DeletePolicy.CASCADE)
+    private CandidateEntity candidateA;
+
+    @JoinColumn(name = "CANDIDATE_B_ID", nullable = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @OnDelete(DeletePolicy.CASCADE)
+    private CandidateEntity candidateB;
+
+    @Column(name = "SCORE")
+    private Double score;
+
+    @Column(name = "REASONS", length = 512)
+    private String reasons;
+
+    @Column(name = "STATUS")
+    private String status;
+
+    @Column(name = "DETECTED_AT")
+    private LocalDateTime detectedAt;
+
+    public LocalDateTime getDetectedAt() {
+        return detectedAt;
+    }
+
+    public void setDetectedAt(LocalDateTime detectedAt) {
+        this.detectedAt = detectedAt;
+    }
+
+    public DuplicateStatusEnum getStatus() {
+        return status == null ? null : DuplicateStatusEnum.fromId(status);
+    }
+
+    public void setStatus(DuplicateStatusEnum status) {
+        this.status = status == null ? null : status.getId();
+    }
+
+    public String getReasons() {
+        return reasons;
+    }
+
+    public void setReasons(String reasons) {
+        this.reasons = reasons;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+
+    public CandidateEntity getCandidateB() {
+        return candidateB;
+    }
+
+    public void setCandidateB(CandidateEntity candidateB) {
+        this.candidateB = candidateB;
+    }
+
+    public CandidateEntity getCandidateA() {
+        return candidateA;
+    }
+
+    public void setCandidateA(CandidateEntity candidateA) {
+        this.candidateA = candidateA;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+}
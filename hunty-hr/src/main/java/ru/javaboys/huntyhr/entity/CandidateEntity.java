@@ -9,10 +9,15 @@ import io.jmix.core.metamodel.annotation.JmixEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @JmixEntity
-@Table(name = "CANDIDATE_ENTITY")
+@Table(name = "CANDIDATE_ENTITY", indexes = {
+        @Index(name = "IDX_CANDIDATE_ENTITY_EMAIL_NORM", columnList = "EMAIL_NORM"),
+        @Index(name = "IDX_CANDIDATE_ENTITY_PHONE_NORM", columnList = "PHONE_NORM"),
+        @Index(name = "IDX_CANDIDATE_ENTITY_TELEGRAM_NORM", columnList = "TELEGRAM_NORM")
+})
 @Entity
 public class CandidateEntity {
     @JmixGeneratedValue
@@ -48,6 +53,40 @@ public class CandidateEntity {
     @Column(name = "TELEGRAM_CHAT_ID")
     private Long telegramChatId;
 
+    // нормализованные ключи для поиска дублей, заполняются при сохранении (CandidateIdentityService)
+    @Column(name = "EMAIL_NORM")
+    private String emailNorm;
+
+    @Column(name = "PHONE_NORM", length = 32)
+    private String phoneNorm;
+
+    @Column(name = "TELEGRAM_NORM")
+    private String telegramNorm;
+
+    public String getTelegramNorm() {
+        return telegramNorm;
+    }
+
+    public void setTelegramNorm(String telegramNorm) {
+        this.telegramNorm = telegramNorm;
+    }
+
+    public String getPhoneNorm() {
+        return phoneNorm;
+    }
+
+    public void setPhoneNorm(String phoneNorm) {
+        this.phoneNorm = phoneNorm;
+    }
+
+    public String getEmailNorm() {
+        return emailNorm;
+    }
+
+    public void setEmailNorm(String emailNorm) {
+        this.emailNorm = emailNorm;
+    }
+
     public void setTelegramChatId(Long telegramChatId) {
         this.telegramChatId = telegramChatId;
     }
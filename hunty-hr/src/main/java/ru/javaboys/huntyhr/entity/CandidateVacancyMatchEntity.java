@@ -0,0 +1,171 @@
+package ru.javaboys.huntyhr.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import io.jmix.core.DeletePolicy;
+import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.entity.annotation.OnDelete;
+import io.jmix.core.metamodel.annotation.JmixEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Lob;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/**
+ * Оценка кандидата относительно вакансии, на которую он не откликался.
+ * Актуальна, пока не изменились версия резюме ({@code resumeVersionId}) и текст вакансии ({@code vacancyHash}).
+ */
+@JmixEntity
+@Table(name = "CANDIDATE_VACANCY_MATCH_ENTITY", indexes = {
+        @Index(name = "IDX_CANDIDATE_VACANCY_MATCH_ENTITY_CANDIDATE", columnList = "CANDIDATE_ID"),
+        @Index(name = "IDX_CANDIDATE_VACANCY_MATCH_ENTITY_VACANCY", columnList = "VACANCY_ID"),
+        @Index(name = "IDX_CANDIDATE_VACANCY_MATCH_ENTITY_RESUME", columnList = "RESUME_VERSION_ID, VACANCY_ID")
+})
+@Entity
+public class CandidateVacancyMatchEntity {
+    @JmixGeneratedValue
+    @Column(name = "ID", nullable = false)
+    @Id
+    private UUID id;
+
+    @JoinColumn(name = "CANDIDATE_ID")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(DeletePolicy.CASCADE)
+    private CandidateEntity candidate;
+
+    @JoinColumn(name = "VACANCY_ID")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(DeletePolicy.CASCADE)
+    private VacancyEntity vacancy;
+
+    @Column(name = "RESUME_VERSION_ID")
+    private UUID resumeVersionId;
+
+    @Column(name = "VACANCY_HASH", length = 64)
+    private String vacancyHash;
+
+    @Column(name = "SIMILARITY")
+    private Double similarity;
+
+    @Column(name = "TECH_SCORE")
+    private Long techScore;
+
+    @Column(name = "COMM_SCORE")
+    private Long commScore;
+
+    @Column(name = "CASES_SCORE")
+    private Long casesScore;
+
+    @Column(name = "TOTAL_SCORE")
+    private Long totalScore;
+
+    @Column(name = "SUMMARY")
+    @Lob
+    private String summary;
+
+    @Column(name = "CREATED_AT")
+    private LocalDateTime createdAt;
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+
+    public Long getTotalScore() {
+        return totalScore;
+    }
+
+    public void setTotalScore(Long totalScore) {
+        this.totalScore = totalScore;
+    }
+
+    public Long getCasesScore() {
+        return casesScore;
+    }
+
+    public void setCasesScore(Long casesScore) {
+        this.casesScore = casesScore;
+    }
+
+    public Long getCommScore() {
+        return commScore;
+    }
+
+    public void setCommScore(Long commScore) {
+        this.commScore = commScore;
+    }
+
+    public Long getTechScore() {
+        return techScore;
+    }
+
+    public void setTechScore(Long techScore) {
+        this.techScore = techScore;
+    }
+
+    public Double getSimilarity() {
+        return similarity;
+    }
+
+    public void setSimilarity(Double similarity) {
+        this.similarity = similarity;
+    }
+
+    public String getVacancyHash() {
+        return vacancyHash;
+    }
+
+    public void setVacancyHash(String vacancyHash) {
+        this.vacancyHash = vacancyHash;
+    }
+
+    public UUID getResumeVersionId() {
+        return resumeVersionId;
+    }
+
+    public void setResumeVersionId(UUID resumeVersionId) {
+        this.resumeVersionId = resumeVersionId;
+    }
+
+    public VacancyEntity getVacancy() {
+        return vacancy;
+    }
+
+    public void setVacancy(VacancyEntity vacancy) {
+        this.vacancy = vacancy;
+    }
+
+    public CandidateEntity getCandidate() {
+        return candidate;
+    }
+
+    public void setCandidate(CandidateEntity candidate) {
+        this.candidate = candidate;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+}
@@ -8,11 +8,14 @@ import io.jmix.core.metamodel.annotation.JmixEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Lob;
 import jakarta.persistence.Table;
 
 @JmixEntity
-@Table(name = "COMPANY_ENTITY")
+@Table(name = "COMPANY_ENTITY", indexes = {
+        @Index(name = "IDX_COMPANY_ENTITY_NORMALIZED_NAME", columnList = "NORMALIZED_NAME")
+})
 @Entity
 public class CompanyEntity {
     @JmixGeneratedValue
@@ -25,6 +28,31 @@ public class CompanyEntity {
     @Lob
     private String name;
 
+    // ключ поиска: нижний регистр, без пунктуации и орг.-правовой формы (CompanyDirectoryService.normalize)
+    @Column(name = "NORMALIZED_NAME")
+    private String normalizedName;
+
+    // другие написания названия, по одному на строку или через запятую
+    @Column(name = "ALIASES")
+    @Lob
+    private String aliases;
+
+    public String getAliases() {
+        return aliases;
+    }
+
+    public void setAliases(String aliases) {
+        this.aliases = aliases;
+    }
+
+    public String getNormalizedName() {
+        return normalizedName;
+    }
+
+    public void setNormalizedName(String normalizedName) {
+        this.normalizedName = normalizedName;
+    }
+
     public String getName() {
         return name;
     }
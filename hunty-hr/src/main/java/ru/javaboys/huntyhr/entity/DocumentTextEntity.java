@@ -0,0 +1,83 @@
+package ru.javaboys.huntyhr.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.metamodel.annotation.JmixEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+/**
+ * Извлечённый Tika текст документа, адресуемый SHA-256 содержимого файла.
+ */
+@JmixEntity
+@Table(name = "DOCUMENT_TEXT_ENTITY", indexes = {
+        @Index(name = "IDX_DOCUMENT_TEXT_ENTITY_HASH", columnList = "CONTENT_HASH", unique = true),
+        @Index(name = "IDX_DOCUMENT_TEXT_ENTITY_FILE_REF", columnList = "FILE_REF")
+})
+@Entity
+public class DocumentTextEntity {
+    @JmixGeneratedValue
+    @Column(name = "ID", nullable = false)
+    @Id
+    private UUID id;
+
+    @Column(name = "CONTENT_HASH", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "FILE_REF", length = 1024)
+    private String fileRef;
+
+    @Column(name = "TEXT")
+    @Lob
+    private String text;
+
+    @Column(name = "CREATED_AT")
+    private LocalDateTime createdAt;
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getFileRef() {
+        return fileRef;
+    }
+
+    public void setFileRef(String fileRef) {
+        this.fileRef = fileRef;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+}
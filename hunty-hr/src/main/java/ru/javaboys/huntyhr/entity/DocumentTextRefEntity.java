@@ -0,0 +1,70 @@
+package ru.javaboys.huntyhr.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.metamodel.annotation.JmixEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Дополнительная ссылка на файл с уже извлечённым текстом: тот же документ, загруженный повторно под другим
+ * {@link io.jmix.core.FileRef}. Текст хранится один раз в {@link DocumentTextEntity}.
+ */
+@JmixEntity
+@Table(name = "DOCUMENT_TEXT_REF_ENTITY", indexes = {
+        @Index(name = "IDX_DOCUMENT_TEXT_REF_ENTITY_FILE_REF", columnList = "FILE_REF", unique = true)
+})
+@Entity
+public class DocumentTextRefEntity {
+    @JmixGeneratedValue
+    @Column(name = "ID", nullable = false)
+    @Id
+    private UUID id;
+
+    @Column(name = "FILE_REF", nullable = false, length = 1024)
+    private String fileRef;
+
+    @Column(name = "CONTENT_HASH", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "CREATED_AT")
+    private LocalDateTime createdAt;
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getFileRef() {
+        return fileRef;
+    }
+
+    public void setFileRef(String fileRef) {
+        this.fileRef = fileRef;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+}
@@ -0,0 +1,33 @@
+package ru.javaboys.huntyhr.entity;
+
+import io.jmix.core.metamodel.datatype.EnumClass;
+
+import org.springframework.lang.Nullable;
+
+
+public enum DuplicateStatusEnum implements EnumClass<String> {
+
+    NEW("NEW"),
+    DISMISSED("DISMISSED"),
+    MERGED("MERGED");
+
+    private final String id;
+
+    DuplicateStatusEnum(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @Nullable
+    public static DuplicateStatusEnum fromId(String id) {
+        for (DuplicateStatusEnum at : DuplicateStatusEnum.values()) {
+            if (at.getId().equals(id)) {
+                return at;
+            }
+        }
+        return null;
+    }
+}
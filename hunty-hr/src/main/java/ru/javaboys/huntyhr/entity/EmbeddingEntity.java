@@ -0,0 +1,117 @@
+package ru.javaboys.huntyhr.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.metamodel.annotation.JmixEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+/**
+ * Вектор (embedding) последнего резюме кандидата или текста вакансии.
+ * Хранится нормированным float32 little-endian; одна запись на владельца.
+ */
+@JmixEntity
+@Table(name = "EMBEDDING_ENTITY", indexes = {
+        @Index(name = "IDX_EMBEDDING_ENTITY_OWNER", columnList = "OWNER_TYPE, OWNER_ID", unique = true)
+})
+@Entity
+public class EmbeddingEntity {
+    @JmixGeneratedValue
+    @Column(name = "ID", nullable = false)
+    @Id
+    private UUID id;
+
+    @Column(name = "OWNER_TYPE", nullable = false)
+    private String ownerType;
+
+    @Column(name = "OWNER_ID", nullable = false)
+    private UUID ownerId;
+
+    // версия резюме или сама вакансия, из текста которых построен вектор
+    @Column(name = "SOURCE_ID")
+    private UUID sourceId;
+
+    @Column(name = "CONTENT_HASH", length = 64)
+    private String contentHash;
+
+    @Column(name = "MODEL")
+    private String model;
+
+    @Column(name = "VECTOR")
+    @Lob
+    private byte[] vector;
+
+    @Column(name = "UPDATED_AT")
+    private LocalDateTime updatedAt;
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public byte[] getVector() {
+        return vector;
+    }
+
+    public void setVector(byte[] vector) {
+        this.vector = vector;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public UUID getSourceId() {
+        return sourceId;
+    }
+
+    public void setSourceId(UUID sourceId) {
+        this.sourceId = sourceId;
+    }
+
+    public UUID getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(UUID ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public EmbeddingOwnerTypeEnum getOwnerType() {
+        return ownerType == null ? null : EmbeddingOwnerTypeEnum.fromId(ownerType);
+    }
+
+    public void setOwnerType(EmbeddingOwnerTypeEnum ownerType) {
+        this.ownerType = ownerType == null ? null : ownerType.getId();
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+}
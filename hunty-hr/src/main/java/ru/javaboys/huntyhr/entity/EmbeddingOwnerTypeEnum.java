@@ -0,0 +1,32 @@
+package ru.javaboys.huntyhr.entity;
+
+import io.jmix.core.metamodel.datatype.EnumClass;
+
+import org.springframework.lang.Nullable;
+
+
+public enum EmbeddingOwnerTypeEnum implements EnumClass<String> {
+
+    CANDIDATE("CANDIDATE"),
+    VACANCY("VACANCY");
+
+    private final String id;
+
+    EmbeddingOwnerTypeEnum(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @Nullable
+    public static EmbeddingOwnerTypeEnum fromId(String id) {
+        for (EmbeddingOwnerTypeEnum at : EmbeddingOwnerTypeEnum.values()) {
+            if (at.getId().equals(id)) {
+                return at;
+            }
+        }
+        return null;
+    }
+}
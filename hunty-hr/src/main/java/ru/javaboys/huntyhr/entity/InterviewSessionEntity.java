@@ -21,7 +21,8 @@ import java.util.UUID;
         @Index(name = "IDX_INTERVIEW_SESSION_ENTITY_SCENARIO", columnList = "SCENARIO_ID"),
         @Index(name = "IDX_INTERVIEW_SESSION_ENTITY_TRANSCRIPTION", columnList = "TRANSCRIPTION_ID"),
         @Index(name = "IDX_INTERVIEW_SESSION_ENTITY_ANALYTICS", columnList = "ANALYTICS_ID"),
-        @Index(name = "IDX_INTERVIEW_SESSION_ENTITY_VIDEO_SOURCE", columnList = "VIDEO_SOURCE_ID")
+        @Index(name = "IDX_INTERVIEW_SESSION_ENTITY_VIDEO_SOURCE", columnList = "VIDEO_SOURCE_ID"),
+        @Index(name = "IDX_INTERVIEW_SESSION_ENTITY_SCHEDULED_START", columnList = "SCHEDULED_START_AT")
 })
 @Entity
 public class InterviewSessionEntity {
@@ -72,6 +73,18 @@ public class InterviewSessionEntity {
         this.notificationSent = notification_sent;
     }
 
+    // смещение (минут до начала) последнего отправленного напоминания; null — ещё не отправлялись
+    @Column(name = "LAST_REMINDER_OFFSET")
+    private Integer lastReminderOffset;
+
+    public Integer getLastReminderOffset() {
+        return lastReminderOffset;
+    }
+
+    public void setLastReminderOffset(Integer lastReminderOffset) {
+        this.lastReminderOffset = lastReminderOffset;
+    }
+
     @JoinColumn(name = "VIDEO_SOURCE_ID")
     @OneToOne(fetch = FetchType.LAZY)
     private StorageObjectEntity video_source;
@@ -0,0 +1,105 @@
+package ru.javaboys.huntyhr.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.metamodel.annotation.JmixEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+/**
+ * Сохранённый структурированный ответ LLM. Ключ — SHA-256 от (модель, температура, system, user, целевой класс).
+ */
+@JmixEntity
+@Table(name = "LLM_RESPONSE_CACHE_ENTITY", indexes = {
+        @Index(name = "IDX_LLM_RESPONSE_CACHE_ENTITY_KEY", columnList = "CACHE_KEY", unique = true),
+        @Index(name = "IDX_LLM_RESPONSE_CACHE_ENTITY_EXPIRES", columnList = "EXPIRES_AT")
+})
+@Entity
+public class LlmResponseCacheEntity {
+    @JmixGeneratedValue
+    @Column(name = "ID", nullable = false)
+    @Id
+    private UUID id;
+
+    @Column(name = "CACHE_KEY", nullable = false, length = 64)
+    private String cacheKey;
+
+    @Column(name = "MODEL")
+    private String model;
+
+    @Column(name = "TARGET_CLASS")
+    private String targetClass;
+
+    @Column(name = "RESPONSE_JSON")
+    @Lob
+    private String responseJson;
+
+    @Column(name = "CREATED_AT")
+    private LocalDateTime createdAt;
+
+    @Column(name = "EXPIRES_AT")
+    private LocalDateTime expiresAt;
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getResponseJson() {
+        return responseJson;
+    }
+
+    public void setResponseJson(String responseJson) {
+        this.responseJson = responseJson;
+    }
+
+    public String getTargetClass() {
+        return targetClass;
+    }
+
+    public void setTargetClass(String targetClass) {
+        this.targetClass = targetClass;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    public void setCacheKey(String cacheKey) {
+        this.cacheKey = cacheKey;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+}
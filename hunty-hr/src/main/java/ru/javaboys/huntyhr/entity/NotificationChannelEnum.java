@@ -0,0 +1,32 @@
+package ru.javaboys.huntyhr.entity;
+
+import io.jmix.core.metamodel.datatype.EnumClass;
+
+import org.springframework.lang.Nullable;
+
+
+public enum NotificationChannelEnum implements EnumClass<String> {
+
+    TELEGRAM("TELEGRAM"),
+    EMAIL("EMAIL");
+
+    private final String id;
+
+    NotificationChannelEnum(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @Nullable
+    public static NotificationChannelEnum fromId(String id) {
+        for (NotificationChannelEnum at : NotificationChannelEnum.values()) {
+            if (at.getId().equals(id)) {
+                return at;
+            }
+        }
+        return null;
+    }
+}
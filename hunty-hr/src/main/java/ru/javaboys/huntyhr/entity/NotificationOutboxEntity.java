@@ -0,0 +1,200 @@
+package ru.javaboys.huntyhr.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.metamodel.annotation.JmixEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+/**
+ * Исходящее уведомление (transactional outbox): пишется в одной транзакции с изменением, которое его
+ * порождает, отправляется фоновым обработчиком с повторами.
+ */
+@JmixEntity
+@Table(name = "NOTIFICATION_OUTBOX_ENTITY", indexes = {
+        @Index(name = "IDX_NOTIFICATION_OUTBOX_ENTITY_DUE", columnList = "CHANNEL, STATUS, NEXT_ATTEMPT_AT"),
+        @Index(name = "IDX_NOTIFICATION_OUTBOX_ENTITY_SESSION", columnList = "INTERVIEW_SESSION_ID")
+})
+@Entity
+public class NotificationOutboxEntity {
+    @JmixGeneratedValue
+    @Column(name = "ID", nullable = false)
+    @Id
+    private UUID id;
+
+    @Column(name = "CHANNEL", nullable = false)
+    private String channel;
+
+    @Column(name = "STATUS", nullable = false)
+    private String status;
+
+    // chat id для Telegram, адрес для email
+    @Column(name = "RECIPIENT", nullable = false)
+    private String recipient;
+
+    @Column(name = "SUBJECT")
+    private String subject;
+
+    // готовый текст сообщения
+    @Column(name = "PAYLOAD")
+    @Lob
+    private String payload;
+
+    // без FK: запись очереди переживает удаление сессии
+    @Column(name = "INTERVIEW_SESSION_ID")
+    private UUID interviewSessionId;
+
+    @Column(name = "ATTEMPTS", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "NEXT_ATTEMPT_AT", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // аренда обработчика; просроченная — запись снова доступна для захвата
+    @Column(name = "LOCKED_UNTIL")
+    private LocalDateTime lockedUntil;
+
+    // узел, захвативший запись
+    @Column(name = "LOCKED_BY", length = 64)
+    private String lockedBy;
+
+    // после этого момента сообщение не отправляется (напоминание о прошедшей встрече)
+    @Column(name = "EXPIRES_AT")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "LAST_ERROR", length = 1024)
+    private String lastError;
+
+    @Column(name = "CREATED_AT")
+    private LocalDateTime createdAt;
+
+    @Column(name = "SENT_AT")
+    private LocalDateTime sentAt;
+
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(LocalDateTime sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(LocalDateTime lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    public String getLockedBy() {
+        return lockedBy;
+    }
+
+    public void setLockedBy(String lockedBy) {
+        this.lockedBy = lockedBy;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public UUID getInterviewSessionId() {
+        return interviewSessionId;
+    }
+
+    public void setInterviewSessionId(UUID interviewSessionId) {
+        this.interviewSessionId = interviewSessionId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public NotificationStatusEnum getStatus() {
+        return status == null ? null : NotificationStatusEnum.fromId(status);
+    }
+
+    public void setStatus(NotificationStatusEnum status) {
+        this.status = status == null ? null : status.getId();
+    }
+
+    public NotificationChannelEnum getChannel() {
+        return channel == null ? null : NotificationChannelEnum.fromId(channel);
+    }
+
+    public void setChannel(NotificationChannelEnum channel) {
+        this.channel = channel == null ? null : channel.getId();
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+}
@@ -0,0 +1,35 @@
+package ru.javaboys.huntyhr.entity;
+
+import io.jmix.core.metamodel.datatype.EnumClass;
+
+import org.springframework.lang.Nullable;
+
+
+public enum NotificationStatusEnum implements EnumClass<String> {
+
+    PENDING("PENDING"),
+    PROCESSING("PROCESSING"),
+    SENT("SENT"),
+    FAILED("FAILED"),
+    EXPIRED("EXPIRED");
+
+    private final String id;
+
+    NotificationStatusEnum(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @Nullable
+    public static NotificationStatusEnum fromId(String id) {
+        for (NotificationStatusEnum at : NotificationStatusEnum.values()) {
+            if (at.getId().equals(id)) {
+                return at;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,157 @@
+package ru.javaboys.huntyhr.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import io.jmix.core.DeletePolicy;
+import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.entity.annotation.OnDelete;
+import io.jmix.core.metamodel.annotation.JmixEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Lob;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/**
+ * Пересчёт скоринга всех заявок вакансии. Заявки с {@code scoredAt >= startedAt} считаются уже пересчитанными,
+ * поэтому после перезапуска приложения прогон продолжается с того же места.
+ */
+@JmixEntity
+@Table(name = "RESCORING_RUN_ENTITY", indexes = {
+        @Index(name = "IDX_RESCORING_RUN_ENTITY_VACANCY", columnList = "VACANCY_ID"),
+        @Index(name = "IDX_RESCORING_RUN_ENTITY_STATUS", columnList = "STATUS")
+})
+@Entity
+public class RescoringRunEntity {
+    @JmixGeneratedValue
+    @Column(name = "ID", nullable = false)
+    @Id
+    private UUID id;
+
+    @JoinColumn(name = "VACANCY_ID")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(DeletePolicy.CASCADE)
+    private VacancyEntity vacancy;
+
+    @Column(name = "STATUS")
+    private String status;
+
+    @Column(name = "TOTAL")
+    private Integer total;
+
+    @Column(name = "PROCESSED")
+    private Integer processed;
+
+    @Column(name = "FAILED")
+    private Integer failed;
+
+    @Column(name = "STARTED_AT")
+    private LocalDateTime startedAt;
+
+    @Column(name = "RESUMED_AT")
+    private LocalDateTime resumedAt;
+
+    @Column(name = "PROCESSED_BEFORE_RESUME")
+    private Integer processedBeforeResume;
+
+    @Column(name = "FINISHED_AT")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "LAST_ERROR")
+    @Lob
+    private String lastError;
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public Integer getProcessedBeforeResume() {
+        return processedBeforeResume;
+    }
+
+    public void setProcessedBeforeResume(Integer processedBeforeResume) {
+        this.processedBeforeResume = processedBeforeResume;
+    }
+
+    public LocalDateTime getResumedAt() {
+        return resumedAt;
+    }
+
+    public void setResumedAt(LocalDateTime resumedAt) {
+        this.resumedAt = resumedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Integer getFailed() {
+        return failed;
+    }
+
+    public void setFailed(Integer failed) {
+        this.failed = failed;
+    }
+
+    public Integer getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(Integer processed) {
+        this.processed = processed;
+    }
+
+    public Integer getTotal() {
+        return total;
+    }
+
+    public void setTotal(Integer total) {
+        this.total = total;
+    }
+
+    public RescoringStatusEnum getStatus() {
+        return status == null ? null : RescoringStatusEnum.fromId(status);
+    }
+
+    public void setStatus(RescoringStatusEnum status) {
+        this.status = status == null ? null : status.getId();
+    }
+
+    public VacancyEntity getVacancy() {
+        return vacancy;
+    }
+
+    public void setVacancy(VacancyEntity vacancy) {
+        this.vacancy = vacancy;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+}
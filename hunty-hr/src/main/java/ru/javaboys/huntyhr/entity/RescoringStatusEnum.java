@@ -0,0 +1,34 @@
+package ru.javaboys.huntyhr.entity;
+
+import io.jmix.core.metamodel.datatype.EnumClass;
+
+import org.springframework.lang.Nullable;
+
+
+public enum RescoringStatusEnum implements EnumClass<String> {
+
+    QUEUED("QUEUED"),
+    RUNNING("RUNNING"),
+    DONE("DONE"),
+    FAILED("FAILED");
+
+    private final String id;
+
+    RescoringStatusEnum(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @Nullable
+    public static RescoringStatusEnum fromId(String id) {
+        for (RescoringStatusEnum at : RescoringStatusEnum.values()) {
+            if (at.getId().equals(id)) {
+                return at;
+            }
+        }
+        return null;
+    }
+}
@@ -16,7 +16,8 @@ import jakarta.persistence.Table;
 
 @JmixEntity
 @Table(name = "RESUME_SKILL_ENTITY", indexes = {
-        @Index(name = "IDX_RESUME_SKILL_ENTITY_RESUME_VERSION_ENTITY", columnList = "RESUME_VERSION_ENTITY_ID")
+        @Index(name = "IDX_RESUME_SKILL_ENTITY_RESUME_VERSION_ENTITY", columnList = "RESUME_VERSION_ENTITY_ID"),
+        @Index(name = "IDX_RESUME_SKILL_ENTITY_SKILL", columnList = "SKILL_ID")
 })
 @Entity
 public class ResumeSkillEntity {
@@ -33,6 +34,19 @@ public class ResumeSkillEntity {
     @ManyToOne(fetch = FetchType.LAZY)
     private ResumeVersionEntity resumeVersionEntity;
 
+    // навык из справочника; NAME остаётся написанием из резюме
+    @JoinColumn(name = "SKILL_ID")
+    @ManyToOne(fetch = FetchType.LAZY)
+    private SkillEntity skill;
+
+    public SkillEntity getSkill() {
+        return skill;
+    }
+
+    public void setSkill(SkillEntity skill) {
+        this.skill = skill;
+    }
+
     public ResumeVersionEntity getResumeVersionEntity() {
         return resumeVersionEntity;
     }
@@ -0,0 +1,106 @@
+package ru.javaboys.huntyhr.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.metamodel.annotation.JmixEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+/**
+ * Текст последнего резюме кандидата или вакансии для полнотекстового поиска.
+ * Колонка {@code TSV} (tsvector, GIN-индекс) вычисляется базой из {@code CONTENT} и в модели не описана.
+ */
+@JmixEntity
+@Table(name = "SEARCH_DOCUMENT_ENTITY", indexes = {
+        @Index(name = "IDX_SEARCH_DOCUMENT_ENTITY_OWNER", columnList = "OWNER_TYPE, OWNER_ID", unique = true)
+})
+@Entity
+public class SearchDocumentEntity {
+    @JmixGeneratedValue
+    @Column(name = "ID", nullable = false)
+    @Id
+    private UUID id;
+
+    @Column(name = "OWNER_TYPE", nullable = false)
+    private String ownerType;
+
+    @Column(name = "OWNER_ID", nullable = false)
+    private UUID ownerId;
+
+    // версия резюме или сама вакансия, из которых взят текст
+    @Column(name = "SOURCE_ID")
+    private UUID sourceId;
+
+    @Column(name = "CONTENT_HASH", length = 64)
+    private String contentHash;
+
+    @Column(name = "CONTENT")
+    @Lob
+    private String content;
+
+    @Column(name = "UPDATED_AT")
+    private LocalDateTime updatedAt;
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public UUID getSourceId() {
+        return sourceId;
+    }
+
+    public void setSourceId(UUID sourceId) {
+        this.sourceId = sourceId;
+    }
+
+    public UUID getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(UUID ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public SearchDocumentOwnerTypeEnum getOwnerType() {
+        return ownerType == null ? null : SearchDocumentOwnerTypeEnum.fromId(ownerType);
+    }
+
+    public void setOwnerType(SearchDocumentOwnerTypeEnum ownerType) {
+        this.ownerType = ownerType == null ? null : ownerType.getId();
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+}
@@ -0,0 +1,71 @@
+package ru.javaboys.huntyhr.entity;
+
+import io.jmix.core.entity.annotation.JmixGeneratedValue;
+import io.jmix.core.metamodel.annotation.InstanceName;
+import io.jmix.core.metamodel.annotation.JmixEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+/**
+ * Навык из справочника. Целочисленный id — номер бита в битовых множествах навыков резюме.
+ */
+@JmixEntity
+@Table(name = "SKILL_ENTITY", indexes = {
+        @Index(name = "IDX_SKILL_ENTITY_NORMALIZED_NAME", columnList = "NORMALIZED_NAME", unique = true)
+})
+@Entity
+public class SkillEntity {
+    @JmixGeneratedValue
+    @Column(name = "ID", nullable = false)
+    @Id
+    private Integer id;
+
+    @InstanceName
+    @Column(name = "NAME", nullable = false)
+    private String name;
+
+    @Column(name = "NORMALIZED_NAME", nullable = false)
+    private String normalizedName;
+
+    // синонимы через запятую или по одному на строку: «Postgres, psql» для PostgreSQL
+    @Column(name = "SYNONYMS")
+    @Lob
+    private String synonyms;
+
+    public String getSynonyms() {
+        return synonyms;
+    }
+
+    public void setSynonyms(String synonyms) {
+        this.synonyms = synonyms;
+    }
+
+    public String getNormalizedName() {
+        return normalizedName;
+    }
+
+    public void setNormalizedName(String normalizedName) {
+        this.normalizedName = normalizedName;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+}
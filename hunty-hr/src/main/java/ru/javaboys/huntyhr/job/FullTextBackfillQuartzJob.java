@@ -0,0 +1,34 @@
+package ru.javaboys.huntyhr.job;
+
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.quartz.TriggerKey;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import io.jmix.core.security.SystemAuthenticator;
+import ru.javaboys.huntyhr.service.impl.FullTextSearchService;
+
+/**
+ * Догрузка полнотекстового индекса резюме и вакансий без документа. Ставится одноразовым триггером при
+ * старте узла; в кластере выполняется на одном узле, повторный запуск находит только новые пропуски.
+ */
+@DisallowConcurrentExecution
+public class FullTextBackfillQuartzJob implements Job {
+
+    public static final JobKey JOB_KEY = JobKey.jobKey("fullTextBackfillJob", "hunty");
+    public static final TriggerKey TRIGGER_KEY = TriggerKey.triggerKey("fullTextBackfillTrigger", "hunty");
+
+    @Autowired
+    private FullTextSearchService fullTextSearchService;
+
+    @Autowired
+    private SystemAuthenticator authenticator;
+
+    @Override
+    public void execute(JobExecutionContext context) {
+        authenticator.runWithSystem(fullTextSearchService::backfill);
+    }
+
+}
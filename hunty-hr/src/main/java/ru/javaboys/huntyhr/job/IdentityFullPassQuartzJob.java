@@ -0,0 +1,32 @@
+package ru.javaboys.huntyhr.job;
+
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import io.jmix.core.security.SystemAuthenticator;
+import ru.javaboys.huntyhr.service.impl.CandidateIdentityResolutionService;
+
+/**
+ * Полный проход поиска дублей кандидатов. Запускается ночью по расписанию и вручную из списка дублей;
+ * в кластере одновременно выполняется не больше одного прохода.
+ */
+@DisallowConcurrentExecution
+public class IdentityFullPassQuartzJob implements Job {
+
+    public static final JobKey JOB_KEY = JobKey.jobKey("identityFullPassJob", "hunty");
+
+    @Autowired
+    private CandidateIdentityResolutionService identityResolutionService;
+
+    @Autowired
+    private SystemAuthenticator authenticator;
+
+    @Override
+    public void execute(JobExecutionContext context) {
+        authenticator.runWithSystem(identityResolutionService::runFullPass);
+    }
+
+}
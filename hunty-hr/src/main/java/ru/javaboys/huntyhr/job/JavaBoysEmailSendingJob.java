@@ -1,20 +1,27 @@
 package ru.javaboys.huntyhr.job;
 
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.stereotype.Service;
 
 import io.jmix.email.Emailer;
 
-@Service
-public class JavaBoysEmailSendingJob {
+/**
+ * Отправляет очередь писем Jmix Email. Кластерный Quartz не даёт двум узлам разбирать очередь одновременно.
+ */
+@DisallowConcurrentExecution
+public class JavaBoysEmailSendingJob implements Job {
+
+    public static final JobKey JOB_KEY = JobKey.jobKey("emailSendingJob", "hunty");
 
     @Autowired
     private Emailer emailer;
 
-    @Scheduled(fixedRate = 60 * 1000)
-    public void execute() {
+    @Override
+    public void execute(JobExecutionContext context) {
         emailer.processQueuedEmails();
     }
 
-}
\ No newline at end of file
+}
@@ -1,49 +1,32 @@
 package ru.javaboys.huntyhr.job;
 
-import java.time.LocalDateTime;
-import java.util.List;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.springframework.beans.factory.annotation.Autowired;
 
-import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.stereotype.Service;
-
-import io.jmix.core.DataManager;
 import io.jmix.core.security.SystemAuthenticator;
-import lombok.RequiredArgsConstructor;
-import ru.javaboys.huntyhr.entity.InterviewSessionEntity;
-import ru.javaboys.huntyhr.service.impl.MailService;
-import ru.javaboys.huntyhr.service.impl.TelegramBotService;
-
-@Service
-@RequiredArgsConstructor
-public class NotificationJob {
-    private final TelegramBotService telegramBotService;
-    private final SystemAuthenticator authenticator;
-    private final DataManager dataManager;
-    private final MailService mailService;
-
-    @Scheduled(fixedRate = 60 * 1000)
-    public void telegram() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime from = now.plusMinutes(10);
-        LocalDateTime to = now.plusMinutes(20);
-
-        authenticator.runWithSystem(() -> {
-
-            List<InterviewSessionEntity> entities = dataManager.load(InterviewSessionEntity.class)
-                    .query("select s from InterviewSessionEntity s where s.scheduledStartAt between :from and :to and s.notificationSent <> true")
-                    .parameter("from", from)
-                    .parameter("to", to)
-                    .list();
-
-            for (InterviewSessionEntity entity : entities) {
-                telegramBotService.sendInterviewNotification(entity);
-                mailService.sendInterviewNotification(entity);
-
-                entity.setNotificationSent(true);
-                dataManager.save(entity);
-            }
-
-        });
+import ru.javaboys.huntyhr.service.impl.InterviewReminderScheduler;
+
+/**
+ * Страховочный обход напоминаний: досылает те, что не сработали по таймеру {@link InterviewReminderScheduler}
+ * (перезапуск узла, встреча назначена на другом узле). Кластерный Quartz запускает джобу на одном узле за раз.
+ */
+@DisallowConcurrentExecution
+public class NotificationJob implements Job {
+
+    public static final JobKey JOB_KEY = JobKey.jobKey("interviewReminderJob", "hunty");
+
+    @Autowired
+    private SystemAuthenticator authenticator;
+
+    @Autowired
+    private InterviewReminderScheduler interviewReminderScheduler;
+
+    @Override
+    public void execute(JobExecutionContext context) {
+        authenticator.runWithSystem(interviewReminderScheduler::reconcile);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package ru.javaboys.huntyhr.job;
+
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import io.jmix.core.security.SystemAuthenticator;
+import ru.javaboys.huntyhr.service.impl.RescoringService;
+
+/**
+ * Раздаёт ожидающие и прерванные прогоны пересчёта скоринга по джобам вакансий
+ * ({@link RescoringVacancyQuartzJob}). Запускается по расписанию; новый прогон из UI запускает джобу своей
+ * вакансии сразу.
+ */
+@DisallowConcurrentExecution
+public class RescoringQuartzJob implements Job {
+
+    public static final JobKey JOB_KEY = JobKey.jobKey("rescoringJob", "hunty");
+
+    @Autowired
+    private RescoringService rescoringService;
+
+    @Autowired
+    private SystemAuthenticator authenticator;
+
+    @Override
+    public void execute(JobExecutionContext context) {
+        authenticator.runWithSystem(rescoringService::dispatchPendingRuns);
+    }
+
+}
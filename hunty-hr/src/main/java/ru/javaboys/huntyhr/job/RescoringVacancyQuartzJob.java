@@ -0,0 +1,41 @@
+package ru.javaboys.huntyhr.job;
+
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import io.jmix.core.security.SystemAuthenticator;
+import ru.javaboys.huntyhr.service.impl.RescoringService;
+
+import java.util.UUID;
+
+/**
+ * Выполняет прогоны пересчёта одной вакансии. У каждой вакансии свой {@link JobKey}, поэтому
+ * {@link DisallowConcurrentExecution} запрещает только два прогона одной вакансии одновременно,
+ * а разные вакансии пересчитываются параллельно (на любых узлах кластера).
+ */
+@DisallowConcurrentExecution
+public class RescoringVacancyQuartzJob implements Job {
+
+    public static final String GROUP = "hunty-rescoring";
+    public static final String VACANCY_ID = "vacancyId";
+
+    @Autowired
+    private RescoringService rescoringService;
+
+    @Autowired
+    private SystemAuthenticator authenticator;
+
+    public static JobKey jobKey(UUID vacancyId) {
+        return JobKey.jobKey("rescoring-" + vacancyId, GROUP);
+    }
+
+    @Override
+    public void execute(JobExecutionContext context) {
+        UUID vacancyId = UUID.fromString(context.getMergedJobDataMap().getString(VACANCY_ID));
+        authenticator.runWithSystem(() -> rescoringService.processPendingRuns(vacancyId));
+    }
+
+}
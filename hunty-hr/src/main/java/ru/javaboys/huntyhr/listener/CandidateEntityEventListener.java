@@ -0,0 +1,79 @@
+package ru.javaboys.huntyhr.listener;
+
+import io.jmix.core.event.EntityChangedEvent;
+import io.jmix.core.event.EntitySavingEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.javaboys.huntyhr.entity.CandidateEntity;
+import ru.javaboys.huntyhr.entity.SearchDocumentOwnerTypeEnum;
+import ru.javaboys.huntyhr.service.impl.CandidateIdentityResolutionService;
+import ru.javaboys.huntyhr.service.impl.CandidateIdentityService;
+import ru.javaboys.huntyhr.service.impl.CandidateSkillIndexService;
+import ru.javaboys.huntyhr.service.impl.FullTextSearchService;
+import ru.javaboys.huntyhr.service.impl.TelegramUserService;
+
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+public class CandidateEntityEventListener {
+
+    private static final String[] IDENTITY_ATTRIBUTES =
+            {"name", "surname", "birthDate", "email", "phone", "telegramUserName"};
+
+    private final CandidateIdentityService candidateIdentityService;
+    private final CandidateIdentityResolutionService candidateIdentityResolutionService;
+    private final CandidateSkillIndexService candidateSkillIndexService;
+    private final FullTextSearchService fullTextSearchService;
+    private final TelegramUserService telegramUserService;
+
+    /**
+     * Ключи поиска дублей пересчитываются при любом сохранении — и из импорта, и из формы кандидата.
+     */
+    @EventListener
+    public void onCandidateEntitySaving(final EntitySavingEvent<CandidateEntity> event) {
+        candidateIdentityService.updateKeys(event.getEntity());
+    }
+
+    /**
+     * Нечёткий поиск дублей — после коммита, в фоне, и только если изменились идентифицирующие поля.
+     */
+    @TransactionalEventListener
+    public void onCandidateEntityChangedAfterCommit(final EntityChangedEvent<CandidateEntity> event) {
+        if (event.getType() == EntityChangedEvent.Type.DELETED
+                || event.getType() == EntityChangedEvent.Type.UPDATED
+                && !event.getChanges().isAnyChanged(IDENTITY_ATTRIBUTES)) {
+            return;
+        }
+        candidateIdentityResolutionService.resolveAsync((UUID) event.getEntityId().getValue());
+    }
+
+    /**
+     * Удалённый кандидат убирается из индекса навыков и полнотекстового поиска.
+     */
+    @TransactionalEventListener
+    public void onCandidateEntityDeletedAfterCommit(final EntityChangedEvent<CandidateEntity> event) {
+        if (event.getType() != EntityChangedEvent.Type.DELETED) {
+            return;
+        }
+        UUID candidateId = (UUID) event.getEntityId().getValue();
+        candidateSkillIndexService.remove(candidateId);
+        fullTextSearchService.remove(SearchDocumentOwnerTypeEnum.CANDIDATE, candidateId);
+    }
+
+    /**
+     * Кэш кандидатов по Telegram-нику сбрасывается при создании и удалении кандидата и при смене ника или
+     * чата.
+     */
+    @TransactionalEventListener
+    public void onCandidateTelegramChangedAfterCommit(final EntityChangedEvent<CandidateEntity> event) {
+        if (event.getType() == EntityChangedEvent.Type.UPDATED
+                && !event.getChanges().isAnyChanged("telegramUserName", "telegramChatId")) {
+            return;
+        }
+        telegramUserService.onCandidateChanged((UUID) event.getEntityId().getValue(),
+                event.getChanges().getOldValue("telegramNorm"));
+    }
+}
@@ -0,0 +1,35 @@
+package ru.javaboys.huntyhr.listener;
+
+import io.jmix.core.event.EntityChangedEvent;
+import io.jmix.core.event.EntitySavingEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.javaboys.huntyhr.entity.CompanyEntity;
+import ru.javaboys.huntyhr.service.impl.CompanyDirectoryService;
+
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+public class CompanyEntityEventListener {
+
+    private final CompanyDirectoryService companyDirectoryService;
+
+    @EventListener
+    public void onCompanyEntitySaving(final EntitySavingEvent<CompanyEntity> event) {
+        CompanyEntity company = event.getEntity();
+        company.setNormalizedName(CompanyDirectoryService.normalizedKey(company.getName()));
+    }
+
+    /**
+     * Новая компания, переименование, синонимы или удаление из формы компании — обновляем кеш и синонимы
+     * справочника.
+     */
+    @TransactionalEventListener
+    public void onCompanyEntityChangedAfterCommit(final EntityChangedEvent<CompanyEntity> event) {
+        companyDirectoryService.onCompanyChanged((UUID) event.getEntityId().getValue(),
+                event.getType() == EntityChangedEvent.Type.DELETED);
+    }
+}
@@ -0,0 +1,71 @@
+package ru.javaboys.huntyhr.listener;
+
+import io.jmix.core.event.EntityChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.javaboys.huntyhr.entity.InterviewSessionEntity;
+import ru.javaboys.huntyhr.entity.InterviewStateEnum;
+import ru.javaboys.huntyhr.service.impl.InterviewReminderScheduler;
+import ru.javaboys.huntyhr.service.impl.InterviewSlotService;
+
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+public class InterviewSessionEntityEventListener {
+
+    private final InterviewReminderScheduler interviewReminderScheduler;
+    private final InterviewSlotService interviewSlotService;
+
+    /**
+     * Встреча назначена, перенесена или возобновлена — проверяется мощность бэкенда на её время, отметки
+     * об отправленных напоминаниях сбрасываются в той же транзакции.
+     */
+    @EventListener
+    public void onInterviewSessionChangedBeforeCommit(final EntityChangedEvent<InterviewSessionEntity> event) {
+        UUID sessionId = (UUID) event.getEntityId().getValue();
+        if (isRescheduled(event) || isReopened(event)) {
+            interviewSlotService.ensureCapacity(sessionId);
+        }
+        if (isRescheduled(event)) {
+            interviewReminderScheduler.resetReminders(sessionId);
+        }
+    }
+
+    /**
+     * Таймеры напоминаний обновляются после коммита. При смене статуса они снимаются сразу и ставятся
+     * заново, только если встреча осталась в ожидании.
+     */
+    @TransactionalEventListener
+    public void onInterviewSessionChangedAfterCommit(final EntityChangedEvent<InterviewSessionEntity> event) {
+        UUID sessionId = (UUID) event.getEntityId().getValue();
+        if (event.getType() == EntityChangedEvent.Type.DELETED) {
+            interviewReminderScheduler.cancel(sessionId);
+        } else if (isStateChanged(event)) {
+            interviewReminderScheduler.cancel(sessionId);
+            interviewReminderScheduler.onSessionChangedAsync(sessionId);
+        } else if (isRescheduled(event)) {
+            interviewReminderScheduler.onSessionChangedAsync(sessionId);
+        }
+    }
+
+    // отменённую или сорвавшуюся встречу вернули в работу
+    private static boolean isReopened(EntityChangedEvent<InterviewSessionEntity> event) {
+        if (!isStateChanged(event)) {
+            return false;
+        }
+        String old = event.getChanges().getOldValue("state");
+        return InterviewStateEnum.CANCELED.getId().equals(old) || InterviewStateEnum.FAILED.getId().equals(old);
+    }
+
+    private static boolean isStateChanged(EntityChangedEvent<InterviewSessionEntity> event) {
+        return event.getType() == EntityChangedEvent.Type.UPDATED && event.getChanges().isChanged("state");
+    }
+
+    private static boolean isRescheduled(EntityChangedEvent<InterviewSessionEntity> event) {
+        return event.getType() == EntityChangedEvent.Type.CREATED
+                || event.getType() == EntityChangedEvent.Type.UPDATED && event.getChanges().isChanged("scheduledStartAt");
+    }
+}
@@ -0,0 +1,37 @@
+package ru.javaboys.huntyhr.listener;
+
+import io.jmix.core.event.EntityChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.javaboys.huntyhr.entity.ResumeVersionEntity;
+import ru.javaboys.huntyhr.service.impl.EmbeddingIndexService;
+import ru.javaboys.huntyhr.service.impl.FullTextSearchService;
+import ru.javaboys.huntyhr.service.impl.CandidateSkillIndexService;
+
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+public class ResumeVersionEntityEventListener {
+
+    private final EmbeddingIndexService embeddingIndexService;
+    private final CandidateSkillIndexService candidateSkillIndexService;
+    private final FullTextSearchService fullTextSearchService;
+
+    /**
+     * Новая версия резюме становится вектором кандидата, его навыками в индексе навыков и текстом
+     * для полнотекстового поиска. Вектор пересчитывается только для последней версии кандидата.
+     * Только после коммита — иначе фоновый поток может не увидеть версию.
+     */
+    @TransactionalEventListener
+    public void onResumeVersionEntityChangedAfterCommit(final EntityChangedEvent<ResumeVersionEntity> event) {
+        if (event.getType() == EntityChangedEvent.Type.DELETED) return;
+        UUID versionId = (UUID) event.getEntityId().getValue();
+        embeddingIndexService.indexResumeAsync(versionId);
+        if (event.getType() == EntityChangedEvent.Type.CREATED) {
+            candidateSkillIndexService.indexResumeVersion(versionId);
+            fullTextSearchService.indexResumeAsync(versionId);
+        }
+    }
+}
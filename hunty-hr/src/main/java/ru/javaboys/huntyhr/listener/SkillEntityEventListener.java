@@ -0,0 +1,33 @@
+package ru.javaboys.huntyhr.listener;
+
+import io.jmix.core.event.EntityChangedEvent;
+import io.jmix.core.event.EntitySavingEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.javaboys.huntyhr.entity.SkillEntity;
+import ru.javaboys.huntyhr.service.impl.SkillTaxonomyService;
+
+@Component
+@RequiredArgsConstructor
+public class SkillEntityEventListener {
+
+    private final SkillTaxonomyService skillTaxonomyService;
+
+    @EventListener
+    public void onSkillEntitySaving(final EntitySavingEvent<SkillEntity> event) {
+        SkillEntity skill = event.getEntity();
+        skill.setNormalizedName(SkillTaxonomyService.normalizedKey(skill.getName()));
+    }
+
+    /**
+     * Переименование, синонимы или удаление навыка — перечитываем его ключи в справочнике.
+     */
+    @TransactionalEventListener
+    public void onSkillEntityChangedAfterCommit(final EntityChangedEvent<SkillEntity> event) {
+        if (event.getType() == EntityChangedEvent.Type.CREATED) return;
+        skillTaxonomyService.onSkillChanged((Integer) event.getEntityId().getValue(),
+                event.getType() == EntityChangedEvent.Type.DELETED);
+    }
+}
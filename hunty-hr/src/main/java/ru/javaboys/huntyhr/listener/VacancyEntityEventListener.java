@@ -0,0 +1,61 @@
+package ru.javaboys.huntyhr.listener;
+
+import io.jmix.core.event.AttributeChanges;
+import io.jmix.core.event.EntityChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.javaboys.huntyhr.entity.SearchDocumentOwnerTypeEnum;
+import ru.javaboys.huntyhr.entity.VacancyEntity;
+import ru.javaboys.huntyhr.service.impl.EmbeddingIndexService;
+import ru.javaboys.huntyhr.service.impl.FullTextSearchService;
+import ru.javaboys.huntyhr.service.impl.ScoringService;
+
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+public class VacancyEntityEventListener {
+
+    private final ScoringService scoringService;
+    private final EmbeddingIndexService embeddingIndexService;
+    private final FullTextSearchService fullTextSearchService;
+
+    /**
+     * При смене весов вакансии пересчитываем total у всех заявок в той же транзакции, без LLM.
+     */
+    @EventListener
+    public void onVacancyEntityChangedBeforeCommit(final EntityChangedEvent<VacancyEntity> event) {
+        if (event.getType() != EntityChangedEvent.Type.UPDATED) return;
+
+        AttributeChanges changes = event.getChanges();
+        if (changes.isChanged("weightTech") || changes.isChanged("weightComm") || changes.isChanged("weightCases")) {
+            UUID vacancyId = (UUID) event.getEntityId().getValue();
+            scoringService.recomputeTotals(vacancyId);
+        }
+    }
+
+    /**
+     * Текст вакансии изменился — обновляем её вектор в индексе (вектор не пересчитывается, если текст тот же)
+     * и документ полнотекстового поиска.
+     */
+    @TransactionalEventListener
+    public void onVacancyEntityChangedAfterCommit(final EntityChangedEvent<VacancyEntity> event) {
+        if (event.getType() == EntityChangedEvent.Type.DELETED) {
+            fullTextSearchService.remove(SearchDocumentOwnerTypeEnum.VACANCY, (UUID) event.getEntityId().getValue());
+            return;
+        }
+
+        AttributeChanges changes = event.getChanges();
+        if (event.getType() == EntityChangedEvent.Type.CREATED
+                || changes.isChanged("title") || changes.isChanged("seniority")
+                || changes.isChanged("description") || changes.isChanged("responsibilities")
+                || changes.isChanged("requirements") || changes.isChanged("niceToHave")
+                || changes.isChanged("conditions")) {
+            UUID vacancyId = (UUID) event.getEntityId().getValue();
+            embeddingIndexService.indexVacancyAsync(vacancyId);
+            fullTextSearchService.indexVacancyAsync(vacancyId);
+        }
+    }
+}
@@ -10,16 +10,21 @@ import io.jmix.securityflowui.role.UiMinimalPolicies;
 import io.jmix.securityflowui.role.annotation.MenuPolicy;
 import io.jmix.securityflowui.role.annotation.ViewPolicy;
 import ru.javaboys.huntyhr.entity.ApplicationEntity;
+import ru.javaboys.huntyhr.entity.CandidateDuplicateEntity;
 import ru.javaboys.huntyhr.entity.CandidateEntity;
+import ru.javaboys.huntyhr.entity.CandidateVacancyMatchEntity;
 import ru.javaboys.huntyhr.entity.CompanyEntity;
 import ru.javaboys.huntyhr.entity.InterviewQuestionEntity;
 import ru.javaboys.huntyhr.entity.InterviewScenarioEntity;
 import ru.javaboys.huntyhr.entity.InterviewSessionEntity;
+import ru.javaboys.huntyhr.entity.NotificationOutboxEntity;
 import ru.javaboys.huntyhr.entity.QuestionTemplateEntity;
+import ru.javaboys.huntyhr.entity.RescoringRunEntity;
 import ru.javaboys.huntyhr.entity.ResumeEducationEntity;
 import ru.javaboys.huntyhr.entity.ResumeExperienceEntity;
 import ru.javaboys.huntyhr.entity.ResumeSkillEntity;
 import ru.javaboys.huntyhr.entity.ResumeVersionEntity;
+import ru.javaboys.huntyhr.entity.SkillEntity;
 import ru.javaboys.huntyhr.entity.StorageObjectEntity;
 import ru.javaboys.huntyhr.entity.User;
 import ru.javaboys.huntyhr.entity.VacancyEntity;
@@ -33,8 +38,8 @@ public interface UiMinimalRole extends UiMinimalPolicies {
     @SpecificPolicy(resources = "ui.loginToUi")
     void login();
 
-    @MenuPolicy(menuIds = { "VacancyEntity.list", "ApplicationEntity.list", "CandidateEntity.list", "CompanyEntity.list", "QuestionTemplateEntity.list" })
-    @ViewPolicy(viewIds = { "VacancyEntity.list", "ApplicationEntity.list", "CandidateEntity.list", "CompanyEntity.list", "QuestionTemplateEntity.list", "ApplicationEntity.detail", "CandidateEntity.detail", "CompanyEntity.detail", "VacancyEntity.detail", "QuestionTemplateEntity.detail", "MainView", "LoginView", "ResumeVersionEntity.detail" })
+    @MenuPolicy(menuIds = { "VacancyEntity.list", "ApplicationEntity.list", "CandidateEntity.list", "CandidateDuplicateEntity.list", "CandidateSkillSearchView", "CompanyEntity.list", "QuestionTemplateEntity.list" })
+    @ViewPolicy(viewIds = { "VacancyEntity.list", "ApplicationEntity.list", "CandidateEntity.list", "CandidateDuplicateEntity.list", "CandidateSkillSearchView", "CompanyEntity.list", "QuestionTemplateEntity.list", "ApplicationEntity.detail", "CandidateEntity.detail", "CompanyEntity.detail", "VacancyEntity.detail", "QuestionTemplateEntity.detail", "MainView", "LoginView", "ResumeVersionEntity.detail" })
     void screens();
 
     @EntityAttributePolicy(entityClass = VacancyEntity.class, attributes = "*", action = EntityAttributePolicyAction.MODIFY)
@@ -61,6 +66,14 @@ public interface UiMinimalRole extends UiMinimalPolicies {
     @EntityPolicy(entityClass = ResumeSkillEntity.class, actions = EntityPolicyAction.ALL)
     void resumeSkillEntity();
 
+    @EntityAttributePolicy(entityClass = NotificationOutboxEntity.class, attributes = "*", action = EntityAttributePolicyAction.MODIFY)
+    @EntityPolicy(entityClass = NotificationOutboxEntity.class, actions = EntityPolicyAction.ALL)
+    void notificationOutboxEntity();
+
+    @EntityAttributePolicy(entityClass = SkillEntity.class, attributes = "*", action = EntityAttributePolicyAction.MODIFY)
+    @EntityPolicy(entityClass = SkillEntity.class, actions = EntityPolicyAction.ALL)
+    void skillEntity();
+
     @EntityAttributePolicy(entityClass = QuestionTemplateEntity.class, attributes = "*", action = EntityAttributePolicyAction.MODIFY)
     @EntityPolicy(entityClass = QuestionTemplateEntity.class, actions = EntityPolicyAction.ALL)
     void questionTemplateEntity();
@@ -93,6 +106,18 @@ public interface UiMinimalRole extends UiMinimalPolicies {
     @EntityPolicy(entityClass = CandidateEntity.class, actions = EntityPolicyAction.ALL)
     void candidateEntity();
 
+    @EntityAttributePolicy(entityClass = CandidateVacancyMatchEntity.class, attributes = "*", action = EntityAttributePolicyAction.VIEW)
+    @EntityPolicy(entityClass = CandidateVacancyMatchEntity.class, actions = EntityPolicyAction.READ)
+    void candidateVacancyMatchEntity();
+
+    @EntityAttributePolicy(entityClass = CandidateDuplicateEntity.class, attributes = "*", action = EntityAttributePolicyAction.MODIFY)
+    @EntityPolicy(entityClass = CandidateDuplicateEntity.class, actions = EntityPolicyAction.ALL)
+    void candidateDuplicateEntity();
+
+    @EntityAttributePolicy(entityClass = RescoringRunEntity.class, attributes = "*", action = EntityAttributePolicyAction.MODIFY)
+    @EntityPolicy(entityClass = RescoringRunEntity.class, actions = EntityPolicyAction.ALL)
+    void rescoringRunEntity();
+
     @EntityAttributePolicy(entityClass = User.class, attributes = "*", action = EntityAttributePolicyAction.MODIFY)
     @EntityPolicy(entityClass = User.class, actions = EntityPolicyAction.ALL)
     void user();
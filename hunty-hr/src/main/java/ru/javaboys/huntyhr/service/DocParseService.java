@@ -9,4 +9,10 @@ import java.io.InputStream;
 public interface DocParseService {
     String parseToText(FileRef fileRef);
     String parseToText(InputStream is, @Nullable String originalName);
+
+    /**
+     * То же, что {@link #parseToText(InputStream, String)}, но запоминает, что содержимое уже сохранено
+     * как {@code fileRef}: следующий {@link #parseToText(FileRef)} не скачает файл заново.
+     */
+    String parseToText(InputStream is, @Nullable String originalName, @Nullable FileRef fileRef);
 }
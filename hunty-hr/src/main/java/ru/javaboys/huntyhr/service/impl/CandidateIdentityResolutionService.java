@@ -0,0 +1,500 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import io.jmix.core.DataManager;
+import io.jmix.core.Id;
+import io.jmix.core.SaveContext;
+import io.jmix.core.entity.KeyValueEntity;
+import io.jmix.core.security.SystemAuthenticator;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import ru.javaboys.huntyhr.config.BackgroundExecutor;
+import ru.javaboys.huntyhr.entity.CandidateBlockingKeyEntity;
+import ru.javaboys.huntyhr.entity.CandidateDuplicateEntity;
+import ru.javaboys.huntyhr.entity.CandidateEntity;
+import ru.javaboys.huntyhr.entity.DuplicateStatusEnum;
+import ru.javaboys.huntyhr.job.IdentityFullPassQuartzJob;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * Нечёткий поиск дублей кандидатов.
+ * <p>
+ * Попарное сравнение всех со всеми не делается: каждому кандидату считаются ключи блокировки
+ * (фамилия+дата рождения, последние 7 цифр телефона, email без домена, telegram, триграммы фамилии
+ * с инициалом имени), и сравниваются только кандидаты с общим ключом. Слишком большие блоки
+ * (частые триграммы) пропускаются. Пары со score не ниже порога сохраняются в
+ * {@link CandidateDuplicateEntity} для ручного разбора.
+ * <p>
+ * Инкрементально — после сохранения кандидата (ключи хранятся в {@link CandidateBlockingKeyEntity}),
+ * полным проходом — Quartz-джобой {@link IdentityFullPassQuartzJob} по расписанию или из списка дублей.
+ * Полный проход идёт страницами: сначала сверяет ключи кандидатов с таблицей ключей, затем
+ * перебирает блоки по таблице ключей, не держа всех кандидатов в памяти.
+ */
+@Service
+@Slf4j
+public class CandidateIdentityResolutionService {
+
+    private static final int PHONE_SUFFIX = 7;
+    private static final int SAVE_BATCH = 500;
+
+    record Profile(UUID id, String name, String surname, LocalDate birthDate,
+                   String email, String phone, String telegram) {
+    }
+
+    record Scored(double score, String reasons) {
+    }
+
+    private final DataManager dm;
+    private final SystemAuthenticator authenticator;
+    private final Scheduler scheduler;
+    private final double minScore;
+    private final int maxBlockSize;
+    private final int pageSize;
+
+    private final Executor executor;
+
+    public CandidateIdentityResolutionService(DataManager dm,
+                                              SystemAuthenticator authenticator,
+                                              Scheduler scheduler,
+                                              @Value("${hunty.identity.min-score:0.6}") double minScore,
+                                              @Value("${hunty.identity.max-block-size:200}") int maxBlockSize,
+                                              @Value("${hunty.identity.page-size:2000}") int pageSize,
+                                              BackgroundExecutor backgroundExecutor) {
+        this.dm = dm;
+        this.authenticator = authenticator;
+        this.scheduler = scheduler;
+        this.minScore = minScore;
+        this.maxBlockSize = Math.max(2, maxBlockSize);
+        this.pageSize = Math.max(100, pageSize);
+        this.executor = backgroundExecutor.sequential();
+    }
+
+    /**
+     * Асинхронно обновляет ключи кандидата и ищет его дубли; вызывается после коммита.
+     */
+    public void resolveAsync(UUID candidateId) {
+        executor.execute(() -> authenticator.runWithSystem(() -> {
+            try {
+                resolve(candidateId);
+            } catch (Exception e) {
+                log.warn("Identity resolution for candidate {} failed: {}", candidateId, e.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Обновляет ключи блокировки кандидата и сохраняет найденные пары-дубли.
+     *
+     * @return число новых пар
+     */
+    public int resolve(UUID candidateId) {
+        List<Profile> loaded = loadProfiles(List.of(candidateId));
+        if (loaded.isEmpty()) return 0;
+        Profile profile = loaded.get(0);
+
+        syncKeys(loaded);
+        Set<String> keys = blockingKeys(profile);
+        if (keys.isEmpty()) return 0;
+
+        // частые ключи (например, триграмма «ова») дают огромные блоки и почти не несут сигнала
+        List<String> usable = dm.loadValues("select k.blockingKey, count(k) from CandidateBlockingKeyEntity k " +
+                        "where k.blockingKey in :keys group by k.blockingKey")
+                .properties("key", "cnt")
+                .parameter("keys", keys)
+                .list().stream()
+                .filter(kv -> ((Number) kv.getValue("cnt")).longValue() <= maxBlockSize)
+                .map(kv -> kv.<String>getValue("key"))
+                .toList();
+        if (usable.isEmpty()) return 0;
+
+        List<UUID> others = dm.loadValue("select distinct k.candidate.id from CandidateBlockingKeyEntity k " +
+                        "where k.blockingKey in :keys and k.candidate.id <> :id", UUID.class)
+                .parameter("keys", usable)
+                .parameter("id", candidateId)
+                .list();
+
+        Map<String, CandidateDuplicateEntity> found = new HashMap<>();
+        for (Profile other : loadProfiles(others)) {
+            Scored s = score(profile, other);
+            if (s.score() >= minScore) {
+                found.put(pairKey(profile.id(), other.id()), newDuplicate(profile.id(), other.id(), s));
+            }
+        }
+        return saveNewPairs(found);
+    }
+
+    /**
+     * Запускает полный проход на любом узле кластера; если проход уже идёт, новый начнётся после него.
+     */
+    public void requestFullPass() throws SchedulerException {
+        scheduler.triggerJob(IdentityFullPassQuartzJob.JOB_KEY);
+    }
+
+    /**
+     * Полный проход: сверка ключей блокировки всех кандидатов, затем сравнение внутри блоков.
+     * Вызывается из {@link IdentityFullPassQuartzJob}.
+     *
+     * @return число новых пар
+     */
+    public int runFullPass() {
+        long started = System.currentTimeMillis();
+        int candidates = 0;
+        int refreshed = 0;
+        for (UUID after = null; ; ) {
+            List<Profile> page = loadProfilePage(after);
+            if (page.isEmpty()) break;
+            refreshed += syncKeys(page);
+            candidates += page.size();
+            after = page.get(page.size() - 1).id();
+            if (page.size() < pageSize) break;
+        }
+
+        int blocks = 0;
+        long comparisons = 0;
+        int created = 0;
+        for (String afterKey = null; ; ) {
+            List<String> keys = loadBlockPage(afterKey);
+            if (keys.isEmpty()) break;
+            Map<String, List<UUID>> members = new HashMap<>();
+            dm.loadValues("select k.blockingKey, k.candidate.id from CandidateBlockingKeyEntity k " +
+                            "where k.blockingKey in :keys")
+                    .properties("key", "id")
+                    .parameter("keys", keys)
+                    .list()
+                    .forEach(kv -> members.computeIfAbsent(kv.getValue("key"), k -> new ArrayList<>(2))
+                            .add(kv.getValue("id")));
+            Map<UUID, Profile> profiles = new HashMap<>();
+            for (Profile p : loadProfiles(members.values().stream().flatMap(List::stream).distinct().toList())) {
+                profiles.put(p.id(), p);
+            }
+
+            // пара с несколькими общими ключами в пределах страницы сравнивается один раз;
+            // между страницами повтор возможен, но уже сохранённую пару saveNewPairs отбросит
+            Set<String> compared = new HashSet<>();
+            Map<String, CandidateDuplicateEntity> found = new HashMap<>();
+            for (List<UUID> block : members.values()) {
+                for (int i = 0; i < block.size(); i++) {
+                    for (int j = i + 1; j < block.size(); j++) {
+                        Profile a = profiles.get(block.get(i));
+                        Profile b = profiles.get(block.get(j));
+                        if (a == null || b == null) continue;
+                        String pair = pairKey(a.id(), b.id());
+                        if (!compared.add(pair)) continue;
+                        comparisons++;
+                        Scored s = score(a, b);
+                        if (s.score() >= minScore) {
+                            found.put(pair, newDuplicate(a.id(), b.id(), s));
+                        }
+                    }
+                }
+            }
+            created += saveNewPairs(found);
+            blocks += keys.size();
+            afterKey = keys.get(keys.size() - 1);
+            if (keys.size() < pageSize) break;
+        }
+        log.info("Identity full pass: {} candidates ({} with refreshed keys), {} blocks, {} comparisons, " +
+                        "{} new pairs in {} ms",
+                candidates, refreshed, blocks, comparisons, created, System.currentTimeMillis() - started);
+        return created;
+    }
+
+    // -------- blocking & scoring --------
+
+    static Set<String> blockingKeys(Profile p) {
+        Set<String> keys = new LinkedHashSet<>();
+        String surname = normalizeName(p.surname());
+        String name = normalizeName(p.name());
+
+        if (surname != null && p.birthDate() != null) {
+            keys.add("sb:" + surname + "|" + p.birthDate());
+        }
+        if (p.phone() != null && p.phone().length() >= PHONE_SUFFIX) {
+            keys.add("ph:" + p.phone().substring(p.phone().length() - PHONE_SUFFIX));
+        }
+        String local = emailLocalPart(p.email());
+        if (local != null && local.length() >= 3) {
+            keys.add("em:" + local);
+        }
+        if (p.telegram() != null) {
+            keys.add("tg:" + p.telegram());
+        }
+        if (surname != null && name != null) {
+            for (String t : trigrams(surname)) {
+                keys.add("tri:" + t + "|" + name.charAt(0));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Score 0..1: сильные совпадения контактов плюс похожесть ФИО; разные даты рождения — сильный штраф.
+     */
+    static Scored score(Profile a, Profile b) {
+        double s = 0;
+        List<String> reasons = new ArrayList<>();
+
+        if (a.email() != null && a.email().equals(b.email())) {
+            s += 0.6;
+            reasons.add("email");
+        } else {
+            String la = emailLocalPart(a.email());
+            if (la != null && la.equals(emailLocalPart(b.email()))) {
+                s += 0.25;
+                reasons.add("email без домена");
+            }
+        }
+        if (a.telegram() != null && a.telegram().equals(b.telegram())) {
+            s += 0.6;
+            reasons.add("telegram");
+        }
+        if (a.phone() != null && b.phone() != null) {
+            if (suffix(a.phone(), 10).equals(suffix(b.phone(), 10)) && a.phone().length() >= 10) {
+                s += 0.5;
+                reasons.add("телефон");
+            } else if (a.phone().length() >= PHONE_SUFFIX
+                    && suffix(a.phone(), PHONE_SUFFIX).equals(suffix(b.phone(), PHONE_SUFFIX))) {
+                s += 0.25;
+                reasons.add("хвост телефона");
+            }
+        }
+
+        double nameSim = nameSimilarity(a, b);
+        if (nameSim > 0) {
+            s += 0.35 * nameSim;
+            if (nameSim >= 0.5) reasons.add(String.format(Locale.ROOT, "ФИО %.0f%%", nameSim * 100));
+        }
+
+        if (a.birthDate() != null && b.birthDate() != null) {
+            if (a.birthDate().equals(b.birthDate())) {
+                s += 0.25;
+                reasons.add("дата рождения");
+            } else {
+                s -= 0.5;
+            }
+        }
+        return new Scored(Math.max(0, Math.min(1, s)), String.join(", ", reasons));
+    }
+
+    /**
+     * Jaccard по триграммам «фамилия имя»; учитывает перепутанные местами имя и фамилию.
+     */
+    private static double nameSimilarity(Profile a, Profile b) {
+        String sa = normalizeName(a.surname()), na = normalizeName(a.name());
+        String sb = normalizeName(b.surname()), nb = normalizeName(b.name());
+        if (sa == null || sb == null) return 0;
+        Set<String> ta = trigrams(sa + " " + nz(na));
+        double direct = jaccard(ta, trigrams(sb + " " + nz(nb)));
+        double swapped = nb == null ? 0 : jaccard(ta, trigrams(nb + " " + sb));
+        return Math.max(direct, swapped);
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) return 0;
+        int common = 0;
+        for (String t : a) {
+            if (b.contains(t)) common++;
+        }
+        return (double) common / (a.size() + b.size() - common);
+    }
+
+    private static Set<String> trigrams(String s) {
+        Set<String> out = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= s.length(); i++) {
+            String t = s.substring(i, i + 3);
+            if (!t.isBlank()) out.add(t);
+        }
+        return out;
+    }
+
+    @Nullable
+    private static String normalizeName(@Nullable String s) {
+        if (s == null) return null;
+        String t = s.toLowerCase(Locale.ROOT).replace('ё', 'е').replaceAll("[^\\p{L} ]", "").trim();
+        return t.isEmpty() ? null : t;
+    }
+
+    @Nullable
+    private static String emailLocalPart(@Nullable String email) {
+        if (email == null) return null;
+        int at = email.indexOf('@');
+        String local = at > 0 ? email.substring(0, at) : email;
+        int plus = local.indexOf('+');
+        if (plus > 0) local = local.substring(0, plus);
+        local = local.replace(".", "");
+        return local.isEmpty() ? null : local;
+    }
+
+    private static String suffix(String s, int n) {
+        return s.length() <= n ? s : s.substring(s.length() - n);
+    }
+
+    private static String nz(String s) {
+        return s == null ? "" : s;
+    }
+
+    // -------- persistence --------
+
+    private List<Profile> loadProfiles(Collection<UUID> ids) {
+        if (ids.isEmpty()) return List.of();
+        List<Profile> out = new ArrayList<>(ids.size());
+        List<UUID> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += pageSize) {
+            List<UUID> chunk = all.subList(from, Math.min(all.size(), from + pageSize));
+            dm.loadValues("select c.id, c.name, c.surname, c.birthDate, c.emailNorm, c.phoneNorm, c.telegramNorm " +
+                            "from CandidateEntity c where c.id in :ids")
+                    .properties("id", "name", "surname", "birthDate", "email", "phone", "telegram")
+                    .parameter("ids", chunk)
+                    .list()
+                    .forEach(kv -> out.add(toProfile(kv)));
+        }
+        return out;
+    }
+
+    /**
+     * Страница кандидатов по возрастанию id, начиная после {@code after} (keyset — без OFFSET).
+     */
+    private List<Profile> loadProfilePage(@Nullable UUID after) {
+        var loader = dm.loadValues("select c.id, c.name, c.surname, c.birthDate, c.emailNorm, c.phoneNorm, " +
+                        "c.telegramNorm from CandidateEntity c" + (after == null ? "" : " where c.id > :after") +
+                        " order by c.id")
+                .properties("id", "name", "surname", "birthDate", "email", "phone", "telegram");
+        if (after != null) loader = loader.parameter("after", after);
+        return loader
+                .maxResults(pageSize)
+                .list().stream()
+                .map(CandidateIdentityResolutionService::toProfile)
+                .toList();
+    }
+
+    /**
+     * Страница ключей блоков, в которых есть что сравнивать: от 2 до {@code maxBlockSize} кандидатов.
+     */
+    private List<String> loadBlockPage(@Nullable String after) {
+        var loader = dm.loadValue("select k.blockingKey from CandidateBlockingKeyEntity k" +
+                        (after == null ? "" : " where k.blockingKey > :after") +
+                        " group by k.blockingKey having count(k) >= 2 and count(k) <= :max " +
+                        "order by k.blockingKey", String.class)
+                .parameter("max", (long) maxBlockSize);
+        if (after != null) loader = loader.parameter("after", after);
+        return loader
+                .maxResults(pageSize)
+                .list();
+    }
+
+    private static Profile toProfile(KeyValueEntity kv) {
+        return new Profile(kv.getValue("id"), kv.getValue("name"), kv.getValue("surname"), kv.getValue("birthDate"),
+                kv.getValue("email"), kv.getValue("phone"), kv.getValue("telegram"));
+    }
+
+    /**
+     * Приводит сохранённые ключи страницы кандидатов к текущим: дозаполняет отсутствующие (кандидаты,
+     * сохранённые до появления индекса или мимо инкрементального пути) и удаляет устаревшие.
+     *
+     * @return число кандидатов, у которых ключи изменились
+     */
+    private int syncKeys(List<Profile> page) {
+        Map<UUID, List<CandidateBlockingKeyEntity>> stored = new HashMap<>();
+        dm.load(CandidateBlockingKeyEntity.class)
+                .query("select k from CandidateBlockingKeyEntity k where k.candidate.id in :ids")
+                .parameter("ids", page.stream().map(Profile::id).toList())
+                .list()
+                .forEach(k -> stored.computeIfAbsent(k.getCandidate().getId(), id -> new ArrayList<>()).add(k));
+
+        SaveContext ctx = new SaveContext();
+        int changed = 0;
+        for (Profile p : page) {
+            Set<String> keys = blockingKeys(p);
+            Set<String> current = new HashSet<>();
+            boolean dirty = false;
+            for (CandidateBlockingKeyEntity k : stored.getOrDefault(p.id(), List.of())) {
+                if (keys.contains(k.getBlockingKey()) && current.add(k.getBlockingKey())) continue;
+                ctx.removing(k);
+                dirty = true;
+            }
+            CandidateEntity ref = null;
+            for (String key : keys) {
+                if (current.contains(key)) continue;
+                if (ref == null) ref = dm.getReference(Id.of(p.id(), CandidateEntity.class));
+                CandidateBlockingKeyEntity k = dm.create(CandidateBlockingKeyEntity.class);
+                k.setCandidate(ref);
+                k.setBlockingKey(key);
+                ctx.saving(k);
+                dirty = true;
+            }
+            if (dirty) changed++;
+            if (ctx.getEntitiesToSave().size() + ctx.getEntitiesToRemove().size() >= SAVE_BATCH) {
+                dm.save(ctx);
+                ctx = new SaveContext();
+            }
+        }
+        if (!ctx.getEntitiesToSave().isEmpty() || !ctx.getEntitiesToRemove().isEmpty()) {
+            dm.save(ctx);
+        }
+        return changed;
+    }
+
+    private CandidateDuplicateEntity newDuplicate(UUID x, UUID y, Scored s) {
+        boolean ordered = x.toString().compareTo(y.toString()) < 0;
+        CandidateDuplicateEntity d = dm.create(CandidateDuplicateEntity.class);
+        d.setCandidateA(dm.getReference(Id.of(ordered ? x : y, CandidateEntity.class)));
+        d.setCandidateB(dm.getReference(Id.of(ordered ? y : x, CandidateEntity.class)));
+        d.setScore(Math.round(s.score() * 100) / 100.0);
+        d.setReasons(s.reasons());
+        d.setStatus(DuplicateStatusEnum.NEW);
+        d.setDetectedAt(LocalDateTime.now());
+        return d;
+    }
+
+    /**
+     * Сохраняет пары, которых ещё нет в БД (уже отклонённые пары повторно не предлагаются).
+     */
+    private int saveNewPairs(Map<String, CandidateDuplicateEntity> found) {
+        if (found.isEmpty()) return 0;
+        List<CandidateDuplicateEntity> fresh = new ArrayList<>();
+        List<CandidateDuplicateEntity> all = new ArrayList<>(found.values());
+        for (int from = 0; from < all.size(); from += SAVE_BATCH) {
+            List<CandidateDuplicateEntity> chunk = all.subList(from, Math.min(all.size(), from + SAVE_BATCH));
+            Set<UUID> ids = new HashSet<>();
+            chunk.forEach(d -> ids.add(d.getCandidateA().getId()));
+            Set<String> existing = new HashSet<>(dm.loadValues("select d.candidateA.id, d.candidateB.id " +
+                            "from CandidateDuplicateEntity d where d.candidateA.id in :ids")
+                    .properties("a", "b")
+                    .parameter("ids", ids)
+                    .list().stream()
+                    .map(kv -> pairKey(kv.getValue("a"), kv.getValue("b")))
+                    .toList());
+            SaveContext ctx = new SaveContext();
+            for (CandidateDuplicateEntity d : chunk) {
+                if (existing.contains(pairKey(d.getCandidateA().getId(), d.getCandidateB().getId()))) continue;
+                ctx.saving(d);
+                fresh.add(d);
+            }
+            if (!ctx.getEntitiesToSave().isEmpty()) {
+                dm.save(ctx);
+            }
+        }
+        return fresh.size();
+    }
+
+    private static String pairKey(UUID x, UUID y) {
+        String a = x.toString(), b = y.toString();
+        return a.compareTo(b) < 0 ? a + "|" + b : b + "|" + a;
+    }
+}
@@ -0,0 +1,100 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import io.jmix.core.DataManager;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import ru.javaboys.huntyhr.entity.CandidateEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Индекс идентичности кандидатов: нормализованные email/телефон/telegram хранятся в отдельных
+ * индексированных колонках {@code CANDIDATE_ENTITY}, поиск дубля — один запрос по ним.
+ * <p>
+ * Фильтра в памяти перед запросом нет: узлы кластера создают кандидатов независимо, и отрицательный
+ * ответ локального фильтра пропускал бы дубли, заведённые на другом узле.
+ */
+@Service
+public class CandidateIdentityService {
+
+    private final DataManager dm;
+
+    public CandidateIdentityService(DataManager dm) {
+        this.dm = dm;
+    }
+
+    /**
+     * Ищет существующего кандидата по нормализованным ключам (приоритет: email, телефон, telegram).
+     */
+    @Nullable
+    public CandidateEntity find(@Nullable String email, @Nullable String phone, @Nullable String telegram) {
+        String emailNorm = normalizeEmail(email);
+        String phoneNorm = normalizePhone(phone);
+        String tgNorm = normalizeTelegram(telegram);
+        if (emailNorm == null && phoneNorm == null && tgNorm == null) {
+            return null;
+        }
+
+        List<String> conditions = new ArrayList<>(3);
+        if (emailNorm != null) conditions.add("c.emailNorm = :e");
+        if (phoneNorm != null) conditions.add("c.phoneNorm = :p");
+        if (tgNorm != null) conditions.add("c.telegramNorm = :tg");
+
+        var loader = dm.load(CandidateEntity.class)
+                .query("select c from CandidateEntity c where " + String.join(" or ", conditions))
+                .maxResults(10);
+        if (emailNorm != null) loader = loader.parameter("e", emailNorm);
+        if (phoneNorm != null) loader = loader.parameter("p", phoneNorm);
+        if (tgNorm != null) loader = loader.parameter("tg", tgNorm);
+        List<CandidateEntity> found = loader.list();
+
+        for (CandidateEntity c : found) {
+            if (emailNorm != null && emailNorm.equals(c.getEmailNorm())) return c;
+        }
+        for (CandidateEntity c : found) {
+            if (phoneNorm != null && phoneNorm.equals(c.getPhoneNorm())) return c;
+        }
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Пересчитывает нормализованные ключи кандидата. Вызывается перед сохранением.
+     */
+    public void updateKeys(CandidateEntity c) {
+        c.setEmailNorm(normalizeEmail(c.getEmail()));
+        c.setPhoneNorm(normalizePhone(c.getPhone()));
+        c.setTelegramNorm(normalizeTelegram(c.getTelegramUserName()));
+    }
+
+    @Nullable
+    public static String normalizeEmail(@Nullable String s) {
+        if (s == null) return null;
+        String t = s.trim();
+        return t.isEmpty() ? null : t.toLowerCase(Locale.ROOT);
+    }
+
+    @Nullable
+    public static String normalizePhone(@Nullable String p) {
+        if (p == null) return null;
+        String digits = p.replaceAll("\\D", "");
+        return digits.isEmpty() ? null : digits;
+    }
+
+    /**
+     * Telegram без {@code @} и префикса {@code t.me/}, в нижнем регистре (username регистронезависим).
+     */
+    @Nullable
+    public static String normalizeTelegram(@Nullable String t) {
+        if (t == null) return null;
+        String v = t.trim();
+        if (v.isEmpty()) return null;
+        v = v.replace("@", "");
+        // поддержим ссылки вида t.me/user
+        int idx = v.indexOf("t.me/");
+        if (idx >= 0) v = v.substring(idx + "t.me/".length());
+        v = v.trim();
+        return v.isEmpty() ? null : v.toLowerCase(Locale.ROOT);
+    }
+}
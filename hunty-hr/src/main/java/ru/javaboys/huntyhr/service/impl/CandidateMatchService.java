@@ -0,0 +1,339 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import io.jmix.core.DataManager;
+import io.jmix.core.EntitySet;
+import io.jmix.core.FetchPlan;
+import io.jmix.core.SaveContext;
+import io.jmix.core.security.SystemAuthenticator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import ru.javaboys.huntyhr.ai.LlmUnavailableException;
+import ru.javaboys.huntyhr.ai.OpenAiService;
+import ru.javaboys.huntyhr.config.BackgroundExecutor;
+import ru.javaboys.huntyhr.dto.CandidateVacancyBatchDto;
+import ru.javaboys.huntyhr.entity.CandidateEntity;
+import ru.javaboys.huntyhr.entity.CandidateVacancyMatchEntity;
+import ru.javaboys.huntyhr.entity.ResumeSkillEntity;
+import ru.javaboys.huntyhr.entity.ResumeVersionEntity;
+import ru.javaboys.huntyhr.entity.VacancyEntity;
+import ru.javaboys.huntyhr.entity.VacancyStatusEnum;
+import ru.javaboys.huntyhr.service.DocParseService;
+import ru.javaboys.huntyhr.util.Hashes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Подбор открытых вакансий для одного кандидата.
+ * <p>
+ * Все открытые вакансии сначала ранжируются дёшево — косинусной близостью из {@link EmbeddingIndexService},
+ * а если векторов нет, долей навыков резюме, встречающихся в тексте вакансии. Шкалы несравнимы, поэтому
+ * группы ранжируются отдельно и делят места пропорционально. В LLM уходят только top-N, пачками по несколько вакансий в одном запросе. Результат хранится в
+ * {@link CandidateVacancyMatchEntity} и переиспользуется, пока не изменились версия резюме и текст вакансии.
+ */
+@Service
+@Slf4j
+public class CandidateMatchService {
+
+    private static final int MAX_RESUME_CHARS = 12000;
+    private static final int MAX_JD_CHARS = 4000;
+
+    private record Candidate(VacancyEntity vacancy, String jd, String hash, double similarity) {
+    }
+
+    private final DataManager dm;
+    private final OpenAiService openAiService;
+    private final DocParseService docParseService;
+    private final EmbeddingIndexService embeddingIndexService;
+    private final SystemAuthenticator authenticator;
+    private final int llmTop;
+    private final int batchSize;
+
+    private final ExecutorService executor;
+    // запуски из UI идут по одному в общем фоновом пуле, чтобы ожидание пачек не занимало пул LLM-вызовов
+    private final Executor runner;
+
+    public CandidateMatchService(DataManager dm,
+                                 OpenAiService openAiService,
+                                 DocParseService docParseService,
+                                 EmbeddingIndexService embeddingIndexService,
+                                 SystemAuthenticator authenticator,
+                                 @Value("${hunty.matching.llm-top:10}") int llmTop,
+                                 @Value("${hunty.matching.batch-size:5}") int batchSize,
+                                 @Value("${hunty.matching.parallelism:2}") int parallelism,
+                                 BackgroundExecutor backgroundExecutor) {
+        this.dm = dm;
+        this.openAiService = openAiService;
+        this.docParseService = docParseService;
+        this.embeddingIndexService = embeddingIndexService;
+        this.authenticator = authenticator;
+        this.llmTop = Math.max(1, llmTop);
+        this.batchSize = Math.max(1, batchSize);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism), new CustomizableThreadFactory("matching-"));
+        this.runner = backgroundExecutor.sequential();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Запускает {@link #matchCandidate(UUID)} в фоне под системным пользователем.
+     */
+    public CompletableFuture<List<CandidateVacancyMatchEntity>> matchCandidateAsync(UUID candidateId) {
+        return CompletableFuture.supplyAsync(() -> authenticator.withSystem(() -> matchCandidate(candidateId)), runner);
+    }
+
+    /**
+     * Оценивает кандидата против открытых вакансий, на которые он ещё не откликался.
+     *
+     * @return сохранённые оценки top-N вакансий, по убыванию total
+     */
+    public List<CandidateVacancyMatchEntity> matchCandidate(UUID candidateId) {
+        CandidateEntity candidate = dm.load(CandidateEntity.class).id(candidateId).one();
+        ResumeVersionEntity resume = dm.load(ResumeVersionEntity.class)
+                .query("select r from ResumeVersionEntity r where r.candidate = :c order by r.createdAt desc")
+                .parameter("c", candidate)
+                .fetchPlan(fp -> fp.addFetchPlan(FetchPlan.BASE)
+                        .add("file", FetchPlan.BASE)
+                        .add("skills", FetchPlan.BASE))
+                .maxResults(1)
+                .optional().orElse(null);
+        if (resume == null || resume.getFile() == null || resume.getFile().getRef() == null) {
+            return List.of();
+        }
+
+        List<Candidate> shortlist = shortlist(candidate, resume);
+        if (shortlist.isEmpty()) {
+            return List.of();
+        }
+
+        // кеш: оценка актуальна для той же версии резюме и того же текста вакансии
+        Map<UUID, CandidateVacancyMatchEntity> cached = dm.load(CandidateVacancyMatchEntity.class)
+                .query("select m from CandidateVacancyMatchEntity m where m.resumeVersionId = :resumeId")
+                .parameter("resumeId", resume.getId())
+                .fetchPlan(fp -> fp.addFetchPlan(FetchPlan.BASE).add("vacancy", FetchPlan.BASE))
+                .list().stream()
+                .collect(Collectors.toMap(m -> m.getVacancy().getId(), m -> m, (a, b) -> a));
+
+        List<CandidateVacancyMatchEntity> result = new ArrayList<>();
+        List<Candidate> pending = new ArrayList<>();
+        for (Candidate c : shortlist) {
+            CandidateVacancyMatchEntity hit = cached.get(c.vacancy().getId());
+            if (hit != null && c.hash().equals(hit.getVacancyHash())) {
+                result.add(hit);
+            } else {
+                pending.add(c);
+            }
+        }
+        log.info("Matching candidate {}: {} vacancies shortlisted, {} cached, {} to score",
+                candidateId, shortlist.size(), result.size(), pending.size());
+
+        if (!pending.isEmpty()) {
+            String resumeRaw = safeTrim(docParseService.parseToText(resume.getFile().getRef()), MAX_RESUME_CHARS);
+            List<CompletableFuture<List<CandidateVacancyMatchEntity>>> tasks = new ArrayList<>();
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                List<Candidate> batch = pending.subList(from, Math.min(pending.size(), from + batchSize));
+                tasks.add(CompletableFuture.supplyAsync(() -> authenticator.withSystem(
+                        () -> scoreBatch(candidate, resume.getId(), resumeRaw, batch)), executor));
+            }
+            try {
+                for (CompletableFuture<List<CandidateVacancyMatchEntity>> task : tasks) {
+                    result.addAll(task.join());
+                }
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof LlmUnavailableException u) throw u;
+                throw e;
+            }
+        }
+
+        result.sort(Comparator.comparing(CandidateVacancyMatchEntity::getTotalScore,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return result;
+    }
+
+    // -------- internals --------
+
+    /**
+     * Дешёвое ранжирование открытых вакансий; в LLM пойдут только первые {@code llmTop}.
+     */
+    private List<Candidate> shortlist(CandidateEntity candidate, ResumeVersionEntity resume) {
+        List<VacancyEntity> open = dm.load(VacancyEntity.class)
+                .query("select v from VacancyEntity v where v.status = :status and not exists " +
+                        "(select a from ApplicationEntity a where a.vacancy = v and a.candidate = :candidate)")
+                .parameter("status", VacancyStatusEnum.OPEN.getId())
+                .parameter("candidate", candidate)
+                .list();
+
+        Set<String> skills = resume.getSkills() == null ? Set.of() : resume.getSkills().stream()
+                .map(ResumeSkillEntity::getName)
+                .filter(s -> s != null && !s.isBlank())
+                .map(s -> s.strip().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+
+        // косинус и доля совпавших навыков — разные шкалы, поэтому группы ранжируются отдельно
+        List<Candidate> byEmbedding = new ArrayList<>();
+        List<Candidate> byKeywords = new ArrayList<>();
+        for (VacancyEntity v : open) {
+            String jd = ScoringService.buildJdText(v);
+            Double similarity = embeddingIndexService.similarity(candidate.getId(), v.getId());
+            if (similarity != null) {
+                byEmbedding.add(new Candidate(v, jd, Hashes.sha256(jd), similarity));
+            } else {
+                byKeywords.add(new Candidate(v, jd, Hashes.sha256(jd), keywordOverlap(skills, jd)));
+            }
+        }
+        byEmbedding.sort(Comparator.comparingDouble(Candidate::similarity).reversed());
+        byKeywords.sort(Comparator.comparingDouble(Candidate::similarity).reversed());
+        return takeProportionally(byEmbedding, byKeywords, llmTop);
+    }
+
+    /**
+     * Первые {@code limit} из двух отсортированных групп: места делятся пропорционально размеру групп
+     * (непустой группе — хотя бы одно), недобор одной группы отдаётся другой.
+     */
+    static <T> List<T> takeProportionally(List<T> first, List<T> second, int limit) {
+        int total = first.size() + second.size();
+        if (total <= limit) {
+            List<T> all = new ArrayList<>(first);
+            all.addAll(second);
+            return all;
+        }
+        int fromFirst = (int) Math.round((double) limit * first.size() / total);
+        if (limit > 1 && !first.isEmpty()) fromFirst = Math.max(fromFirst, 1);
+        if (limit > 1 && !second.isEmpty()) fromFirst = Math.min(fromFirst, limit - 1);
+        fromFirst = Math.min(fromFirst, first.size());
+        int fromSecond = Math.min(limit - fromFirst, second.size());
+        fromFirst = Math.min(limit - fromSecond, first.size());
+        List<T> result = new ArrayList<>(first.subList(0, fromFirst));
+        result.addAll(second.subList(0, fromSecond));
+        return result;
+    }
+
+    private List<CandidateVacancyMatchEntity> scoreBatch(CandidateEntity candidate, UUID resumeVersionId,
+                                                         String resumeRaw, List<Candidate> batch) {
+        SystemMessage system = new SystemMessage("""
+                Ты — ассистент по найму. Тебе дают текст резюме (RU) и несколько пронумерованных вакансий (JD).
+                Для КАЖДОЙ вакансии оцени кандидата по трем осям: tech/comm/cases — целые числа 0..100.
+                Верни РОВНО ОДИН JSON формата:
+                {
+                  "items": [
+                    { "index": номер вакансии, "tech": 0..100, "comm": 0..100, "cases": 0..100,
+                      "summary": string (1-2 предложения, на русском) }
+                  ]
+                }
+                Правила:
+                - tech: соотнесение навыков/технологий/доменных знаний с JD.
+                - comm: коммуникативные и аналитические компетенции.
+                - cases: опыт (сроки, разнообразие, роль/вклад, заметные результаты).
+                - Оценивай каждую вакансию независимо от остальных.
+                - Строго JSON, без комментариев и лишнего текста.
+                """);
+
+        StringBuilder jds = new StringBuilder();
+        for (int i = 0; i < batch.size(); i++) {
+            jds.append("Вакансия №").append(i + 1).append(":\n----------------\n")
+                    .append(safeTrim(batch.get(i).jd(), MAX_JD_CHARS)).append("\n\n");
+        }
+        UserMessage user = new UserMessage("""
+                Резюме (raw):
+                ----------------
+                %s
+
+                %s""".formatted(resumeRaw, jds));
+
+        CandidateVacancyBatchDto dto = null;
+        try {
+            dto = openAiService.structuredTalkToChatGPT("matching-" + candidate.getId(), system, user,
+                    CandidateVacancyBatchDto.class);
+        } catch (LlmUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("LLM matching failed for candidate {}: {}", candidate.getId(), e.getMessage());
+        }
+        if (dto == null || dto.getItems() == null) {
+            return List.of();
+        }
+
+        Map<Integer, CandidateVacancyBatchDto.Item> byIndex = new HashMap<>();
+        for (CandidateVacancyBatchDto.Item item : dto.getItems()) {
+            if (item != null && item.getIndex() != null) byIndex.putIfAbsent(item.getIndex(), item);
+        }
+
+        SaveContext ctx = new SaveContext();
+        List<CandidateVacancyMatchEntity> matches = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            CandidateVacancyBatchDto.Item item = byIndex.get(i + 1);
+            if (item == null) continue;
+            Candidate c = batch.get(i);
+
+            int tech = ScoringService.normalizeScore(item.getTech());
+            int comm = ScoringService.normalizeScore(item.getComm());
+            int cases = ScoringService.normalizeScore(item.getCases());
+
+            CandidateVacancyMatchEntity m = dm.create(CandidateVacancyMatchEntity.class);
+            m.setCandidate(candidate);
+            m.setVacancy(c.vacancy());
+            m.setResumeVersionId(resumeVersionId);
+            m.setVacancyHash(c.hash());
+            m.setSimilarity(c.similarity());
+            m.setTechScore((long) tech);
+            m.setCommScore((long) comm);
+            m.setCasesScore((long) cases);
+            m.setTotalScore((long) ScoringService.weightedTotal(c.vacancy(), tech, comm, cases));
+            m.setSummary(item.getSummary());
+            m.setCreatedAt(LocalDateTime.now());
+            ctx.saving(m);
+            matches.add(m);
+
+            // устаревшие оценки этой пары кандидат/вакансия больше не нужны
+            dm.load(CandidateVacancyMatchEntity.class)
+                    .query("select m from CandidateVacancyMatchEntity m where m.candidate = :c and m.vacancy = :v")
+                    .parameter("c", candidate)
+                    .parameter("v", c.vacancy())
+                    .list()
+                    .forEach(ctx::removing);
+        }
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        EntitySet saved = dm.save(ctx);
+        return matches.stream()
+                .map(m -> saved.get(CandidateVacancyMatchEntity.class, m.getId()))
+                .toList();
+    }
+
+    /**
+     * Доля навыков резюме, упомянутых в тексте вакансии (0..1).
+     */
+    private static double keywordOverlap(Set<String> skills, String jd) {
+        if (skills.isEmpty() || jd == null) return 0;
+        String text = jd.toLowerCase(Locale.ROOT);
+        long hits = skills.stream().filter(text::contains).count();
+        return (double) hits / skills.size();
+    }
+
+    private static String safeTrim(String s, int max) {
+        if (s == null) return "";
+        return s.length() > max ? s.substring(0, max) : s;
+    }
+}
@@ -0,0 +1,589 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import io.jmix.core.DataManager;
+import io.jmix.core.entity.KeyValueEntity;
+import io.jmix.core.security.SystemAuthenticator;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс навыков: «у кого есть X и Y» без запросов к БД.
+ * <p>
+ * Кандидату выдаётся порядковый номер, навык из справочника указывает на {@link BitSet} номеров
+ * кандидатов, у которых он есть в последней версии резюме. Запрос {@code java AND (kafka OR rabbitmq)
+ * NOT php} — это AND/OR/ANDNOT битовых множеств; стаж (объединение интервалов
+ * {@code ResumeExperienceEntity}) лежит в массиве по тому же номеру. На 200 тыс. кандидатов множество
+ * занимает ~25 КБ, запрос — доли миллисекунды. Индекс обновляется после коммита каждой версии резюме.
+ * <p>
+ * Индекс у каждого узла свой, поэтому он периодически ({@code hunty.skill-index.resync-minutes})
+ * пересобирается из БД и подменяется целиком: так подтягиваются резюме, сохранённые на других узлах,
+ * и строки навыков, связанные со справочником позже. Изменения, пришедшие на этом узле во время
+ * пересборки, применяются к новому индексу поверх загруженного.
+ */
+@Service
+@Slf4j
+public class CandidateSkillIndexService {
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Hit {
+        private final UUID candidateId;
+        private final int experienceYears;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class SearchResult {
+        private final List<Hit> hits;
+        // всего подходящих кандидатов, в hits — не больше limit
+        private final int total;
+        // написания из запроса, которых нет в справочнике навыков
+        private final Set<String> unknownSkills;
+        private final long tookMicros;
+    }
+
+    private final DataManager dm;
+    private final SkillTaxonomyService skillTaxonomyService;
+    private final SystemAuthenticator authenticator;
+
+    /**
+     * Номера кандидатов, постинги навыков и стаж по номеру.
+     */
+    private static final class Index {
+        private final Map<UUID, Integer> ordinals = new HashMap<>();
+        private final List<UUID> candidates = new ArrayList<>();
+        private final List<BitSet> skillsByOrdinal = new ArrayList<>();
+        private final Map<Integer, BitSet> postings = new HashMap<>();
+        private final BitSet live = new BitSet();
+        private int[] experienceMonths = new int[1024];
+
+        void put(UUID candidateId, BitSet skills, int months) {
+            Integer o = ordinals.get(candidateId);
+            if (o == null) {
+                o = candidates.size();
+                ordinals.put(candidateId, o);
+                candidates.add(candidateId);
+                skillsByOrdinal.add(null);
+                if (o >= experienceMonths.length) {
+                    experienceMonths = Arrays.copyOf(experienceMonths, experienceMonths.length * 2);
+                }
+            } else {
+                clearSkills(o);
+            }
+            for (int s = skills.nextSetBit(0); s >= 0; s = skills.nextSetBit(s + 1)) {
+                postings.computeIfAbsent(s, id -> new BitSet()).set(o);
+            }
+            skillsByOrdinal.set(o, skills);
+            experienceMonths[o] = months;
+            live.set(o);
+        }
+
+        void remove(UUID candidateId) {
+            Integer o = ordinals.get(candidateId);
+            if (o == null) return;
+            clearSkills(o);
+            live.clear(o);
+            experienceMonths[o] = 0;
+        }
+
+        private void clearSkills(int o) {
+            BitSet old = skillsByOrdinal.get(o);
+            if (old == null) return;
+            for (int s = old.nextSetBit(0); s >= 0; s = old.nextSetBit(s + 1)) {
+                BitSet posting = postings.get(s);
+                if (posting != null) posting.clear(o);
+            }
+            skillsByOrdinal.set(o, null);
+        }
+    }
+
+    // изменение кандидата на этом узле; skills == null — кандидат удалён
+    private record Update(@Nullable BitSet skills, int months) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // поля ниже — под lock
+    private Index index = new Index();
+    // не null, пока идёт пересборка
+    @Nullable
+    private Map<UUID, Update> updatesDuringRebuild;
+    private volatile boolean loaded;
+
+    public CandidateSkillIndexService(DataManager dm,
+                                      SkillTaxonomyService skillTaxonomyService,
+                                      SystemAuthenticator authenticator) {
+        this.dm = dm;
+        this.skillTaxonomyService = skillTaxonomyService;
+        this.authenticator = authenticator;
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        // строки навыков должны быть связаны со справочником до загрузки индекса
+        skillTaxonomyService.whenReady().thenRunAsync(() -> authenticator.runWithSystem(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.warn("Candidate skill index load failed: {}", e.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Периодическая пересборка из БД (до первой загрузки не выполняется).
+     */
+    @Scheduled(fixedDelayString = "${hunty.skill-index.resync-minutes:15}",
+            initialDelayString = "${hunty.skill-index.resync-minutes:15}", timeUnit = TimeUnit.MINUTES)
+    public void resync() {
+        if (!loaded) return;
+        authenticator.runWithSystem(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.warn("Candidate skill index resync failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Поиск по выражению навыков и стажу.
+     *
+     * @param expression навыки с операторами AND/OR/NOT (И/ИЛИ/НЕ, запятая — AND) и скобками;
+     *                   пустое выражение — все кандидаты
+     * @param minYears   минимальный стаж в годах или null
+     * @param maxYears   максимальный стаж в годах или null
+     * @param limit      сколько кандидатов вернуть (с наибольшим стажем)
+     * @throws IllegalArgumentException если выражение не разбирается
+     */
+    public SearchResult search(@Nullable String expression, @Nullable Integer minYears,
+                               @Nullable Integer maxYears, int limit) {
+        return search(SkillQuery.parse(expression), minYears, maxYears, limit);
+    }
+
+    public SearchResult search(SkillQuery query, @Nullable Integer minYears, @Nullable Integer maxYears, int limit) {
+        long started = System.nanoTime();
+        Set<String> unknown = new LinkedHashSet<>();
+        for (String term : query.terms()) {
+            if (skillTaxonomyService.findId(term) == null) unknown.add(term);
+        }
+
+        lock.readLock().lock();
+        try {
+            Index idx = index;
+            BitSet matched = query.root == null ? (BitSet) idx.live.clone() : eval(idx, query.root);
+            matched.and(idx.live);
+            int[] experienceMonths = idx.experienceMonths;
+
+            int minMonths = minYears == null ? Integer.MIN_VALUE : minYears * 12;
+            int maxMonths = maxYears == null ? Integer.MAX_VALUE : maxYears * 12 + 11;
+            PriorityQueue<Integer> top = new PriorityQueue<>(Comparator.comparingInt(o -> experienceMonths[o]));
+            int total = 0;
+            for (int o = matched.nextSetBit(0); o >= 0; o = matched.nextSetBit(o + 1)) {
+                int months = experienceMonths[o];
+                if (months < minMonths || months > maxMonths) continue;
+                total++;
+                if (limit <= 0) continue;
+                if (top.size() < limit) {
+                    top.add(o);
+                } else if (months > experienceMonths[top.peek()]) {
+                    top.poll();
+                    top.add(o);
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(top.size());
+            for (Integer o : top) {
+                hits.add(new Hit(idx.candidates.get(o), experienceMonths[o] / 12));
+            }
+            hits.sort(Comparator.comparingInt(Hit::getExperienceYears).reversed());
+            return new SearchResult(hits, total, unknown, (System.nanoTime() - started) / 1000);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Вызывается после коммита новой версии резюме: её навыки и стаж заменяют прежние у кандидата.
+     */
+    public void indexResumeVersion(UUID resumeVersionId) {
+        UUID candidateId = dm.loadValue("select v.candidate.id from ResumeVersionEntity v where v.id = :id",
+                        UUID.class)
+                .parameter("id", resumeVersionId)
+                .optional().orElse(null);
+        if (candidateId == null) return;
+
+        BitSet skills = new BitSet();
+        dm.loadValues("select s.skill.id from ResumeSkillEntity s " +
+                        "where s.resumeVersionEntity.id = :id and s.skill is not null")
+                .properties("skillId")
+                .parameter("id", resumeVersionId)
+                .list()
+                .forEach(row -> skills.set(row.<Integer>getValue("skillId")));
+
+        List<LocalDate[]> intervals = new ArrayList<>();
+        dm.loadValues("select e.startAt, e.endDate from ResumeExperienceEntity e " +
+                        "where e.resumeVersionEntity.id = :id and e.startAt is not null")
+                .properties("startAt", "endDate")
+                .parameter("id", resumeVersionId)
+                .list()
+                .forEach(row -> intervals.add(new LocalDate[]{row.getValue("startAt"), row.getValue("endDate")}));
+
+        put(candidateId, skills, experienceMonths(intervals));
+    }
+
+    /**
+     * Вызывается после удаления кандидата.
+     */
+    public void remove(UUID candidateId) {
+        lock.writeLock().lock();
+        try {
+            index.remove(candidateId);
+            if (updatesDuringRebuild != null) updatesDuringRebuild.put(candidateId, new Update(null, 0));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Стаж в месяцах: пересекающиеся периоды (совместительство) не суммируются дважды, открытый
+     * период длится по сегодняшний день.
+     */
+    static int experienceMonths(List<LocalDate[]> intervals) {
+        if (intervals.isEmpty()) return 0;
+        LocalDate today = LocalDate.now();
+        List<LocalDate[]> sorted = new ArrayList<>();
+        for (LocalDate[] i : intervals) {
+            if (i[0] == null) continue;
+            LocalDate end = i[1] == null || i[1].isAfter(today) ? today : i[1];
+            if (end.isBefore(i[0])) continue;
+            sorted.add(new LocalDate[]{i[0], end});
+        }
+        sorted.sort(Comparator.comparing(i -> i[0]));
+
+        long months = 0;
+        LocalDate curStart = null;
+        LocalDate curEnd = null;
+        for (LocalDate[] i : sorted) {
+            if (curEnd != null && !i[0].isAfter(curEnd)) {
+                if (i[1].isAfter(curEnd)) curEnd = i[1];
+                continue;
+            }
+            if (curStart != null) months += ChronoUnit.MONTHS.between(curStart, curEnd);
+            curStart = i[0];
+            curEnd = i[1];
+        }
+        if (curStart != null) months += ChronoUnit.MONTHS.between(curStart, curEnd);
+        return (int) Math.min(months, Integer.MAX_VALUE);
+    }
+
+    // -------- internals --------
+
+    private BitSet eval(Index idx, SkillQuery.Node node) {
+        if (node instanceof SkillQuery.Term term) {
+            Integer skillId = skillTaxonomyService.findId(term.name());
+            BitSet posting = skillId == null ? null : idx.postings.get(skillId);
+            return posting == null ? new BitSet() : (BitSet) posting.clone();
+        }
+        if (node instanceof SkillQuery.Not not) {
+            BitSet result = (BitSet) idx.live.clone();
+            result.andNot(eval(idx, not.operand()));
+            return result;
+        }
+        SkillQuery.Binary binary = (SkillQuery.Binary) node;
+        BitSet left = eval(idx, binary.left());
+        BitSet right = eval(idx, binary.right());
+        if (binary.and()) left.and(right); else left.or(right);
+        return left;
+    }
+
+    private void put(UUID candidateId, BitSet skills, int months) {
+        lock.writeLock().lock();
+        try {
+            index.put(candidateId, skills, months);
+            if (updatesDuringRebuild != null) updatesDuringRebuild.put(candidateId, new Update(skills, months));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Загружает новый индекс из БД и подменяет им текущий; поиск всё это время работает по старому.
+     */
+    private synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            updatesDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Index fresh = null;
+        try {
+            fresh = load();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (fresh != null) {
+                    // изменения во время загрузки свежее прочитанного
+                    for (Map.Entry<UUID, Update> e : updatesDuringRebuild.entrySet()) {
+                        Update u = e.getValue();
+                        if (u.skills() == null) fresh.remove(e.getKey());
+                        else fresh.put(e.getKey(), u.skills(), u.months());
+                    }
+                    index = fresh;
+                }
+                updatesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        loaded = true;
+        log.info("Candidate skill index rebuilt: {} candidates in {} ms", size(), System.currentTimeMillis() - started);
+    }
+
+    private Index load() {
+        String latest = "v.createdAt = (select max(v2.createdAt) from ResumeVersionEntity v2 where v2.candidate = v.candidate)";
+
+        Map<UUID, BitSet> skills = new HashMap<>();
+        for (KeyValueEntity row : dm.loadValues("select v.candidate.id, s.skill.id from ResumeSkillEntity s " +
+                        "join s.resumeVersionEntity v where s.skill is not null and " + latest)
+                .properties("candidateId", "skillId")
+                .list()) {
+            skills.computeIfAbsent(row.getValue("candidateId"), id -> new BitSet())
+                    .set(row.<Integer>getValue("skillId"));
+        }
+
+        Map<UUID, List<LocalDate[]>> intervals = new HashMap<>();
+        for (KeyValueEntity row : dm.loadValues("select v.candidate.id, e.startAt, e.endDate from ResumeExperienceEntity e " +
+                        "join e.resumeVersionEntity v where e.startAt is not null and " + latest)
+                .properties("candidateId", "startAt", "endDate")
+                .list()) {
+            intervals.computeIfAbsent(row.getValue("candidateId"), id -> new ArrayList<>())
+                    .add(new LocalDate[]{row.getValue("startAt"), row.getValue("endDate")});
+        }
+
+        Index fresh = new Index();
+        Set<UUID> ids = new LinkedHashSet<>(skills.keySet());
+        ids.addAll(intervals.keySet());
+        for (UUID id : ids) {
+            fresh.put(id, skills.getOrDefault(id, new BitSet()),
+                    experienceMonths(intervals.getOrDefault(id, List.of())));
+        }
+        return fresh;
+    }
+
+    /**
+     * Разобранный запрос по навыкам. Приоритет: NOT, затем AND (или запятая, или «x NOT y»), затем OR.
+     * Соседние слова без оператора — одно название навыка («spring boot»); кавычки — тоже.
+     */
+    public static final class SkillQuery {
+
+        interface Node {
+        }
+
+        record Term(String name) implements Node {
+        }
+
+        record Not(Node operand) implements Node {
+        }
+
+        record Binary(Node left, Node right, boolean and) implements Node {
+        }
+
+        @Nullable
+        private final Node root;
+        private final List<String> terms;
+
+        private SkillQuery(@Nullable Node root, List<String> terms) {
+            this.root = root;
+            this.terms = terms;
+        }
+
+        public List<String> terms() {
+            return terms;
+        }
+
+        @Nullable
+        Node root() {
+            return root;
+        }
+
+        /**
+         * Все навыки одновременно.
+         */
+        public static SkillQuery allOf(Collection<String> skills) {
+            Node root = null;
+            List<String> terms = new ArrayList<>();
+            for (String skill : skills) {
+                if (skill == null || skill.isBlank()) continue;
+                Node term = new Term(skill.strip());
+                terms.add(skill.strip());
+                root = root == null ? term : new Binary(root, term, true);
+            }
+            return new SkillQuery(root, terms);
+        }
+
+        public static SkillQuery parse(@Nullable String expression) {
+            if (expression == null || expression.isBlank()) return new SkillQuery(null, List.of());
+            Parser parser = new Parser(tokenize(expression));
+            Node root = parser.parseOr();
+            if (parser.pos < parser.tokens.size()) {
+                throw new IllegalArgumentException("Лишний символ в запросе: " + parser.tokens.get(parser.pos));
+            }
+            return new SkillQuery(root, parser.terms);
+        }
+
+        private static List<String> tokenize(String text) {
+            List<String> tokens = new ArrayList<>();
+            StringBuilder word = new StringBuilder();
+            for (int i = 0; i < text.length(); i++) {
+                char ch = text.charAt(i);
+                if (ch == '"') {
+                    flush(word, tokens);
+                    int close = text.indexOf('"', i + 1);
+                    if (close < 0) throw new IllegalArgumentException("Не закрыта кавычка в запросе");
+                    tokens.add("\"" + text.substring(i + 1, close));
+                    i = close;
+                } else if ("(),&|!".indexOf(ch) >= 0) {
+                    flush(word, tokens);
+                    tokens.add(String.valueOf(ch));
+                } else if (Character.isWhitespace(ch)) {
+                    flush(word, tokens);
+                } else {
+                    word.append(ch);
+                }
+            }
+            flush(word, tokens);
+            return tokens;
+        }
+
+        private static void flush(StringBuilder word, List<String> tokens) {
+            if (word.isEmpty()) return;
+            tokens.add(word.toString());
+            word.setLength(0);
+        }
+
+        private static final class Parser {
+            private final List<String> tokens;
+            private final List<String> terms = new ArrayList<>();
+            private int pos;
+
+            private Parser(List<String> tokens) {
+                this.tokens = tokens;
+            }
+
+            Node parseOr() {
+                Node left = parseAnd();
+                while (is("OR")) {
+                    pos++;
+                    left = new Binary(left, parseAnd(), false);
+                }
+                return left;
+            }
+
+            Node parseAnd() {
+                Node left = parseUnary();
+                while (true) {
+                    if (is("AND")) {
+                        pos++;
+                    } else if (!is("NOT")) {
+                        return left;
+                    }
+                    // «java NOT php» читается как «java AND NOT php»
+                    left = new Binary(left, parseUnary(), true);
+                }
+            }
+
+            Node parseUnary() {
+                if (pos >= tokens.size()) throw new IllegalArgumentException("Запрос обрывается на операторе");
+                if (is("NOT")) {
+                    pos++;
+                    return new Not(parseUnary());
+                }
+                String token = tokens.get(pos);
+                if (token.equals("(")) {
+                    pos++;
+                    Node inner = parseOr();
+                    if (pos >= tokens.size() || !tokens.get(pos).equals(")")) {
+                        throw new IllegalArgumentException("Не закрыта скобка в запросе");
+                    }
+                    pos++;
+                    return inner;
+                }
+                if (token.startsWith("\"")) {
+                    pos++;
+                    return term(token.substring(1));
+                }
+                if (operator(token) != null || token.equals(")")) {
+                    throw new IllegalArgumentException("Ожидался навык, а не «" + token + "»");
+                }
+                StringBuilder name = new StringBuilder();
+                while (pos < tokens.size() && isWord(tokens.get(pos))) {
+                    if (!name.isEmpty()) name.append(' ');
+                    name.append(tokens.get(pos++));
+                }
+                return term(name.toString());
+            }
+
+            private Node term(String name) {
+                String trimmed = name.strip();
+                if (trimmed.isEmpty()) throw new IllegalArgumentException("Пустое название навыка в запросе");
+                terms.add(trimmed);
+                return new Term(trimmed);
+            }
+
+            private boolean is(String op) {
+                return pos < tokens.size() && op.equals(operator(tokens.get(pos)));
+            }
+
+            private static boolean isWord(String token) {
+                return operator(token) == null && !token.equals("(") && !token.equals(")")
+                        && !token.startsWith("\"");
+            }
+
+            @Nullable
+            private static String operator(String token) {
+                return switch (token.toUpperCase(Locale.ROOT)) {
+                    case "AND", "И", "&", "," -> "AND";
+                    case "OR", "ИЛИ", "|" -> "OR";
+                    case "NOT", "НЕ", "!" -> "NOT";
+                    default -> null;
+                };
+            }
+        }
+    }
+}
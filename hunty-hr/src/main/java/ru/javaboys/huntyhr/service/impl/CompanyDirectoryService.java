@@ -0,0 +1,302 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.jmix.core.DataManager;
+import io.jmix.core.Id;
+import io.jmix.core.SaveContext;
+import io.jmix.core.entity.KeyValueEntity;
+import io.jmix.core.security.SystemAuthenticator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.javaboys.huntyhr.entity.CompanyEntity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Справочник компаний для импорта опыта работы.
+ * <p>
+ * Название сводится к ключу {@link #normalize(String)} (регистр, пунктуация, ООО/LLC и т.п.), ключ
+ * хранится в индексированной колонке {@code NORMALIZED_NAME}. Сначала проверяются синонимы
+ * ({@code CompanyEntity.aliases}), затем ограниченный кеш ключ → id, затем один запрос на все
+ * промахи. Новые компании создаются пачкой под advisory-lock по ключу, поэтому параллельные
+ * импорты не заводят одну компанию дважды.
+ * <p>
+ * Пока фоновое дозаполнение {@code NORMALIZED_NAME} после старта не закончилось, промахи дополнительно
+ * ищутся среди ещё не нормализованных компаний по названию.
+ */
+@Service
+@Slf4j
+public class CompanyDirectoryService {
+
+    private static final Set<String> LEGAL_FORMS = Set.of(
+            "ооо", "оао", "зао", "пао", "нао", "ао", "ип", "фгуп", "гуп", "муп", "нко", "ано",
+            "llc", "ltd", "inc", "gmbh", "corp", "corporation", "co", "plc", "ag", "sa", "bv");
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int BACKFILL_PAGE = 500;
+
+    private final DataManager dm;
+    private final SystemAuthenticator authenticator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Cache<String, UUID> idsByKey;
+    private final Map<String, UUID> aliases = new ConcurrentHashMap<>();
+    private volatile boolean backfilled;
+
+    public CompanyDirectoryService(DataManager dm,
+                                   SystemAuthenticator authenticator,
+                                   @Value("${hunty.company-cache.max-size:20000}") long maxSize) {
+        this.dm = dm;
+        this.authenticator = authenticator;
+        this.idsByKey = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        CompletableFuture.runAsync(() -> authenticator.runWithSystem(() -> {
+            try {
+                backfillNormalizedNames();
+                loadAliases();
+            } catch (Exception e) {
+                log.warn("Company directory warm-up failed: {}", e.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Находит или создаёт компании для набора названий в текущей транзакции.
+     *
+     * @return компания по каждому исходному (непустому) названию
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<String, CompanyEntity> resolveAll(Collection<String> names) {
+        Map<String, String> keyByName = new LinkedHashMap<>();
+        for (String name : names) {
+            String key = normalize(name);
+            if (key != null) keyByName.put(name, key);
+        }
+        if (keyByName.isEmpty()) return Map.of();
+
+        Map<String, UUID> idByKey = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String key : keyByName.values()) {
+            if (idByKey.containsKey(key)) continue;
+            UUID id = aliases.get(key);
+            if (id == null) id = idsByKey.getIfPresent(key);
+            if (id != null) {
+                idByKey.put(key, id);
+            } else if (!misses.contains(key)) {
+                misses.add(key);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            findExisting(misses, idByKey);
+            misses.removeIf(idByKey::containsKey);
+        }
+        if (!misses.isEmpty()) {
+            createMissing(keyByName, misses, idByKey);
+        }
+        rememberAfterCommit(idByKey);
+
+        Map<String, CompanyEntity> result = new HashMap<>();
+        keyByName.forEach((name, key) ->
+                result.put(name, dm.getReference(Id.of(idByKey.get(key), CompanyEntity.class))));
+        return result;
+    }
+
+    @Nullable
+    public CompanyEntity resolve(String name) {
+        return resolveAll(List.of(name)).get(name);
+    }
+
+    /**
+     * Ключ поиска компании: нижний регистр, ё → е, только буквы и цифры, без орг.-правовой формы.
+     */
+    @Nullable
+    public static String normalize(@Nullable String name) {
+        if (name == null) return null;
+        String cleaned = name.toLowerCase(Locale.ROOT)
+                .replace('ё', 'е')
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+        if (cleaned.isEmpty()) return null;
+
+        List<String> tokens = new ArrayList<>(List.of(cleaned.split(" ")));
+        List<String> meaningful = tokens.stream().filter(t -> !LEGAL_FORMS.contains(t)).toList();
+        // «ООО» само по себе не превращаем в пустую строку
+        String key = String.join(" ", meaningful.isEmpty() ? tokens : meaningful);
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    /**
+     * Значение колонки {@code NORMALIZED_NAME}; для пустого названия — пустая строка, а не null,
+     * чтобы такие записи не попадали в дозаполнение повторно.
+     */
+    public static String normalizedKey(@Nullable String name) {
+        String key = normalize(name);
+        return key == null ? "" : key;
+    }
+
+    /**
+     * Вызывается после коммита изменений компании: сбрасывает кеш и перечитывает её синонимы.
+     */
+    public void onCompanyChanged(UUID companyId, boolean deleted) {
+        idsByKey.asMap().values().removeIf(companyId::equals);
+        aliases.values().removeIf(companyId::equals);
+        if (deleted) return;
+        dm.load(CompanyEntity.class).id(companyId).optional()
+                .ifPresent(c -> putAliases(c.getId(), c.getAliases()));
+    }
+
+    // -------- internals --------
+
+    private void findExisting(List<String> keys, Map<String, UUID> idByKey) {
+        List<KeyValueEntity> rows = dm.loadValues("select c.id, c.normalizedName from CompanyEntity c " +
+                        "where c.normalizedName in :keys order by c.id")
+                .properties("id", "key")
+                .parameter("keys", keys)
+                .list();
+        for (KeyValueEntity row : rows) {
+            String key = row.getValue("key");
+            UUID id = row.getValue("id");
+            // старые дубли: берём одну и ту же компанию детерминированно
+            idByKey.putIfAbsent(key, id);
+        }
+        if (!backfilled) {
+            findLegacy(keys, idByKey);
+        }
+    }
+
+    /**
+     * Поиск среди компаний без {@code NORMALIZED_NAME}: ключ считается по названию в памяти.
+     */
+    private void findLegacy(List<String> keys, Map<String, UUID> idByKey) {
+        Set<String> wanted = new HashSet<>(keys);
+        wanted.removeAll(idByKey.keySet());
+        UUID after = null;
+        while (!wanted.isEmpty()) {
+            var loader = dm.loadValues("select c.id, c.name from CompanyEntity c " +
+                            "where c.normalizedName is null" + (after == null ? "" : " and c.id > :after") +
+                            " order by c.id")
+                    .properties("id", "name");
+            if (after != null) loader = loader.parameter("after", after);
+            List<KeyValueEntity> page = loader.maxResults(BACKFILL_PAGE).list();
+            for (KeyValueEntity row : page) {
+                String key = normalize(row.getValue("name"));
+                if (key != null && wanted.remove(key)) {
+                    idByKey.put(key, row.getValue("id"));
+                }
+            }
+            if (page.size() < BACKFILL_PAGE) break;
+            after = page.get(page.size() - 1).getValue("id");
+        }
+    }
+
+    private void createMissing(Map<String, String> keyByName, List<String> keys, Map<String, UUID> idByKey) {
+        // блокировки в одном порядке во всех транзакциях — без взаимных блокировок
+        TreeMap<String, String> displayByKey = new TreeMap<>();
+        keyByName.forEach((name, key) -> {
+            if (keys.contains(key)) displayByKey.putIfAbsent(key, name.trim());
+        });
+        for (String key : displayByKey.keySet()) {
+            entityManager.createNativeQuery("select pg_advisory_xact_lock(hashtext('company'), hashtext(?1))")
+                    .setParameter(1, key)
+                    .getResultList();
+        }
+
+        // пока ждали блокировку, компанию мог создать параллельный импорт
+        findExisting(new ArrayList<>(displayByKey.keySet()), idByKey);
+
+        SaveContext ctx = new SaveContext();
+        Map<String, UUID> created = new HashMap<>();
+        displayByKey.forEach((key, display) -> {
+            if (idByKey.containsKey(key)) return;
+            CompanyEntity c = dm.create(CompanyEntity.class);
+            c.setName(display);
+            c.setNormalizedName(key);
+            ctx.saving(c);
+            created.put(key, c.getId());
+        });
+        if (created.isEmpty()) return;
+
+        dm.save(ctx);
+        idByKey.putAll(created);
+    }
+
+    /**
+     * В кеш — только после коммита: в пакетном импорте запрос может вернуть компанию, созданную
+     * этой же транзакцией, и при откате в кеше остался бы несуществующий id.
+     */
+    private void rememberAfterCommit(Map<String, UUID> idByKey) {
+        Map<String, UUID> snapshot = Map.copyOf(idByKey);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                idsByKey.putAll(snapshot);
+            }
+        });
+    }
+
+    private void backfillNormalizedNames() {
+        int total = 0;
+        while (true) {
+            List<CompanyEntity> page = dm.load(CompanyEntity.class)
+                    .query("select c from CompanyEntity c where c.normalizedName is null")
+                    .maxResults(BACKFILL_PAGE)
+                    .list();
+            if (page.isEmpty()) break;
+            SaveContext ctx = new SaveContext();
+            for (CompanyEntity c : page) {
+                c.setNormalizedName(normalizedKey(c.getName()));
+                ctx.saving(c);
+            }
+            dm.save(ctx);
+            total += page.size();
+        }
+        backfilled = true;
+        if (total > 0) {
+            log.info("Company normalized names backfilled: {}", total);
+        }
+    }
+
+    private void loadAliases() {
+        dm.loadValues("select c.id, c.aliases from CompanyEntity c where c.aliases is not null")
+                .properties("id", "aliases")
+                .list()
+                .forEach(row -> putAliases(row.getValue("id"), row.getValue("aliases")));
+        log.info("Company aliases loaded: {}", aliases.size());
+    }
+
+    private void putAliases(UUID companyId, @Nullable String raw) {
+        if (raw == null) return;
+        for (String alias : raw.split("[,;\\n]")) {
+            String key = normalize(alias);
+            if (key != null) aliases.put(key, companyId);
+        }
+    }
+}
@@ -1,46 +1,142 @@
 package ru.javaboys.huntyhr.service.impl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.jmix.core.DataManager;
 import io.jmix.core.FileRef;
 import io.jmix.core.FileStorage;
 import io.jmix.core.FileStorageLocator;
+import io.jmix.core.SaveContext;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.tika.exception.TikaException;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.parser.AutoDetectParser;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.sax.BodyContentHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.xml.sax.SAXException;
+import ru.javaboys.huntyhr.entity.DocumentTextEntity;
+import ru.javaboys.huntyhr.entity.DocumentTextRefEntity;
 import ru.javaboys.huntyhr.service.DocParseService;
+import ru.javaboys.huntyhr.util.Hashes;
 
-import java.io.File;
-import java.io.FileInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Optional;
 
+/**
+ * Извлечение текста из документов через Tika с кэшем по SHA-256 содержимого.
+ * <p>
+ * Два уровня: LRU в памяти (ограничен суммарной длиной текстов) и таблица {@code DOCUMENT_TEXT_ENTITY}.
+ * Для {@link FileRef} дополнительно запоминается ref → hash, чтобы повторный вызов не скачивал файл из S3:
+ * ref, под которым текст впервые распознан, хранится в самой записи текста, остальные ссылки на то же
+ * содержимое — в {@code DOCUMENT_TEXT_REF_ENTITY}.
+ */
 @Service
 @Slf4j
 public class DocParseServiceImpl implements DocParseService {
     private final FileStorageLocator fileStorageLocator;
+    private final DataManager dm;
 
-    public DocParseServiceImpl(FileStorageLocator fileStorageLocator) {
+    private final Cache<String, String> textByHash;
+    private final Cache<String, String> hashByRef;
+
+    public DocParseServiceImpl(FileStorageLocator fileStorageLocator,
+                               DataManager dm,
+                               @Value("${hunty.doc-text-cache.max-chars:50000000}") long maxChars,
+                               @Value("${hunty.doc-text-cache.max-refs:10000}") long maxRefs) {
         this.fileStorageLocator = fileStorageLocator;
+        this.dm = dm;
+        this.textByHash = CacheBuilder.newBuilder()
+                .maximumWeight(maxChars)
+                .<String, String>weigher((hash, text) -> text.length())
+                .build();
+        this.hashByRef = CacheBuilder.newBuilder()
+                .maximumSize(maxRefs)
+                .build();
     }
 
     @Override
     public String parseToText(FileRef fileRef) {
+        String ref = fileRef.toString();
+
+        String knownHash = hashByRef.getIfPresent(ref);
+        if (knownHash != null) {
+            String cached = textByHash.getIfPresent(knownHash);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        Optional<DocumentTextEntity> stored = loadByRef(ref);
+        if (stored.isPresent()) {
+            DocumentTextEntity doc = stored.get();
+            remember(ref, doc.getContentHash(), doc.getText());
+            return doc.getText();
+        }
+
         FileStorage fs = fileStorageLocator.getByName(fileRef.getStorageName());
+        byte[] content;
         try (InputStream is = fs.openStream(fileRef)) {
-            return parseToText(is, fileRef.getFileName());
+            content = is.readAllBytes();
         } catch (Exception e) {
             log.error("Failed to open stream for {}", fileRef, e);
             throw new RuntimeException("Unable to open file content", e);
         }
+        return parseCached(content, fileRef.getFileName(), ref);
     }
 
     @Override
     public String parseToText(InputStream is, @Nullable String originalName) {
+        return parseToText(is, originalName, null);
+    }
+
+    @Override
+    public String parseToText(InputStream is, @Nullable String originalName, @Nullable FileRef fileRef) {
+        byte[] content;
+        try {
+            content = is.readAllBytes();
+        } catch (IOException e) {
+            log.error("Failed to read stream (name={})", originalName, e);
+            throw new RuntimeException("Unable to read document content", e);
+        }
+        return parseCached(content, originalName, fileRef == null ? null : fileRef.toString());
+    }
+
+    private String parseCached(byte[] content, @Nullable String originalName, @Nullable String ref) {
+        String hash = Hashes.sha256(content);
+
+        String cached = textByHash.getIfPresent(hash);
+        if (cached != null) {
+            storeRef(ref, hash);
+            remember(ref, hash, cached);
+            return cached;
+        }
+
+        Optional<DocumentTextEntity> stored = loadByHash(hash);
+        if (stored.isPresent()) {
+            if (ref != null && !ref.equals(stored.get().getFileRef())) {
+                storeRef(ref, hash);
+            }
+            String text = stored.get().getText();
+            remember(ref, hash, text);
+            return text;
+        }
+
+        long started = System.currentTimeMillis();
+        String text = parse(new ByteArrayInputStream(content), originalName);
+        log.debug("Parsed {} ({} bytes) in {} ms", originalName, content.length, System.currentTimeMillis() - started);
+
+        store(hash, ref, text);
+        remember(ref, hash, text);
+        return text;
+    }
+
+    private String parse(InputStream is, @Nullable String originalName) {
         try {
             AutoDetectParser parser = new AutoDetectParser();
             BodyContentHandler handler = new BodyContentHandler(-1);
@@ -58,4 +154,69 @@ public class DocParseServiceImpl implements DocParseService {
             throw new RuntimeException("Unable to parse document to text", e);
         }
     }
+
+    private void remember(@Nullable String ref, String hash, String text) {
+        textByHash.put(hash, text);
+        if (ref != null) {
+            hashByRef.put(ref, hash);
+        }
+    }
+
+    private Optional<DocumentTextEntity> loadByRef(String ref) {
+        Optional<DocumentTextEntity> own = dm.unconstrained().load(DocumentTextEntity.class)
+                .query("select d from DocumentTextEntity d where d.fileRef = :ref")
+                .parameter("ref", ref)
+                .maxResults(1)
+                .optional();
+        if (own.isPresent()) {
+            return own;
+        }
+        return dm.unconstrained().load(DocumentTextRefEntity.class)
+                .query("select r from DocumentTextRefEntity r where r.fileRef = :ref")
+                .parameter("ref", ref)
+                .optional()
+                .flatMap(r -> loadByHash(r.getContentHash()));
+    }
+
+    private Optional<DocumentTextEntity> loadByHash(String hash) {
+        return dm.unconstrained().load(DocumentTextEntity.class)
+                .query("select d from DocumentTextEntity d where d.contentHash = :hash")
+                .parameter("hash", hash)
+                .optional();
+    }
+
+    /**
+     * Запоминает в БД ещё одну ссылку на уже распознанное содержимое. Пропускается, если связка уже
+     * известна этому узлу.
+     */
+    private void storeRef(@Nullable String ref, String hash) {
+        if (ref == null || hash.equals(hashByRef.getIfPresent(ref))) {
+            return;
+        }
+        DocumentTextRefEntity link = dm.create(DocumentTextRefEntity.class);
+        link.setFileRef(ref);
+        link.setContentHash(hash);
+        link.setCreatedAt(LocalDateTime.now());
+        try {
+            dm.unconstrained().save(new SaveContext().saving(link).setJoinTransaction(false));
+        } catch (Exception e) {
+            // ссылка уже сохранена другим узлом или предыдущим вызовом
+            log.debug("Document text ref {} was not stored: {}", ref, e.getMessage());
+        }
+    }
+
+    private void store(String hash, @Nullable String ref, String text) {
+        DocumentTextEntity doc = dm.create(DocumentTextEntity.class);
+        doc.setContentHash(hash);
+        doc.setFileRef(ref);
+        doc.setText(text);
+        doc.setCreatedAt(LocalDateTime.now());
+        try {
+            // отдельная транзакция: гонка по уникальному хэшу не должна откатывать транзакцию вызывающего
+            dm.unconstrained().save(new SaveContext().saving(doc).setJoinTransaction(false));
+        } catch (Exception e) {
+            // параллельный импорт того же файла уже сохранил текст — это не ошибка
+            log.debug("Document text {} was not stored: {}", hash, e.getMessage());
+        }
+    }
 }
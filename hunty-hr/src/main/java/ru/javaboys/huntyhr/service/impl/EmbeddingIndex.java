@@ -0,0 +1,95 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import org.springframework.lang.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Нормированные вектора одного пространства (кандидаты или вакансии) в памяти и точный top-K по
+ * косинусной близости.
+ */
+final class EmbeddingIndex {
+
+    record Vector(UUID sourceId, String contentHash, float[] values) {
+    }
+
+    private final Map<UUID, Vector> vectors = new ConcurrentHashMap<>();
+
+    @Nullable
+    Vector get(UUID ownerId) {
+        return vectors.get(ownerId);
+    }
+
+    void put(UUID ownerId, Vector vector) {
+        vectors.put(ownerId, vector);
+    }
+
+    int size() {
+        return vectors.size();
+    }
+
+    /**
+     * K ближайших к {@code query} по убыванию близости. Вектора другой размерности (сменили модель)
+     * пропускаются.
+     */
+    List<EmbeddingIndexService.Match> topK(float[] query, int k) {
+        if (k <= 0) return List.of();
+        PriorityQueue<EmbeddingIndexService.Match> heap =
+                new PriorityQueue<>(Comparator.comparingDouble(EmbeddingIndexService.Match::getSimilarity));
+        for (Map.Entry<UUID, Vector> e : vectors.entrySet()) {
+            float[] values = e.getValue().values();
+            if (values.length != query.length) continue;
+            double sim = dot(query, values);
+            if (heap.size() < k) {
+                heap.add(new EmbeddingIndexService.Match(e.getKey(), sim));
+            } else if (sim > heap.peek().getSimilarity()) {
+                heap.poll();
+                heap.add(new EmbeddingIndexService.Match(e.getKey(), sim));
+            }
+        }
+        List<EmbeddingIndexService.Match> result = new ArrayList<>(heap);
+        result.sort(Comparator.comparingDouble(EmbeddingIndexService.Match::getSimilarity).reversed());
+        return result;
+    }
+
+    static float dot(float[] a, float[] b) {
+        if (a.length != b.length) return 0f;
+        float sum = 0f;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    static float[] normalize(float[] v) {
+        double norm = 0;
+        for (float x : v) norm += x * x;
+        norm = Math.sqrt(norm);
+        if (norm == 0) return v;
+        float[] out = new float[v.length];
+        for (int i = 0; i < v.length; i++) {
+            out[i] = (float) (v[i] / norm);
+        }
+        return out;
+    }
+
+    static byte[] toBytes(float[] v) {
+        ByteBuffer buf = ByteBuffer.allocate(v.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buf.asFloatBuffer().put(v);
+        return buf.array();
+    }
+
+    static float[] fromBytes(byte[] bytes) {
+        float[] v = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(v);
+        return v;
+    }
+}
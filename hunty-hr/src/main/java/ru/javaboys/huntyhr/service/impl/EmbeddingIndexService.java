@@ -0,0 +1,267 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import io.jmix.core.DataManager;
+import io.jmix.core.FetchPlan;
+import io.jmix.core.security.SystemAuthenticator;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.javaboys.huntyhr.ai.LlmCallGovernor;
+import ru.javaboys.huntyhr.ai.LocalEmbeddingModel;
+import ru.javaboys.huntyhr.config.BackgroundExecutor;
+import ru.javaboys.huntyhr.entity.EmbeddingEntity;
+import ru.javaboys.huntyhr.entity.EmbeddingOwnerTypeEnum;
+import ru.javaboys.huntyhr.entity.ResumeVersionEntity;
+import ru.javaboys.huntyhr.entity.VacancyEntity;
+import ru.javaboys.huntyhr.service.DocParseService;
+import ru.javaboys.huntyhr.util.Hashes;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Векторный индекс резюме и вакансий для дешёвого предварительного ранжирования.
+ * <p>
+ * Текст последнего резюме кандидата и JD вакансии превращаются в embedding один раз (повтор только при
+ * изменении текста), вектора хранятся в {@code EMBEDDING_ENTITY} и целиком держатся в памяти.
+ * Поиск top-K — точный перебор по косинусной близости нормированных векторов: для тысяч резюме это
+ * единицы миллисекунд, поэтому отдельный ANN-индекс не нужен.
+ * <p>
+ * Индексируется только последняя версия резюме кандидата. Вектора, посчитанные на других узлах, догружаются
+ * периодически по {@code UPDATED_AT} ({@code hunty.embeddings.refresh-seconds}).
+ */
+@Service
+@Slf4j
+public class EmbeddingIndexService {
+
+    // ограничение на вход embedding-модели (~8k токенов)
+    private static final int MAX_TEXT_CHARS = 12000;
+    // запас на расхождение часов узлов: строки, записанные «в прошлом» другим узлом, не теряются
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(5);
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Match {
+        private final UUID id;
+        private final double similarity;
+    }
+
+    private final DataManager dm;
+    private final DocParseService docParseService;
+    private final EmbeddingModel embeddingModel;
+    private final LlmCallGovernor governor;
+    private final SystemAuthenticator authenticator;
+    private final boolean enabled;
+    private final String model;
+    // локальной модели не нужны лимиты провайдера
+    private final boolean remote;
+
+    private final EmbeddingIndex candidates = new EmbeddingIndex();
+    private final EmbeddingIndex vacancies = new EmbeddingIndex();
+    private final Executor executor;
+    @Nullable
+    private volatile LocalDateTime refreshedAt;
+
+    public EmbeddingIndexService(DataManager dm,
+                                 DocParseService docParseService,
+                                 EmbeddingModel embeddingModel,
+                                 LlmCallGovernor governor,
+                                 SystemAuthenticator authenticator,
+                                 @Value("${hunty.embeddings.enabled:true}") boolean enabled,
+                                 @Value("${spring.ai.openai.embedding.options.model:text-embedding-ada-002}") String model,
+                                 BackgroundExecutor backgroundExecutor) {
+        this.dm = dm;
+        this.docParseService = docParseService;
+        this.embeddingModel = embeddingModel;
+        this.governor = governor;
+        this.authenticator = authenticator;
+        this.enabled = enabled;
+        this.remote = !(embeddingModel instanceof LocalEmbeddingModel);
+        this.model = remote ? model : LocalEmbeddingModel.MODEL;
+        this.executor = backgroundExecutor.sequential();
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (!enabled) return;
+        executor.execute(() -> authenticator.runWithSystem(this::loadAll));
+    }
+
+    /**
+     * Догружает вектора, сохранённые с прошлого обновления (в том числе другими узлами).
+     */
+    @Scheduled(fixedDelayString = "${hunty.embeddings.refresh-seconds:60}",
+            initialDelayString = "${hunty.embeddings.refresh-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void refreshAsync() {
+        if (!enabled || refreshedAt == null) return;
+        executor.execute(() -> authenticator.runWithSystem(() -> safely(this::refresh)));
+    }
+
+    /**
+     * Асинхронно (пере)индексирует резюме; вызывается после коммита новой версии.
+     */
+    public void indexResumeAsync(UUID resumeVersionId) {
+        if (!enabled) return;
+        executor.execute(() -> authenticator.runWithSystem(() -> safely(() -> indexResume(resumeVersionId))));
+    }
+
+    /**
+     * Асинхронно (пере)индексирует вакансию; вызывается после коммита изменений текста вакансии.
+     */
+    public void indexVacancyAsync(UUID vacancyId) {
+        if (!enabled) return;
+        executor.execute(() -> authenticator.runWithSystem(() -> safely(() -> indexVacancy(vacancyId))));
+    }
+
+    public void indexResume(UUID resumeVersionId) {
+        ResumeVersionEntity version = dm.load(ResumeVersionEntity.class)
+                .id(resumeVersionId)
+                .fetchPlan(fp -> fp.addFetchPlan(FetchPlan.BASE)
+                        .add("candidate", FetchPlan.BASE)
+                        .add("file", FetchPlan.BASE))
+                .optional().orElse(null);
+        if (version == null || version.getCandidate() == null
+                || version.getFile() == null || version.getFile().getRef() == null) {
+            return;
+        }
+        // правка старой версии не должна подменять вектор кандидата
+        UUID latestId = dm.loadValue("select r.id from ResumeVersionEntity r where r.candidate = :candidate " +
+                        "order by r.createdAt desc", UUID.class)
+                .parameter("candidate", version.getCandidate())
+                .maxResults(1)
+                .optional()
+                .orElse(null);
+        if (!resumeVersionId.equals(latestId)) {
+            log.debug("Skipping embedding of resume version {}: not the latest of its candidate", resumeVersionId);
+            return;
+        }
+        String text = docParseService.parseToText(version.getFile().getRef());
+        upsert(EmbeddingOwnerTypeEnum.CANDIDATE, version.getCandidate().getId(), resumeVersionId, text);
+    }
+
+    public void indexVacancy(UUID vacancyId) {
+        VacancyEntity vacancy = dm.load(VacancyEntity.class).id(vacancyId).optional().orElse(null);
+        if (vacancy == null) return;
+        upsert(EmbeddingOwnerTypeEnum.VACANCY, vacancyId, vacancyId, ScoringService.buildJdText(vacancy));
+    }
+
+    /**
+     * Top-K кандидатов, чьи последние резюме ближе всего к тексту вакансии.
+     */
+    public List<Match> topCandidatesForVacancy(UUID vacancyId, int k) {
+        EmbeddingIndex.Vector query = vacancies.get(vacancyId);
+        if (query == null && enabled) {
+            authenticator.runWithSystem(() -> indexVacancy(vacancyId));
+            query = vacancies.get(vacancyId);
+        }
+        return query == null ? List.of() : candidates.topK(query.values(), k);
+    }
+
+    /**
+     * Top-K вакансий, ближайших к последнему резюме кандидата.
+     */
+    public List<Match> topVacanciesForCandidate(UUID candidateId, int k) {
+        EmbeddingIndex.Vector query = candidates.get(candidateId);
+        return query == null ? List.of() : vacancies.topK(query.values(), k);
+    }
+
+    /**
+     * Косинусная близость кандидата и вакансии, если оба проиндексированы.
+     */
+    @Nullable
+    public Double similarity(UUID candidateId, UUID vacancyId) {
+        EmbeddingIndex.Vector c = candidates.get(candidateId);
+        EmbeddingIndex.Vector v = vacancies.get(vacancyId);
+        return c == null || v == null ? null : (double) EmbeddingIndex.dot(c.values(), v.values());
+    }
+
+    // -------- internals --------
+
+    private void loadAll() {
+        LocalDateTime started = LocalDateTime.now();
+        List<EmbeddingEntity> all = dm.load(EmbeddingEntity.class)
+                .query("select e from EmbeddingEntity e where e.model = :model")
+                .parameter("model", model)
+                .list();
+        all.forEach(this::put);
+        refreshedAt = started;
+        log.info("Embedding index loaded: {} candidates, {} vacancies", candidates.size(), vacancies.size());
+    }
+
+    private void refresh() {
+        LocalDateTime started = LocalDateTime.now();
+        List<EmbeddingEntity> changed = dm.load(EmbeddingEntity.class)
+                .query("select e from EmbeddingEntity e where e.model = :model and e.updatedAt >= :since")
+                .parameter("model", model)
+                .parameter("since", refreshedAt.minus(REFRESH_OVERLAP))
+                .list();
+        changed.forEach(this::put);
+        refreshedAt = started;
+        log.debug("Embedding index refreshed: {} changed vectors", changed.size());
+    }
+
+    private void put(EmbeddingEntity e) {
+        target(e.getOwnerType()).put(e.getOwnerId(),
+                new EmbeddingIndex.Vector(e.getSourceId(), e.getContentHash(), EmbeddingIndex.fromBytes(e.getVector())));
+    }
+
+    private void upsert(EmbeddingOwnerTypeEnum type, UUID ownerId, UUID sourceId, String text) {
+        String trimmed = text == null ? "" : text.strip();
+        if (trimmed.isEmpty()) return;
+        if (trimmed.length() > MAX_TEXT_CHARS) trimmed = trimmed.substring(0, MAX_TEXT_CHARS);
+
+        String hash = Hashes.sha256(trimmed);
+        EmbeddingIndex.Vector existing = target(type).get(ownerId);
+        if (existing != null && hash.equals(existing.contentHash())) {
+            return;
+        }
+
+        String input = trimmed;
+        float[] values = EmbeddingIndex.normalize(remote
+                ? governor.call(LlmCallGovernor.estimateTokens(input), () -> embeddingModel.embed(input))
+                : embeddingModel.embed(input));
+
+        EmbeddingEntity entity = dm.load(EmbeddingEntity.class)
+                .query("select e from EmbeddingEntity e where e.ownerType = :type and e.ownerId = :ownerId")
+                .parameter("type", type.getId())
+                .parameter("ownerId", ownerId)
+                .optional()
+                .orElseGet(() -> {
+                    EmbeddingEntity e = dm.create(EmbeddingEntity.class);
+                    e.setOwnerType(type);
+                    e.setOwnerId(ownerId);
+                    return e;
+                });
+        entity.setSourceId(sourceId);
+        entity.setContentHash(hash);
+        entity.setModel(model);
+        entity.setVector(EmbeddingIndex.toBytes(values));
+        entity.setUpdatedAt(LocalDateTime.now());
+        dm.save(entity);
+
+        target(type).put(ownerId, new EmbeddingIndex.Vector(sourceId, hash, values));
+    }
+
+    private EmbeddingIndex target(EmbeddingOwnerTypeEnum type) {
+        return type == EmbeddingOwnerTypeEnum.VACANCY ? vacancies : candidates;
+    }
+
+    private static void safely(Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            log.warn("Embedding indexing failed: {}", e.getMessage());
+        }
+    }
+}
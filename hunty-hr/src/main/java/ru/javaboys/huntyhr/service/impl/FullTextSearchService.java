@@ -0,0 +1,340 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import io.jmix.core.DataManager;
+import io.jmix.core.FetchPlan;
+import io.jmix.core.security.SystemAuthenticator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.ObjectAlreadyExistsException;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.javaboys.huntyhr.config.BackgroundExecutor;
+import ru.javaboys.huntyhr.entity.ResumeVersionEntity;
+import ru.javaboys.huntyhr.entity.SearchDocumentEntity;
+import ru.javaboys.huntyhr.entity.SearchDocumentOwnerTypeEnum;
+import ru.javaboys.huntyhr.entity.VacancyEntity;
+import ru.javaboys.huntyhr.job.FullTextBackfillQuartzJob;
+import ru.javaboys.huntyhr.service.DocParseService;
+import ru.javaboys.huntyhr.util.Hashes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Полнотекстовый поиск по тексту резюме и вакансий средствами Postgres.
+ * <p>
+ * Текст, извлечённый при разборе файла, сохраняется в {@code SEARCH_DOCUMENT_ENTITY}: при импорте — вместе
+ * с версией резюме ({@link #prepareResumeDocument}), для остальных версий — после коммита (текст берётся из
+ * кеша {@link DocParseService}, файл повторно не скачивается). База строит по нему tsvector (russian +
+ * english) с GIN-индексом. Запрос — синтаксис websearch ({@code "kafka streams" -php}), результат —
+ * кандидаты или вакансии по рангу с подсвеченными фрагментами из {@code ts_headline}.
+ */
+@Service
+@Slf4j
+public class FullTextSearchService {
+
+    public static final String HIGHLIGHT_START = "[[";
+    public static final String HIGHLIGHT_END = "]]";
+    private static final Pattern HIGHLIGHT = Pattern.compile(Pattern.quote(HIGHLIGHT_START) + "(.*?)" + Pattern.quote(HIGHLIGHT_END));
+    private static final int BACKFILL_PAGE = 200;
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Hit {
+        private final UUID ownerId;
+        private final double rank;
+        // фрагменты текста, совпадения обрамлены HIGHLIGHT_START / HIGHLIGHT_END
+        private final String snippet;
+    }
+
+    /**
+     * Кусок фрагмента: обычный текст или подсвеченное совпадение.
+     */
+    public record SnippetPart(String text, boolean highlighted) {
+    }
+
+    private final DataManager dm;
+    private final DocParseService docParseService;
+    private final SystemAuthenticator authenticator;
+    private final Scheduler scheduler;
+    private final int maxChars;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Executor executor;
+
+    public FullTextSearchService(DataManager dm,
+                                 DocParseService docParseService,
+                                 SystemAuthenticator authenticator,
+                                 Scheduler scheduler,
+                                 @Value("${hunty.full-text.max-chars:200000}") int maxChars,
+                                 BackgroundExecutor backgroundExecutor) {
+        this.dm = dm;
+        this.docParseService = docParseService;
+        this.authenticator = authenticator;
+        this.scheduler = scheduler;
+        this.maxChars = maxChars;
+        this.executor = backgroundExecutor.sequential();
+    }
+
+    /**
+     * Догрузка индекса — одноразовым кластерным заданием: узлы, стартующие вместе, ставят один и тот же
+     * триггер, и выполняет его только один из них.
+     */
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        Trigger trigger = TriggerBuilder.newTrigger()
+                .forJob(FullTextBackfillQuartzJob.JOB_KEY)
+                .withIdentity(FullTextBackfillQuartzJob.TRIGGER_KEY)
+                .startNow()
+                .build();
+        try {
+            scheduler.scheduleJob(trigger);
+        } catch (ObjectAlreadyExistsException e) {
+            log.debug("Full-text backfill is already scheduled by another node");
+        } catch (SchedulerException e) {
+            log.warn("Failed to schedule full-text backfill: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Асинхронно индексирует текст резюме; вызывается после коммита новой версии.
+     */
+    public void indexResumeAsync(UUID resumeVersionId) {
+        executor.execute(() -> authenticator.runWithSystem(() -> safely(() -> indexResume(resumeVersionId))));
+    }
+
+    /**
+     * Асинхронно индексирует текст вакансии; вызывается после коммита изменений вакансии.
+     */
+    public void indexVacancyAsync(UUID vacancyId) {
+        executor.execute(() -> authenticator.runWithSystem(() -> safely(() -> indexVacancy(vacancyId))));
+    }
+
+    /**
+     * Документ поиска для версии резюме, которую сохраняет импорт: текст уже извлечён при разборе, поэтому
+     * документ сохраняется вместе с версией, и {@link #indexResume} файл не перечитывает.
+     *
+     * @param newCandidate кандидат ещё не сохранён — документа в БД у него быть не может
+     * @return документ для сохранения или {@code null}, если текст пустой
+     */
+    @Nullable
+    public SearchDocumentEntity prepareResumeDocument(UUID candidateId, boolean newCandidate,
+                                                      UUID resumeVersionId, String text) {
+        SearchDocumentEntity existing = newCandidate
+                ? null
+                : findDocument(SearchDocumentOwnerTypeEnum.CANDIDATE, candidateId);
+        return prepare(SearchDocumentOwnerTypeEnum.CANDIDATE, candidateId, resumeVersionId, text, existing);
+    }
+
+    public void indexResume(UUID resumeVersionId) {
+        ResumeVersionEntity version = dm.load(ResumeVersionEntity.class)
+                .id(resumeVersionId)
+                .fetchPlan(fp -> fp.addFetchPlan(FetchPlan.BASE)
+                        .add("candidate", FetchPlan.BASE)
+                        .add("file", FetchPlan.BASE))
+                .optional().orElse(null);
+        if (version == null || version.getCandidate() == null
+                || version.getFile() == null || version.getFile().getRef() == null) {
+            return;
+        }
+        UUID candidateId = version.getCandidate().getId();
+        SearchDocumentEntity existing = findDocument(SearchDocumentOwnerTypeEnum.CANDIDATE, candidateId);
+        // импорт уже сохранил документ вместе с версией
+        if (existing != null && resumeVersionId.equals(existing.getSourceId())) return;
+
+        String text = docParseService.parseToText(version.getFile().getRef());
+        save(prepare(SearchDocumentOwnerTypeEnum.CANDIDATE, candidateId, resumeVersionId, text, existing));
+    }
+
+    public void indexVacancy(UUID vacancyId) {
+        VacancyEntity vacancy = dm.load(VacancyEntity.class).id(vacancyId).optional().orElse(null);
+        if (vacancy == null) return;
+        save(prepare(SearchDocumentOwnerTypeEnum.VACANCY, vacancyId, vacancyId, ScoringService.buildJdText(vacancy),
+                findDocument(SearchDocumentOwnerTypeEnum.VACANCY, vacancyId)));
+    }
+
+    /**
+     * Удаляет документ владельца из индекса (кандидат или вакансия удалены). Вызывается после коммита,
+     * поэтому в собственной транзакции.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void remove(SearchDocumentOwnerTypeEnum type, UUID ownerId) {
+        entityManager.createNativeQuery("delete from SEARCH_DOCUMENT_ENTITY where OWNER_TYPE = ?1 and OWNER_ID = ?2")
+                .setParameter(1, type.getId())
+                .setParameter(2, ownerId)
+                .executeUpdate();
+    }
+
+    /**
+     * Поиск по тексту.
+     *
+     * @param query запрос в синтаксисе websearch: слова, {@code "фраза"}, {@code or}, {@code -исключить}
+     * @param limit сколько результатов вернуть
+     * @return владельцы по убыванию ранга; фрагменты строятся только для них
+     */
+    @Transactional(readOnly = true)
+    public List<Hit> search(SearchDocumentOwnerTypeEnum type, String query, int limit) {
+        if (query == null || query.isBlank() || limit <= 0) return List.of();
+        // ts_headline дорогой — считаем его только для отобранных по рангу документов
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(
+                        "select cast(r.OWNER_ID as varchar), r.RANK, ts_headline('russian', r.CONTENT, r.Q, " +
+                                "'StartSel=" + HIGHLIGHT_START + ", StopSel=" + HIGHLIGHT_END +
+                                ", MaxFragments=3, MinWords=5, MaxWords=20, FragmentDelimiter=\" … \"') " +
+                                "from (select d.OWNER_ID, d.CONTENT, q.Q, ts_rank_cd(d.TSV, q.Q) as RANK " +
+                                "from SEARCH_DOCUMENT_ENTITY d, " +
+                                "(select websearch_to_tsquery('russian', ?1) || websearch_to_tsquery('english', ?1) as Q) q " +
+                                "where d.OWNER_TYPE = ?2 and d.TSV @@ q.Q " +
+                                "order by RANK desc limit ?3) r " +
+                                "order by r.RANK desc")
+                .setParameter(1, query.strip())
+                .setParameter(2, type.getId())
+                .setParameter(3, limit)
+                .getResultList();
+
+        List<Hit> hits = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            hits.add(new Hit(UUID.fromString((String) row[0]), ((Number) row[1]).doubleValue(), (String) row[2]));
+        }
+        return hits;
+    }
+
+    /**
+     * Разбивает фрагмент из {@link Hit#getSnippet()} на обычный и подсвеченный текст для отображения.
+     */
+    public static List<SnippetPart> splitSnippet(String snippet) {
+        List<SnippetPart> parts = new ArrayList<>();
+        if (snippet == null) return parts;
+        Matcher m = HIGHLIGHT.matcher(snippet);
+        int last = 0;
+        while (m.find()) {
+            if (m.start() > last) parts.add(new SnippetPart(snippet.substring(last, m.start()), false));
+            parts.add(new SnippetPart(m.group(1), true));
+            last = m.end();
+        }
+        if (last < snippet.length()) parts.add(new SnippetPart(snippet.substring(last), false));
+        return parts;
+    }
+
+    // -------- internals --------
+
+    @Nullable
+    private SearchDocumentEntity findDocument(SearchDocumentOwnerTypeEnum type, UUID ownerId) {
+        return dm.load(SearchDocumentEntity.class)
+                .query("select d from SearchDocumentEntity d where d.ownerType = :type and d.ownerId = :ownerId")
+                .parameter("type", type.getId())
+                .parameter("ownerId", ownerId)
+                .optional()
+                .orElse(null);
+    }
+
+    /**
+     * Новый или обновлённый документ владельца; {@code null}, если текст пустой или не изменился.
+     */
+    @Nullable
+    private SearchDocumentEntity prepare(SearchDocumentOwnerTypeEnum type, UUID ownerId, UUID sourceId, String text,
+                                         @Nullable SearchDocumentEntity existing) {
+        String content = text == null ? "" : text.strip();
+        if (content.isEmpty()) return null;
+        // tsvector ограничен 1 МБ; хвост длинных документов для поиска не нужен
+        if (content.length() > maxChars) content = content.substring(0, maxChars);
+        // нулевой символ Postgres в text не принимает
+        content = content.replace('\u0000', ' ');
+
+        String hash = Hashes.sha256(content);
+        SearchDocumentEntity doc = existing;
+        if (doc == null) {
+            doc = dm.create(SearchDocumentEntity.class);
+            doc.setOwnerType(type);
+            doc.setOwnerId(ownerId);
+        } else if (hash.equals(doc.getContentHash()) && sourceId.equals(doc.getSourceId())) {
+            return null;
+        }
+
+        doc.setSourceId(sourceId);
+        doc.setContentHash(hash);
+        doc.setContent(content);
+        doc.setUpdatedAt(LocalDateTime.now());
+        return doc;
+    }
+
+    private void save(@Nullable SearchDocumentEntity doc) {
+        if (doc != null) dm.save(doc);
+    }
+
+    /**
+     * Резюме и вакансии, сохранённые до появления поиска (или пока индексатор не работал).
+     * Вызывается из {@link FullTextBackfillQuartzJob}.
+     */
+    public void backfill() {
+        int total = 0;
+        UUID lastId = null;
+        String latestWithoutDocument = "v.createdAt = (select max(v2.createdAt) from ResumeVersionEntity v2 " +
+                "where v2.candidate = v.candidate) and not exists (select d from SearchDocumentEntity d " +
+                "where d.ownerType = 'CANDIDATE' and d.ownerId = v.candidate.id)";
+        while (true) {
+            // постранично по id: пустые и неразбираемые резюме документа не получат и не должны зациклить проход
+            List<UUID> versions = (lastId == null
+                    ? dm.loadValues("select v.id from ResumeVersionEntity v where " + latestWithoutDocument +
+                    " order by v.id")
+                    : dm.loadValues("select v.id from ResumeVersionEntity v where " + latestWithoutDocument +
+                    " and v.id > :lastId order by v.id").parameter("lastId", lastId))
+                    .properties("id")
+                    .maxResults(BACKFILL_PAGE)
+                    .list()
+                    .stream()
+                    .map(row -> row.<UUID>getValue("id"))
+                    .toList();
+            if (versions.isEmpty()) break;
+            lastId = versions.get(versions.size() - 1);
+            for (UUID versionId : versions) {
+                try {
+                    indexResume(versionId);
+                    total++;
+                } catch (Exception e) {
+                    log.warn("Full-text indexing of resume version {} failed: {}", versionId, e.getMessage());
+                }
+            }
+        }
+
+        List<UUID> vacancies = dm.loadValues("select v.id from VacancyEntity v where not exists " +
+                        "(select d from SearchDocumentEntity d where d.ownerType = 'VACANCY' and d.ownerId = v.id)")
+                .properties("id")
+                .list()
+                .stream()
+                .map(row -> row.<UUID>getValue("id"))
+                .toList();
+        vacancies.forEach(id -> safely(() -> indexVacancy(id)));
+
+        if (total > 0 || !vacancies.isEmpty()) {
+            log.info("Full-text index backfilled: {} resumes, {} vacancies", total, vacancies.size());
+        }
+    }
+
+    private static void safely(Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            log.warn("Full-text indexing failed: {}", e.getMessage());
+        }
+    }
+}
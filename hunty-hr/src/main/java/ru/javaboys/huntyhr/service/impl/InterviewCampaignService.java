@@ -0,0 +1,176 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import io.jmix.core.DataManager;
+import io.jmix.core.FetchPlan;
+import io.jmix.core.SaveContext;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.javaboys.huntyhr.entity.ApplicationEntity;
+import ru.javaboys.huntyhr.entity.CandidateEntity;
+import ru.javaboys.huntyhr.entity.InterviewSessionEntity;
+import ru.javaboys.huntyhr.entity.InterviewStateEnum;
+import ru.javaboys.huntyhr.entity.NotificationChannelEnum;
+import ru.javaboys.huntyhr.entity.NotificationOutboxEntity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Массовое приглашение на интервью: выбранные заявки получают сессии с автоматически подобранным временем
+ * и приглашения по всем каналам кандидата.
+ * <p>
+ * Сессии и записи очереди уведомлений сохраняются одним SaveContext в одной транзакции; рассылку делает
+ * {@link NotificationOutboxService} параллельно по каналам, статус доставки по каждой заявке читается
+ * из очереди. Время подбирает {@link InterviewSlotService} под блокировкой расписания, по убыванию скоринга:
+ * лучшие кандидаты получают ближайшие слоты. Переназначаются только сессии, которые ещё не начались или
+ * сорвались; идущие и проведённые интервью остаются как есть и попадают в итог как пропущенные.
+ */
+@Service
+@Slf4j
+public class InterviewCampaignService {
+
+    private static final String MEETINGS_URL = "https://hunty-ai.javaboys.ru/meetings/";
+    private static final Set<InterviewStateEnum> RESCHEDULABLE =
+            EnumSet.of(InterviewStateEnum.PENDING, InterviewStateEnum.CANCELED, InterviewStateEnum.FAILED);
+
+    /**
+     * Итог по одной заявке.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Item {
+        private final UUID applicationId;
+        private final String candidateName;
+        private final UUID sessionId;
+        private final LocalDateTime startAt;
+        private final List<NotificationChannelEnum> channels;
+        // null — приглашение поставлено в очередь
+        private final String problem;
+        // у заявки идёт или проведено интервью — сессия не тронута
+        private final boolean skipped;
+    }
+
+    private final DataManager dm;
+    private final NotificationOutboxService notificationOutboxService;
+    private final InterviewSlotService interviewSlotService;
+
+    public InterviewCampaignService(DataManager dm,
+                                    NotificationOutboxService notificationOutboxService,
+                                    InterviewSlotService interviewSlotService) {
+        this.dm = dm;
+        this.notificationOutboxService = notificationOutboxService;
+        this.interviewSlotService = interviewSlotService;
+    }
+
+    /**
+     * Назначает встречи не раньше {@code firstSlot} и ставит приглашения в очередь.
+     */
+    @Transactional
+    public List<Item> invite(Collection<UUID> applicationIds, LocalDateTime firstSlot) {
+        if (applicationIds.isEmpty()) {
+            return List.of();
+        }
+        List<ApplicationEntity> applications = dm.load(ApplicationEntity.class)
+                .ids(applicationIds)
+                .fetchPlan(fp -> fp.addFetchPlan(FetchPlan.BASE)
+                        .add("candidate", FetchPlan.BASE)
+                        .add("vacancy", v -> v.addFetchPlan(FetchPlan.BASE).add("scenario", FetchPlan.INSTANCE_NAME)))
+                .list()
+                .stream()
+                .sorted(Comparator.comparing(ApplicationEntity::getTotalScore,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
+                .toList();
+
+        // одна заявка — одна сессия: существующие переназначаем
+        Map<UUID, InterviewSessionEntity> existing = dm.load(InterviewSessionEntity.class)
+                .query("select s from InterviewSessionEntity s where s.application.id in :ids")
+                .parameter("ids", applicationIds)
+                .fetchPlan(fp -> fp.addFetchPlan(FetchPlan.BASE).add("application", FetchPlan.INSTANCE_NAME))
+                .list()
+                .stream()
+                .collect(Collectors.toMap(s -> s.getApplication().getId(), Function.identity(), (a, b) -> a));
+
+        // слот переназначаемой сессии освобождается, только когда ей нашёлся новый
+        InterviewSlotService.Schedule schedule = interviewSlotService.lockSchedule(firstSlot);
+        // занятые слоты от брони не освобождаются — следующий ищем с последнего выданного
+        LocalDateTime cursor = firstSlot;
+
+        SaveContext ctx = new SaveContext();
+        List<Item> items = new ArrayList<>(applications.size());
+        for (ApplicationEntity app : applications) {
+            CandidateEntity candidate = app.getCandidate();
+            String name = candidate == null ? "—"
+                    : StringUtils.joinWith(" ", candidate.getSurname(), candidate.getName()).trim();
+            if (candidate == null) {
+                items.add(new Item(app.getId(), name, null, null, List.of(), "Нет кандидата", false));
+                continue;
+            }
+            InterviewSessionEntity session = existing.get(app.getId());
+            if (session != null && !reschedulable(session)) {
+                items.add(new Item(app.getId(), name, session.getId(), session.getScheduledStartAt(), List.of(),
+                        session.getState() == InterviewStateEnum.LIVE
+                                ? "Интервью уже идёт — не переназначено"
+                                : "Интервью уже проведено — не переназначено", true));
+                continue;
+            }
+            LocalDateTime previous = session == null ? null : schedule.release(session.getId());
+            LocalDateTime startAt = cursor == null ? null : schedule.nextFree(cursor);
+            if (startAt == null) {
+                if (previous != null) {
+                    // сессия остаётся на прежнем времени — её мощность другим заявкам не отдаём
+                    schedule.restore(session.getId(), previous);
+                }
+                cursor = null;
+                items.add(new Item(app.getId(), name, null, null, List.of(),
+                        "Нет свободных слотов: мощность бэкенда интервью занята", false));
+                continue;
+            }
+            cursor = startAt;
+
+            if (session == null) {
+                session = dm.create(InterviewSessionEntity.class);
+                session.setApplication(app);
+                if (app.getVacancy() != null) {
+                    session.setScenario(app.getVacancy().getScenario());
+                }
+            } else {
+                session.setApplication(app);
+            }
+            schedule.book(session.getId(), startAt);
+            session.setState(InterviewStateEnum.PENDING);
+            session.setScheduledStartAt(startAt);
+            session.setInterviewLink(MEETINGS_URL + session.getId());
+            ctx.saving(session);
+
+            List<NotificationOutboxEntity> outbox = notificationOutboxService.interviewScheduled(session);
+            outbox.forEach(ctx::saving);
+            List<NotificationChannelEnum> channels = outbox.stream().map(NotificationOutboxEntity::getChannel).toList();
+            items.add(new Item(app.getId(), name, session.getId(), startAt, channels,
+                    channels.isEmpty() ? "Нет email и Telegram — приглашение не отправлено" : null, false));
+        }
+        dm.save(ctx);
+        notificationOutboxService.wakeUpAfterCommit();
+
+        log.info("Interview campaign: {} applications, {} invited, {} skipped", applications.size(),
+                items.stream().filter(i -> i.getProblem() == null).count(),
+                items.stream().filter(Item::isSkipped).count());
+        return items;
+    }
+
+    private static boolean reschedulable(InterviewSessionEntity session) {
+        return RESCHEDULABLE.contains(InterviewSlotService.stateOf(session.getState()));
+    }
+}
@@ -0,0 +1,367 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import io.jmix.core.security.SystemAuthenticator;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.javaboys.huntyhr.config.BackgroundExecutor;
+import ru.javaboys.huntyhr.entity.InterviewStateEnum;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Напоминания о собеседованиях в точно заданные моменты: за 24 часа, за час, за 10 минут до начала
+ * (уровни настраиваются).
+ * <p>
+ * Моменты срабатывания ближайшего горизонта лежат в памяти в хешированном колесе таймеров с шагом в
+ * секунду: вставка и срабатывание за O(1), без опроса таблицы. Колесо наполняется из базы при старте и
+ * периодически на следующий горизонт, а новые и перенесённые встречи попадают в него сразу после коммита.
+ * Срабатывание ставит напоминание в очередь уведомлений через
+ * {@link NotificationOutboxService#enqueueReminder}, которая идемпотентна, — поэтому дубли таймеров на
+ * разных узлах безопасны. Пропущенное (перезапуск, встреча создана на другом узле) подбирает
+ * страховочный обход {@link #reconcile()}.
+ */
+@Service
+@Slf4j
+public class InterviewReminderScheduler {
+
+    private static final long TICK_MS = 1000;
+    private static final int WHEEL_SIZE = 512;
+
+    /**
+     * Запланированное напоминание. Актуально, пока начало сессии не перенесено.
+     */
+    private record Reminder(UUID sessionId, int offsetMinutes, LocalDateTime startAt) {
+    }
+
+    private final NotificationOutboxService notificationOutboxService;
+    private final SystemAuthenticator authenticator;
+    // по убыванию: 1440, 60, 10
+    private final int[] offsets;
+    private final Duration refillInterval;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TimerWheel wheel;
+    // актуальное начало сессий, у которых есть таймеры в колесе; удаляется со срабатыванием последнего
+    private final Map<UUID, LocalDateTime> startAts = new ConcurrentHashMap<>();
+    private final Set<Reminder> pending = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("reminder-wheel-"));
+    private final Executor executor;
+
+    @Autowired
+    public InterviewReminderScheduler(NotificationOutboxService notificationOutboxService,
+                                      SystemAuthenticator authenticator,
+                                      @Value("${hunty.reminders.offsets-minutes:1440,60,10}") int[] offsets,
+                                      @Value("${hunty.reminders.refill-minutes:30}") int refillMinutes,
+                                      BackgroundExecutor backgroundExecutor) {
+        this(notificationOutboxService, authenticator, offsets, refillMinutes, backgroundExecutor, System::nanoTime);
+    }
+
+    InterviewReminderScheduler(NotificationOutboxService notificationOutboxService,
+                               SystemAuthenticator authenticator,
+                               int[] offsets,
+                               int refillMinutes,
+                               BackgroundExecutor backgroundExecutor,
+                               LongSupplier nanoTime) {
+        this.wheel = new TimerWheel(WHEEL_SIZE, TICK_MS, nanoTime);
+        this.notificationOutboxService = notificationOutboxService;
+        this.authenticator = authenticator;
+        this.offsets = Arrays.stream(offsets).filter(o -> o > 0).distinct()
+                .boxed().sorted((a, b) -> b - a).mapToInt(Integer::intValue).toArray();
+        this.refillInterval = Duration.ofMinutes(Math.max(1, refillMinutes));
+        this.executor = backgroundExecutor.sequential();
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        ticker.scheduleAtFixedRate(() -> safely(this::tick), TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+        executor.execute(() -> authenticator.runWithSystem(() -> {
+            safely(this::reconcile);
+            safely(this::refill);
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Кладёт в колесо таймеры сессий, чьи напоминания сработают в ближайшие два интервала наполнения.
+     * Выполняется на каждом узле: колесо у каждого своё.
+     */
+    @Scheduled(fixedDelayString = "${hunty.reminders.refill-minutes:30}", initialDelayString = "${hunty.reminders.refill-minutes:30}",
+            timeUnit = TimeUnit.MINUTES)
+    public void refill() {
+        if (offsets.length == 0) return;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plus(refillInterval.multipliedBy(2));
+        int scheduled = 0;
+        for (Object[] row : loadUpcoming(now, horizon.plusMinutes(offsets[0]))) {
+            scheduled += schedule((UUID) row[0], (LocalDateTime) row[1], (Integer) row[2], horizon);
+        }
+        log.debug("Reminder wheel refilled: {} timers, {} pending", scheduled, pending.size());
+    }
+
+    /**
+     * Страховочный обход: ставит в очередь напоминания, момент которых уже наступил, но которые не
+     * отправлены (узел с таймером перезапускался, встреча назначена на другом узле). По каждой сессии —
+     * только самый близкий к началу уровень, устаревшие не досылаются.
+     */
+    public void reconcile() {
+        if (offsets.length == 0) return;
+        LocalDateTime now = LocalDateTime.now();
+        int queued = 0;
+        for (Object[] row : loadUpcoming(now, now.plusMinutes(offsets[0]))) {
+            Integer due = dueOffset((LocalDateTime) row[1], (Integer) row[2], now);
+            if (due != null) {
+                queued += notificationOutboxService.enqueueReminder((UUID) row[0], due);
+            }
+        }
+        if (queued > 0) {
+            log.info("Reminder reconciliation queued {} notifications", queued);
+        }
+    }
+
+    /**
+     * Встреча создана, перенесена или возвращена в ожидание — после коммита перечитывает её и обновляет
+     * таймеры. Напоминания получают только ожидающие встречи.
+     */
+    public void onSessionChangedAsync(UUID sessionId) {
+        executor.execute(() -> authenticator.runWithSystem(() -> safely(() -> {
+            startAts.remove(sessionId);
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime horizon = now.plus(refillInterval.multipliedBy(2));
+            for (Object[] row : loadSession(sessionId)) {
+                schedule(sessionId, (LocalDateTime) row[1], (Integer) row[2], horizon);
+            }
+        })));
+    }
+
+    /**
+     * Встреча удалена или вышла из ожидания (отменена, началась, завершилась) — её таймеры больше не
+     * срабатывают.
+     */
+    public void cancel(UUID sessionId) {
+        startAts.remove(sessionId);
+    }
+
+    /**
+     * Встреча назначена или перенесена — уровни напоминаний отсчитываются заново. Уровни, момент которых
+     * к этому времени уже прошёл (встреча через 40 минут — напоминание «за час»), сразу считаются
+     * отправленными: приглашение только что ушло. В транзакции сохранения сессии.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void resetReminders(UUID sessionId) {
+        List<Object[]> rows = loadSession(sessionId);
+        Integer passed = rows.isEmpty() ? null : dueOffset((LocalDateTime) rows.get(0)[1], null, LocalDateTime.now());
+        entityManager.createNativeQuery("update INTERVIEW_SESSION_ENTITY set LAST_REMINDER_OFFSET = ?2, " +
+                        "NOTIFICATION_SENT = false where ID = ?1")
+                .setParameter(1, sessionId)
+                .setParameter(2, passed)
+                .executeUpdate();
+    }
+
+    int schedule(UUID sessionId, LocalDateTime startAt, Integer lastSent, LocalDateTime horizon) {
+        LocalDateTime now = LocalDateTime.now();
+        int scheduled = 0;
+        for (int offset : offsets) {
+            if (lastSent != null && offset >= lastSent) continue;
+            LocalDateTime fireAt = startAt.minusMinutes(offset);
+            if (!fireAt.isAfter(now) || fireAt.isAfter(horizon)) continue;
+            Reminder reminder = new Reminder(sessionId, offset, startAt);
+            long delayMs = Duration.between(now, fireAt).toMillis();
+            boolean[] added = new boolean[1];
+            // под блокировкой записи сессии — срабатывание последнего таймера не удалит начало, пока ставится новый
+            startAts.compute(sessionId, (id, current) -> {
+                added[0] = pending.add(reminder);
+                if (added[0]) {
+                    wheel.add(reminder, delayMs);
+                }
+                return startAt;
+            });
+            if (added[0]) scheduled++;
+        }
+        return scheduled;
+    }
+
+    void tick() {
+        for (Object fired : wheel.advance()) {
+            Reminder reminder = (Reminder) fired;
+            pending.remove(reminder);
+            boolean actual = Objects.equals(startAts.get(reminder.sessionId()), reminder.startAt());
+            // у сессии не осталось таймеров — её начало больше не нужно
+            startAts.computeIfPresent(reminder.sessionId(), (id, startAt) -> hasTimers(id, startAt) ? startAt : null);
+            if (!actual) {
+                continue; // перенесена или удалена
+            }
+            executor.execute(() -> authenticator.runWithSystem(() -> safely(() ->
+                    notificationOutboxService.enqueueReminder(reminder.sessionId(), reminder.offsetMinutes()))));
+        }
+    }
+
+    int trackedSessions() {
+        return startAts.size();
+    }
+
+    private boolean hasTimers(UUID sessionId, LocalDateTime startAt) {
+        for (int offset : offsets) {
+            if (pending.contains(new Reminder(sessionId, offset, startAt))) return true;
+        }
+        return false;
+    }
+
+    // самый близкий к началу уровень, момент которого наступил и который ещё не отправлен
+    private Integer dueOffset(LocalDateTime startAt, Integer lastSent, LocalDateTime now) {
+        Integer due = null;
+        for (int offset : offsets) {
+            if (lastSent != null && offset >= lastSent) continue;
+            if (!startAt.minusMinutes(offset).isAfter(now)) {
+                due = offset;
+            }
+        }
+        return due;
+    }
+
+    private List<Object[]> loadUpcoming(LocalDateTime from, LocalDateTime to) {
+        return toRows(entityManager.createNativeQuery(
+                        "select cast(ID as varchar), SCHEDULED_START_AT, LAST_REMINDER_OFFSET from INTERVIEW_SESSION_ENTITY " +
+                                "where SCHEDULED_START_AT > ?1 and SCHEDULED_START_AT <= ?2 " +
+                                "and coalesce(LAST_REMINDER_OFFSET, 2147483647) > ?3 and coalesce(STATE, ?4) = ?4")
+                .setParameter(1, from)
+                .setParameter(2, to)
+                .setParameter(3, offsets[offsets.length - 1])
+                .setParameter(4, InterviewStateEnum.PENDING.getId())
+                .getResultList());
+    }
+
+    private List<Object[]> loadSession(UUID sessionId) {
+        return toRows(entityManager.createNativeQuery(
+                        "select cast(ID as varchar), SCHEDULED_START_AT, LAST_REMINDER_OFFSET from INTERVIEW_SESSION_ENTITY " +
+                                "where ID = ?1 and SCHEDULED_START_AT > ?2 and coalesce(STATE, ?3) = ?3")
+                .setParameter(1, sessionId)
+                .setParameter(2, LocalDateTime.now())
+                .setParameter(3, InterviewStateEnum.PENDING.getId())
+                .getResultList());
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static List<Object[]> toRows(List raw) {
+        List<Object[]> rows = new ArrayList<>(raw.size());
+        for (Object o : raw) {
+            Object[] r = (Object[]) o;
+            rows.add(new Object[]{
+                    UUID.fromString(r[0].toString()),
+                    r[1] instanceof Timestamp ts ? ts.toLocalDateTime() : (LocalDateTime) r[1],
+                    r[2] == null ? null : ((Number) r[2]).intValue()
+            });
+        }
+        return rows;
+    }
+
+    private void safely(Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            log.warn("Ошибка планировщика напоминаний", e);
+        }
+    }
+
+    /**
+     * Хешированное колесо таймеров: {@code size} ячеек по {@code tickMs}; таймер дальше одного оборота
+     * хранит число оставшихся оборотов. Такты считаются от времени старта, поэтому задержка выполнения
+     * не накапливается, а срок нового таймера отсчитывается от текущего такта, даже если колесо ещё не
+     * догнало его.
+     */
+    static final class TimerWheel {
+
+        private static final class Entry {
+            final Object payload;
+            long rounds;
+
+            Entry(Object payload, long rounds) {
+                this.payload = payload;
+                this.rounds = rounds;
+            }
+        }
+
+        private final List<Entry>[] slots;
+        private final long tickMs;
+        private final LongSupplier nanoTime;
+        private final long startNanos;
+        private long processedTicks;
+
+        @SuppressWarnings("unchecked")
+        TimerWheel(int size, long tickMs, LongSupplier nanoTime) {
+            this.slots = new List[size];
+            for (int i = 0; i < size; i++) {
+                slots[i] = new ArrayList<>();
+            }
+            this.tickMs = tickMs;
+            this.nanoTime = nanoTime;
+            this.startNanos = nanoTime.getAsLong();
+        }
+
+        synchronized void add(Object payload, long delayMs) {
+            long ticks = Math.max(1, (delayMs + tickMs - 1) / tickMs);
+            long target = Math.max(currentTick(), processedTicks) + ticks;
+            // ячейка target посещается при каждом обороте после processedTicks — считаем обороты до нужного
+            slots[(int) (target % slots.length)].add(new Entry(payload, (target - processedTicks - 1) / slots.length));
+        }
+
+        /**
+         * Продвигает колесо до текущего момента и возвращает сработавшие таймеры.
+         */
+        synchronized List<Object> advance() {
+            long nowTicks = currentTick();
+            List<Object> fired = new ArrayList<>();
+            while (processedTicks < nowTicks) {
+                processedTicks++;
+                Iterator<Entry> it = slots[(int) (processedTicks % slots.length)].iterator();
+                while (it.hasNext()) {
+                    Entry e = it.next();
+                    if (e.rounds > 0) {
+                        e.rounds--;
+                    } else {
+                        it.remove();
+                        fired.add(e.payload);
+                    }
+                }
+            }
+            return fired;
+        }
+
+        private long currentTick() {
+            return (nanoTime.getAsLong() - startNanos) / 1_000_000 / tickMs;
+        }
+    }
+}
@@ -0,0 +1,477 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.javaboys.huntyhr.entity.InterviewStateEnum;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Распределение времени интервью с учётом мощности голосового бэкенда: каждая сессия держит STT и TTS
+ * и нагружает CPU всё время встречи, поэтому одновременно может идти не больше {@code capacity} сессий.
+ * <p>
+ * Занятость окна загружается из базы в дерево интервалов {@code [начало, начало + длительность)}:
+ * пересекающиеся со слотом встречи находятся за O(log n + k), пик нагрузки внутри слота — проходом по
+ * ним. Выбор слотов ({@link Schedule}) и проверка при сохранении ({@link #ensureCapacity}) идут под
+ * одной advisory-блокировкой транзакции, поэтому параллельные приглашения не перебронируют бэкенд.
+ * Расписание, взятое под блокировкой, привязано к транзакции: сессии, забронированные в нём, при
+ * сохранении повторно не проверяются, и массовое приглашение строит дерево один раз.
+ */
+@Service
+@Slf4j
+public class InterviewSlotService {
+
+    private static final Set<InterviewStateEnum> ACTIVE_STATES = EnumSet.of(InterviewStateEnum.PENDING, InterviewStateEnum.LIVE);
+    // ключ расписания, взятого под блокировкой в текущей транзакции
+    private static final Object LOCKED_SCHEDULE = new Object();
+
+    private final int capacity;
+    private final Duration sessionDuration;
+    private final Duration step;
+    private final LocalTime workDayStart;
+    private final LocalTime workDayEnd;
+    private final int maxSearchDays;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public InterviewSlotService(@Value("${hunty.interview-slots.capacity:4}") int capacity,
+                                @Value("${hunty.interview-slots.session-minutes:45}") int sessionMinutes,
+                                @Value("${hunty.interview-slots.step-minutes:15}") int stepMinutes,
+                                @Value("${hunty.interview-slots.work-day-start:10:00}") String workDayStart,
+                                @Value("${hunty.interview-slots.work-day-end:19:00}") String workDayEnd,
+                                @Value("${hunty.interview-slots.max-search-days:30}") int maxSearchDays) {
+        this.capacity = Math.max(1, capacity);
+        this.sessionDuration = Duration.ofMinutes(Math.max(1, sessionMinutes));
+        this.step = Duration.ofMinutes(Math.max(1, stepMinutes));
+        this.workDayStart = LocalTime.parse(workDayStart);
+        this.workDayEnd = LocalTime.parse(workDayEnd);
+        this.maxSearchDays = Math.max(1, maxSearchDays);
+    }
+
+    /**
+     * Занятость от {@code notBefore} на {@code max-search-days} вперёд. Берёт блокировку расписания до
+     * конца транзакции: брони из {@link Schedule#book} сохраняются в ней же. Слот переназначаемой сессии
+     * освобождается через {@link Schedule#release}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Schedule lockSchedule(LocalDateTime notBefore) {
+        lock();
+        Schedule schedule = load(notBefore, Set.of());
+        if (TransactionSynchronizationManager.unbindResourceIfPossible(LOCKED_SCHEDULE) == null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(LOCKED_SCHEDULE);
+                }
+            });
+        }
+        TransactionSynchronizationManager.bindResource(LOCKED_SCHEDULE, schedule);
+        return schedule;
+    }
+
+    /**
+     * Ближайшие свободные слоты — подсказка в форме приглашения, без блокировки.
+     */
+    @Transactional(readOnly = true)
+    public List<LocalDateTime> proposeSlots(LocalDateTime notBefore, @Nullable UUID sessionId, int count) {
+        return load(notBefore, sessionId == null ? Set.of() : Set.of(sessionId)).propose(notBefore, count);
+    }
+
+    /**
+     * Проверка перед коммитом назначенной или перенесённой сессии: если в её слоте бэкенд уже занят
+     * полностью, транзакция откатывается с {@link InterviewSlotUnavailableException}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @SuppressWarnings("unchecked")
+    public void ensureCapacity(UUID sessionId) {
+        List<Object[]> rows = entityManager.createNativeQuery(
+                        "select SCHEDULED_START_AT, STATE from INTERVIEW_SESSION_ENTITY where ID = ?1")
+                .setParameter(1, sessionId)
+                .getResultList();
+        if (rows.isEmpty() || rows.get(0)[0] == null
+                || !isActive(InterviewStateEnum.fromId(Objects.toString(rows.get(0)[1], null)))) {
+            return;
+        }
+        LocalDateTime startAt = toLocalDateTime(rows.get(0)[0]);
+        if (!startAt.plus(sessionDuration).isAfter(LocalDateTime.now())) {
+            return;
+        }
+        Schedule locked = (Schedule) TransactionSynchronizationManager.getResource(LOCKED_SCHEDULE);
+        if (locked != null && locked.isBooked(sessionId, startAt)) {
+            // слот выбран под блокировкой в этой же транзакции
+            return;
+        }
+
+        lock();
+        // слот пересекают только сессии, начало которых отстоит от его начала меньше чем на длительность встречи
+        Schedule around = load(startAt.minus(sessionDuration), startAt.plus(sessionDuration), startAt,
+                Set.of(sessionId));
+        int peak = around.peak(startAt);
+        if (peak >= capacity) {
+            log.info("Interview session {} at {} rejected: {} of {} backend slots busy", sessionId, startAt, peak, capacity);
+            throw new InterviewSlotUnavailableException(startAt, load(startAt, Set.of(sessionId)).propose(startAt, 3));
+        }
+    }
+
+    private void lock() {
+        entityManager.createNativeQuery("select pg_advisory_xact_lock(hashtext('interview-slots'))")
+                .getResultList();
+    }
+
+    private Schedule load(LocalDateTime notBefore, Collection<UUID> excluded) {
+        return load(notBefore.minus(sessionDuration), notBefore.plusDays(maxSearchDays + 1L),
+                notBefore.plusDays(maxSearchDays), excluded);
+    }
+
+    /**
+     * Сессии, начинающиеся в {@code (from, to)}; {@code limit} — граница поиска свободных слотов.
+     */
+    @SuppressWarnings("unchecked")
+    private Schedule load(LocalDateTime from, LocalDateTime to, LocalDateTime limit, Collection<UUID> excluded) {
+        List<Object[]> rows = entityManager.createNativeQuery(
+                        "select cast(ID as varchar), SCHEDULED_START_AT from INTERVIEW_SESSION_ENTITY " +
+                                "where SCHEDULED_START_AT > ?1 and SCHEDULED_START_AT < ?2 and coalesce(STATE, ?3) in (?3, ?4)")
+                .setParameter(1, from)
+                .setParameter(2, to)
+                .setParameter(3, InterviewStateEnum.PENDING.getId())
+                .setParameter(4, InterviewStateEnum.LIVE.getId())
+                .getResultList();
+
+        Schedule schedule = newSchedule(limit);
+        for (Object[] r : rows) {
+            UUID id = UUID.fromString(r[0].toString());
+            if (!excluded.contains(id)) {
+                schedule.occupy(id, toLocalDateTime(r[1]));
+            }
+        }
+        return schedule;
+    }
+
+    /**
+     * Статус сессии с учётом старых записей: сессия без статуса создана до их появления и считается
+     * ожидающей.
+     */
+    static InterviewStateEnum stateOf(@Nullable InterviewStateEnum state) {
+        return state == null ? InterviewStateEnum.PENDING : state;
+    }
+
+    /**
+     * Занимает ли сессия мощность бэкенда: ожидает начала или идёт.
+     */
+    static boolean isActive(@Nullable InterviewStateEnum state) {
+        return ACTIVE_STATES.contains(stateOf(state));
+    }
+
+    // пустое расписание; слоты ищутся до limit
+    Schedule newSchedule(LocalDateTime limit) {
+        return new Schedule(limit);
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp ts ? ts.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    private static long minutes(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    /**
+     * Занятость бэкенда на окне поиска. Не потокобезопасна — живёт в пределах одного вызова.
+     */
+    public class Schedule {
+
+        private final IntervalTree tree = new IntervalTree();
+        private final LocalDateTime limit;
+        // сессии, забронированные через это расписание, и их время
+        private final Map<UUID, LocalDateTime> booked = new HashMap<>();
+        // сессии из базы, занимающие мощность, и их время
+        private final Map<UUID, LocalDateTime> occupied = new HashMap<>();
+
+        private Schedule(LocalDateTime limit) {
+            this.limit = limit;
+        }
+
+        /**
+         * Сколько сессий идёт одновременно в худший момент слота, начинающегося в {@code startAt}.
+         */
+        public int peak(LocalDateTime startAt) {
+            long from = minutes(startAt);
+            long to = from + sessionDuration.toMinutes();
+            List<long[]> overlapping = new ArrayList<>();
+            tree.overlapping(from, to, overlapping);
+            if (overlapping.size() < 2) {
+                return overlapping.size();
+            }
+            // начала внутри слота: +1, концы: -1; конец раньше начала в ту же минуту
+            long[] events = new long[overlapping.size() * 2];
+            int i = 0;
+            for (long[] interval : overlapping) {
+                events[i++] = Math.max(interval[0], from) * 2 + 1;
+                events[i++] = interval[1] * 2;
+            }
+            Arrays.sort(events);
+            int current = 0;
+            int peak = 0;
+            for (long e : events) {
+                current += (e & 1) == 1 ? 1 : -1;
+                peak = Math.max(peak, current);
+            }
+            return peak;
+        }
+
+        public boolean fits(LocalDateTime startAt) {
+            return peak(startAt) < capacity;
+        }
+
+        /**
+         * Ближайший слот сетки {@code step-minutes} в рабочее время будних дней с запасом мощности или
+         * {@code null}, если такого нет в пределах {@code max-search-days}.
+         */
+        @Nullable
+        public LocalDateTime nextFree(LocalDateTime notBefore) {
+            LocalDateTime cursor = alignUp(notBefore);
+            while (cursor.isBefore(limit)) {
+                if (!fitsWorkDay(cursor)) {
+                    LocalDateTime dayStart = cursor.toLocalDate().atTime(workDayStart);
+                    cursor = cursor.isBefore(dayStart) ? dayStart : dayStart.plusDays(1);
+                    continue;
+                }
+                if (fits(cursor)) {
+                    return cursor;
+                }
+                cursor = cursor.plus(step);
+            }
+            return null;
+        }
+
+        public List<LocalDateTime> propose(LocalDateTime notBefore, int count) {
+            List<LocalDateTime> result = new ArrayList<>(count);
+            LocalDateTime cursor = notBefore;
+            while (result.size() < count) {
+                LocalDateTime slot = nextFree(cursor);
+                if (slot == null) break;
+                result.add(slot);
+                cursor = slot.plus(step);
+            }
+            return result;
+        }
+
+        /**
+         * Учитывает сессию, назначенную на {@code startAt}, в дальнейших расчётах.
+         */
+        public void book(LocalDateTime startAt) {
+            long from = minutes(startAt);
+            tree.insert(from, from + sessionDuration.toMinutes());
+        }
+
+        /**
+         * То же, что {@link #book(LocalDateTime)}, и запоминает сессию: при её сохранении в этой транзакции
+         * {@link #ensureCapacity} не перестраивает расписание.
+         */
+        public void book(UUID sessionId, LocalDateTime startAt) {
+            book(startAt);
+            booked.put(sessionId, startAt);
+        }
+
+        /**
+         * Убирает из расчётов слот сессии, загруженной из базы, — на время поиска ей нового.
+         *
+         * @return прежнее начало сессии или {@code null}, если она мощность не занимала
+         */
+        @Nullable
+        public LocalDateTime release(UUID sessionId) {
+            LocalDateTime startAt = occupied.remove(sessionId);
+            if (startAt != null) {
+                long from = minutes(startAt);
+                tree.remove(from, from + sessionDuration.toMinutes());
+            }
+            return startAt;
+        }
+
+        /**
+         * Возвращает слот, освобождённый {@link #release}: новый не нашёлся, сессия остаётся на прежнем
+         * времени.
+         */
+        public void restore(UUID sessionId, LocalDateTime startAt) {
+            occupy(sessionId, startAt);
+        }
+
+        void occupy(UUID sessionId, LocalDateTime startAt) {
+            book(startAt);
+            occupied.put(sessionId, startAt);
+        }
+
+        boolean isBooked(UUID sessionId, LocalDateTime startAt) {
+            return startAt.equals(booked.get(sessionId));
+        }
+
+        private LocalDateTime alignUp(LocalDateTime t) {
+            LocalDateTime midnight = t.toLocalDate().atStartOfDay();
+            long stepSeconds = step.toSeconds();
+            long seconds = Duration.between(midnight, t).toSeconds();
+            long aligned = (seconds + stepSeconds - 1) / stepSeconds * stepSeconds;
+            return midnight.plusSeconds(aligned);
+        }
+
+        private boolean fitsWorkDay(LocalDateTime t) {
+            DayOfWeek day = t.getDayOfWeek();
+            LocalDateTime end = t.plus(sessionDuration);
+            return day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY
+                    && !t.toLocalTime().isBefore(workDayStart)
+                    && end.toLocalDate().equals(t.toLocalDate())
+                    && !end.toLocalTime().isAfter(workDayEnd);
+        }
+    }
+
+    /**
+     * Дерево полуоткрытых интервалов {@code [start, end)} в минутах: декартово дерево по началу, в узле —
+     * максимальный конец поддерева. Поддеревья, которые заканчиваются до запроса или начинаются после него,
+     * отсекаются целиком.
+     */
+    static final class IntervalTree {
+
+        private static final class Node {
+            final long start;
+            final long end;
+            final int priority = ThreadLocalRandom.current().nextInt();
+            long maxEnd;
+            Node left;
+            Node right;
+
+            Node(long start, long end) {
+                this.start = start;
+                this.end = end;
+                this.maxEnd = end;
+            }
+
+            void update() {
+                maxEnd = end;
+                if (left != null) maxEnd = Math.max(maxEnd, left.maxEnd);
+                if (right != null) maxEnd = Math.max(maxEnd, right.maxEnd);
+            }
+        }
+
+        private Node root;
+
+        void insert(long start, long end) {
+            root = insert(root, new Node(start, end));
+        }
+
+        /**
+         * Удаляет один интервал {@code [start, end)}, если он есть.
+         */
+        void remove(long start, long end) {
+            root = remove(root, start, end, new boolean[1]);
+        }
+
+        /**
+         * Добавляет в {@code out} пары {@code {start, end}} всех интервалов, пересекающих {@code [from, to)}.
+         *
+         * @return сколько узлов просмотрено — мера отсечения поддеревьев
+         */
+        int overlapping(long from, long to, List<long[]> out) {
+            return collect(root, from, to, out);
+        }
+
+        private static Node insert(Node node, Node added) {
+            if (node == null) {
+                return added;
+            }
+            if (added.start < node.start) {
+                node.left = insert(node.left, added);
+                if (node.left.priority > node.priority) node = rotateRight(node);
+            } else {
+                node.right = insert(node.right, added);
+                if (node.right.priority > node.priority) node = rotateLeft(node);
+            }
+            node.update();
+            return node;
+        }
+
+        private static Node remove(Node node, long start, long end, boolean[] removed) {
+            if (node == null || removed[0]) {
+                return node;
+            }
+            if (node.start == start && node.end == end) {
+                removed[0] = true;
+                return merge(node.left, node.right);
+            }
+            // после поворотов равные начала бывают по обе стороны
+            if (start <= node.start) node.left = remove(node.left, start, end, removed);
+            if (start >= node.start) node.right = remove(node.right, start, end, removed);
+            node.update();
+            return node;
+        }
+
+        private static Node merge(Node left, Node right) {
+            if (left == null) return right;
+            if (right == null) return left;
+            if (left.priority > right.priority) {
+                left.right = merge(left.right, right);
+                left.update();
+                return left;
+            }
+            right.left = merge(left, right.left);
+            right.update();
+            return right;
+        }
+
+        private static Node rotateRight(Node node) {
+            Node pivot = node.left;
+            node.left = pivot.right;
+            pivot.right = node;
+            node.update();
+            pivot.update();
+            return pivot;
+        }
+
+        private static Node rotateLeft(Node node) {
+            Node pivot = node.right;
+            node.right = pivot.left;
+            pivot.left = node;
+            node.update();
+            pivot.update();
+            return pivot;
+        }
+
+        private static int collect(Node node, long from, long to, List<long[]> out) {
+            if (node == null || node.maxEnd <= from) {
+                return 0;
+            }
+            int visited = 1 + collect(node.left, from, to, out);
+            if (node.start >= to) {
+                // правее только более поздние начала
+                return visited;
+            }
+            if (node.end > from) {
+                out.add(new long[]{node.start, node.end});
+            }
+            return visited + collect(node.right, from, to, out);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * На выбранное время бэкенд интервью уже занят полностью. Содержит ближайшие свободные слоты, чтобы
+ * предложить их пользователю вместо отказа.
+ */
+public class InterviewSlotUnavailableException extends RuntimeException {
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
+    private final LocalDateTime requested;
+    private final List<LocalDateTime> proposals;
+
+    public InterviewSlotUnavailableException(LocalDateTime requested, List<LocalDateTime> proposals) {
+        super("На " + FORMAT.format(requested) + " нет свободной мощности для интервью"
+                + (proposals.isEmpty() ? "" : ". Свободно: "
+                + proposals.stream().map(FORMAT::format).collect(Collectors.joining(", "))));
+        this.requested = requested;
+        this.proposals = List.copyOf(proposals);
+    }
+
+    public LocalDateTime getRequested() {
+        return requested;
+    }
+
+    public List<LocalDateTime> getProposals() {
+        return proposals;
+    }
+}
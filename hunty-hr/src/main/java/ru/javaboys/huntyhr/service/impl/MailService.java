@@ -1,12 +1,10 @@
 package ru.javaboys.huntyhr.service.impl;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
-
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 
 import io.jmix.core.DataManager;
+import io.jmix.email.EmailException;
 import io.jmix.email.EmailInfo;
 import io.jmix.email.EmailInfoBuilder;
 import io.jmix.email.Emailer;
@@ -21,37 +19,38 @@ public class MailService {
     private final Emailer emailer;
     private final DataManager dataManager;
 
-    public void sendInterviewScheduled(InterviewSessionEntity interviewSession) {
+    public static final String SCHEDULED_SUBJECT = "Приглашение на интервью";
+    public static final String NOTIFICATION_SUBJECT = "Напоминание о встрече";
+
+    public String interviewScheduledBody(InterviewSessionEntity interviewSession) {
         VacancyEntity vacancy = interviewSession.getApplication().getVacancy();
         CandidateEntity candidate = interviewSession.getApplication().getCandidate();
-        LocalDateTime scheduledStartAt = interviewSession.getScheduledStartAt();
-
-        String body = MailTemplates.getSchedule(
+        return MailTemplates.getSchedule(
                 StringUtils.joinWith(" ", candidate.getSurname(), candidate.getName()).trim(),
-                scheduledStartAt,
+                interviewSession.getScheduledStartAt(),
                 vacancy.getTitle(),
                 interviewSession.getInterviewLink()
         );
-        sendMessageToCandidate(candidate.getEmail(), "Приглашение на интервью", body);
     }
 
-    public void sendInterviewNotification(InterviewSessionEntity interviewSession) {
+    public String interviewNotificationBody(InterviewSessionEntity interviewSession, long minutes) {
         CandidateEntity candidate = interviewSession.getApplication().getCandidate();
-        long minutes = Duration.between(LocalDateTime.now(), interviewSession.getScheduledStartAt()).toMinutes();
-        if (minutes < 2) {
-            return;
-        }
-
-        String body = MailTemplates.getInterviewNotification(
+        return MailTemplates.getInterviewNotification(
                 StringUtils.joinWith(" ", candidate.getSurname(), candidate.getName()).trim(),
                 minutes,
-                ""// todo build link
+                interviewSession.getInterviewLink() == null ? "" : interviewSession.getInterviewLink()
         );
-        sendMessageToCandidate(candidate.getEmail(), "Напоминание о встрече", body);
     }
 
-    private void sendMessageToCandidate(String to, String title, String body) {
-        EmailInfo emailInfo = EmailInfoBuilder.create()
+    /**
+     * Синхронная отправка — для обработчика очереди уведомлений, который сам повторяет неудачные попытки.
+     */
+    public void send(String to, String title, String body) throws EmailException {
+        emailer.sendEmail(buildEmail(to, title, body));
+    }
+
+    private EmailInfo buildEmail(String to, String title, String body) {
+        return EmailInfoBuilder.create()
                 .setAddresses(to)
                 .setSubject(title)
                 .setFrom(null)
@@ -59,7 +58,6 @@ public class MailService {
                 .setImportant(true)
                 .setBodyContentType("text/html; charset=UTF-8")
                 .build();
-        emailer.sendEmailAsync(emailInfo);
     }
 
 }
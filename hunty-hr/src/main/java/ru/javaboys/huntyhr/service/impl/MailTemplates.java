@@ -65,7 +65,7 @@ public class MailTemplates {
             </head>
             <body style="font-family: Arial, sans-serif; color: #333; line-height: 1.5;">
               <div style="max-width: 600px; margin: 0 auto; padding: 20px;">
-                <h2 style="color:#d35400;">⏰ Интервью начнётся через {{MINUTES}} минут</h2>
+                <h2 style="color:#d35400;">⏰ Интервью начнётся через {{MINUTES}}</h2>
                 <p><strong>{{NAME}}</strong>, встреча скоро начнётся!</p>
             
                 <p><b>🔗 Присоединиться:</b><br>
@@ -78,7 +78,7 @@ public class MailTemplates {
             """;
 
     public static String getInterviewNotification(String candidateName, long interviewAfterMin, String meetingLink) {
-        return INTERVIEW_NOTIFICATION.replace("{{MINUTES}}", Long.toString(interviewAfterMin))
+        return INTERVIEW_NOTIFICATION.replace("{{MINUTES}}", TelegramTemplates.leadTime(interviewAfterMin))
                 .replace("{{NAME}}", candidateName)
                 .replace("{{URL}}", meetingLink);
     }
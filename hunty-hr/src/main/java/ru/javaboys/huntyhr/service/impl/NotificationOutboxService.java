@@ -0,0 +1,514 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import io.jmix.core.DataManager;
+import io.jmix.core.EntityStates;
+import io.jmix.core.FetchPlan;
+import io.jmix.core.FetchPlanBuilder;
+import io.jmix.core.SaveContext;
+import io.jmix.core.security.SystemAuthenticator;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.javaboys.huntyhr.entity.ApplicationEntity;
+import ru.javaboys.huntyhr.entity.CandidateEntity;
+import ru.javaboys.huntyhr.entity.InterviewSessionEntity;
+import ru.javaboys.huntyhr.entity.InterviewStateEnum;
+import ru.javaboys.huntyhr.entity.NotificationChannelEnum;
+import ru.javaboys.huntyhr.entity.NotificationOutboxEntity;
+import ru.javaboys.huntyhr.entity.NotificationStatusEnum;
+import ru.javaboys.huntyhr.util.Futures;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Очередь исходящих уведомлений о собеседованиях (transactional outbox).
+ * <p>
+ * Записи очереди сохраняются в той же транзакции, что и изменение, которое их порождает (назначение
+ * встречи, отметка о напоминании), поэтому уведомление не теряется при сбое между коммитом и отправкой
+ * и не уходит за несостоявшееся изменение. Обработчик захватывает пачку записей по каналу через
+ * {@code FOR UPDATE SKIP LOCKED} с арендой {@code LOCKED_UNTIL} — несколько узлов не берут одну запись
+ * дважды, а записи упавшего узла возвращаются в работу по истечении аренды; пока отправка идёт, узел
+ * продлевает аренду (ответ Telegram может прийти позже её срока). Лимиты Bot API соблюдаются в памяти
+ * узла ({@link TelegramDeliveryService}), поэтому Telegram в каждый момент отправляет один узел: он не
+ * берёт записи, пока у другого узла есть Telegram-записи в работе. Доставка «хотя бы один раз»;
+ * неудачные попытки повторяются с экспоненциальной задержкой.
+ */
+@Service
+@Slf4j
+public class NotificationOutboxService {
+
+    // ближе к началу напоминание уже бессмысленно
+    private static final int MIN_REMINDER_MINUTES = 2;
+    private static final int MAX_CHANNEL_THREADS = 4;
+
+    /**
+     * Аренда захваченной записи; изменяется и проверяется под её монитором, чтобы продление не
+     * разошлось с завершением отправки.
+     */
+    private static final class Lease {
+        LocalDateTime until;
+
+        Lease(LocalDateTime until) {
+            this.until = until;
+        }
+    }
+
+    private final DataManager dm;
+    private final EntityStates entityStates;
+    private final MailService mailService;
+    private final TelegramBotService telegramBotService;
+    private final SystemAuthenticator authenticator;
+    private final TransactionTemplate tx;
+    private final int leaseSeconds;
+    private final int maxAttempts;
+    private final long initialBackoffSeconds;
+    private final long maxBackoffSeconds;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<NotificationChannelEnum, ExecutorService> executors = new EnumMap<>(NotificationChannelEnum.class);
+    // свободные слоты канала: захватываем не больше, чем можем сразу отправить
+    private final Map<NotificationChannelEnum, Semaphore> slots = new EnumMap<>(NotificationChannelEnum.class);
+    // метка узла в LOCKED_BY — по ней Telegram-записи захватывает только один узел
+    private final String nodeId = UUID.randomUUID().toString();
+    // записи, отправка которых идёт на этом узле
+    private final Map<UUID, Lease> leases = new ConcurrentHashMap<>();
+    private final ExecutorService wakeUpExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("outbox-wakeup-"));
+
+    public NotificationOutboxService(DataManager dm,
+                                     EntityStates entityStates,
+                                     MailService mailService,
+                                     TelegramBotService telegramBotService,
+                                     SystemAuthenticator authenticator,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${hunty.outbox.telegram.parallelism:50}") int telegramParallelism,
+                                     @Value("${hunty.outbox.email.parallelism:2}") int emailParallelism,
+                                     @Value("${hunty.outbox.lease-seconds:120}") int leaseSeconds,
+                                     @Value("${hunty.outbox.retry.max-attempts:8}") int maxAttempts,
+                                     @Value("${hunty.outbox.retry.initial-backoff-seconds:10}") long initialBackoffSeconds,
+                                     @Value("${hunty.outbox.retry.max-backoff-seconds:1800}") long maxBackoffSeconds) {
+        this.dm = dm;
+        this.entityStates = entityStates;
+        this.mailService = mailService;
+        this.telegramBotService = telegramBotService;
+        this.authenticator = authenticator;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.leaseSeconds = leaseSeconds;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffSeconds = Math.max(1, initialBackoffSeconds);
+        this.maxBackoffSeconds = Math.max(this.initialBackoffSeconds, maxBackoffSeconds);
+        register(NotificationChannelEnum.TELEGRAM, telegramParallelism);
+        register(NotificationChannelEnum.EMAIL, emailParallelism);
+    }
+
+    // parallelism — сколько отправок канала одновременно в работе; потоки нужны только синхронным
+    // отправкам (email), Telegram отправляется асинхронно и потоки не держит
+    private void register(NotificationChannelEnum channel, int parallelism) {
+        int n = Math.max(1, parallelism);
+        executors.put(channel, Executors.newFixedThreadPool(Math.min(n, MAX_CHANNEL_THREADS),
+                new CustomizableThreadFactory("outbox-" + channel.getId().toLowerCase() + "-")));
+        slots.put(channel, new Semaphore(n));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wakeUpExecutor.shutdownNow();
+        executors.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    /**
+     * Записи очереди с приглашением на собеседование — по одной на каждый канал, для которого у кандидата
+     * есть адрес. Не сохраняются: вызывающий кладёт их в один SaveContext с сессией.
+     */
+    public List<NotificationOutboxEntity> interviewScheduled(InterviewSessionEntity session) {
+        InterviewSessionEntity full = withApplication(session);
+        CandidateEntity candidate = full.getApplication().getCandidate();
+        List<NotificationOutboxEntity> result = new ArrayList<>(2);
+        if (candidate.getTelegramChatId() != null) {
+            result.add(create(NotificationChannelEnum.TELEGRAM, String.valueOf(candidate.getTelegramChatId()), null,
+                    telegramBotService.interviewScheduledText(full), session.getId(), null));
+        }
+        if (StringUtils.isNotBlank(candidate.getEmail())) {
+            result.add(create(NotificationChannelEnum.EMAIL, candidate.getEmail().trim(), MailService.SCHEDULED_SUBJECT,
+                    mailService.interviewScheduledBody(full), session.getId(), null));
+        }
+        return result;
+    }
+
+    /**
+     * Записи очереди с напоминанием о скором начале встречи; теряют смысл после её начала.
+     */
+    public List<NotificationOutboxEntity> interviewReminder(InterviewSessionEntity session) {
+        InterviewSessionEntity full = withApplication(session);
+        long minutes = Duration.between(LocalDateTime.now(), full.getScheduledStartAt()).toMinutes();
+        if (minutes < MIN_REMINDER_MINUTES) {
+            return List.of();
+        }
+        CandidateEntity candidate = full.getApplication().getCandidate();
+        List<NotificationOutboxEntity> result = new ArrayList<>(2);
+        if (candidate.getTelegramChatId() != null) {
+            result.add(create(NotificationChannelEnum.TELEGRAM, String.valueOf(candidate.getTelegramChatId()), null,
+                    telegramBotService.interviewNotificationText(full, minutes), session.getId(), full.getScheduledStartAt()));
+        }
+        if (StringUtils.isNotBlank(candidate.getEmail())) {
+            result.add(create(NotificationChannelEnum.EMAIL, candidate.getEmail().trim(), MailService.NOTIFICATION_SUBJECT,
+                    mailService.interviewNotificationBody(full, minutes), session.getId(), full.getScheduledStartAt()));
+        }
+        return result;
+    }
+
+    /**
+     * Последняя запись приглашения (без срока годности, в отличие от напоминаний) по каждому каналу сессий —
+     * для отображения статуса доставки массового приглашения.
+     */
+    public Map<UUID, Map<NotificationChannelEnum, NotificationOutboxEntity>> invitations(Collection<UUID> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<UUID, Map<NotificationChannelEnum, NotificationOutboxEntity>> result = new HashMap<>();
+        dm.load(NotificationOutboxEntity.class)
+                .query("select o from NotificationOutboxEntity o where o.interviewSessionId in :ids " +
+                        "and o.expiresAt is null order by o.createdAt")
+                .parameter("ids", sessionIds)
+                .list()
+                .forEach(o -> result.computeIfAbsent(o.getInterviewSessionId(), k -> new EnumMap<>(NotificationChannelEnum.class))
+                        .put(o.getChannel(), o));
+        return result;
+    }
+
+    /**
+     * Ставит в очередь напоминание уровня {@code offsetMinutes} по одной сессии. Идемпотентно: сессия
+     * блокируется через SKIP LOCKED и пропускается, если встреча уже началась, больше не ожидается
+     * (отменена, идёт, завершена) или напоминание этого (или более позднего) уровня уже отправлено.
+     * Поэтому одновременное срабатывание таймера на нескольких узлах и страховочного обхода даёт одно
+     * напоминание.
+     */
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public int enqueueReminder(UUID sessionId, int offsetMinutes) {
+        List<Object> locked = entityManager.createNativeQuery(
+                        "select cast(ID as varchar) from INTERVIEW_SESSION_ENTITY " +
+                                "where ID = ?1 and SCHEDULED_START_AT > ?2 " +
+                                "and coalesce(LAST_REMINDER_OFFSET, 2147483647) > ?3 and coalesce(STATE, ?4) = ?4 " +
+                                "for update skip locked")
+                .setParameter(1, sessionId)
+                .setParameter(2, LocalDateTime.now())
+                .setParameter(3, offsetMinutes)
+                .setParameter(4, InterviewStateEnum.PENDING.getId())
+                .getResultList();
+        if (locked.isEmpty()) {
+            return 0;
+        }
+
+        InterviewSessionEntity session = dm.load(InterviewSessionEntity.class)
+                .id(sessionId)
+                .fetchPlan(this::sessionFetchPlan)
+                .one();
+        List<NotificationOutboxEntity> rows = interviewReminder(session);
+        SaveContext ctx = new SaveContext();
+        rows.forEach(ctx::saving);
+        session.setLastReminderOffset(offsetMinutes);
+        session.setNotificationSent(true);
+        ctx.saving(session);
+        dm.save(ctx);
+        if (!rows.isEmpty()) {
+            wakeUpAfterCommit();
+        }
+        return rows.size();
+    }
+
+    /**
+     * Будит обработчик, не дожидаясь очередного опроса; в транзакции — после её коммита.
+     */
+    public void wakeUpAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp();
+                }
+            });
+        } else {
+            wakeUp();
+        }
+    }
+
+    private void wakeUp() {
+        wakeUpExecutor.submit(() -> authenticator.runWithSystem(this::dispatch));
+    }
+
+    /**
+     * Захватывает и отправляет готовые записи по всем каналам. Захватывается не больше записей, чем
+     * свободных потоков канала, — остальное остаётся в базе для других узлов.
+     */
+    @Scheduled(fixedDelayString = "${hunty.outbox.poll-ms:5000}")
+    public synchronized void dispatch() {
+        for (NotificationChannelEnum channel : NotificationChannelEnum.values()) {
+            safely(() -> dispatch(channel));
+        }
+    }
+
+    private void dispatch(NotificationChannelEnum channel) {
+        Semaphore free = slots.get(channel);
+        int permits = free.drainPermits();
+        if (permits == 0) {
+            return;
+        }
+        LocalDateTime until = leaseUntil();
+        List<UUID> claimed;
+        try {
+            claimed = claim(channel, permits, until);
+        } catch (RuntimeException e) {
+            free.release(permits);
+            throw e;
+        }
+        free.release(permits - claimed.size());
+        ExecutorService executor = executors.get(channel);
+        for (UUID id : claimed) {
+            Lease lease = new Lease(until);
+            leases.put(id, lease);
+            executor.submit(() -> {
+                CompletableFuture<Void> done;
+                try {
+                    done = authenticator.withSystem(() -> process(id, lease, executor));
+                } catch (Exception e) {
+                    log.warn("Ошибка обработки уведомления {}", id, e);
+                    done = CompletableFuture.completedFuture(null);
+                }
+                // слот канала освобождается по завершении отправки, а не по выходу из задачи
+                done.whenComplete((r, e) -> {
+                    leases.remove(id, lease);
+                    free.release();
+                });
+            });
+        }
+    }
+
+    /**
+     * Продлевает аренду записей, отправка которых ещё идёт на этом узле: сообщение может ждать своей
+     * очереди в чате или паузы после 429 дольше {@code lease-seconds}, и без продления запись захватил бы и
+     * отправил повторно другой узел.
+     */
+    @Scheduled(fixedDelayString = "${hunty.outbox.lease-renew-ms:30000}")
+    public void renewLeases() {
+        leases.forEach((id, lease) -> safely(() -> renew(id, lease)));
+    }
+
+    private void renew(UUID id, Lease lease) {
+        synchronized (lease) {
+            if (leases.get(id) != lease) {
+                return;
+            }
+            LocalDateTime until = leaseUntil();
+            Integer updated = tx.execute(s -> entityManager.createNativeQuery(
+                            "update NOTIFICATION_OUTBOX_ENTITY set LOCKED_UNTIL = ?1 " +
+                                    "where ID = ?2 and STATUS = 'PROCESSING' and LOCKED_UNTIL = ?3")
+                    .setParameter(1, until)
+                    .setParameter(2, id)
+                    .setParameter(3, lease.until)
+                    .executeUpdate());
+            if (updated != null && updated == 1) {
+                lease.until = until;
+            } else {
+                leases.remove(id, lease);
+                log.warn("Аренда уведомления {} истекла до завершения отправки", id);
+            }
+        }
+    }
+
+    private LocalDateTime leaseUntil() {
+        return LocalDateTime.now().plusSeconds(leaseSeconds).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<UUID> claim(NotificationChannelEnum channel, int limit, LocalDateTime until) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object> rows = tx.execute(status -> {
+            if (channel == NotificationChannelEnum.TELEGRAM && !ownsTelegram(now)) {
+                return List.of();
+            }
+            return entityManager.createNativeQuery(
+                            "update NOTIFICATION_OUTBOX_ENTITY set STATUS = 'PROCESSING', LOCKED_UNTIL = ?1, " +
+                                    "LOCKED_BY = ?5, ATTEMPTS = ATTEMPTS + 1 " +
+                                    "where ID in (select ID from NOTIFICATION_OUTBOX_ENTITY " +
+                                    "where CHANNEL = ?2 and ((STATUS = 'PENDING' and NEXT_ATTEMPT_AT <= ?3) " +
+                                    "or (STATUS = 'PROCESSING' and LOCKED_UNTIL < ?3)) " +
+                                    "order by NEXT_ATTEMPT_AT limit ?4 for update skip locked) " +
+                                    "returning cast(ID as varchar)")
+                    .setParameter(1, until)
+                    .setParameter(2, channel.getId())
+                    .setParameter(3, now)
+                    .setParameter(4, limit)
+                    .setParameter(5, nodeId)
+                    .getResultList();
+        });
+        return rows == null ? List.of() : rows.stream().map(id -> UUID.fromString(id.toString())).toList();
+    }
+
+    /**
+     * Может ли узел захватывать Telegram-записи: ни у одного другого узла нет их в работе. Захват
+     * сериализован advisory-блокировкой транзакции, поэтому два узла не начнут отправку одновременно;
+     * отправка переходит к другому узлу, только когда у текущего не осталось записей в полёте.
+     */
+    private boolean ownsTelegram(LocalDateTime now) {
+        entityManager.createNativeQuery("select pg_advisory_xact_lock(hashtext('outbox-telegram'))")
+                .getResultList();
+        List<?> foreign = entityManager.createNativeQuery(
+                        "select 1 from NOTIFICATION_OUTBOX_ENTITY where CHANNEL = ?1 and STATUS = 'PROCESSING' " +
+                                "and LOCKED_UNTIL >= ?2 and LOCKED_BY <> ?3 limit 1")
+                .setParameter(1, NotificationChannelEnum.TELEGRAM.getId())
+                .setParameter(2, now)
+                .setParameter(3, nodeId)
+                .getResultList();
+        return foreign.isEmpty();
+    }
+
+    /**
+     * Отправляет захваченную запись. Telegram — асинхронно через очередь с лимитами Bot API, email —
+     * синхронно; итог записывается в потоке канала.
+     */
+    private CompletableFuture<Void> process(UUID id, Lease lease, ExecutorService executor) {
+        NotificationOutboxEntity row = dm.load(NotificationOutboxEntity.class).id(id).optional().orElse(null);
+        if (row == null || row.getStatus() != NotificationStatusEnum.PROCESSING) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (row.getExpiresAt() != null && !LocalDateTime.now().isBefore(row.getExpiresAt())) {
+            finish(id, lease, NotificationStatusEnum.EXPIRED, LocalDateTime.now(), null);
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> sending;
+        try {
+            sending = switch (row.getChannel()) {
+                case TELEGRAM -> telegramBotService.sendAsync(Long.valueOf(row.getRecipient()), row.getPayload());
+                case EMAIL -> {
+                    mailService.send(row.getRecipient(), row.getSubject(), row.getPayload());
+                    yield CompletableFuture.completedFuture(null);
+                }
+            };
+        } catch (Exception e) {
+            sending = CompletableFuture.failedFuture(e);
+        }
+        return sending.handleAsync((r, error) -> {
+            authenticator.runWithSystem(() -> safely(() -> complete(row, lease, error)));
+            return null;
+        }, executor);
+    }
+
+    private void complete(NotificationOutboxEntity row, Lease lease, Throwable error) {
+        LocalDateTime now = LocalDateTime.now();
+        if (error == null) {
+            finish(row.getId(), lease, NotificationStatusEnum.SENT, now, null);
+            return;
+        }
+        Throwable cause = Futures.unwrap(error);
+        String message = StringUtils.abbreviate(cause.getClass().getSimpleName() + ": " + cause.getMessage(), 1024);
+        int attempts = row.getAttempts() == null ? 1 : row.getAttempts();
+        if (attempts >= maxAttempts) {
+            log.warn("Уведомление {} ({}) не отправлено за {} попыток: {}", row.getId(), row.getChannel(), attempts, message);
+            finish(row.getId(), lease, NotificationStatusEnum.FAILED, now, message);
+        } else {
+            finish(row.getId(), lease, NotificationStatusEnum.PENDING, now.plus(backoff(attempts)), message);
+        }
+    }
+
+    // условие по статусу: запись, аренду которой уже перехватил другой узел, не трогаем
+    private void finish(UUID id, Lease lease, NotificationStatusEnum status, LocalDateTime nextAttemptAt, String error) {
+        synchronized (lease) {
+            leases.remove(id, lease);
+            tx.executeWithoutResult(s -> entityManager.createNativeQuery(
+                            "update NOTIFICATION_OUTBOX_ENTITY set STATUS = ?1, LOCKED_UNTIL = null, LOCKED_BY = null, " +
+                                    "LAST_ERROR = ?2, NEXT_ATTEMPT_AT = ?3, SENT_AT = case when ?1 = 'SENT' then cast(?3 as timestamp) end " +
+                                    "where ID = ?4 and STATUS = 'PROCESSING' and LOCKED_UNTIL = ?5")
+                    .setParameter(1, status.getId())
+                    .setParameter(2, error)
+                    .setParameter(3, nextAttemptAt)
+                    .setParameter(4, id)
+                    .setParameter(5, lease.until)
+                    .executeUpdate());
+        }
+    }
+
+    // экспоненциальная задержка с jitter ±20%, чтобы повторы не шли одной волной
+    private Duration backoff(int attempts) {
+        long base = initialBackoffSeconds << Math.min(attempts - 1, 20);
+        long capped = Math.min(base, maxBackoffSeconds);
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis((long) (capped * 1000 * jitter));
+    }
+
+    private NotificationOutboxEntity create(NotificationChannelEnum channel, String recipient, String subject,
+                                            String payload, UUID sessionId, LocalDateTime expiresAt) {
+        NotificationOutboxEntity row = dm.create(NotificationOutboxEntity.class);
+        LocalDateTime now = LocalDateTime.now();
+        row.setChannel(channel);
+        row.setStatus(NotificationStatusEnum.PENDING);
+        row.setRecipient(recipient);
+        row.setSubject(subject);
+        row.setPayload(payload);
+        row.setInterviewSessionId(sessionId);
+        row.setAttempts(0);
+        row.setNextAttemptAt(now);
+        row.setExpiresAt(expiresAt);
+        row.setCreatedAt(now);
+        return row;
+    }
+
+    // сессия может быть ещё не сохранена — догружаем заявку, а не саму сессию
+    private InterviewSessionEntity withApplication(InterviewSessionEntity session) {
+        ApplicationEntity application = session.getApplication();
+        if (application == null) {
+            throw new IllegalStateException("Interview session " + session.getId() + " has no application");
+        }
+        if (!entityStates.isLoaded(application, "candidate") || !entityStates.isLoaded(application, "vacancy")) {
+            session.setApplication(dm.load(ApplicationEntity.class)
+                    .id(application.getId())
+                    .fetchPlan(fp -> fp.addFetchPlan(FetchPlan.BASE)
+                            .add("candidate", FetchPlan.BASE)
+                            .add("vacancy", FetchPlan.BASE))
+                    .one());
+        }
+        return session;
+    }
+
+    private void sessionFetchPlan(FetchPlanBuilder fp) {
+        fp.addFetchPlan(FetchPlan.BASE)
+                .add("application", app -> app.addFetchPlan(FetchPlan.BASE)
+                        .add("candidate", FetchPlan.BASE)
+                        .add("vacancy", FetchPlan.BASE));
+    }
+
+    private void safely(Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            log.warn("Ошибка обработки очереди уведомлений", e);
+        }
+    }
+}
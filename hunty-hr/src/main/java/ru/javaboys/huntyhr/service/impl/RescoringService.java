@@ -0,0 +1,296 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import io.jmix.core.DataManager;
+import io.jmix.core.FetchPlan;
+import io.jmix.core.security.SystemAuthenticator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import ru.javaboys.huntyhr.ai.LlmUnavailableException;
+import ru.javaboys.huntyhr.dto.ScoreDto;
+import ru.javaboys.huntyhr.entity.RescoringRunEntity;
+import ru.javaboys.huntyhr.entity.RescoringStatusEnum;
+import ru.javaboys.huntyhr.entity.VacancyEntity;
+import ru.javaboys.huntyhr.job.RescoringQuartzJob;
+import ru.javaboys.huntyhr.job.RescoringVacancyQuartzJob;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Пересчёт скоринга всех заявок вакансии.
+ * <p>
+ * Прогон создаётся из UI и выполняется Quartz-джобой своей вакансии ({@link RescoringVacancyQuartzJob}):
+ * заявки скорятся параллельно (общий лимит LLM держит {@code LlmCallGovernor}), счётчики периодически
+ * сохраняются в {@link RescoringRunEntity}. Незавершённые прогоны раздаёт по вакансиям плановая
+ * {@link RescoringQuartzJob}. Обработанными считаются только успешно оценённые заявки —
+ * со {@code scoredAt} не раньше старта прогона.
+ */
+@Service
+@Slf4j
+public class RescoringService {
+
+    private static final List<String> ACTIVE_STATUSES =
+            List.of(RescoringStatusEnum.QUEUED.getId(), RescoringStatusEnum.RUNNING.getId());
+    private static final long CHECKPOINT_INTERVAL_MS = 2000;
+
+    private final DataManager dm;
+    private final ScoringService scoringService;
+    private final SystemAuthenticator authenticator;
+    private final Scheduler scheduler;
+
+    private final ExecutorService executor;
+
+    public RescoringService(DataManager dm,
+                            ScoringService scoringService,
+                            SystemAuthenticator authenticator,
+                            Scheduler scheduler,
+                            @Value("${hunty.rescoring.parallelism:4}") int parallelism) {
+        this.dm = dm;
+        this.scoringService = scoringService;
+        this.authenticator = authenticator;
+        this.scheduler = scheduler;
+        this.executor = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("rescoring-"));
+    }
+
+    /**
+     * Ставит пересчёт вакансии в очередь. Если по вакансии уже есть активный прогон — возвращает его.
+     */
+    public RescoringRunEntity start(UUID vacancyId) {
+        RescoringRunEntity active = findActive(vacancyId);
+        if (active != null) {
+            return active;
+        }
+
+        VacancyEntity vacancy = dm.load(VacancyEntity.class).id(vacancyId).one();
+        long total = dm.loadValue("select count(a) from ApplicationEntity a where a.vacancy = :vacancy", Long.class)
+                .parameter("vacancy", vacancy)
+                .one();
+
+        RescoringRunEntity run = dm.create(RescoringRunEntity.class);
+        run.setVacancy(vacancy);
+        run.setStatus(RescoringStatusEnum.QUEUED);
+        run.setTotal((int) total);
+        run.setProcessed(0);
+        run.setFailed(0);
+        run.setStartedAt(LocalDateTime.now());
+        run = dm.save(run);
+
+        try {
+            triggerVacancy(vacancyId);
+        } catch (SchedulerException e) {
+            // прогон подхватит следующий плановый запуск джобы
+            log.warn("Failed to trigger rescoring job immediately: {}", e.getMessage());
+        }
+        return run;
+    }
+
+    /**
+     * Запускает джобы вакансий, у которых есть ожидающие или прерванные прогоны. Вызывается из
+     * плановой Quartz-джобы.
+     */
+    public void dispatchPendingRuns() {
+        List<UUID> vacancyIds = dm.loadValue("select distinct r.vacancy.id from RescoringRunEntity r " +
+                        "where r.status in :statuses", UUID.class)
+                .parameter("statuses", ACTIVE_STATUSES)
+                .list();
+        for (UUID vacancyId : vacancyIds) {
+            try {
+                triggerVacancy(vacancyId);
+            } catch (SchedulerException e) {
+                log.warn("Failed to trigger rescoring of vacancy {}: {}", vacancyId, e.getMessage());
+            }
+        }
+    }
+
+    private void triggerVacancy(UUID vacancyId) throws SchedulerException {
+        JobKey key = RescoringVacancyQuartzJob.jobKey(vacancyId);
+        if (!scheduler.checkExists(key)) {
+            JobDetail job = JobBuilder.newJob(RescoringVacancyQuartzJob.class)
+                    .withIdentity(key)
+                    .usingJobData(RescoringVacancyQuartzJob.VACANCY_ID, vacancyId.toString())
+                    .storeDurably()
+                    .build();
+            scheduler.addJob(job, true);
+        }
+        // если джоба вакансии уже выполняется, срабатывание дождётся её окончания и найдёт только новые прогоны
+        scheduler.triggerJob(key);
+    }
+
+    @Nullable
+    public RescoringRunEntity findLatest(UUID vacancyId) {
+        return dm.load(RescoringRunEntity.class)
+                .query("select r from RescoringRunEntity r where r.vacancy.id = :vacancyId order by r.startedAt desc")
+                .parameter("vacancyId", vacancyId)
+                .maxResults(1)
+                .optional()
+                .orElse(null);
+    }
+
+    /**
+     * Скорость пересчёта текущего отрезка (после последнего запуска/возобновления), заявок в минуту.
+     */
+    public double getThroughputPerMinute(RescoringRunEntity run) {
+        if (run.getResumedAt() == null) return 0;
+        long ms = Duration.between(run.getResumedAt(), LocalDateTime.now()).toMillis();
+        int done = nz(run.getProcessed()) - nz(run.getProcessedBeforeResume());
+        return ms <= 0 || done <= 0 ? 0 : done * 60_000.0 / ms;
+    }
+
+    @Nullable
+    public Duration getEta(RescoringRunEntity run) {
+        double perMinute = getThroughputPerMinute(run);
+        int left = nz(run.getTotal()) - nz(run.getProcessed()) - nz(run.getFailed());
+        if (perMinute <= 0 || left <= 0) return null;
+        return Duration.ofSeconds((long) Math.ceil(left / perMinute * 60));
+    }
+
+    /**
+     * Выполняет ожидающие и прерванные прогоны вакансии. Вызывается из Quartz-джобы вакансии под системным
+     * пользователем.
+     */
+    public void processPendingRuns(UUID vacancyId) {
+        List<RescoringRunEntity> runs = dm.load(RescoringRunEntity.class)
+                .query("select r from RescoringRunEntity r where r.vacancy.id = :vacancyId " +
+                        "and r.status in :statuses order by r.startedAt")
+                .parameter("vacancyId", vacancyId)
+                .parameter("statuses", ACTIVE_STATUSES)
+                .fetchPlan(fp -> fp.addFetchPlan(FetchPlan.BASE).add("vacancy", FetchPlan.BASE))
+                .list();
+        for (RescoringRunEntity run : runs) {
+            try {
+                process(run);
+            } catch (Exception e) {
+                log.error("Rescoring run {} failed", run.getId(), e);
+                run.setStatus(RescoringStatusEnum.FAILED);
+                run.setLastError(e.getMessage());
+                run.setFinishedAt(LocalDateTime.now());
+                dm.save(run);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void process(RescoringRunEntity run) {
+        // чек-поинт: всё, что оценено после старта прогона, уже пересчитано
+        List<UUID> pending = dm.loadValue("select a.id from ApplicationEntity a where a.vacancy = :vacancy " +
+                        "and (a.scoredAt is null or a.scoredAt < :since)", UUID.class)
+                .parameter("vacancy", run.getVacancy())
+                .parameter("since", run.getStartedAt())
+                .list();
+
+        // уже оценённые в этом прогоне считаем по БД, а не как total - pending: заявки, добавленные после
+        // старта, попадают в pending и увеличивают total
+        long done = dm.loadValue("select count(a) from ApplicationEntity a where a.vacancy = :vacancy " +
+                        "and a.scoredAt >= :since", Long.class)
+                .parameter("vacancy", run.getVacancy())
+                .parameter("since", run.getStartedAt())
+                .one();
+        int total = (int) done + pending.size();
+        AtomicInteger processed = new AtomicInteger((int) done);
+        AtomicInteger failed = new AtomicInteger();
+        AtomicReference<String> unavailable = new AtomicReference<>();
+
+        run.setTotal(total);
+        run.setStatus(RescoringStatusEnum.RUNNING);
+        run.setProcessed(processed.get());
+        run.setFailed(0);
+        run.setResumedAt(LocalDateTime.now());
+        run.setProcessedBeforeResume(processed.get());
+        Checkpoint checkpoint = new Checkpoint(dm.save(run));
+
+        log.info("Rescoring vacancy {}: {} of {} applications pending", run.getVacancy().getId(), pending.size(), total);
+
+        CompletableFuture<?>[] tasks = pending.stream()
+                .map(applicationId -> CompletableFuture.runAsync(() -> {
+                    if (unavailable.get() != null) {
+                        // LLM недоступна — остаток прогона перенесём на следующий запуск джобы
+                        return;
+                    }
+                    try {
+                        // null — модель не дала оценку, заявка останется в pending следующего запуска
+                        ScoreDto score = authenticator.withSystem(() -> scoringService.scoreWithLlm(applicationId));
+                        if (score != null) {
+                            processed.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    } catch (LlmUnavailableException e) {
+                        unavailable.compareAndSet(null, e.getMessage());
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        log.warn("Rescoring of application {} failed: {}", applicationId, e.getMessage());
+                    }
+                    checkpoint.save(processed.get(), failed.get(), false);
+                }, executor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(tasks).join();
+
+        RescoringRunEntity last = checkpoint.save(processed.get(), failed.get(), true);
+        if (unavailable.get() != null) {
+            last.setStatus(RescoringStatusEnum.QUEUED);
+            last.setLastError(unavailable.get());
+        } else {
+            last.setStatus(RescoringStatusEnum.DONE);
+            last.setFinishedAt(LocalDateTime.now());
+        }
+        dm.save(last);
+    }
+
+    @Nullable
+    private RescoringRunEntity findActive(UUID vacancyId) {
+        return dm.load(RescoringRunEntity.class)
+                .query("select r from RescoringRunEntity r where r.vacancy.id = :vacancyId and r.status in :statuses")
+                .parameter("vacancyId", vacancyId)
+                .parameter("statuses", ACTIVE_STATUSES)
+                .maxResults(1)
+                .optional()
+                .orElse(null);
+    }
+
+    private static int nz(Integer v) {
+        return v == null ? 0 : v;
+    }
+
+    /**
+     * Сохраняет счётчики прогона не чаще раза в {@link #CHECKPOINT_INTERVAL_MS}.
+     */
+    private class Checkpoint {
+        private RescoringRunEntity run;
+        private long savedAt = System.currentTimeMillis();
+
+        Checkpoint(RescoringRunEntity run) {
+            this.run = run;
+        }
+
+        synchronized RescoringRunEntity save(int processed, int failed, boolean force) {
+            long now = System.currentTimeMillis();
+            if (force || now - savedAt >= CHECKPOINT_INTERVAL_MS) {
+                run.setProcessed(processed);
+                run.setFailed(failed);
+                run = dm.save(run);
+                savedAt = now;
+            }
+            return run;
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import io.jmix.core.FileRef;
+import io.jmix.core.FileStorage;
+import io.jmix.core.FileStorageLocator;
+import io.jmix.core.security.SystemAuthenticator;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import ru.javaboys.huntyhr.dto.ResumeStructuredDto;
+import ru.javaboys.huntyhr.service.DocParseService;
+import ru.javaboys.huntyhr.util.Futures;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Пакетный импорт резюме (несколько файлов и/или ZIP-архивы) в вакансию.
+ * <p>
+ * Сохранение в хранилище, Tika и LLM-распознавание идут параллельно в ограниченном пуле,
+ * распознанные резюме сохраняются пачками по {@code hunty.bulk-import.batch-size} в одной транзакции,
+ * после чего каждая заявка скорится в том же пуле.
+ * <p>
+ * Файлы пакета не держатся в памяти: загрузки и раскрытые записи архивов лежат во временных файлах,
+ * суммарный распакованный объём ограничен {@code hunty.bulk-import.max-total-bytes}.
+ */
+@Service
+@Slf4j
+public class ResumeBulkImportService {
+
+    private static final Set<String> SUPPORTED_EXTENSIONS =
+            Set.of("pdf", "doc", "docx", "rtf", "odt", "txt", "html", "htm");
+    private static final int MAX_ZIP_ENTRIES = 1000;
+    private static final long MAX_ENTRY_SIZE = 20L * 1024 * 1024;
+
+    /**
+     * Загруженный файл во временном каталоге. Сервис забирает файл себе и удаляет его после обработки.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class UploadedFile {
+        private final String fileName;
+        private final Path path;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class BatchProgress {
+        private final int total;
+        private final int extracted;
+        private final int persisted;
+        private final int scored;
+        private final int failed;
+        private final boolean finished;
+    }
+
+    private final ResumeImportService resumeImportService;
+    private final ScoringService scoringService;
+    private final DocParseService docParseService;
+    private final FileStorageLocator fileStorageLocator;
+    private final SystemAuthenticator authenticator;
+    private final int batchSize;
+    private final int maxFiles;
+    private final long maxTotalBytes;
+
+    private final ThreadPoolExecutor executor;
+
+    public ResumeBulkImportService(ResumeImportService resumeImportService,
+                                   ScoringService scoringService,
+                                   DocParseService docParseService,
+                                   FileStorageLocator fileStorageLocator,
+                                   SystemAuthenticator authenticator,
+                                   @Value("${hunty.bulk-import.pool-size:8}") int poolSize,
+                                   @Value("${hunty.bulk-import.batch-size:20}") int batchSize,
+                                   @Value("${hunty.bulk-import.max-files:1000}") int maxFiles,
+                                   @Value("${hunty.bulk-import.max-total-bytes:524288000}") long maxTotalBytes) {
+        this.resumeImportService = resumeImportService;
+        this.scoringService = scoringService;
+        this.docParseService = docParseService;
+        this.fileStorageLocator = fileStorageLocator;
+        this.authenticator = authenticator;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxFiles = maxFiles;
+        this.maxTotalBytes = maxTotalBytes;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("resume-bulk-"));
+    }
+
+    /**
+     * Запускает пакетный импорт. ZIP-архивы раскрываются, неподдерживаемые файлы пропускаются.
+     */
+    public CompletableFuture<Void> submit(UUID vacancyId, List<UploadedFile> files, Consumer<BatchProgress> listener) {
+        List<UploadedFile> documents;
+        try {
+            documents = expand(files);
+        } catch (RuntimeException e) {
+            files.forEach(f -> deleteQuietly(f.getPath()));
+            throw e;
+        }
+        if (documents.size() > maxFiles) {
+            documents.forEach(d -> deleteQuietly(d.getPath()));
+            throw new IllegalArgumentException("Слишком много файлов в пакете: %d (максимум %d)"
+                    .formatted(documents.size(), maxFiles));
+        }
+
+        Tracker tracker = new Tracker(documents.size(), listener);
+        tracker.publish(false);
+
+        BatchBuffer buffer = new BatchBuffer();
+        List<CompletableFuture<Void>> persisting = Collections.synchronizedList(new ArrayList<>());
+
+        List<CompletableFuture<Void>> extractions = documents.stream()
+                .map(doc -> CompletableFuture
+                        .supplyAsync(() -> authenticator.withSystem(() -> storeAndExtract(doc)), executor)
+                        .thenAccept(item -> {
+                            tracker.extracted.incrementAndGet();
+                            tracker.publish(false);
+                            List<ResumeImportService.Extracted> batch = buffer.add(item, batchSize);
+                            if (batch != null) {
+                                persisting.add(persistAndScore(vacancyId, batch, tracker));
+                            }
+                        })
+                        .exceptionally(ex -> {
+                            tracker.fail(doc.getFileName(), ex);
+                            return null;
+                        }))
+                .toList();
+
+        return CompletableFuture.allOf(extractions.toArray(CompletableFuture[]::new))
+                .thenCompose(v -> {
+                    List<ResumeImportService.Extracted> rest = buffer.drain();
+                    if (!rest.isEmpty()) {
+                        persisting.add(persistAndScore(vacancyId, rest, tracker));
+                    }
+                    synchronized (persisting) {
+                        return CompletableFuture.allOf(persisting.toArray(CompletableFuture[]::new));
+                    }
+                })
+                .whenComplete((v, ex) -> {
+                    if (ex != null) {
+                        log.error("Bulk resume import for vacancy {} failed", vacancyId, Futures.unwrap(ex));
+                    }
+                    log.info("Bulk resume import for vacancy {} finished: total={}, persisted={}, scored={}, failed={}",
+                            vacancyId, tracker.total, tracker.persisted.get(), tracker.scored.get(), tracker.failed.get());
+                    tracker.publish(true);
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private ResumeImportService.Extracted storeAndExtract(UploadedFile doc) {
+        try {
+            FileStorage fileStorage = fileStorageLocator.getDefault();
+            FileRef fileRef;
+            try (InputStream is = Files.newInputStream(doc.getPath())) {
+                fileRef = fileStorage.saveStream(doc.getFileName(), is);
+            }
+            // текст берём из локальной копии, а не перечитываем только что сохранённый объект;
+            // ref передаём, чтобы кэш текста потом находил документ и по нему
+            String text;
+            try (InputStream is = Files.newInputStream(doc.getPath())) {
+                text = docParseService.parseToText(is, doc.getFileName(), fileRef);
+            }
+            ResumeStructuredDto dto = resumeImportService.extract(doc.getFileName(), text);
+            return new ResumeImportService.Extracted(fileRef, text, dto);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteQuietly(doc.getPath());
+        }
+    }
+
+    private CompletableFuture<Void> persistAndScore(UUID vacancyId, List<ResumeImportService.Extracted> batch,
+                                                    Tracker tracker) {
+        return CompletableFuture
+                .supplyAsync(() -> authenticator.withSystem(() -> persistBatch(vacancyId, batch, tracker)), executor)
+                .thenCompose(applicationIds -> CompletableFuture.allOf(applicationIds.stream()
+                        .map(applicationId -> CompletableFuture
+                                .runAsync(() -> authenticator.runWithSystem(
+                                        () -> scoringService.scoreWithLlm(applicationId)), executor)
+                                .thenRun(() -> {
+                                    tracker.scored.incrementAndGet();
+                                    tracker.publish(false);
+                                })
+                                .exceptionally(ex -> {
+                                    tracker.fail("application " + applicationId, ex);
+                                    return null;
+                                }))
+                        .toArray(CompletableFuture[]::new)));
+    }
+
+    private List<UUID> persistBatch(UUID vacancyId, List<ResumeImportService.Extracted> batch, Tracker tracker) {
+        try {
+            List<UUID> applicationIds = resumeImportService.persistAll(vacancyId, batch);
+            tracker.persisted.addAndGet(batch.size());
+            tracker.publish(false);
+            return applicationIds;
+        } catch (Exception e) {
+            // одна «битая» запись не должна ронять всю пачку — сохраняем по одной
+            log.warn("Batch persist of {} resumes failed, retrying one by one: {}", batch.size(), e.getMessage());
+            List<UUID> applicationIds = new ArrayList<>();
+            for (ResumeImportService.Extracted item : batch) {
+                try {
+                    UUID applicationId = resumeImportService.persist(vacancyId, item.getFileRef(), item.getText(),
+                            item.getDto());
+                    if (!applicationIds.contains(applicationId)) {
+                        applicationIds.add(applicationId);
+                    }
+                    tracker.persisted.incrementAndGet();
+                    tracker.publish(false);
+                } catch (Exception ex) {
+                    tracker.fail(item.getFileRef().getFileName(), ex);
+                }
+            }
+            return applicationIds;
+        }
+    }
+
+    // ---------- ZIP ----------
+
+    private List<UploadedFile> expand(List<UploadedFile> files) {
+        long[] budget = {maxTotalBytes};
+        List<UploadedFile> result = new ArrayList<>();
+        try {
+            for (UploadedFile file : files) {
+                String ext = extension(file.getFileName());
+                if ("zip".equals(ext)) {
+                    result.addAll(unzip(file, budget));
+                    deleteQuietly(file.getPath());
+                } else if (SUPPORTED_EXTENSIONS.contains(ext)) {
+                    take(budget, size(file), file.getFileName());
+                    result.add(file);
+                } else {
+                    log.info("Skipping unsupported file in bulk import: {}", file.getFileName());
+                    deleteQuietly(file.getPath());
+                }
+            }
+        } catch (RuntimeException e) {
+            result.forEach(d -> deleteQuietly(d.getPath()));
+            throw e;
+        }
+        return result;
+    }
+
+    private List<UploadedFile> unzip(UploadedFile zip, long[] budget) {
+        long before = budget[0];
+        List<UploadedFile> result = new ArrayList<>();
+        try {
+            unzip(zip, StandardCharsets.UTF_8, budget, result);
+            return result;
+        } catch (IllegalArgumentException e) {
+            // архивы из проводника Windows кладут кириллические имена в CP866 без UTF-8 флага;
+            // остальные ошибки (лимиты, битый архив) повторять бессмысленно
+            if (!(e.getCause() instanceof CharacterCodingException)) {
+                result.forEach(d -> deleteQuietly(d.getPath()));
+                throw e;
+            }
+        }
+        result.forEach(d -> deleteQuietly(d.getPath()));
+        result.clear();
+        budget[0] = before;
+        try {
+            unzip(zip, Charset.forName("CP866"), budget, result);
+            return result;
+        } catch (RuntimeException e) {
+            result.forEach(d -> deleteQuietly(d.getPath()));
+            throw e;
+        }
+    }
+
+    private void unzip(UploadedFile zip, Charset charset, long[] budget, List<UploadedFile> result) {
+        try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(zip.getPath()), charset)) {
+            ZipEntry entry;
+            int entries = 0;
+            while ((entry = zis.getNextEntry()) != null) {
+                if (++entries > MAX_ZIP_ENTRIES) {
+                    throw new IllegalArgumentException("Слишком много файлов в архиве " + zip.getFileName());
+                }
+                String name = baseName(entry.getName());
+                if (entry.isDirectory() || entry.getName().startsWith("__MACOSX/") || name.startsWith(".")
+                        || !SUPPORTED_EXTENSIONS.contains(extension(name))) {
+                    continue;
+                }
+                Path target = Files.createTempFile("resume-bulk-", "." + extension(name));
+                result.add(new UploadedFile(name, target));
+                copyLimited(zis, target, entry.getName(), budget);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Не удалось прочитать архив " + zip.getFileName(), e);
+        }
+    }
+
+    /**
+     * Распаковывает запись потоком на диск, проверяя лимит на файл и общий остаток бюджета пакета.
+     * Объявленному в заголовке размеру не доверяем — считаем фактически прочитанные байты.
+     */
+    private static void copyLimited(ZipInputStream zis, Path target, String entryName, long[] budget)
+            throws IOException {
+        try (OutputStream out = Files.newOutputStream(target)) {
+            byte[] chunk = new byte[8192];
+            long total = 0;
+            int read;
+            while ((read = zis.read(chunk)) != -1) {
+                total += read;
+                if (total > MAX_ENTRY_SIZE) {
+                    throw new IllegalArgumentException("Файл " + entryName + " в архиве больше " + MAX_ENTRY_SIZE + " байт");
+                }
+                take(budget, read, entryName);
+                out.write(chunk, 0, read);
+            }
+        }
+    }
+
+    private static void take(long[] budget, long bytes, String name) {
+        budget[0] -= bytes;
+        if (budget[0] < 0) {
+            throw new IllegalArgumentException("Пакет слишком большой: лимит распакованного объёма превышен на файле " + name);
+        }
+    }
+
+    private static long size(UploadedFile file) {
+        try {
+            return Files.size(file.getPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Failed to delete temp file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static String baseName(String path) {
+        int idx = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\'));
+        return idx >= 0 ? path.substring(idx + 1) : path;
+    }
+
+    private static String extension(String fileName) {
+        if (fileName == null) return "";
+        int idx = fileName.lastIndexOf('.');
+        return idx < 0 ? "" : fileName.substring(idx + 1).toLowerCase(Locale.ROOT);
+    }
+
+    // ---------- helpers ----------
+
+    private static class BatchBuffer {
+        private final List<ResumeImportService.Extracted> items = new ArrayList<>();
+
+        synchronized List<ResumeImportService.Extracted> add(ResumeImportService.Extracted item, int batchSize) {
+            items.add(item);
+            return items.size() >= batchSize ? drain() : null;
+        }
+
+        synchronized List<ResumeImportService.Extracted> drain() {
+            List<ResumeImportService.Extracted> batch = new ArrayList<>(items);
+            items.clear();
+            return batch;
+        }
+    }
+
+    private static class Tracker {
+        private final int total;
+        private final Consumer<BatchProgress> listener;
+        private final AtomicInteger extracted = new AtomicInteger();
+        private final AtomicInteger persisted = new AtomicInteger();
+        private final AtomicInteger scored = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+
+        Tracker(int total, Consumer<BatchProgress> listener) {
+            this.total = total;
+            this.listener = listener;
+        }
+
+        void fail(String item, Throwable ex) {
+            failed.incrementAndGet();
+            log.warn("Bulk resume import: {} failed: {}", item, Futures.unwrap(ex).getMessage());
+            publish(false);
+        }
+
+        void publish(boolean finished) {
+            try {
+                listener.accept(new BatchProgress(total, extracted.get(), persisted.get(), scored.get(),
+                        failed.get(), finished));
+            } catch (Exception e) {
+                log.debug("Failed to publish bulk import progress: {}", e.getMessage());
+            }
+        }
+    }
+}
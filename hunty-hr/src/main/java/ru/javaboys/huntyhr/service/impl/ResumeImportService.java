@@ -2,6 +2,7 @@ package ru.javaboys.huntyhr.service.impl;
 
 import io.jmix.core.DataManager;
 import io.jmix.core.FileRef;
+import io.jmix.core.SaveContext;
 import lombok.RequiredArgsConstructor;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
@@ -21,14 +22,22 @@ import ru.javaboys.huntyhr.entity.ResumeExperienceEntity;
 import ru.javaboys.huntyhr.entity.ResumeSkillEntity;
 import ru.javaboys.huntyhr.entity.ResumeSourceType;
 import ru.javaboys.huntyhr.entity.ResumeVersionEntity;
+import ru.javaboys.huntyhr.entity.SearchDocumentEntity;
 import ru.javaboys.huntyhr.entity.SexEnum;
+import ru.javaboys.huntyhr.entity.SkillEntity;
 import ru.javaboys.huntyhr.entity.StorageObjectEntity;
 import ru.javaboys.huntyhr.entity.VacancyEntity;
 import ru.javaboys.huntyhr.service.DocParseService;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -39,20 +48,31 @@ public class ResumeImportService {
     private final DataManager dm;
     private final DocParseService docParseService;
     private final OpenAiService openAiService;
+    private final CandidateIdentityService candidateIdentityService;
+    private final CompanyDirectoryService companyDirectoryService;
+    private final SkillTaxonomyService skillTaxonomyService;
+    private final FullTextSearchService fullTextSearchService;
 
     @Value
-    public static class Result {
-        UUID applicationId;
-        String resumeText;
+    public static class Extracted {
+        FileRef fileRef;
+        // текст из стадии 1 — из него же строится документ полнотекстового поиска
+        String text;
+        ResumeStructuredDto dto;
     }
 
-    @Transactional
-    public Result importFromFile(UUID vacancyId, FileRef fileRef) {
-        // 1) текст резюме
-        String rawText = docParseService.parseToText(fileRef);
-        String safe = safeTrim(rawText, 18000);
+    /**
+     * Стадия 1: текст резюме из файла.
+     */
+    public String parse(FileRef fileRef) {
+        return docParseService.parseToText(fileRef);
+    }
 
-        // 2) LLM → DTO
+    /**
+     * Стадия 2: LLM → DTO. Не требует транзакции, поэтому вынесена из {@link #persist}.
+     */
+    public ResumeStructuredDto extract(String fileName, String rawText) {
+        String safe = safeTrim(rawText, 18000);
         String conversationId = "resume-import-" + UUID.randomUUID();
 
         SystemMessage system = new SystemMessage("""
@@ -89,21 +109,50 @@ public class ResumeImportService {
                 Текст резюме:
                 ----------------
                 %s
-                """.formatted(fileRef.getFileName(), safe));
+                """.formatted(fileName, safe));
 
         ResumeStructuredDto dto = openAiService.structuredTalkToChatGPT(
                 conversationId, system, user, ResumeStructuredDto.class);
 
-        if (dto == null) dto = new ResumeStructuredDto(); // всё опционально
+        return dto == null ? new ResumeStructuredDto() : dto; // всё опционально
+    }
+
+    /**
+     * Стадия 3: кандидат, версия резюме, документ поиска, навыки/образование/опыт и заявка — одной транзакцией.
+     *
+     * @return id существующей или новой заявки
+     */
+    @Transactional
+    public UUID persist(UUID vacancyId, FileRef fileRef, String text, ResumeStructuredDto dto) {
+        if (vacancyId == null) {
+            throw new IllegalArgumentException("vacancyId must not be null");
+        }
+        VacancyEntity vacancy = dm.load(VacancyEntity.class)
+                .id(vacancyId)
+                .optional()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Vacancy not found by id=" + vacancyId
+                ));
+
+        // весь граф резюме копится в одном SaveContext и уходит в БД одним dm.save
+        // (JDBC batch writing, см. EclipseLinkBatchWritingConfigurer — пачками INSERT на таблицу)
+        SaveContext ctx = new SaveContext();
 
         // 3) upsert кандидата (все контакты и пол — опциональны)
-        CandidateEntity candidate = upsertCandidate(dto);
+        boolean newCandidate = false;
+        CandidateEntity candidate = findCandidate(dto);
+        if (candidate == null) {
+            candidate = dm.create(CandidateEntity.class);
+            newCandidate = true;
+        }
+        fillCandidate(candidate, dto);
+        ctx.saving(candidate);
 
         // 4) файл
         StorageObjectEntity fileObj = dm.create(StorageObjectEntity.class);
         fileObj.setCreatedAt(LocalDateTime.now());
         fileObj.setRef(fileRef); // предполагаем, что поле типизировано FileRef
-        fileObj = dm.save(fileObj);
+        ctx.saving(fileObj);
 
         // 5) версия резюме
         ResumeVersionEntity version = dm.create(ResumeVersionEntity.class);
@@ -111,18 +160,33 @@ public class ResumeImportService {
         version.setCreatedAt(LocalDateTime.now());
         version.setSourceType(ResumeSourceType.MANUAL);
         version.setFile(fileObj);
-        version = dm.save(version);
+        ctx.saving(version);
+
+        // текст уже извлечён — документ поиска сохраняется вместе с версией, без повторного разбора файла
+        SearchDocumentEntity searchDocument = fullTextSearchService.prepareResumeDocument(
+                candidate.getId(), newCandidate, version.getId(), text);
+        if (searchDocument != null) {
+            ctx.saving(searchDocument);
+        }
 
         // 6) навыки (опционально)
         if (dto.getSkills() != null) {
+            // навыки резюме — одним обращением к справочнику; синонимы («k8s» и «Kubernetes») дают одну строку
+            Map<String, SkillEntity> dictionary = skillTaxonomyService.resolveAll(dto.getSkills().stream()
+                    .filter(s -> s != null && !s.isBlank())
+                    .toList());
+            Set<Integer> seen = new HashSet<>();
             for (String s : dto.getSkills()) {
                 if (s == null) continue;
                 String name = s.trim();
                 if (name.isEmpty()) continue;
+                SkillEntity known = dictionary.get(s);
+                if (known != null && !seen.add(known.getId())) continue;
                 ResumeSkillEntity skill = dm.create(ResumeSkillEntity.class);
                 skill.setName(name);
+                skill.setSkill(known);
                 skill.setResumeVersionEntity(version);
-                dm.save(skill);
+                ctx.saving(skill);
             }
         }
 
@@ -147,27 +211,21 @@ public class ResumeImportService {
                 // e.setStartAt(start);
                 // e.setEndDate(end);
 
-                dm.save(e);
+                ctx.saving(e);
             }
         }
 
 // ----- EXPERIENCE -----
         if (dto.getExperience() != null) {
+            // все компании резюме — одним обращением к справочнику (кеш → один запрос → пакетная вставка)
+            Map<String, CompanyEntity> companies = companyDirectoryService.resolveAll(companyNames(dto));
             for (var ex : dto.getExperience()) {
                 if (ex == null) continue;
                 String companyName = nz(ex.getCompany());
                 if (companyName == null) continue;
 
-                // upsert по компании (по имени, без чувствительности к регистру)
-                CompanyEntity company = dm.load(CompanyEntity.class)
-                        .query("select c from CompanyEntity c where lower(c.name)=:n")
-                        .parameter("n", companyName.toLowerCase(Locale.ROOT))
-                        .optional()
-                        .orElseGet(() -> {
-                            CompanyEntity c = dm.create(CompanyEntity.class);
-                            c.setName(companyName);
-                            return dm.save(c);
-                        });
+                CompanyEntity company = companies.get(companyName);
+                if (company == null) continue;
 
                 ResumeExperienceEntity re = dm.create(ResumeExperienceEntity.class);
                 re.setResumeVersionEntity(version);
@@ -184,104 +242,106 @@ public class ResumeImportService {
                 // re.setTitle(nz(ex.getTitle()));
                 // re.setSummary(nz(ex.getSummary()));
 
-                dm.save(re);
+                ctx.saving(re);
             }
         }
 
-        // 7) заявка
-        if (vacancyId == null) {
-            throw new IllegalArgumentException("vacancyId must not be null");
-        }
-
-        VacancyEntity vacancy = dm.load(VacancyEntity.class)
-                .id(vacancyId)
-                .optional()
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Vacancy not found by id=" + vacancyId
-                ));
-
-        // не создаём дубликат, если уже есть заявка на эту вакансию
-        var existingAppOpt = dm.load(ApplicationEntity.class)
+        // 7) заявка; у нового кандидата заявок быть не может — запрос не нужен
+        ApplicationEntity app = newCandidate ? null : dm.load(ApplicationEntity.class)
                 .query("select a from ApplicationEntity a where a.vacancy = :v and a.candidate = :c")
                 .parameter("v", vacancy)
                 .parameter("c", candidate)
-                .optional();
-
-        ApplicationEntity app = existingAppOpt.orElseGet(() -> {
-            ApplicationEntity a = dm.create(ApplicationEntity.class);
-            a.setCandidate(candidate);
-            a.setVacancy(vacancy);
-            a.setStatus(ApplicationStatusEnum.NEW);
-            a.setScreeningMatchPercent(0L);
-            a.setTechScore(0L);
-            a.setCommScore(0L);
-            a.setCasesScore(0L);
-            a.setTotalScore(0L);
-            return dm.save(a);
-        });
-
-        // если нужно вернуть id существующей/новой заявки:
-        return new Result(app.getId(), rawText);
+                .optional()
+                .orElse(null);
+
+        // не создаём дубликат, если уже есть заявка на эту вакансию
+        if (app == null) {
+            app = dm.create(ApplicationEntity.class);
+            app.setCandidate(candidate);
+            app.setVacancy(vacancy);
+            app.setStatus(ApplicationStatusEnum.NEW);
+            app.setScreeningMatchPercent(0L);
+            app.setTechScore(0L);
+            app.setCommScore(0L);
+            app.setCasesScore(0L);
+            app.setTotalScore(0L);
+            ctx.saving(app);
+        }
+
+        dm.save(ctx);
+        log.debug("Resume graph for candidate {} saved in one batch: {} entities",
+                candidate.getId(), ctx.getEntitiesToSave().size());
+        return app.getId();
+    }
+
+    /**
+     * Пакетная стадия 3: сохраняет несколько распознанных резюме одной транзакцией.
+     *
+     * @return id заявок без повторов (два файла одного кандидата дают одну заявку)
+     */
+    @Transactional
+    public List<UUID> persistAll(UUID vacancyId, List<Extracted> items) {
+        // компании всей пачки — заранее и разом: блокировки на новые названия берутся в одном порядке
+        List<String> allCompanies = new ArrayList<>();
+        for (Extracted item : items) {
+            allCompanies.addAll(companyNames(item.getDto()));
+        }
+        companyDirectoryService.resolveAll(allCompanies);
+
+        Set<UUID> applicationIds = new LinkedHashSet<>();
+        for (Extracted item : items) {
+            applicationIds.add(persist(vacancyId, item.getFileRef(), item.getText(), item.getDto()));
+        }
+        return new ArrayList<>(applicationIds);
     }
 
-    private CandidateEntity upsertCandidate(ResumeStructuredDto dto) {
+    /**
+     * Существующий кандидат по контактам резюме (один запрос по индексированным колонкам).
+     */
+    private CandidateEntity findCandidate(ResumeStructuredDto dto) {
+        return candidateIdentityService.find(
+                CandidateIdentityService.normalizeEmail(dto.getEmail()),
+                CandidateIdentityService.normalizePhone(dto.getPhone()),
+                CandidateIdentityService.normalizeTelegram(dto.getTelegram()));
+    }
+
+    /**
+     * Дополняет карточку данными из резюме: у существующего кандидата заполняются только пустые поля.
+     */
+    private void fillCandidate(CandidateEntity c, ResumeStructuredDto dto) {
         // Нормализация (всё опционально!)
         String name = nz(dto.getName());
         String surname = nz(dto.getSurname());
         LocalDate bdate = parseDate(dto.getBirthDate());
         SexEnum sex = parseSex(dto.getSex());
-        String emailNorm = normalizeEmail(dto.getEmail());
-        String phoneNorm = normalizePhone(dto.getPhone()); // только цифры или null
-        String tgNorm = normalizeTelegram(dto.getTelegram()); // без @
-
-        CandidateEntity found = null;
+        String emailNorm = CandidateIdentityService.normalizeEmail(dto.getEmail());
+        String phoneNorm = CandidateIdentityService.normalizePhone(dto.getPhone()); // только цифры или null
+        String tgNorm = CandidateIdentityService.normalizeTelegram(dto.getTelegram()); // без @
+        String linkedin = nz(dto.getLinkedin());
+
+        if (isBlank(c.getName()) && name != null) c.setName(name);
+        if (isBlank(c.getSurname()) && surname != null) c.setSurname(surname);
+        if (c.getBirthDate() == null && bdate != null) c.setBirthDate(bdate);
+        if (c.getSex() == null && sex != null) c.setSex(sex);
+        if (isBlank(c.getEmail()) && emailNorm != null) c.setEmail(emailNorm);
+        if (isBlank(c.getPhone()) && phoneNorm != null) c.setPhone(phoneNorm);
+        if (isBlank(c.getTelegramUserName()) && tgNorm != null) c.setTelegramUserName(tgNorm);
+        if (isBlank(c.getLinkedin()) && linkedin != null) c.setLinkedin(linkedin);
+    }
 
-        if (emailNorm != null) {
-            found = dm.load(CandidateEntity.class)
-                    .query("select c from CandidateEntity c where lower(c.email) = :e")
-                    .parameter("e", emailNorm)
-                    .optional().orElse(null);
-        }
-        if (found == null && phoneNorm != null) {
-            found = dm.load(CandidateEntity.class)
-                    .query("select c from CandidateEntity c where c.phone = :p")
-                    .parameter("p", phoneNorm)
-                    .optional().orElse(null);
-        }
-        if (found == null && tgNorm != null) {
-            found = dm.load(CandidateEntity.class)
-                    .query("select c from CandidateEntity c where lower(c.telegramUserName) = :tg")
-                    .parameter("tg", tgNorm)
-                    .optional().orElse(null);
-        }
+    // ---------- helpers ----------
 
-        if (found != null) {
-            if (isBlank(found.getName()) && name != null) found.setName(name);
-            if (isBlank(found.getSurname()) && surname != null) found.setSurname(surname);
-            if (found.getBirthDate() == null && bdate != null) found.setBirthDate(bdate);
-            if (found.getSex() == null && sex != null) found.setSex(sex);
-            if (isBlank(found.getEmail()) && emailNorm != null) found.setEmail(emailNorm);
-            if (isBlank(found.getPhone()) && phoneNorm != null) found.setPhone(phoneNorm);
-            if (isBlank(found.getTelegramUserName()) && tgNorm != null) found.setTelegramUserName(tgNorm);
-            if (isBlank(found.getLinkedin()) && nz(dto.getLinkedin()) != null) found.setLinkedin(nz(dto.getLinkedin()));
-            return dm.save(found);
+    private static List<String> companyNames(ResumeStructuredDto dto) {
+        List<String> names = new ArrayList<>();
+        if (dto == null || dto.getExperience() == null) return names;
+        for (var ex : dto.getExperience()) {
+            if (ex == null) continue;
+            String name = nz(ex.getCompany());
+            if (name != null) names.add(name);
         }
-
-        // создаём нового (всё поле — опционально)
-        CandidateEntity c = dm.create(CandidateEntity.class);
-        c.setName(name);
-        c.setSurname(surname);
-        c.setBirthDate(bdate);
-        c.setSex(sex);                 // может быть null
-        c.setEmail(emailNorm);         // может быть null
-        c.setPhone(phoneNorm);         // может быть null
-        c.setTelegramUserName(tgNorm);         // может быть null
-        c.setLinkedin(nz(dto.getLinkedin()));
-        return dm.save(c);
+        return names;
     }
 
-    // ---------- helpers ----------
-
     private static SexEnum parseSex(String s) {
         if (s == null) return null;
         String t = s.trim().toUpperCase(Locale.ROOT);
@@ -306,30 +366,6 @@ public class ResumeImportService {
         }
     }
 
-    private static String normalizeEmail(String s) {
-        if (s == null) return null;
-        String t = s.trim();
-        return t.isEmpty() ? null : t.toLowerCase(Locale.ROOT);
-    }
-
-    private static String normalizePhone(String p) {
-        if (p == null) return null;
-        String digits = p.replaceAll("\\D", "");
-        return digits.isEmpty() ? null : digits;
-    }
-
-    private static String normalizeTelegram(String t) {
-        if (t == null) return null;
-        String v = t.trim();
-        if (v.isEmpty()) return null;
-        v = v.replace("@", "");
-        // поддержим ссылки вида t.me/user
-        int idx = v.indexOf("t.me/");
-        if (idx >= 0) v = v.substring(idx + "t.me/".length());
-        v = v.trim();
-        return v.isEmpty() ? null : v;
-    }
-
     private static boolean isBlank(String s) {
         return s == null || s.isBlank();
     }
@@ -0,0 +1,136 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import io.jmix.core.FileRef;
+import io.jmix.core.security.SystemAuthenticator;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import ru.javaboys.huntyhr.util.Futures;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Асинхронный конвейер загрузки резюме: parse → extract → persist → score.
+ * <p>
+ * Каждая стадия — отдельная задача в ограниченном пуле, поэтому поток Vaadin/Tomcat
+ * освобождается сразу после постановки файла в очередь. Число одновременно принятых
+ * файлов ограничено {@code hunty.ingestion.queue-capacity}, прогресс отдаётся через listener
+ * (во view — через {@code UI.access} и {@code @Push}).
+ */
+@Service
+@Slf4j
+public class ResumeIngestionService {
+
+    public enum Stage {
+        QUEUED, PARSE, EXTRACT, PERSIST, SCORE, DONE, FAILED
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Progress {
+        private final UUID taskId;
+        private final String fileName;
+        private final Stage stage;
+        @Nullable
+        private final UUID applicationId;
+        @Nullable
+        private final String error;
+    }
+
+    private final ResumeImportService resumeImportService;
+    private final ScoringService scoringService;
+    private final SystemAuthenticator authenticator;
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore admissions;
+
+    public ResumeIngestionService(ResumeImportService resumeImportService,
+                                  ScoringService scoringService,
+                                  SystemAuthenticator authenticator,
+                                  @Value("${hunty.ingestion.pool-size:4}") int poolSize,
+                                  @Value("${hunty.ingestion.queue-capacity:500}") int queueCapacity) {
+        this.resumeImportService = resumeImportService;
+        this.scoringService = scoringService;
+        this.authenticator = authenticator;
+        // в очереди одновременно не больше одной стадии на принятый файл, поэтому её размер ограничен admissions
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("resume-ingest-"));
+        this.admissions = new Semaphore(queueCapacity);
+    }
+
+    /**
+     * Ставит файл резюме в очередь обработки.
+     *
+     * @return future с id заявки; завершается исключением, если какая-либо стадия упала
+     */
+    public CompletableFuture<UUID> submit(UUID vacancyId, FileRef fileRef, Consumer<Progress> listener) {
+        UUID taskId = UUID.randomUUID();
+        String fileName = fileRef.getFileName();
+
+        if (!admissions.tryAcquire()) {
+            String error = "Очередь обработки резюме переполнена, попробуйте позже";
+            publish(listener, new Progress(taskId, fileName, Stage.FAILED, null, error));
+            return CompletableFuture.failedFuture(new RejectedExecutionException(error));
+        }
+        publish(listener, new Progress(taskId, fileName, Stage.QUEUED, null, null));
+
+        return CompletableFuture
+                .supplyAsync(() -> runStage(taskId, fileName, Stage.PARSE, listener,
+                        () -> resumeImportService.parse(fileRef)), executor)
+                .thenApplyAsync(text -> runStage(taskId, fileName, Stage.EXTRACT, listener,
+                        () -> new ResumeImportService.Extracted(fileRef, text,
+                                resumeImportService.extract(fileName, text))), executor)
+                .thenApplyAsync(item -> runStage(taskId, fileName, Stage.PERSIST, listener,
+                        () -> resumeImportService.persist(vacancyId, fileRef, item.getText(), item.getDto())), executor)
+                .thenApplyAsync(applicationId -> runStage(taskId, fileName, Stage.SCORE, listener, () -> {
+                    // скоринг включает и LLM-отчёт
+                    scoringService.scoreWithLlm(applicationId);
+                    return applicationId;
+                }), executor)
+                .whenComplete((applicationId, ex) -> {
+                    admissions.release();
+                    if (ex == null) {
+                        publish(listener, new Progress(taskId, fileName, Stage.DONE, applicationId, null));
+                    } else {
+                        Throwable cause = Futures.unwrap(ex);
+                        log.error("Resume ingestion failed for file {}", fileName, cause);
+                        publish(listener, new Progress(taskId, fileName, Stage.FAILED, null, cause.getMessage()));
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T runStage(UUID taskId, String fileName, Stage stage, Consumer<Progress> listener, Supplier<T> action) {
+        publish(listener, new Progress(taskId, fileName, stage, null, null));
+        long started = System.currentTimeMillis();
+        T result = authenticator.withSystem(action::get);
+        log.debug("Resume ingestion {} stage {} took {} ms", fileName, stage, System.currentTimeMillis() - started);
+        return result;
+    }
+
+    private void publish(Consumer<Progress> listener, Progress progress) {
+        try {
+            listener.accept(progress);
+        } catch (Exception e) {
+            // UI мог быть закрыт — обработка продолжается без уведомлений
+            log.debug("Failed to publish ingestion progress {}: {}", progress.getStage(), e.getMessage());
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package ru.javaboys.huntyhr.service.impl;
 
 import io.jmix.core.DataManager;
+import io.jmix.core.FetchPlan;
 import io.jmix.core.FileRef;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.javaboys.huntyhr.ai.LlmUnavailableException;
 import ru.javaboys.huntyhr.ai.OpenAiService;
 import ru.javaboys.huntyhr.dto.ScoreDto;
 import ru.javaboys.huntyhr.dto.ScreeningReportDto;
+import ru.javaboys.huntyhr.dto.ScreeningResultDto;
 import ru.javaboys.huntyhr.entity.ApplicationEntity;
 import ru.javaboys.huntyhr.entity.CandidateEntity;
 import ru.javaboys.huntyhr.entity.ResumeEducationEntity;
@@ -19,6 +25,7 @@ import ru.javaboys.huntyhr.entity.ResumeVersionEntity;
 import ru.javaboys.huntyhr.entity.VacancyEntity;
 import ru.javaboys.huntyhr.service.DocParseService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -31,14 +38,28 @@ public class ScoringService {
     private final OpenAiService openAiService;
     private final DocParseService docParseService; // уже есть у тебя
 
+    // false — прежние два запроса (баллы + отчёт), для A/B сравнения
+    @Value("${hunty.scoring.single-call:true}")
+    private boolean singleCall;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     /**
      * LLM-скоринг: JD + Резюме → структурные баллы + отчёт.
      * Сохраняет в ApplicationEntity: tech/comm/cases, total (по весам вакансии), screeningSummary, screeningMatchPercent.
+     * <p>
+     * Без транзакции: вызов LLM может ждать governor минутами, а соединение с базой всё это время держать
+     * нельзя. Данные загружаются целиком заранее, результат сохраняется отдельной короткой транзакцией
+     * {@code dm.save}.
      */
-    @Transactional
     public ScoreDto scoreWithLlm(UUID applicationId) {
         ApplicationEntity app = dm.load(ApplicationEntity.class)
-                .id(applicationId).optional()
+                .id(applicationId)
+                .fetchPlan(fp -> fp.addFetchPlan(FetchPlan.BASE)
+                        .add("vacancy", FetchPlan.BASE)
+                        .add("candidate", FetchPlan.BASE))
+                .optional()
                 .orElseThrow(() -> new IllegalArgumentException("Application not found: " + applicationId));
 
         VacancyEntity vac = app.getVacancy();
@@ -48,6 +69,10 @@ public class ScoringService {
         ResumeVersionEntity resume = dm.load(ResumeVersionEntity.class)
                 .query("select r from ResumeVersionEntity r where r.candidate = :c order by r.createdAt desc")
                 .parameter("c", cand)
+                .fetchPlan(fp -> fp.addFetchPlan(FetchPlan.BASE)
+                        .add("file", FetchPlan.BASE)
+                        .add("education", FetchPlan.BASE)
+                        .add("experience", e -> e.addFetchPlan(FetchPlan.BASE).add("company", FetchPlan.BASE)))
                 .maxResults(1)
                 .optional().orElse(null);
 
@@ -59,6 +84,7 @@ public class ScoringService {
             app.setTotalScore(0L);
             app.setScreeningMatchPercent(0L);
             app.setScreeningSummary("Скоринг не выполнен: отсутствует файл резюме.");
+            app.setScoredAt(LocalDateTime.now());
             dm.save(app);
             return null;
         }
@@ -69,7 +95,101 @@ public class ScoringService {
         FileRef ref = resume.getFile().getRef();
         String resumeRaw = safeTrim(docParseService.parseToText(ref), 18000);
 
-        // Промпт
+        if (singleCall) {
+            return scoreAndReport(app, vac, jd, resumeRaw);
+        }
+        return scoreAndReportLegacy(app, vac, resume, jd, resumeRaw);
+    }
+
+    /**
+     * Скоринг и отчёт одним запросом к LLM.
+     */
+    private ScoreDto scoreAndReport(ApplicationEntity app, VacancyEntity vac, String jd, String resumeRaw) {
+        SystemMessage system = new SystemMessage("""
+                Ты — ассистент по найму. Тебе дают текст вакансии (JD) и текст резюме (RU).
+                Оцени кандидата по трем осям: tech/comm/cases — каждое целое число 0..100,
+                и подготовь отчёт для рекрутера.
+                Верни РОВНО ОДИН JSON формата:
+                {
+                  "tech": 0..100,
+                  "comm": 0..100,
+                  "cases": 0..100,
+                  "total": 0..100,
+                  "overall": string (2-3 предложения, на русском),
+                  "matches": [string],
+                  "redFlags": [string],
+                  "strengths": [string],
+                  "gaps": [string],
+                  "hardMatches": [string],
+                  "softMatches": [string],
+                  "risks": [string],
+                  "recommendations": [string]
+                }
+                Правила:
+                - tech: соотнесение навыков/технологий/доменных знаний с JD.
+                - comm: коммуникативные и аналитические компетенции (требования, work with stakeholders, UX/CJM, документация и т.п.).
+                - cases: опыт (сроки, разнообразие, роль/вклад, заметные результаты).
+                - recommendations: что уточнить на интервью.
+                - Если информации мало — ставь реалистичные низкие баллы и поясняй в overall.
+                - Строго JSON, без комментариев и лишнего текста.
+                """);
+
+        UserMessage user = new UserMessage("""
+                JD (вакансия):
+                ----------------
+                %s
+
+                Резюме (raw):
+                ----------------
+                %s
+                """.formatted(safeTrim(jd, 8000), resumeRaw));
+
+        ScreeningResultDto result = null;
+        try {
+            result = openAiService.structuredTalkToChatGPT("screening-" + app.getId(), system, user, ScreeningResultDto.class);
+        } catch (LlmUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("LLM screening failed for app {}: {}", app.getId(), e.getMessage());
+        }
+
+        if (result == null) {
+            app.setScreeningSummary("LLM-скоринг: не удалось получить ответ от модели.");
+            dm.save(app);
+            return null;
+        }
+
+        int total = applyScores(app, vac, result.getTech(), result.getComm(), result.getCases());
+
+        ScreeningReportDto report = new ScreeningReportDto();
+        report.setOverall(result.getOverall());
+        report.setStrengths(result.getStrengths());
+        report.setGaps(result.getGaps());
+        report.setHardMatches(result.getHardMatches());
+        report.setSoftMatches(result.getSoftMatches());
+        report.setRisks(result.getRisks());
+        report.setRecommendations(result.getRecommendations());
+        app.setScreeningSummary(renderSummary(report));
+        app.setScreeningSummaryHtml(renderSummaryHtml(report));
+        dm.save(app);
+
+        ScoreDto dto = new ScoreDto();
+        dto.setTech(app.getTechScore().intValue());
+        dto.setComm(app.getCommScore().intValue());
+        dto.setCases(app.getCasesScore().intValue());
+        dto.setTotal(total);
+        dto.setSummary(result.getOverall());
+        dto.setMatches(result.getMatches());
+        dto.setGaps(result.getGaps());
+        dto.setRedFlags(result.getRedFlags());
+        return dto;
+    }
+
+    /**
+     * Прежний путь: отдельные запросы для баллов и для отчёта ({@code hunty.scoring.single-call=false}).
+     */
+    private ScoreDto scoreAndReportLegacy(ApplicationEntity app, VacancyEntity vac, ResumeVersionEntity resume,
+                                          String jd, String resumeRaw) {
         String conversationId = "llm-score-" + UUID.randomUUID();
         SystemMessage system = new SystemMessage("""
                 Ты — ассистент по найму. Тебе дают текст вакансии (JD) и текст резюме (RU).
@@ -106,6 +226,9 @@ public class ScoringService {
         ScoreDto dto = null;
         try {
             dto = openAiService.structuredTalkToChatGPT(conversationId, system, user, ScoreDto.class);
+        } catch (LlmUnavailableException e) {
+            // лимиты/недоступность провайдера — не сохраняем заглушку, заявку нужно перескорить позже
+            throw e;
         } catch (Exception e) {
             log.warn("LLM scoring failed: {}", e.getMessage());
         }
@@ -117,26 +240,7 @@ public class ScoringService {
             return null;
         }
 
-        // Защита от мусора и нормализация
-        int tech  = clamp(nz(dto.getTech(), 0));
-        int comm  = clamp(nz(dto.getComm(), 0));
-        int cases = clamp(nz(dto.getCases(), 0));
-
-        // Считаем total на бэке по весам вакансии
-        int wT = safeInt(vac.getWeightTech(), 60);
-        int wC = safeInt(vac.getWeightComm(), 25);
-        int wK = safeInt(vac.getWeightCases(), 15);
-        int sum = Math.max(1, wT + wC + wK);
-        double k = 100.0 / sum;
-        double nT = wT * k, nC = wC * k, nK = wK * k;
-        int total = (int) Math.round(tech * (nT/100.0) + comm * (nC/100.0) + cases * (nK/100.0));
-
-        // Сохраняем в Application
-        app.setTechScore((long) tech);
-        app.setCommScore((long) comm);
-        app.setCasesScore((long) cases);
-        app.setTotalScore((long) total);
-        app.setScreeningMatchPercent((long) total);
+        int total = applyScores(app, vac, dto.getTech(), dto.getComm(), dto.getCases());
         dm.save(app);
 
         // Перезаписываем total в dto «как у нас на бэке»
@@ -145,8 +249,11 @@ public class ScoringService {
         // собираем отчет
         try {
             fillLlmReport(app, vac, resume);
+        } catch (LlmUnavailableException ex) {
+            // баллы уже сохранены, а отчёт нужно получить при перескоринге, а не заменять заглушкой
+            throw ex;
         } catch (Exception ex) {
-            log.warn("LLM screening failed for app {}: {}", applicationId, ex.getMessage());
+            log.warn("LLM screening failed for app {}: {}", app.getId(), ex.getMessage());
             app.setScreeningSummary("Анализ временно недоступен. Попробуйте «Пересчитать анализ».");
             dm.save(app);
         }
@@ -154,9 +261,78 @@ public class ScoringService {
         return dto;
     }
 
+    /**
+     * Нормализует баллы и считает total по весам вакансии. Не сохраняет заявку.
+     */
+    private int applyScores(ApplicationEntity app, VacancyEntity vac, Integer techRaw, Integer commRaw, Integer casesRaw) {
+        // Защита от мусора и нормализация
+        int tech  = normalizeScore(techRaw);
+        int comm  = normalizeScore(commRaw);
+        int cases = normalizeScore(casesRaw);
+
+        // Считаем total на бэке по весам вакансии
+        int total = weightedTotal(vac, tech, comm, cases);
+
+        app.setTechScore((long) tech);
+        app.setCommScore((long) comm);
+        app.setCasesScore((long) cases);
+        app.setTotalScore((long) total);
+        app.setScreeningMatchPercent((long) total);
+        app.setScoredAt(LocalDateTime.now());
+        return total;
+    }
+
+    /**
+     * Пересчёт total по текущим весам вакансии без LLM: один UPDATE по уже оценённым заявкам.
+     * Формула та же, что в {@link #applyScores}.
+     *
+     * @return число обновлённых заявок
+     */
+    @Transactional
+    public int recomputeTotals(UUID vacancyId) {
+        VacancyEntity vac = dm.load(VacancyEntity.class).id(vacancyId).one();
+        int wT = safeInt(vac.getWeightTech(), 60);
+        int wC = safeInt(vac.getWeightComm(), 25);
+        int wK = safeInt(vac.getWeightCases(), 15);
+        int sum = Math.max(1, wT + wC + wK);
+
+        String total = "round(cast(coalesce(TECH_SCORE, 0) * ?1 + coalesce(COMM_SCORE, 0) * ?2 "
+                + "+ coalesce(CASES_SCORE, 0) * ?3 as numeric) / ?4)";
+        int updated = entityManager.createNativeQuery(
+                        "update APPLICATION_ENTITY set TOTAL_SCORE = " + total + ", SCREENING_MATCH_PERCENT = " + total
+                                + " where VACANCY_ID = ?5 and TECH_SCORE is not null")
+                .setParameter(1, wT)
+                .setParameter(2, wC)
+                .setParameter(3, wK)
+                .setParameter(4, sum)
+                .setParameter(5, vacancyId)
+                .executeUpdate();
+
+        log.info("Recomputed total score for {} applications of vacancy {} (weights {}/{}/{})",
+                updated, vacancyId, wT, wC, wK);
+        return updated;
+    }
+
     // -------- helpers --------
 
-    private String buildJdText(VacancyEntity v) {
+    static int normalizeScore(Integer v) {
+        return clamp(nz(v, 0));
+    }
+
+    /**
+     * Total по весам вакансии (веса нормируются к 100).
+     */
+    static int weightedTotal(VacancyEntity vac, int tech, int comm, int cases) {
+        int wT = safeInt(vac.getWeightTech(), 60);
+        int wC = safeInt(vac.getWeightComm(), 25);
+        int wK = safeInt(vac.getWeightCases(), 15);
+        int sum = Math.max(1, wT + wC + wK);
+        double k = 100.0 / sum;
+        double nT = wT * k, nC = wC * k, nK = wK * k;
+        return (int) Math.round(tech * (nT/100.0) + comm * (nC/100.0) + cases * (nK/100.0));
+    }
+
+    static String buildJdText(VacancyEntity v) {
         StringBuilder sb = new StringBuilder();
         if (v.getTitle() != null) sb.append("Название: ").append(v.getTitle()).append('\n');
         if (v.getSeniority() != null) sb.append("Уровень: ").append(v.getSeniority()).append('\n');
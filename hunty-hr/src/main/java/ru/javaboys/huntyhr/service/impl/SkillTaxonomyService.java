@@ -0,0 +1,367 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import io.jmix.core.DataManager;
+import io.jmix.core.Id;
+import io.jmix.core.SaveContext;
+import io.jmix.core.security.SystemAuthenticator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import ru.javaboys.huntyhr.entity.ResumeSkillEntity;
+import ru.javaboys.huntyhr.entity.SkillEntity;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Справочник навыков с целочисленными id.
+ * <p>
+ * Написание из резюме сводится к ключу {@link #normalize(String)}, ключ канонического названия и
+ * синонимов («Postgres», «psql» → PostgreSQL) указывает на id навыка. Id навыка — номер бита в
+ * {@link SkillSet}, поэтому пересечение навыков — AND + popcount. Навыки кандидатов по всей базе
+ * держит {@link CandidateSkillIndexService}.
+ * <p>
+ * Справочник ведёт HR: написание, которого нет ни среди названий, ни среди синонимов, новым навыком не
+ * становится — строка навыка резюме остаётся без ссылки, пока его не добавят в справочник. Синонимы
+ * только точные: разные инструменты (Jenkins и CI/CD, GitHub и Git) и короткие неоднозначные
+ * сокращения («ci», «pg», «ts») не склеиваются.
+ */
+@Service
+@Slf4j
+public class SkillTaxonomyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int BACKFILL_PAGE = 1000;
+
+    /**
+     * Начальное наполнение пустого справочника: каноническое название → синонимы.
+     */
+    private static final Map<String, List<String>> SEED = new LinkedHashMap<>();
+
+    static {
+        SEED.put("Java", List.of("java se", "java ee", "jakarta ee"));
+        SEED.put("Kotlin", List.of());
+        SEED.put("Scala", List.of());
+        SEED.put("Spring", List.of("spring framework"));
+        SEED.put("Spring Boot", List.of("springboot"));
+        SEED.put("Hibernate", List.of());
+        SEED.put("Python", List.of("python3"));
+        SEED.put("Django", List.of());
+        SEED.put("FastAPI", List.of());
+        SEED.put("Go", List.of("golang"));
+        SEED.put("C#", List.of("csharp", "c sharp"));
+        SEED.put(".NET", List.of("dotnet", "net core", ".net core", "asp.net"));
+        SEED.put("C++", List.of("cpp", "cplusplus"));
+        SEED.put("PHP", List.of());
+        SEED.put("JavaScript", List.of("js", "ecmascript", "es6"));
+        SEED.put("TypeScript", List.of());
+        SEED.put("Node.js", List.of("nodejs"));
+        SEED.put("React", List.of("reactjs", "react.js"));
+        SEED.put("Vue.js", List.of("vue", "vuejs"));
+        SEED.put("Angular", List.of("angularjs"));
+        SEED.put("SQL", List.of());
+        SEED.put("PostgreSQL", List.of("postgres", "psql", "postgre"));
+        SEED.put("MySQL", List.of());
+        SEED.put("Oracle", List.of("oracle db", "pl/sql", "plsql"));
+        SEED.put("MS SQL Server", List.of("mssql", "sql server", "t-sql", "tsql"));
+        SEED.put("MongoDB", List.of("mongo"));
+        SEED.put("Redis", List.of());
+        SEED.put("ClickHouse", List.of());
+        SEED.put("Elasticsearch", List.of("elastic"));
+        SEED.put("Kafka", List.of("apache kafka"));
+        SEED.put("RabbitMQ", List.of("rabbit"));
+        SEED.put("Docker", List.of());
+        SEED.put("Kubernetes", List.of("k8s", "kube"));
+        SEED.put("Helm", List.of());
+        SEED.put("Terraform", List.of());
+        SEED.put("Ansible", List.of());
+        SEED.put("Linux", List.of());
+        SEED.put("Git", List.of());
+        SEED.put("CI/CD", List.of("cicd", "gitlab ci"));
+        SEED.put("AWS", List.of("amazon web services"));
+        SEED.put("GCP", List.of("google cloud"));
+        SEED.put("Azure", List.of("microsoft azure"));
+        SEED.put("REST", List.of("rest api", "restful"));
+        SEED.put("gRPC", List.of());
+        SEED.put("GraphQL", List.of());
+        SEED.put("Microservices", List.of("микросервисы", "микросервисная архитектура"));
+        SEED.put("Machine Learning", List.of("ml", "машинное обучение"));
+        SEED.put("1С", List.of("1c", "1с:предприятие"));
+    }
+
+    /**
+     * Нормализованный набор навыков: известные — битами по id, неизвестные справочнику — ключами.
+     */
+    public static final class SkillSet {
+        private final BitSet ids;
+        private final Set<String> unknown;
+
+        private SkillSet(BitSet ids, Set<String> unknown) {
+            this.ids = ids;
+            this.unknown = unknown;
+        }
+
+        public int size() {
+            return ids.cardinality() + unknown.size();
+        }
+
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+
+        /**
+         * Сколько навыков этого набора есть в другом.
+         */
+        public int overlap(SkillSet other) {
+            BitSet common = (BitSet) ids.clone();
+            common.and(other.ids);
+            int count = common.cardinality();
+            for (String key : unknown) {
+                if (other.unknown.contains(key)) count++;
+            }
+            return count;
+        }
+
+        public BitSet getIds() {
+            return (BitSet) ids.clone();
+        }
+    }
+
+    private final DataManager dm;
+    private final SystemAuthenticator authenticator;
+
+    // ключ канонического названия или синонима → id
+    private final Map<String, Integer> idsByKey = new ConcurrentHashMap<>();
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private volatile boolean dictionaryLoaded;
+
+    public SkillTaxonomyService(DataManager dm, SystemAuthenticator authenticator) {
+        this.dm = dm;
+        this.authenticator = authenticator;
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        CompletableFuture.runAsync(() -> authenticator.runWithSystem(() -> {
+            try {
+                ensureDictionary();
+                backfillResumeSkills();
+            } catch (Exception e) {
+                log.warn("Skill taxonomy warm-up failed: {}", e.getMessage());
+            } finally {
+                ready.complete(null);
+            }
+        }));
+    }
+
+    /**
+     * Завершается после прогрева: справочник загружен, старые строки навыков связаны с ним.
+     */
+    public CompletableFuture<Void> whenReady() {
+        return ready;
+    }
+
+    /**
+     * Навыки справочника для набора написаний. Неизвестные справочнику написания в результат не попадают.
+     *
+     * @return навык по каждому исходному написанию, которое справочник знает
+     */
+    public Map<String, SkillEntity> resolveAll(Collection<String> names) {
+        Map<String, Integer> ids = resolveIds(names);
+        Map<String, SkillEntity> result = new HashMap<>();
+        for (String name : names) {
+            String key = normalize(name);
+            Integer id = key == null ? null : ids.get(key);
+            if (id != null) result.put(name, dm.getReference(Id.of(id, SkillEntity.class)));
+        }
+        return result;
+    }
+
+    /**
+     * Набор навыков без обращения к БД: неизвестные справочнику написания остаются ключами.
+     */
+    public SkillSet toSkillSet(@Nullable Collection<String> names) {
+        BitSet ids = new BitSet();
+        Set<String> unknown = new HashSet<>();
+        if (names != null) {
+            for (String name : names) {
+                String key = normalize(name);
+                if (key == null) continue;
+                Integer id = idsByKey.get(key);
+                if (id != null) ids.set(id); else unknown.add(key);
+            }
+        }
+        return new SkillSet(ids, unknown);
+    }
+
+    /**
+     * Id навыка по написанию (с учётом синонимов) или null, если справочник его не знает.
+     */
+    @Nullable
+    public Integer findId(@Nullable String name) {
+        String key = normalize(name);
+        return key == null ? null : idsByKey.get(key);
+    }
+
+    @Nullable
+    public String skillName(int skillId) {
+        return namesById.get(skillId);
+    }
+
+    /**
+     * Вызывается после коммита изменений навыка: перечитывает название и синонимы.
+     */
+    public void onSkillChanged(int skillId, boolean deleted) {
+        idsByKey.values().removeIf(id -> id == skillId);
+        namesById.remove(skillId);
+        if (deleted) return;
+        dm.load(SkillEntity.class).id(skillId).optional().ifPresent(this::putSkill);
+    }
+
+    /**
+     * Ключ навыка: нижний регистр, ё → е, без пробелов, дефисов и подчёркиваний; символы
+     * {@code # + . /} значимы (C#, C++, Node.js, CI/CD), точка в конце — нет.
+     */
+    @Nullable
+    public static String normalize(@Nullable String name) {
+        if (name == null) return null;
+        String key = name.toLowerCase(Locale.ROOT)
+                .replace('ё', 'е')
+                .replaceAll("[^\\p{L}\\p{N}#+./]+", "")
+                .replaceAll("\\.+$", "");
+        if (key.isEmpty()) return null;
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    /**
+     * Значение колонки {@code NORMALIZED_NAME}; для пустого названия — пустая строка.
+     */
+    public static String normalizedKey(@Nullable String name) {
+        String key = normalize(name);
+        return key == null ? "" : key;
+    }
+
+    // -------- internals --------
+
+    private void ensureDictionary() {
+        if (dictionaryLoaded) return;
+        synchronized (this) {
+            if (dictionaryLoaded) return;
+            seedIfEmpty();
+            dm.load(SkillEntity.class).all().list().forEach(this::putSkill);
+            dictionaryLoaded = true;
+            log.info("Skill dictionary loaded: {} skills, {} keys", namesById.size(), idsByKey.size());
+        }
+    }
+
+    private void seedIfEmpty() {
+        long count = dm.loadValue("select count(s) from SkillEntity s", Long.class).one();
+        if (count > 0) return;
+        // отдельная транзакция: справочник не должен откатываться вместе с импортом резюме
+        SaveContext ctx = new SaveContext().setJoinTransaction(false);
+        SEED.forEach((name, synonyms) -> {
+            SkillEntity s = dm.create(SkillEntity.class);
+            s.setName(name);
+            s.setNormalizedName(normalizedKey(name));
+            s.setSynonyms(synonyms.isEmpty() ? null : String.join(", ", synonyms));
+            ctx.saving(s);
+        });
+        try {
+            dm.save(ctx);
+        } catch (Exception e) {
+            // справочник параллельно заполнил другой узел — уникальный индекс не пустил дубли
+            log.debug("Skill dictionary seeding skipped: {}", e.getMessage());
+        }
+    }
+
+    private void putSkill(SkillEntity skill) {
+        namesById.put(skill.getId(), skill.getName());
+        String key = normalize(skill.getName());
+        if (key != null) idsByKey.put(key, skill.getId());
+        if (skill.getSynonyms() == null) return;
+        for (String synonym : skill.getSynonyms().split("[,;\\n]")) {
+            String synonymKey = normalize(synonym);
+            // синоним не перекрывает каноническое название другого навыка
+            if (synonymKey != null) idsByKey.putIfAbsent(synonymKey, skill.getId());
+        }
+    }
+
+    /**
+     * Id навыков по ключам написаний: сначала словарь в памяти, промахи — одним запросом
+     * (навык мог добавить HR на другом узле).
+     */
+    private Map<String, Integer> resolveIds(Collection<String> names) {
+        ensureDictionary();
+        Map<String, Integer> idByKey = new HashMap<>();
+        Set<String> misses = new HashSet<>();
+        for (String name : names) {
+            String key = normalize(name);
+            if (key == null || idByKey.containsKey(key)) continue;
+            Integer id = idsByKey.get(key);
+            if (id != null) idByKey.put(key, id); else misses.add(key);
+        }
+        if (!misses.isEmpty()) {
+            dm.load(SkillEntity.class)
+                    .query("select s from SkillEntity s where s.normalizedName in :keys")
+                    .parameter("keys", misses)
+                    .list()
+                    .forEach(skill -> {
+                        putSkill(skill);
+                        idByKey.put(skill.getNormalizedName(), skill.getId());
+                    });
+        }
+        return idByKey;
+    }
+
+    /**
+     * Строки навыков без ссылки (сохранённые до появления справочника или до того, как HR добавил
+     * навык) получают ссылку на навык справочника. Новые навыки здесь не создаются.
+     */
+    private void backfillResumeSkills() {
+        int total = 0;
+        UUID lastId = null;
+        while (true) {
+            // постранично по id: строки без ключа (одни знаки препинания) так и останутся без ссылки
+            List<ResumeSkillEntity> page = lastId == null
+                    ? dm.load(ResumeSkillEntity.class)
+                    .query("select s from ResumeSkillEntity s where s.skill is null order by s.id")
+                    .maxResults(BACKFILL_PAGE)
+                    .list()
+                    : dm.load(ResumeSkillEntity.class)
+                    .query("select s from ResumeSkillEntity s where s.skill is null and s.id > :lastId order by s.id")
+                    .parameter("lastId", lastId)
+                    .maxResults(BACKFILL_PAGE)
+                    .list();
+            if (page.isEmpty()) break;
+            lastId = page.get(page.size() - 1).getId();
+
+            Map<String, Integer> ids = resolveIds(page.stream().map(ResumeSkillEntity::getName).toList());
+            SaveContext ctx = new SaveContext();
+            for (ResumeSkillEntity s : page) {
+                String key = normalize(s.getName());
+                Integer id = key == null ? null : ids.get(key);
+                if (id == null) continue;
+                s.setSkill(dm.getReference(Id.of(id, SkillEntity.class)));
+                ctx.saving(s);
+            }
+            if (!ctx.getEntitiesToSave().isEmpty()) dm.save(ctx);
+            total += ctx.getEntitiesToSave().size();
+        }
+        if (total > 0) {
+            log.info("Resume skills linked to dictionary: {}", total);
+        }
+    }
+}
@@ -1,35 +1,80 @@
 package ru.javaboys.huntyhr.service.impl;
 
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 import org.telegram.telegrambots.longpolling.BotSession;
 import org.telegram.telegrambots.longpolling.interfaces.LongPollingUpdateConsumer;
 import org.telegram.telegrambots.longpolling.starter.AfterBotRegistration;
 import org.telegram.telegrambots.longpolling.starter.SpringLongPollingBot;
-import org.telegram.telegrambots.longpolling.util.LongPollingSingleThreadUpdateConsumer;
-import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.objects.Update;
-import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
-import org.telegram.telegrambots.meta.generics.TelegramClient;
+import org.telegram.telegrambots.meta.api.objects.message.Message;
 
-import io.jmix.core.NoResultException;
-import io.jmix.core.security.SystemAuthenticator;
-import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Обработка входящих обновлений бота.
+ * <p>
+ * Обновления раскладываются по {@code partitions} однопоточным очередям по chat id: сообщения одного
+ * пользователя обрабатываются по порядку, разных — параллельно. Очереди ограничены; при переполнении
+ * поток long polling ждёт места в очереди, что притормаживает получение новых, не нарушая порядка
+ * сообщений чата. Запись chat id в базу пакетная ({@link TelegramUserService}), ответы уходят через
+ * очередь {@link TelegramDeliveryService}.
+ */
 @Component
 @Slf4j
-@RequiredArgsConstructor
-public class TelegramBot implements SpringLongPollingBot, LongPollingSingleThreadUpdateConsumer {
+public class TelegramBot implements SpringLongPollingBot, LongPollingUpdateConsumer {
 
-    @Value("${telegram.bot.token}")
-    private String token;
+    // обновление из переполненной очереди нельзя выполнить в потоке long polling — оно обгонит ждущие
+    // сообщения того же чата
+    private static final RejectedExecutionHandler WAIT_FOR_QUEUE = (task, executor) -> {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Очередь обновлений Telegram остановлена");
+        }
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Прервано ожидание места в очереди обновлений Telegram", e);
+        }
+    };
 
-    private final TelegramClient telegramClient;
-    private final SystemAuthenticator systemAuthenticator;
+    private final String token;
+    private final TelegramDeliveryService telegramDeliveryService;
     private final TelegramUserService telegramUserService;
+    private final ThreadPoolExecutor[] partitions;
+
+    public TelegramBot(@Value("${telegram.bot.token}") String token,
+                       TelegramDeliveryService telegramDeliveryService,
+                       TelegramUserService telegramUserService,
+                       @Value("${hunty.telegram.updates.partitions:8}") int partitions,
+                       @Value("${hunty.telegram.updates.queue-capacity:1000}") int queueCapacity) {
+        this.token = token;
+        this.telegramDeliveryService = telegramDeliveryService;
+        this.telegramUserService = telegramUserService;
+        this.partitions = new ThreadPoolExecutor[Math.max(1, partitions)];
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("telegram-updates-");
+        for (int i = 0; i < this.partitions.length; i++) {
+            this.partitions[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), threadFactory,
+                    WAIT_FOR_QUEUE);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor partition : partitions) {
+            partition.shutdownNow();
+        }
+    }
 
     @Override
     public String getBotToken() {
@@ -41,49 +86,52 @@ public class TelegramBot implements SpringLongPollingBot, LongPollingSingleThrea
         return this;
     }
 
-    @SneakyThrows
     @Override
-    @Transactional
-    public void consume(Update update) {
-
-        systemAuthenticator.begin("admin");
+    public void consume(List<Update> updates) {
+        for (Update update : updates) {
+            if (!update.hasMessage() || !update.getMessage().hasText()) {
+                continue;
+            }
+            long chatId = update.getMessage().getChatId();
+            partitions[(int) Math.floorMod(chatId, (long) partitions.length)].execute(() -> consume(update));
+        }
+    }
 
+    private void consume(Update update) {
         try {
             String input = update.getMessage().getText();
             if (input.startsWith("/start")) {
-                processSetup(update);
+                processSetup(update.getMessage());
             }
-
-        } finally {
-            systemAuthenticator.end();
+        } catch (Exception e) {
+            log.error("Failed to process telegram update {}", update.getUpdateId(), e);
         }
     }
 
-    private void processSetup(Update update) throws TelegramApiException {
-
-        try {
-            telegramUserService.setTelegramUserId(update);
-
-            sendHtmlMessage(update, "<b>Telegram успешно привязан.</b>\nТеперь вы будете получать все важные уведомления на ваш telegram аккаунт");
-        } catch (NoResultException e) {
-            log.error("No telegram user found for update {}", update, e);
-            sendHtmlMessage(update, "<b>Вас еще нет в нашей системе.</b>");
-        }
+    private void processSetup(Message message) {
+        long chatId = message.getChatId();
+        String userName = message.getFrom() != null ? message.getFrom().getUserName() : null;
+        telegramUserService.bindChatAsync(userName, chatId).whenComplete((found, e) -> {
+            if (e != null) {
+                log.error("Failed to bind telegram chat {} (@{})", chatId, userName, e);
+            } else if (found) {
+                sendHtmlMessage(chatId, "<b>Telegram успешно привязан.</b>\nТеперь вы будете получать все важные уведомления на ваш telegram аккаунт");
+            } else {
+                log.warn("No telegram user found for @{} (chat {})", userName, chatId);
+                sendHtmlMessage(chatId, "<b>Вас еще нет в нашей системе.</b>");
+            }
+        });
     }
 
-    private void sendHtmlMessage(Update update, String text) throws TelegramApiException {
-        long chatId = update.getMessage().getChatId();
-        SendMessage message = SendMessage
-                .builder()
-                .chatId(chatId)
-                .parseMode("HTML")
-                .text(text)
-                .build();
-        telegramClient.execute(message);
+    private void sendHtmlMessage(long chatId, String text) {
+        telegramDeliveryService.send(chatId, text).exceptionally(e -> {
+            log.warn("Failed to reply to telegram chat {}: {}", chatId, e.getMessage());
+            return null;
+        });
     }
 
     @AfterBotRegistration
     public void afterRegistration(BotSession botSession) {
         log.info("Registered Bot running state is: {}", botSession.isRunning());
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,16 @@
 package ru.javaboys.huntyhr.service.impl;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.meta.api.methods.GetMe;
-import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.generics.TelegramClient;
 
-import groovy.util.logging.Slf4j;
 import io.jmix.core.DataManager;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
 import ru.javaboys.huntyhr.entity.CandidateEntity;
 import ru.javaboys.huntyhr.entity.InterviewSessionEntity;
 import ru.javaboys.huntyhr.entity.VacancyEntity;
@@ -24,54 +22,46 @@ public class TelegramBotService {
 
     private final TelegramClient telegramClient;
     private final DataManager dataManager;
+    private final TelegramDeliveryService telegramDeliveryService;
 
     @SneakyThrows
     public String getBotName() {
         return telegramClient.execute(new GetMe()).getUserName();
     }
 
-    public void sendInterviewScheduled(InterviewSessionEntity interviewSession) {
+    public String interviewScheduledText(InterviewSessionEntity interviewSession) {
         VacancyEntity vacancy = interviewSession.getApplication().getVacancy();
         CandidateEntity candidate = interviewSession.getApplication().getCandidate();
-        LocalDateTime scheduledStartAt = interviewSession.getScheduledStartAt();
-
-        String msg = TelegramTemplates.getSchedule(
+        return TelegramTemplates.getSchedule(
                 StringUtils.joinWith(" ", candidate.getSurname(), candidate.getName()).trim(),
-                scheduledStartAt,
+                interviewSession.getScheduledStartAt(),
                 vacancy.getTitle(),
                 interviewSession.getInterviewLink()
         );
-        sendMessageToCandidate(msg, candidate.getTelegramChatId());
     }
 
-    public void sendInterviewNotification(InterviewSessionEntity interviewSession) {
+    public String interviewNotificationText(InterviewSessionEntity interviewSession, long minutes) {
         CandidateEntity candidate = interviewSession.getApplication().getCandidate();
-        long minutes = Duration.between(LocalDateTime.now(), interviewSession.getScheduledStartAt()).toMinutes();
-        if (minutes < 2) {
-            return;
-        }
-
-        String msg = TelegramTemplates.getInterviewNotification(
+        return TelegramTemplates.getInterviewNotification(
                 StringUtils.joinWith(" ", candidate.getSurname(), candidate.getName()).trim(),
                 minutes,
-                ""// todo build link
+                interviewSession.getInterviewLink() == null ? "" : interviewSession.getInterviewLink()
         );
-        sendMessageToCandidate(msg, candidate.getTelegramChatId());
     }
 
-    public void sendInterviewResults(InterviewSessionEntity interviewSession) {
-        // todo
+    /**
+     * Отправка готового текста в чат через очередь {@link TelegramDeliveryService}; future завершается
+     * ответом Telegram — по нему очередь уведомлений отмечает доставку или планирует повтор.
+     */
+    public CompletableFuture<Void> sendAsync(Long chatId, String message) {
+        if (chatId == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Telegram не привязан: нет chatId"));
+        }
+        return telegramDeliveryService.send(chatId, message);
     }
 
-    @SneakyThrows
-    private void sendMessageToCandidate(String message, Long chatId) {
-        SendMessage msg = SendMessage
-                .builder()
-                .chatId(chatId)
-                .text(message)
-                .parseMode("HTML")
-                .build();
-        telegramClient.execute(msg);
+    public void sendInterviewResults(InterviewSessionEntity interviewSession) {
+        // todo
     }
 
 }
@@ -0,0 +1,334 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import org.telegram.telegrambots.meta.generics.TelegramClient;
+import ru.javaboys.huntyhr.util.Futures;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Асинхронная отправка сообщений в Telegram с соблюдением лимитов Bot API.
+ * <ul>
+ *     <li>общий token bucket — не больше {@code global-per-second} сообщений в секунду на бота;</li>
+ *     <li>в один чат — не чаще раза в {@code per-chat-interval-ms}, строго в порядке постановки (FIFO);</li>
+ *     <li>429 — пауза чата на {@code retry_after} из ответа и повтор того же сообщения; если подряд
+ *     ограничены разные чаты, превышен лимит бота — на паузу встают все чаты;</li>
+ *     <li>5xx и сетевые ошибки — повтор с задержкой; остальные ошибки (бот заблокирован, чат не найден)
+ *     завершают отправку сразу;</li>
+ *     <li>запрос уходит через {@code executeAsync} — поток вызывающего не ждёт Telegram.</li>
+ * </ul>
+ * Лимиты считаются в памяти узла; очередь уведомлений отправляет Telegram с одного узла
+ * ({@link NotificationOutboxService}).
+ * Метрики: {@code hunty.telegram.queue.depth}, {@code hunty.telegram.latency}, {@code hunty.telegram.messages}.
+ */
+@Service
+@Slf4j
+public class TelegramDeliveryService {
+
+    private static final int IDLE_CHATS_LIMIT = 10_000;
+
+    /**
+     * Очередь одного чата. В куче готовых чатов лежит, только пока в ней есть сообщения и ни одно не в полёте.
+     */
+    private static final class Chat {
+        final long chatId;
+        final ArrayDeque<Delivery> queue = new ArrayDeque<>();
+        long nextAllowedAt;
+        boolean inFlight;
+        // голова очереди, отправляемая сейчас
+        Delivery current;
+
+        Chat(long chatId) {
+            this.chatId = chatId;
+        }
+    }
+
+    /**
+     * Общий бюджет бота: {@code perSecond} сообщений в секунду, после простоя — не больше стольких же подряд.
+     * Не потокобезопасен, вызывается под блокировкой сервиса.
+     */
+    static final class TokenBucket {
+        private final double perMs;
+        private final double burst;
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(int perSecond, long now) {
+            this.perMs = Math.max(1, perSecond) / 1000.0;
+            this.burst = Math.max(1, perSecond);
+            this.tokens = burst;
+            this.refilledAt = now;
+        }
+
+        /**
+         * Берёт токен, если он есть.
+         *
+         * @return 0, если токен взят, иначе через сколько миллисекунд появится следующий
+         */
+        long take(long now) {
+            tokens = Math.min(burst, tokens + Math.max(0, now - refilledAt) * perMs);
+            refilledAt = Math.max(refilledAt, now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / perMs);
+        }
+    }
+
+    private static final class Delivery {
+        final SendMessage message;
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        final long enqueuedAt = System.nanoTime();
+        int attempts;
+
+        Delivery(SendMessage message) {
+            this.message = message;
+        }
+    }
+
+    private final TelegramClient telegramClient;
+    private final TokenBucket bucket;
+    private final long perChatIntervalMs;
+    private final int maxQueued;
+    private final int maxAttempts;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<Long, Chat> chats = new HashMap<>();
+    private final PriorityQueue<Chat> ready = new PriorityQueue<>(Comparator.comparingLong(c -> c.nextAllowedAt));
+    private final AtomicInteger queued = new AtomicInteger();
+    // общая пауза после 429 на уровне бота
+    private long pausedUntil;
+    // последний чат, получивший 429, и конец его паузы
+    private long throttledChatId;
+    private long throttledUntil;
+
+    private final Timer latencyTimer;
+    private final Counter sentCounter;
+    private final Counter throttledCounter;
+    private final Counter retryCounter;
+    private final Counter failedCounter;
+    private final Counter rejectedCounter;
+
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("telegram-delivery-"));
+    private volatile boolean running = true;
+
+    public TelegramDeliveryService(TelegramClient telegramClient,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${hunty.telegram.global-per-second:25}") int globalPerSecond,
+                                   @Value("${hunty.telegram.per-chat-interval-ms:1000}") long perChatIntervalMs,
+                                   @Value("${hunty.telegram.max-queued:10000}") int maxQueued,
+                                   @Value("${hunty.telegram.max-attempts:5}") int maxAttempts) {
+        this.telegramClient = telegramClient;
+        this.bucket = new TokenBucket(globalPerSecond, System.currentTimeMillis());
+        this.perChatIntervalMs = Math.max(0, perChatIntervalMs);
+        this.maxQueued = Math.max(1, maxQueued);
+        this.maxAttempts = Math.max(1, maxAttempts);
+
+        Gauge.builder("hunty.telegram.queue.depth", queued, AtomicInteger::get).register(meterRegistry);
+        this.latencyTimer = Timer.builder("hunty.telegram.latency").register(meterRegistry);
+        this.sentCounter = Counter.builder("hunty.telegram.messages").tag("result", "sent").register(meterRegistry);
+        this.throttledCounter = Counter.builder("hunty.telegram.messages").tag("result", "throttled").register(meterRegistry);
+        this.retryCounter = Counter.builder("hunty.telegram.messages").tag("result", "retry").register(meterRegistry);
+        this.failedCounter = Counter.builder("hunty.telegram.messages").tag("result", "failed").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("hunty.telegram.messages").tag("result", "rejected").register(meterRegistry);
+
+        dispatcher.submit(this::dispatchLoop);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Ставит HTML-сообщение в очередь чата. Future завершается после ответа Telegram; при ошибке — с
+     * исключением последней попытки.
+     */
+    public CompletableFuture<Void> send(long chatId, String html) {
+        SendMessage message = SendMessage.builder()
+                .chatId(chatId)
+                .text(html)
+                .parseMode("HTML")
+                .build();
+        Delivery delivery = new Delivery(message);
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejectedCounter.increment();
+            delivery.result.completeExceptionally(new RejectedExecutionException("Очередь отправки в Telegram переполнена"));
+            return delivery.result;
+        }
+        lock.lock();
+        try {
+            Chat chat = chats.computeIfAbsent(chatId, Chat::new);
+            chat.queue.addLast(delivery);
+            if (chat.queue.size() == 1 && !chat.inFlight) {
+                ready.add(chat);
+                changed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return delivery.result;
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                Chat chat = nextChat();
+                if (chat != null) {
+                    execute(chat, chat.current);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Telegram delivery loop error", e);
+            }
+        }
+    }
+
+    /**
+     * Ждёт чат, которому уже можно писать, и свободный токен общего бюджета; помечает чат «в полёте».
+     */
+    private Chat nextChat() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                Chat head = ready.peek();
+                long now = System.currentTimeMillis();
+                if (head == null) {
+                    changed.await();
+                    continue;
+                }
+                long wait = Math.max(Math.max(head.nextAllowedAt, pausedUntil) - now, 0);
+                if (wait == 0) {
+                    wait = bucket.take(now);
+                }
+                if (wait > 0) {
+                    changed.await(wait, TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                ready.poll();
+                head.inFlight = true;
+                head.current = head.queue.peekFirst();
+                return head;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void execute(Chat chat, Delivery delivery) {
+        delivery.attempts++;
+        CompletableFuture<?> call;
+        try {
+            call = telegramClient.executeAsync(delivery.message);
+        } catch (Exception e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((r, e) -> onComplete(chat, delivery, e));
+    }
+
+    private void onComplete(Chat chat, Delivery delivery, Throwable error) {
+        long now = System.currentTimeMillis();
+        Throwable cause = Futures.unwrap(error);
+        boolean retry = false;
+        long delay = perChatIntervalMs;
+        Integer retryAfter = cause == null ? null : retryAfterSeconds(cause);
+        if (cause != null && delivery.attempts < maxAttempts) {
+            if (retryAfter != null) {
+                throttledCounter.increment();
+                delay = TimeUnit.SECONDS.toMillis(retryAfter);
+                retry = true;
+            } else if (isTransient(cause)) {
+                retryCounter.increment();
+                delay = Math.min(perChatIntervalMs * (1L << delivery.attempts), TimeUnit.SECONDS.toMillis(60));
+                retry = true;
+            }
+        }
+
+        lock.lock();
+        try {
+            chat.inFlight = false;
+            chat.current = null;
+            chat.nextAllowedAt = now + delay;
+            if (retryAfter != null) {
+                long until = now + TimeUnit.SECONDS.toMillis(retryAfter);
+                // 429 одного чата — его собственный лимит; 429 у другого чата, пока первый ещё на паузе, —
+                // превышен лимит бота целиком, и приостанавливаются все чаты
+                if (throttledUntil > now && throttledChatId != chat.chatId) {
+                    pausedUntil = Math.max(pausedUntil, until);
+                }
+                throttledChatId = chat.chatId;
+                throttledUntil = until;
+            }
+            if (!retry) {
+                chat.queue.pollFirst();
+            }
+            if (!chat.queue.isEmpty()) {
+                ready.add(chat);
+            } else if (chats.size() > IDLE_CHATS_LIMIT) {
+                // пустые чаты держим ради интервала между сообщениями, устаревшие выбрасываем
+                chats.values().removeIf(c -> c.queue.isEmpty() && !c.inFlight && c.nextAllowedAt < now);
+            }
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        if (retry) {
+            log.debug("Telegram send to {} will be retried in {} ms: {}", chat.chatId, delay, cause.getMessage());
+            return;
+        }
+        queued.decrementAndGet();
+        latencyTimer.record(System.nanoTime() - delivery.enqueuedAt, TimeUnit.NANOSECONDS);
+        if (cause == null) {
+            sentCounter.increment();
+            delivery.result.complete(null);
+        } else {
+            failedCounter.increment();
+            delivery.result.completeExceptionally(cause);
+        }
+    }
+
+    private static Integer retryAfterSeconds(Throwable e) {
+        if (e instanceof TelegramApiRequestException r && Integer.valueOf(429).equals(r.getErrorCode())) {
+            Integer retryAfter = r.getParameters() != null ? r.getParameters().getRetryAfter() : null;
+            return retryAfter != null ? retryAfter : 1;
+        }
+        return null;
+    }
+
+    // 5xx и сетевые ошибки; 4xx (кроме 429) повторять бессмысленно
+    private static boolean isTransient(Throwable e) {
+        if (e instanceof TelegramApiRequestException r) {
+            return r.getErrorCode() == null || r.getErrorCode() >= 500;
+        }
+        return true;
+    }
+}
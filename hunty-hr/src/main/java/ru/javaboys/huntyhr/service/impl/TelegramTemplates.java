@@ -34,14 +34,34 @@ public class TelegramTemplates {
     }
 
     private static final String INTERVIEW_NOTIFICATION = """
-            <b>⏰ Напоминание: интервью через %s минут</b>
+            <b>⏰ Напоминание: интервью через %s</b>
             <u>%s</u>, встреча скоро начнётся!
             
             <b>🔗 Присоединиться:</b> <a href="%s">Встреча</a>
             """;
 
     public static String getInterviewNotification(String candidateName, long interviewAfterMin, String meetingLink) {
-        return INTERVIEW_NOTIFICATION.formatted(interviewAfterMin, candidateName, meetingLink);
+        return INTERVIEW_NOTIFICATION.formatted(leadTime(interviewAfterMin), candidateName, meetingLink);
+    }
+
+    /**
+     * «10 минут», «1 час», «24 часа» — время до встречи для напоминаний разных уровней.
+     */
+    static String leadTime(long minutes) {
+        if (minutes < 55) {
+            return minutes + " " + plural(minutes, "минуту", "минуты", "минут");
+        }
+        long hours = Math.round(minutes / 60.0);
+        return hours + " " + plural(hours, "час", "часа", "часов");
+    }
+
+    private static String plural(long n, String one, String few, String many) {
+        long mod100 = n % 100;
+        long mod10 = n % 10;
+        if (mod100 >= 11 && mod100 <= 14) return many;
+        if (mod10 == 1) return one;
+        if (mod10 >= 2 && mod10 <= 4) return few;
+        return many;
     }
 
 }
@@ -1,32 +1,209 @@
 package ru.javaboys.huntyhr.service.impl;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-import org.telegram.telegrambots.meta.api.objects.Update;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 import io.jmix.core.DataManager;
-import io.jmix.core.querycondition.PropertyCondition;
-import lombok.RequiredArgsConstructor;
+import io.jmix.core.SaveContext;
+import io.jmix.core.security.SystemAuthenticator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import ru.javaboys.huntyhr.entity.CandidateEntity;
 
+/**
+ * Привязка Telegram-чата к кандидату по команде /start.
+ * <p>
+ * Кандидат ищется по нормализованному username ({@code TELEGRAM_NORM}, без регистра и {@code @}, с
+ * индексом). Результат поиска — id кандидатов и их chat id — лежит в ограниченном кеше, который
+ * сбрасывается при изменении telegram-полей кандидата: повторный /start уже привязанного пользователя
+ * отвечается без обращения к базе. Промах (кандидата с таким username нет) кешируется отдельно и на
+ * секунды — только чтобы повторные /start не шли в базу, — иначе кандидат, добавленный из резюме на
+ * другом узле, не находился бы до истечения основного кеша. Username в Telegram уникален, поэтому несколько кандидатов с одним
+ * username — дубли одного человека, чат привязывается ко всем.
+ * <p>
+ * Промахи кеша копятся до {@code batch-size} штук или {@code linger-ms} и записываются пачкой: один запрос
+ * кандидатов по списку username и один SaveContext. Во время рассылки приглашений сотни кандидатов
+ * нажимают /start почти одновременно — транзакция на каждого упиралась в базу.
+ */
 @Component
-@RequiredArgsConstructor
+@Slf4j
 public class TelegramUserService {
 
+    // userName — нормализованный
+    private record Binding(String userName, long chatId, CompletableFuture<Boolean> result) {
+    }
+
+    /**
+     * Кандидат с данным username и его текущий chat id.
+     */
+    private record CandidateRef(UUID candidateId, Long chatId) {
+    }
+
     private final DataManager dataManager;
+    private final SystemAuthenticator authenticator;
+    private final int batchSize;
+    private final long lingerMs;
+    // нормализованный username -> найденные кандидаты
+    private final Cache<String, List<CandidateRef>> byUserName;
+    // нормализованные username, кандидатов с которыми нет
+    private final Cache<String, Boolean> misses;
+
+    private final BlockingQueue<Binding> pending = new LinkedBlockingQueue<>();
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("telegram-bind-"));
+    private volatile boolean running = true;
+
+    public TelegramUserService(DataManager dataManager,
+                               SystemAuthenticator authenticator,
+                               @Value("${hunty.telegram.bind.batch-size:100}") int batchSize,
+                               @Value("${hunty.telegram.bind.linger-ms:200}") long lingerMs,
+                               @Value("${hunty.telegram.user-cache.max-size:100000}") long cacheMaxSize,
+                               @Value("${hunty.telegram.user-cache.ttl-minutes:30}") long cacheTtlMinutes,
+                               @Value("${hunty.telegram.user-cache.miss-ttl-seconds:30}") long missTtlSeconds) {
+        this.dataManager = dataManager;
+        this.authenticator = authenticator;
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerMs = Math.max(0, lingerMs);
+        this.byUserName = CacheBuilder.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtlMinutes, TimeUnit.MINUTES)
+                .build();
+        this.misses = CacheBuilder.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(missTtlSeconds, TimeUnit.SECONDS)
+                .build();
+        flusher.submit(this::flushLoop);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        flusher.shutdownNow();
+    }
+
+    /**
+     * Привязывает чат к кандидатам с таким username: из кеша, если привязка уже есть, иначе через пакетную
+     * запись. Future завершается {@code true}, если кандидат найден, {@code false} — если нет.
+     */
+    public CompletableFuture<Boolean> bindChatAsync(String userName, long chatId) {
+        String norm = CandidateIdentityService.normalizeTelegram(userName);
+        if (norm == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (misses.getIfPresent(norm) != null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        List<CandidateRef> cached = byUserName.getIfPresent(norm);
+        if (cached != null && cached.stream().allMatch(ref -> Long.valueOf(chatId).equals(ref.chatId()))) {
+            // уже привязан к этому чату
+            return CompletableFuture.completedFuture(true);
+        }
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        pending.add(new Binding(norm, chatId, result));
+        return result;
+    }
+
+    /**
+     * Telegram-поля кандидата изменились (или он удалён) — сбрасывает кеш по старому и новому username.
+     */
+    public void onCandidateChanged(UUID candidateId, @Nullable String oldTelegramNorm) {
+        if (oldTelegramNorm != null) {
+            byUserName.invalidate(oldTelegramNorm);
+        }
+        dataManager.load(CandidateEntity.class)
+                .id(candidateId)
+                .optional()
+                .map(CandidateEntity::getTelegramNorm)
+                .ifPresent(norm -> {
+                    byUserName.invalidate(norm);
+                    misses.invalidate(norm);
+                });
+    }
 
-    @Transactional
-    public void setTelegramUserId(Update update) {
+    private void flushLoop() {
+        while (running) {
+            List<Binding> batch = new ArrayList<>(batchSize);
+            try {
+                batch.add(pending.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    long left = deadline - System.nanoTime();
+                    Binding next = left > 0 ? pending.poll(left, TimeUnit.NANOSECONDS) : pending.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(b -> b.result().cancel(false));
+                return;
+            }
+            try {
+                authenticator.runWithSystem(() -> flush(batch));
+            } catch (Exception e) {
+                log.error("Failed to bind {} telegram chats", batch.size(), e);
+                batch.forEach(b -> b.result().completeExceptionally(e));
+            }
+        }
+    }
 
-        String tgUserName = update.getMessage().getFrom().getUserName();
+    private void flush(List<Binding> batch) {
+        // повторный /start того же пользователя в пачке — берём последний
+        Map<String, Binding> latest = new LinkedHashMap<>();
+        for (Binding b : batch) {
+            latest.put(b.userName(), b);
+        }
 
-        CandidateEntity candidateEntity = dataManager.load(CandidateEntity.class)
-                .condition(PropertyCondition.equal("telegramUserName", tgUserName))
-                .one();
+        List<CandidateEntity> candidates = dataManager.load(CandidateEntity.class)
+                .query("select c from CandidateEntity c where c.telegramNorm in :names")
+                .parameter("names", latest.keySet())
+                .list();
 
-        candidateEntity.setTelegramUserName(update.getMessage().getFrom().getUserName());
-        candidateEntity.setTelegramChatId(update.getMessage().getChatId());
+        SaveContext ctx = new SaveContext();
+        Map<String, List<CandidateRef>> refs = new HashMap<>();
+        for (CandidateEntity candidate : candidates) {
+            Binding b = latest.get(candidate.getTelegramNorm());
+            if (b == null) continue;
+            if (!Long.valueOf(b.chatId()).equals(candidate.getTelegramChatId())) {
+                candidate.setTelegramChatId(b.chatId());
+                ctx.saving(candidate);
+            }
+            refs.computeIfAbsent(b.userName(), k -> new ArrayList<>())
+                    .add(new CandidateRef(candidate.getId(), b.chatId()));
+        }
+        if (!ctx.getEntitiesToSave().isEmpty()) {
+            dataManager.save(ctx);
+        }
 
-        dataManager.save(candidateEntity);
+        for (String norm : latest.keySet()) {
+            List<CandidateRef> found = refs.get(norm);
+            if (found == null) {
+                misses.put(norm, Boolean.TRUE);
+                continue;
+            }
+            if (found.size() > 1) {
+                log.info("Telegram @{} matches {} candidates, chat bound to all of them", norm, found.size());
+            }
+            byUserName.put(norm, List.copyOf(found));
+        }
+        for (Binding b : batch) {
+            b.result().complete(refs.containsKey(b.userName()));
+        }
     }
 }
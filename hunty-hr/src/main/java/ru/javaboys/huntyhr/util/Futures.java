@@ -0,0 +1,22 @@
+package ru.javaboys.huntyhr.util;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Разворачивание исключений асинхронных стадий до исходной причины.
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    public static Throwable unwrap(Throwable ex) {
+        Throwable current = ex;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+}
@@ -0,0 +1,87 @@
+package ru.javaboys.huntyhr.view.candidateduplicateentity;
+
+import com.vaadin.flow.component.ClickEvent;
+import com.vaadin.flow.router.Route;
+import io.jmix.core.DataManager;
+import io.jmix.flowui.Notifications;
+import io.jmix.flowui.ViewNavigators;
+import io.jmix.flowui.component.grid.DataGrid;
+import io.jmix.flowui.kit.component.button.JmixButton;
+import io.jmix.flowui.model.CollectionLoader;
+import io.jmix.flowui.view.LookupComponent;
+import io.jmix.flowui.view.StandardListView;
+import io.jmix.flowui.view.Subscribe;
+import io.jmix.flowui.view.ViewComponent;
+import io.jmix.flowui.view.ViewController;
+import io.jmix.flowui.view.ViewDescriptor;
+import org.quartz.SchedulerException;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.javaboys.huntyhr.entity.CandidateDuplicateEntity;
+import ru.javaboys.huntyhr.entity.CandidateEntity;
+import ru.javaboys.huntyhr.entity.DuplicateStatusEnum;
+import ru.javaboys.huntyhr.service.impl.CandidateIdentityResolutionService;
+import ru.javaboys.huntyhr.view.candidateentity.CandidateEntityDetailView;
+import ru.javaboys.huntyhr.view.main.MainView;
+
+@Route(value = "candidate-duplicates", layout = MainView.class)
+@ViewController(id = "CandidateDuplicateEntity.list")
+@ViewDescriptor(path = "candidate-duplicate-entity-list-view.xml")
+@LookupComponent("duplicatesDataGrid")
+public class CandidateDuplicateEntityListView extends StandardListView<CandidateDuplicateEntity> {
+
+    @ViewComponent
+    private DataGrid<CandidateDuplicateEntity> duplicatesDataGrid;
+    @ViewComponent
+    private CollectionLoader<CandidateDuplicateEntity> duplicatesDl;
+
+    @Autowired
+    private CandidateIdentityResolutionService identityResolutionService;
+    @Autowired
+    private DataManager dataManager;
+    @Autowired
+    private Notifications notifications;
+    @Autowired
+    private ViewNavigators viewNavigators;
+
+    @Subscribe(id = "fullPassBtn", subject = "clickListener")
+    public void onFullPassBtnClick(final ClickEvent<JmixButton> event) {
+        try {
+            identityResolutionService.requestFullPass();
+            notifications.create("Поиск дубликатов запущен, новые пары появятся в списке после его завершения")
+                    .withType(Notifications.Type.SUCCESS)
+                    .show();
+        } catch (SchedulerException e) {
+            notifications.create("Не удалось запустить поиск дубликатов: " + e.getMessage())
+                    .withType(Notifications.Type.ERROR)
+                    .show();
+        }
+    }
+
+    @Subscribe(id = "dismissBtn", subject = "clickListener")
+    public void onDismissBtnClick(final ClickEvent<JmixButton> event) {
+        CandidateDuplicateEntity selected = duplicatesDataGrid.getSingleSelectedItem();
+        if (selected == null) return;
+        selected.setStatus(DuplicateStatusEnum.DISMISSED);
+        dataManager.save(selected);
+        duplicatesDl.load();
+    }
+
+    @Subscribe(id = "openABtn", subject = "clickListener")
+    public void onOpenABtnClick(final ClickEvent<JmixButton> event) {
+        CandidateDuplicateEntity selected = duplicatesDataGrid.getSingleSelectedItem();
+        if (selected != null) openCandidate(selected.getCandidateA());
+    }
+
+    @Subscribe(id = "openBBtn", subject = "clickListener")
+    public void onOpenBBtnClick(final ClickEvent<JmixButton> event) {
+        CandidateDuplicateEntity selected = duplicatesDataGrid.getSingleSelectedItem();
+        if (selected != null) openCandidate(selected.getCandidateB());
+    }
+
+    private void openCandidate(CandidateEntity candidate) {
+        viewNavigators.detailView(this, CandidateEntity.class)
+                .withViewClass(CandidateEntityDetailView.class)
+                .editEntity(candidate)
+                .navigate();
+    }
+}
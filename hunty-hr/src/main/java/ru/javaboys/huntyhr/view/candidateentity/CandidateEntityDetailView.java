@@ -1,12 +1,24 @@
 package ru.javaboys.huntyhr.view.candidateentity;
 
+import com.vaadin.flow.component.ClickEvent;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.router.Route;
 
+import io.jmix.flowui.Notifications;
+import io.jmix.flowui.kit.component.button.JmixButton;
+import io.jmix.flowui.model.CollectionLoader;
 import io.jmix.flowui.view.EditedEntityContainer;
 import io.jmix.flowui.view.StandardDetailView;
+import io.jmix.flowui.view.Subscribe;
+import io.jmix.flowui.view.ViewComponent;
 import io.jmix.flowui.view.ViewController;
 import io.jmix.flowui.view.ViewDescriptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.javaboys.huntyhr.ai.LlmUnavailableException;
 import ru.javaboys.huntyhr.entity.CandidateEntity;
+import ru.javaboys.huntyhr.entity.CandidateVacancyMatchEntity;
+import ru.javaboys.huntyhr.service.impl.CandidateMatchService;
+import ru.javaboys.huntyhr.util.Futures;
 import ru.javaboys.huntyhr.view.main.MainView;
 
 @Route(value = "candidate-entities/:id", layout = MainView.class)
@@ -14,4 +26,40 @@ import ru.javaboys.huntyhr.view.main.MainView;
 @ViewDescriptor(path = "candidate-entity-detail-view.xml")
 @EditedEntityContainer("candidateEntityDc")
 public class CandidateEntityDetailView extends StandardDetailView<CandidateEntity> {
-}
\ No newline at end of file
+
+    @ViewComponent
+    private CollectionLoader<CandidateVacancyMatchEntity> matchesDl;
+    @ViewComponent
+    private JmixButton matchVacanciesBtn;
+
+    @Autowired
+    private CandidateMatchService candidateMatchService;
+    @Autowired
+    private Notifications notifications;
+
+    @Subscribe(id = "matchVacanciesBtn", subject = "clickListener")
+    public void onMatchVacanciesBtnClick(final ClickEvent<JmixButton> event) {
+        CandidateEntity candidate = getEditedEntity();
+        if (candidate.getId() == null) return;
+
+        matchVacanciesBtn.setEnabled(false);
+        UI ui = UI.getCurrent();
+        candidateMatchService.matchCandidateAsync(candidate.getId())
+                .whenComplete((matches, error) -> ui.access(() -> {
+                    matchVacanciesBtn.setEnabled(true);
+                    if (error != null) {
+                        Throwable cause = Futures.unwrap(error);
+                        notifications.create(cause instanceof LlmUnavailableException
+                                        ? "LLM временно недоступна, попробуйте позже"
+                                        : "Не удалось подобрать вакансии: " + cause.getMessage())
+                                .withType(Notifications.Type.ERROR)
+                                .show();
+                        return;
+                    }
+                    matchesDl.load();
+                    notifications.create("Подобрано вакансий: " + matches.size())
+                            .withType(Notifications.Type.SUCCESS)
+                            .show();
+                }));
+    }
+}
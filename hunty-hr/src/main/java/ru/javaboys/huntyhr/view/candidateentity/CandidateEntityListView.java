@@ -1,15 +1,36 @@
 package ru.javaboys.huntyhr.view.candidateentity;
 
+import com.vaadin.flow.component.ClickEvent;
+import com.vaadin.flow.component.Key;
+import com.vaadin.flow.component.Text;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.data.renderer.ComponentRenderer;
 import com.vaadin.flow.router.Route;
 
+import io.jmix.flowui.Notifications;
+import io.jmix.flowui.component.grid.DataGrid;
+import io.jmix.flowui.component.textfield.TypedTextField;
+import io.jmix.flowui.kit.component.button.JmixButton;
+import io.jmix.flowui.model.CollectionLoader;
 import io.jmix.flowui.view.DialogMode;
 import io.jmix.flowui.view.LookupComponent;
 import io.jmix.flowui.view.StandardListView;
+import io.jmix.flowui.view.Subscribe;
+import io.jmix.flowui.view.ViewComponent;
 import io.jmix.flowui.view.ViewController;
 import io.jmix.flowui.view.ViewDescriptor;
+import org.springframework.beans.factory.annotation.Autowired;
 import ru.javaboys.huntyhr.entity.CandidateEntity;
+import ru.javaboys.huntyhr.entity.SearchDocumentOwnerTypeEnum;
+import ru.javaboys.huntyhr.service.impl.FullTextSearchService;
 import ru.javaboys.huntyhr.view.main.MainView;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 
 @Route(value = "candidate-entities", layout = MainView.class)
 @ViewController(id = "CandidateEntity.list")
@@ -17,4 +38,87 @@ import ru.javaboys.huntyhr.view.main.MainView;
 @LookupComponent("candidateEntitiesDataGrid")
 @DialogMode(width = "64em")
 public class CandidateEntityListView extends StandardListView<CandidateEntity> {
-}
\ No newline at end of file
+
+    private static final int FULL_TEXT_LIMIT = 200;
+    private static final String ALL_QUERY = "select e from CandidateEntity e";
+
+    @ViewComponent
+    private DataGrid<CandidateEntity> candidateEntitiesDataGrid;
+    @ViewComponent
+    private CollectionLoader<CandidateEntity> candidateEntitiesDl;
+    @ViewComponent
+    private TypedTextField<String> fullTextField;
+    @ViewComponent
+    private JmixButton fullTextResetBtn;
+
+    @Autowired
+    private FullTextSearchService fullTextSearchService;
+    @Autowired
+    private Notifications notifications;
+
+    private final Map<UUID, String> snippets = new HashMap<>();
+    private Grid.Column<CandidateEntity> snippetColumn;
+
+    @Subscribe
+    public void onInit(final InitEvent event) {
+        snippetColumn = candidateEntitiesDataGrid.addColumn(new ComponentRenderer<>(this::renderSnippet))
+                .setHeader("Фрагмент резюме")
+                .setFlexGrow(3)
+                .setVisible(false);
+        fullTextField.addKeyPressListener(Key.ENTER, e -> searchFullText());
+    }
+
+    @Subscribe(id = "fullTextSearchBtn", subject = "clickListener")
+    public void onFullTextSearchBtnClick(final ClickEvent<JmixButton> event) {
+        searchFullText();
+    }
+
+    @Subscribe(id = "fullTextResetBtn", subject = "clickListener")
+    public void onFullTextResetBtnClick(final ClickEvent<JmixButton> event) {
+        fullTextField.clear();
+        snippets.clear();
+        snippetColumn.setVisible(false);
+        fullTextResetBtn.setVisible(false);
+        candidateEntitiesDl.setQuery(ALL_QUERY);
+        candidateEntitiesDl.removeParameter("ids");
+        candidateEntitiesDl.load();
+    }
+
+    private void searchFullText() {
+        String query = fullTextField.getTypedValue();
+        if (query == null || query.isBlank()) return;
+
+        List<FullTextSearchService.Hit> hits = fullTextSearchService.search(SearchDocumentOwnerTypeEnum.CANDIDATE,
+                query, FULL_TEXT_LIMIT);
+        if (hits.isEmpty()) {
+            notifications.create("В тексте резюме ничего не найдено")
+                    .withType(Notifications.Type.WARNING)
+                    .show();
+            return;
+        }
+
+        snippets.clear();
+        hits.forEach(h -> snippets.put(h.getOwnerId(), h.getSnippet()));
+        candidateEntitiesDl.setQuery("select e from CandidateEntity e where e.id in :ids");
+        candidateEntitiesDl.setParameter("ids", List.copyOf(snippets.keySet()));
+        candidateEntitiesDl.load();
+        snippetColumn.setVisible(true);
+        fullTextResetBtn.setVisible(true);
+    }
+
+    private Span renderSnippet(CandidateEntity candidate) {
+        Span span = new Span();
+        for (FullTextSearchService.SnippetPart part : FullTextSearchService.splitSnippet(snippets.get(candidate.getId()))) {
+            if (part.highlighted()) {
+                Span mark = new Span(part.text());
+                mark.getStyle()
+                        .set("font-weight", "bold")
+                        .set("background", "var(--lumo-primary-color-10pct)");
+                span.add(mark);
+            } else {
+                span.add(new Text(part.text()));
+            }
+        }
+        return span;
+    }
+}
@@ -0,0 +1,119 @@
+package ru.javaboys.huntyhr.view.candidateskillsearch;
+
+import com.vaadin.flow.component.ClickEvent;
+import com.vaadin.flow.component.Key;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.router.Route;
+import io.jmix.core.DataManager;
+import io.jmix.flowui.Notifications;
+import io.jmix.flowui.ViewNavigators;
+import io.jmix.flowui.component.grid.DataGrid;
+import io.jmix.flowui.component.textfield.JmixIntegerField;
+import io.jmix.flowui.component.textfield.TypedTextField;
+import io.jmix.flowui.kit.component.button.JmixButton;
+import io.jmix.flowui.model.CollectionContainer;
+import io.jmix.flowui.view.StandardView;
+import io.jmix.flowui.view.Subscribe;
+import io.jmix.flowui.view.ViewComponent;
+import io.jmix.flowui.view.ViewController;
+import io.jmix.flowui.view.ViewDescriptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.javaboys.huntyhr.entity.CandidateEntity;
+import ru.javaboys.huntyhr.service.impl.CandidateSkillIndexService;
+import ru.javaboys.huntyhr.view.candidateentity.CandidateEntityDetailView;
+import ru.javaboys.huntyhr.view.main.MainView;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+@Route(value = "candidate-skill-search", layout = MainView.class)
+@ViewController(id = "CandidateSkillSearchView")
+@ViewDescriptor(path = "candidate-skill-search-view.xml")
+public class CandidateSkillSearchView extends StandardView {
+
+    private static final int LIMIT = 500;
+
+    @ViewComponent
+    private TypedTextField<String> queryField;
+    @ViewComponent
+    private JmixIntegerField minYearsField;
+    @ViewComponent
+    private JmixIntegerField maxYearsField;
+    @ViewComponent
+    private Span searchStatus;
+    @ViewComponent
+    private DataGrid<CandidateEntity> candidatesDataGrid;
+    @ViewComponent
+    private CollectionContainer<CandidateEntity> candidatesDc;
+
+    @Autowired
+    private CandidateSkillIndexService candidateSkillIndexService;
+    @Autowired
+    private DataManager dataManager;
+    @Autowired
+    private Notifications notifications;
+    @Autowired
+    private ViewNavigators viewNavigators;
+
+    private final Map<UUID, Integer> experienceYears = new HashMap<>();
+
+    @Subscribe
+    public void onInit(final InitEvent event) {
+        candidatesDataGrid.addColumn(c -> experienceYears.get(c.getId()))
+                .setHeader("Стаж, лет");
+        queryField.addKeyPressListener(Key.ENTER, e -> search());
+    }
+
+    @Subscribe(id = "searchBtn", subject = "clickListener")
+    public void onSearchBtnClick(final ClickEvent<JmixButton> event) {
+        search();
+    }
+
+    @Subscribe(id = "openBtn", subject = "clickListener")
+    public void onOpenBtnClick(final ClickEvent<JmixButton> event) {
+        CandidateEntity selected = candidatesDataGrid.getSingleSelectedItem();
+        if (selected == null) return;
+        viewNavigators.detailView(this, CandidateEntity.class)
+                .withViewClass(CandidateEntityDetailView.class)
+                .editEntity(selected)
+                .navigate();
+    }
+
+    private void search() {
+        CandidateSkillIndexService.SearchResult result;
+        try {
+            result = candidateSkillIndexService.search(queryField.getTypedValue(),
+                    minYearsField.getValue(), maxYearsField.getValue(), LIMIT);
+        } catch (IllegalArgumentException e) {
+            notifications.create(e.getMessage())
+                    .withType(Notifications.Type.WARNING)
+                    .show();
+            return;
+        }
+
+        experienceYears.clear();
+        Map<UUID, Integer> positions = new HashMap<>();
+        for (CandidateSkillIndexService.Hit hit : result.getHits()) {
+            positions.put(hit.getCandidateId(), positions.size());
+            experienceYears.put(hit.getCandidateId(), hit.getExperienceYears());
+        }
+        List<CandidateEntity> loaded = positions.isEmpty() ? List.of() : dataManager.load(CandidateEntity.class)
+                .ids(positions.keySet())
+                .list();
+        // порядок выдачи индекса — по стажу
+        candidatesDc.setItems(loaded.stream()
+                .sorted(Comparator.comparingInt(c -> positions.get(c.getId())))
+                .toList());
+
+        StringBuilder status = new StringBuilder(String.format(Locale.ROOT, "Найдено: %d, показано: %d (%.1f мс)",
+                result.getTotal(), loaded.size(), result.getTookMicros() / 1000.0));
+        if (!result.getUnknownSkills().isEmpty()) {
+            status.append(". Нет в справочнике навыков: ").append(String.join(", ", result.getUnknownSkills()));
+        }
+        searchStatus.setText(status.toString());
+    }
+}
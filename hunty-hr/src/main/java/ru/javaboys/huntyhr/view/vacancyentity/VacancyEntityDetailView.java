@@ -1,28 +1,40 @@
 package ru.javaboys.huntyhr.view.vacancyentity;
 
 import com.vaadin.flow.component.AbstractField;
+import com.vaadin.flow.component.ClickEvent;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.html.Anchor;
 import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.upload.Upload;
+import com.vaadin.flow.component.upload.receivers.FileData;
+import com.vaadin.flow.component.upload.receivers.MultiFileBuffer;
 import com.vaadin.flow.data.renderer.TextRenderer;
 import com.vaadin.flow.router.Route;
 import io.jmix.core.DataManager;
 import io.jmix.core.FileRef;
+import io.jmix.core.Messages;
+import io.jmix.core.SaveContext;
 import io.jmix.flowui.Dialogs;
 import io.jmix.flowui.Notifications;
 import io.jmix.flowui.UiComponents;
 import io.jmix.flowui.ViewNavigators;
 import io.jmix.flowui.action.inputdialog.InputDialogAction;
+import io.jmix.flowui.app.inputdialog.DialogActions;
+import io.jmix.flowui.app.inputdialog.DialogOutcome;
 import io.jmix.flowui.app.inputdialog.InputDialog;
 import io.jmix.flowui.app.inputdialog.InputParameter;
 import io.jmix.flowui.component.grid.DataGrid;
 import io.jmix.flowui.component.upload.FileStorageUploadField;
+import io.jmix.flowui.facet.Timer;
 import io.jmix.flowui.download.Downloader;
 import io.jmix.flowui.kit.action.ActionPerformedEvent;
+import io.jmix.flowui.kit.component.button.JmixButton;
 import io.jmix.flowui.model.CollectionLoader;
 import io.jmix.flowui.view.EditedEntityContainer;
 import io.jmix.flowui.view.OpenMode;
@@ -32,22 +44,39 @@ import io.jmix.flowui.view.ViewComponent;
 import io.jmix.flowui.view.ViewController;
 import io.jmix.flowui.view.ViewDescriptor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import ru.javaboys.huntyhr.entity.ApplicationEntity;
 import ru.javaboys.huntyhr.entity.CandidateEntity;
 import ru.javaboys.huntyhr.entity.InterviewSessionEntity;
 import ru.javaboys.huntyhr.entity.InterviewStateEnum;
+import ru.javaboys.huntyhr.entity.NotificationChannelEnum;
+import ru.javaboys.huntyhr.entity.NotificationOutboxEntity;
+import ru.javaboys.huntyhr.entity.NotificationStatusEnum;
+import ru.javaboys.huntyhr.entity.RescoringRunEntity;
+import ru.javaboys.huntyhr.entity.RescoringStatusEnum;
 import ru.javaboys.huntyhr.entity.ResumeVersionEntity;
 import ru.javaboys.huntyhr.entity.VacancyEntity;
+import ru.javaboys.huntyhr.service.impl.InterviewCampaignService;
 import ru.javaboys.huntyhr.service.impl.InterviewSessionService;
-import ru.javaboys.huntyhr.service.impl.MailService;
-import ru.javaboys.huntyhr.service.impl.ResumeImportService;
-import ru.javaboys.huntyhr.service.impl.ScoringService;
-import ru.javaboys.huntyhr.service.impl.TelegramBotService;
+import ru.javaboys.huntyhr.service.impl.InterviewSlotService;
+import ru.javaboys.huntyhr.service.impl.InterviewSlotUnavailableException;
+import ru.javaboys.huntyhr.service.impl.NotificationOutboxService;
+import ru.javaboys.huntyhr.service.impl.RescoringService;
+import ru.javaboys.huntyhr.service.impl.ResumeBulkImportService;
+import ru.javaboys.huntyhr.service.impl.ResumeIngestionService;
 import ru.javaboys.huntyhr.view.candidateentity.CandidateEntityDetailView;
 import ru.javaboys.huntyhr.view.main.MainView;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
 
 @Route(value = "vacancy-entities/:id", layout = MainView.class)
 @ViewController(id = "VacancyEntity.detail")
@@ -62,17 +91,29 @@ public class VacancyEntityDetailView extends StandardDetailView<VacancyEntity> {
     @ViewComponent("resumeUpload")
     private FileStorageUploadField resumeUpload;
 
+    @ViewComponent
+    private Span ingestionStatus;
+
+    @ViewComponent
+    private HorizontalLayout bulkUploadBox;
+
     @Autowired
-    private ResumeImportService resumeImportService;
+    private ResumeIngestionService resumeIngestionService;
+
+    @Autowired
+    private ResumeBulkImportService resumeBulkImportService;
 
     @ViewComponent
-    private DataGrid<ApplicationEntity> applicationsGrid;
+    private Span rescoringStatus;
 
     @Autowired
-    private Notifications notifications;
+    private RescoringService rescoringService;
+
+    @ViewComponent
+    private DataGrid<ApplicationEntity> applicationsGrid;
 
     @Autowired
-    private ScoringService scoringService;
+    private Notifications notifications;
 
     @Autowired
     private Dialogs dialogs;
@@ -87,10 +128,16 @@ public class VacancyEntityDetailView extends StandardDetailView<VacancyEntity> {
     private InterviewSessionService interviewSessionService;
 
     @Autowired
-    private MailService mailService;
+    private NotificationOutboxService notificationOutboxService;
+
+    @Autowired
+    private InterviewCampaignService interviewCampaignService;
+
+    @Autowired
+    private InterviewSlotService interviewSlotService;
 
     @Autowired
-    private TelegramBotService telegramBotService;
+    private Messages messages;
 
     @Autowired
     private UiComponents uiComponents;
@@ -98,6 +145,15 @@ public class VacancyEntityDetailView extends StandardDetailView<VacancyEntity> {
     @Autowired
     private ViewNavigators viewNavigators;
 
+    // сколько загруженных из этой view резюме ещё в обработке (меняется только под UI lock)
+    private int ingestionInFlight;
+
+    private MultiFileBuffer bulkBuffer;
+
+    private RescoringStatusEnum rescoringStatusShown;
+
+    private static final DateTimeFormatter CAMPAIGN_TIME_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
 
     @Subscribe
     public void onInit(InitEvent event) {
@@ -224,12 +280,87 @@ public class VacancyEntityDetailView extends StandardDetailView<VacancyEntity> {
             btn.addClickListener(e -> openInterviewDialog(app));
             return btn;
         }).setHeader("Пригласить на интервью");
+
+        initBulkUpload();
+    }
+
+    private void initBulkUpload() {
+        bulkBuffer = new MultiFileBuffer();
+        Upload bulkUpload = new Upload(bulkBuffer);
+        bulkUpload.setAcceptedFileTypes(".zip", ".pdf", ".doc", ".docx", ".rtf", ".odt", ".txt", ".html", ".htm");
+        bulkUpload.setDropAllowed(true);
+
+        Button uploadButton = uiComponents.create(Button.class);
+        uploadButton.setText("Загрузить пачку резюме / ZIP");
+        bulkUpload.setUploadButton(uploadButton);
+
+        bulkUpload.addAllFinishedListener(event -> {
+            onBulkUploadFinished();
+            bulkUpload.clearFileList();
+            // файлы пакета переданы сервису (или удалены) — начинаем следующую пачку с чистого буфера
+            bulkBuffer = new MultiFileBuffer();
+            bulkUpload.setReceiver(bulkBuffer);
+        });
+
+        bulkUploadBox.add(bulkUpload);
+    }
+
+    private void onBulkUploadFinished() {
+        // буфер пишет загрузки во временные файлы; дальше ими владеет сервис импорта
+        List<ResumeBulkImportService.UploadedFile> files = new ArrayList<>();
+        for (String fileName : bulkBuffer.getFiles()) {
+            FileData data = bulkBuffer.getFileData(fileName);
+            if (data != null && data.getFile() != null) {
+                files.add(new ResumeBulkImportService.UploadedFile(fileName, data.getFile().toPath()));
+            }
+        }
+        if (files.isEmpty()) return;
+
+        VacancyEntity vac = getEditedEntity();
+        if (vac.getId() == null) {
+            files.forEach(f -> f.getPath().toFile().delete());
+            notifications.create("Сначала сохраните вакансию, прежде чем загружать резюме")
+                    .withType(Notifications.Type.WARNING)
+                    .show();
+            return;
+        }
+
+        UI ui = UI.getCurrent();
+        try {
+            resumeBulkImportService.submit(vac.getId(), files,
+                    progress -> ui.access(() -> onBulkProgress(progress)));
+        } catch (IllegalArgumentException e) {
+            notifications.create(e.getMessage())
+                    .withType(Notifications.Type.WARNING)
+                    .show();
+        }
+    }
+
+    private void onBulkProgress(ResumeBulkImportService.BatchProgress progress) {
+        if (progress.isFinished()) {
+            applicationsDl.load();
+            ingestionStatus.setText("");
+            notifications.create("Пакетная загрузка завершена: сохранено %d из %d, ошибок %d"
+                            .formatted(progress.getPersisted(), progress.getTotal(), progress.getFailed()))
+                    .withType(progress.getFailed() == 0 ? Notifications.Type.SUCCESS : Notifications.Type.WARNING)
+                    .show();
+            return;
+        }
+        ingestionStatus.setText("Пакетная загрузка: файлов %d, распознано %d, сохранено %d, оценено %d, ошибок %d"
+                .formatted(progress.getTotal(), progress.getExtracted(), progress.getPersisted(),
+                        progress.getScored(), progress.getFailed()));
     }
 
     private boolean notBlank(String s) {
         return s != null && !s.isBlank();
     }
 
+    @Subscribe
+    public void onAfterSave(final AfterSaveEvent event) {
+        // при смене весов total заявок пересчитан в БД при сохранении — обновим грид
+        applicationsDl.load();
+    }
+
     @Subscribe("resumeUpload")
     public void onResumeUpload(AbstractField.ComponentValueChangeEvent<FileStorageUploadField, FileRef> event) {
         if (!event.isFromClient()) return;
@@ -245,19 +376,197 @@ public class VacancyEntityDetailView extends StandardDetailView<VacancyEntity> {
             return;
         }
 
-        ResumeImportService.Result result = resumeImportService.importFromFile(vac.getId(), ref);
-        scoringService.scoreWithLlm(result.getApplicationId());
+        // парсинг, LLM и скоринг идут в фоне, прогресс приходит через @Push
+        UI ui = UI.getCurrent();
+        resumeIngestionService.submit(vac.getId(), ref,
+                progress -> ui.access(() -> onIngestionProgress(progress)));
 
         resumeUpload.setValue(null);
+    }
+
+    private void onIngestionProgress(ResumeIngestionService.Progress progress) {
+        switch (progress.getStage()) {
+            case QUEUED -> ingestionInFlight++;
+            case DONE -> {
+                ingestionInFlight = Math.max(0, ingestionInFlight - 1);
+                applicationsDl.load();
+            }
+            case FAILED -> {
+                ingestionInFlight = Math.max(0, ingestionInFlight - 1);
+                notifications.create("Не удалось обработать резюме «%s»: %s"
+                                .formatted(progress.getFileName(), progress.getError()))
+                        .withType(Notifications.Type.WARNING)
+                        .show();
+            }
+            default -> {
+            }
+        }
+
+        ingestionStatus.setText(ingestionInFlight == 0
+                ? ""
+                : "В обработке: %d. %s — %s".formatted(ingestionInFlight, progress.getFileName(),
+                stageLabel(progress.getStage())));
+    }
+
+    private static String stageLabel(ResumeIngestionService.Stage stage) {
+        return switch (stage) {
+            case QUEUED -> "в очереди";
+            case PARSE -> "извлечение текста";
+            case EXTRACT -> "распознавание данных";
+            case PERSIST -> "сохранение кандидата";
+            case SCORE -> "скоринг и анализ";
+            case DONE -> "готово";
+            case FAILED -> "ошибка";
+        };
+    }
+
+    @Subscribe(id = "rescoreBtn", subject = "clickListener")
+    public void onRescoreBtnClick(final ClickEvent<JmixButton> event) {
+        VacancyEntity vac = getEditedEntity();
+        if (vac.getId() == null || hasUnsavedChanges()) {
+            notifications.create("Сначала сохраните вакансию — пересчёт использует сохранённые веса и требования")
+                    .withType(Notifications.Type.WARNING)
+                    .show();
+            return;
+        }
+        RescoringRunEntity run = rescoringService.start(vac.getId());
+        showRescoringStatus(run);
+    }
+
+    @Subscribe("rescoringTimer")
+    public void onRescoringTimerTimerAction(final Timer.TimerActionEvent event) {
+        VacancyEntity vac = getEditedEntity();
+        if (vac.getId() == null) return;
+
+        RescoringStatusEnum before = rescoringStatusShown;
+        RescoringRunEntity run = rescoringService.findLatest(vac.getId());
+        showRescoringStatus(run);
+        if (run != null && before != null && before != RescoringStatusEnum.DONE
+                && run.getStatus() == RescoringStatusEnum.DONE) {
+            applicationsDl.load();
+        }
+    }
+
+    private void showRescoringStatus(RescoringRunEntity run) {
+        rescoringStatusShown = run != null ? run.getStatus() : null;
+        if (run == null) {
+            rescoringStatus.setText("");
+            return;
+        }
+        int processed = run.getProcessed() == null ? 0 : run.getProcessed();
+        int failed = run.getFailed() == null ? 0 : run.getFailed();
+        int total = run.getTotal() == null ? 0 : run.getTotal();
+
+        switch (run.getStatus()) {
+            case QUEUED -> rescoringStatus.setText("Пересчёт в очереди: %d/%d%s".formatted(processed, total,
+                    run.getLastError() != null ? " (ожидание LLM)" : ""));
+            case RUNNING -> {
+                Duration eta = rescoringService.getEta(run);
+                rescoringStatus.setText("Пересчёт: %d/%d, ошибок %d, %.1f заявок/мин%s".formatted(
+                        processed, total, failed, rescoringService.getThroughputPerMinute(run),
+                        eta != null ? ", осталось ~%d мин".formatted(Math.max(1, eta.toMinutes())) : ""));
+            }
+            case DONE -> rescoringStatus.setText("Пересчёт завершён: %d/%d, ошибок %d".formatted(processed, total, failed));
+            case FAILED -> rescoringStatus.setText("Пересчёт прерван: " + run.getLastError());
+        }
+    }
+
+    @Subscribe(id = "inviteSelectedBtn", subject = "clickListener")
+    public void onInviteSelectedBtnClick(final ClickEvent<JmixButton> event) {
+        List<UUID> ids = applicationsGrid.getSelectedItems().stream().map(ApplicationEntity::getId).toList();
+        if (ids.isEmpty()) {
+            notifications.create("Отметьте кандидатов в таблице")
+                    .withType(Notifications.Type.WARNING)
+                    .show();
+            return;
+        }
+
+        var firstSlot = uiComponents.create(com.vaadin.flow.component.datetimepicker.DateTimePicker.class);
+        firstSlot.setLabel("Не раньше");
+        firstSlot.setStep(Duration.ofMinutes(15));
+        firstSlot.setValue(firstFreeSlot());
+
+        dialogs.createInputDialog(this)
+                .withHeader("Пригласить выбранных: " + ids.size())
+                .withParameter(InputParameter.parameter("firstSlot").withRequired(true).withField(() -> firstSlot))
+                .withActions(DialogActions.OK_CANCEL)
+                .withCloseListener(closeEvent -> {
+                    if (!closeEvent.closedWith(DialogOutcome.OK)) return;
+                    try {
+                        List<InterviewCampaignService.Item> items = interviewCampaignService.invite(ids, firstSlot.getValue());
+                        applicationsGrid.deselectAll();
+                        showCampaignResult(items);
+                    } catch (Exception ex) {
+                        InterviewSlotUnavailableException busy =
+                                ExceptionUtils.throwableOfType(ex, InterviewSlotUnavailableException.class);
+                        if (busy == null) {
+                            log.error("Interview campaign failed for {} applications", ids.size(), ex);
+                        }
+                        safeUiWarn("Не удалось назначить встречи: " + (busy != null ? busy : ex).getMessage());
+                    }
+                })
+                .open();
+    }
+
+    private void showCampaignResult(List<InterviewCampaignService.Item> items) {
+        List<UUID> sessionIds = items.stream().map(InterviewCampaignService.Item::getSessionId)
+                .filter(Objects::nonNull).toList();
+        Map<UUID, Map<NotificationChannelEnum, NotificationOutboxEntity>> delivery = new HashMap<>();
+
+        Grid<InterviewCampaignService.Item> grid = new Grid<>();
+        grid.setWidthFull();
+        grid.addColumn(InterviewCampaignService.Item::getCandidateName).setHeader("Кандидат");
+        grid.addColumn(i -> i.getStartAt() != null ? CAMPAIGN_TIME_FORMAT.format(i.getStartAt()) : "—").setHeader("Время");
+        grid.addColumn(i -> deliveryStatus(delivery, i, NotificationChannelEnum.EMAIL)).setHeader("Email");
+        grid.addColumn(i -> deliveryStatus(delivery, i, NotificationChannelEnum.TELEGRAM)).setHeader("Telegram");
+        grid.addColumn(i -> i.getProblem() != null ? i.getProblem() : "").setHeader("Примечание");
+        grid.setItems(items);
+
+        Runnable refresh = () -> {
+            delivery.clear();
+            delivery.putAll(notificationOutboxService.invitations(sessionIds));
+            grid.getDataProvider().refreshAll();
+        };
+        refresh.run();
+
+        Button refreshBtn = uiComponents.create(Button.class);
+        refreshBtn.setText("Обновить статусы");
+        refreshBtn.addClickListener(ev -> refresh.run());
+
+        long invited = items.stream().filter(i -> i.getProblem() == null).count();
+        long skipped = items.stream().filter(InterviewCampaignService.Item::isSkipped).count();
+        String summary = "Приглашения поставлены в очередь: %d из %d".formatted(invited, items.size());
+        if (skipped > 0) {
+            summary += "; пропущено — интервью идёт или проведено: %d".formatted(skipped);
+        }
+        VerticalLayout content = new VerticalLayout(new Span(summary), refreshBtn, grid);
+        content.setPadding(false);
+
+        dialogs.createMessageDialog()
+                .withHeader("Массовое приглашение")
+                .withContent(content)
+                .withWidth("64em")
+                .open();
         applicationsDl.load();
     }
 
+    private String deliveryStatus(Map<UUID, Map<NotificationChannelEnum, NotificationOutboxEntity>> delivery,
+                                  InterviewCampaignService.Item item, NotificationChannelEnum channel) {
+        if (!item.getChannels().contains(channel)) return "—";
+        NotificationOutboxEntity row = delivery.getOrDefault(item.getSessionId(), Map.of()).get(channel);
+        if (row == null) return "";
+        String status = messages.getMessage(row.getStatus());
+        return row.getLastError() != null && row.getStatus() != NotificationStatusEnum.SENT
+                ? status + ": " + row.getLastError()
+                : status;
+    }
+
     private void openInterviewDialog(ApplicationEntity app) {
         // мини-диалог с датой/временем и языком
         var dateTime = uiComponents.create(com.vaadin.flow.component.datetimepicker.DateTimePicker.class);
         dateTime.setLabel("Дата и время интервью");
         dateTime.setStep(java.time.Duration.ofMinutes(15));
-        dateTime.setValue(LocalDateTime.now().plusDays(1).withHour(11).withMinute(0));
+        dateTime.setValue(firstFreeSlot());
 
         var lang = uiComponents.create(com.vaadin.flow.component.combobox.ComboBox.class);
 
@@ -297,7 +606,6 @@ public class VacancyEntityDetailView extends StandardDetailView<VacancyEntity> {
                                         // дата/время из поля (если нужно передавать во внешнее уведомление)
                                         LocalDateTime startAt = dateTime.getValue();
                                         sendInterviewInvite(app, joinUrl, startAt);
-                                        notifications.create("Приглашение отправлено").show();
                                     });
 
                                     VerticalLayout content = new VerticalLayout(title, link, copyBtn, notifyBtn);
@@ -321,6 +629,14 @@ public class VacancyEntityDetailView extends StandardDetailView<VacancyEntity> {
                 ).open();
     }
 
+    // начиная с завтрашнего дня — ближайшее время, на которое у бэкенда интервью есть мощность
+    private LocalDateTime firstFreeSlot() {
+        LocalDateTime tomorrow = LocalDateTime.now().plusDays(1).withHour(11).withMinute(0).withSecond(0).withNano(0);
+        return interviewSlotService.proposeSlots(tomorrow.toLocalDate().atStartOfDay(), null, 1).stream()
+                .findFirst()
+                .orElse(tomorrow);
+    }
+
     private void copyToClipboard(String text, Component anyComponent) {
         // скопировать в буфер обмена через браузерный API
         anyComponent.getElement()
@@ -357,34 +673,29 @@ public class VacancyEntityDetailView extends StandardDetailView<VacancyEntity> {
             // обновить ключевые поля
             session.setScheduledStartAt(startAt);
             session.setInterviewLink(joinUrl);
-            session = dataManager.save(session);
-
-            // лог
-            String email = app.getCandidate() != null ? app.getCandidate().getEmail() : null;
-            log.info("Interview invite prepared for application={}, email={}, startAt={}, link={}",
-                    app.getId(), email, startAt, joinUrl);
-
-            // 1) e-mail
-            try {
-                mailService.sendInterviewScheduled(session);
-                log.info("Interview email notification sent: application={}", app.getId());
-            } catch (Exception mailEx) {
-                log.error("Failed to send email invite for application {}: {}", app.getId(), mailEx.getMessage(), mailEx);
-                safeUiWarn("Не удалось отправить приглашение по email. Проверьте журнал.");
-            }
 
-            // 2) мессенджер/телеграм/смс — второй канал
-            try {
-                telegramBotService.sendInterviewScheduled(session);
-                log.info("Interview messenger notification sent: application={}", app.getId());
-            } catch (Exception msgEx) {
-                log.error("Failed to send messenger invite for application {}: {}", app.getId(), msgEx.getMessage(), msgEx);
-                safeUiWarn("Не удалось отправить приглашение через мессенджер. Проверьте журнал.");
-            }
+            // сессия и уведомления по всем каналам кандидата — одним коммитом, отправляет очередь
+            List<NotificationOutboxEntity> outbox = notificationOutboxService.interviewScheduled(session);
+            SaveContext saveContext = new SaveContext().saving(session);
+            outbox.forEach(saveContext::saving);
+            dataManager.save(saveContext);
+            notificationOutboxService.wakeUpAfterCommit();
+
+            log.info("Interview invite queued for application={}, channels={}, startAt={}, link={}",
+                    app.getId(), outbox.stream().map(NotificationOutboxEntity::getChannel).toList(), startAt, joinUrl);
 
-            safeUiInfo("Приглашение сформировано. Ссылка скопирована/доступна в карточке встречи.");
+            if (outbox.isEmpty()) {
+                safeUiWarn("Встреча назначена, но у кандидата нет ни email, ни Telegram — приглашение не отправлено.");
+            } else {
+                safeUiInfo("Приглашение поставлено в очередь на отправку.");
+            }
 
         } catch (Exception ex) {
+            InterviewSlotUnavailableException busy = ExceptionUtils.throwableOfType(ex, InterviewSlotUnavailableException.class);
+            if (busy != null) {
+                safeUiWarn(busy.getMessage());
+                return;
+            }
             log.error("sendInterviewInvite fatal for application {}: {}", app.getId(), ex.getMessage(), ex);
             safeUiWarn("Ошибка при подготовке приглашения. Попробуйте ещё раз или обратитесь к администратору.");
         }
@@ -0,0 +1,152 @@
+package ru.javaboys.huntyhr.ai;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LlmCallGovernorTest {
+
+    private static LlmCallGovernor governor(int maxConcurrent, int maxAttempts, long backoffMs,
+                                            int failureThreshold, long openSeconds) {
+        return new LlmCallGovernor(new SimpleMeterRegistry(), maxConcurrent, 5_000, 1_000_000, 1_000_000_000,
+                maxAttempts, backoffMs, backoffMs, failureThreshold, openSeconds);
+    }
+
+    private static String unavailable() {
+        throw new LlmHttpStatusException(503, null, "503 - unavailable");
+    }
+
+    @Test
+    void opensAfterThresholdAndRejectsWithoutCallingProvider() {
+        LlmCallGovernor governor = governor(2, 1, 0, 2, 60);
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> governor.call(1, LlmCallGovernorTest::unavailable))
+                    .isInstanceOf(LlmUnavailableException.class);
+        }
+        assertThat(governor.circuitState()).isEqualTo("OPEN");
+
+        AtomicInteger calls = new AtomicInteger();
+        assertThatThrownBy(() -> governor.call(1, calls::incrementAndGet))
+                .isInstanceOf(LlmUnavailableException.class);
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void halfOpenLetsThroughExactlyOneProbe() throws Exception {
+        LlmCallGovernor governor = governor(4, 1, 0, 1, 0);
+        assertThatThrownBy(() -> governor.call(1, LlmCallGovernorTest::unavailable))
+                .isInstanceOf(LlmUnavailableException.class);
+
+        CountDownLatch probeStarted = new CountDownLatch(1);
+        CountDownLatch releaseProbe = new CountDownLatch(1);
+        CompletableFuture<String> probe = CompletableFuture.supplyAsync(() -> governor.call(1, () -> {
+            probeStarted.countDown();
+            await(releaseProbe);
+            return "ok";
+        }));
+        assertThat(probeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(governor.circuitState()).isEqualTo("HALF_OPEN");
+
+        AtomicInteger calls = new AtomicInteger();
+        assertThatThrownBy(() -> governor.call(1, calls::incrementAndGet))
+                .isInstanceOf(LlmUnavailableException.class);
+        assertThat(calls).hasValue(0);
+
+        releaseProbe.countDown();
+        assertThat(probe.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+        assertThat(governor.circuitState()).isEqualTo("CLOSED");
+        assertThat(governor.call(1, () -> "next")).isEqualTo("next");
+    }
+
+    @Test
+    void failedProbeReopensBreaker() {
+        LlmCallGovernor governor = governor(4, 1, 0, 1, 0);
+        assertThatThrownBy(() -> governor.call(1, LlmCallGovernorTest::unavailable))
+                .isInstanceOf(LlmUnavailableException.class);
+
+        assertThatThrownBy(() -> governor.call(1, LlmCallGovernorTest::unavailable))
+                .isInstanceOf(LlmUnavailableException.class);
+        assertThat(governor.circuitState()).isEqualTo("OPEN");
+    }
+
+    @Test
+    void nonRetryableProbeFailureClosesBreaker() {
+        LlmCallGovernor governor = governor(4, 1, 0, 1, 0);
+        assertThatThrownBy(() -> governor.call(1, LlmCallGovernorTest::unavailable))
+                .isInstanceOf(LlmUnavailableException.class);
+
+        assertThatThrownBy(() -> governor.call(1, () -> {
+            throw new LlmHttpStatusException(400, null, "400 - bad request");
+        })).isInstanceOf(LlmHttpStatusException.class);
+        assertThat(governor.circuitState()).isEqualTo("CLOSED");
+    }
+
+    @Test
+    void retriesTransientErrorsUntilSuccess() {
+        LlmCallGovernor governor = governor(1, 3, 1, 5, 60);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = governor.call(1, () -> attempts.incrementAndGet() < 3 ? unavailable() : "ok");
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(attempts).hasValue(3);
+        assertThat(governor.circuitState()).isEqualTo("CLOSED");
+    }
+
+    @Test
+    void backoffDoesNotHoldConcurrencyPermit() throws Exception {
+        LlmCallGovernor governor = governor(1, 2, 300, 5, 60);
+        List<String> events = new CopyOnWriteArrayList<>();
+        CountDownLatch firstFailed = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> retrying = CompletableFuture.supplyAsync(() -> governor.call(1, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                events.add("fail");
+                firstFailed.countDown();
+                return unavailable();
+            }
+            events.add("retry");
+            return "retried";
+        }));
+        assertThat(firstFailed.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // единственный слот свободен, пока первый вызов ждёт повтора
+        assertThat(governor.call(1, () -> {
+            events.add("other");
+            return "other";
+        })).isEqualTo("other");
+        assertThat(retrying.get(5, TimeUnit.SECONDS)).isEqualTo("retried");
+        assertThat(events).containsExactly("fail", "other", "retry");
+    }
+
+    @Test
+    void classifiesErrorsByTypeAndStatus() {
+        assertThat(LlmCallGovernor.isRetryable(new LlmHttpStatusException(429, 1000L, "429"))).isTrue();
+        assertThat(LlmCallGovernor.isRetryable(new LlmHttpStatusException(502, null, "502"))).isTrue();
+        assertThat(LlmCallGovernor.isRetryable(new LlmHttpStatusException(400, null, "400"))).isFalse();
+        assertThat(LlmCallGovernor.isRetryable(new RuntimeException(new TransientAiException("timeout")))).isTrue();
+        // текст сообщения больше не влияет на решение
+        assertThat(LlmCallGovernor.isRetryable(new NonTransientAiException("429 rate_limit"))).isFalse();
+        assertThat(LlmCallGovernor.isRetryable(new IllegalStateException("429"))).isFalse();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ru.javaboys.huntyhr.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LocalEmbeddingModelTest {
+
+    private final LocalEmbeddingModel model = new LocalEmbeddingModel();
+
+    @Test
+    void embeddingIsDeterministicAndNormalized() {
+        float[] a = model.embed("Java разработчик, Spring Boot, PostgreSQL");
+        float[] b = model.embed("Java разработчик, Spring Boot, PostgreSQL");
+
+        assertThat(a).hasSize(LocalEmbeddingModel.DIMENSIONS).containsExactly(b);
+        assertThat(dot(a, a)).isCloseTo(1.0, within(1e-4));
+        assertThat(model.dimensions()).isEqualTo(LocalEmbeddingModel.DIMENSIONS);
+    }
+
+    @Test
+    void similarTextsAreCloserThanUnrelated() {
+        float[] vacancy = model.embed("Senior Java developer: Spring Boot, Kafka, PostgreSQL");
+        float[] close = model.embed("Java developer, 5 лет Spring Boot и Kafka, PostgreSQL");
+        float[] unrelated = model.embed("Бухгалтер, 1С, налоговая отчётность");
+
+        assertThat(dot(vacancy, close)).isGreaterThan(dot(vacancy, unrelated));
+    }
+
+    @Test
+    void emptyTextGivesZeroVector() {
+        assertThat(dot(model.embed(""), model.embed(""))).isZero();
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) sum += a[i] * b[i];
+        return sum;
+    }
+}
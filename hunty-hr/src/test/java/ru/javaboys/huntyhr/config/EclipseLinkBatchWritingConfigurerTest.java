@@ -0,0 +1,33 @@
+package ru.javaboys.huntyhr.config;
+
+import org.eclipse.persistence.config.PersistenceUnitProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EclipseLinkBatchWritingConfigurerTest {
+
+    @Test
+    void batchWritingReachesPersistenceUnitProperties() {
+        EclipseLinkBatchWritingConfigurer configurer = new EclipseLinkBatchWritingConfigurer();
+        configurer.setEnvironment(new MockEnvironment().withProperty("hunty.persistence.batch-size", "50"));
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+
+        configurer.postProcessBeforeInitialization(factory, "entityManagerFactory");
+
+        assertThat(factory.getJpaPropertyMap())
+                .containsEntry(PersistenceUnitProperties.BATCH_WRITING, "JDBC")
+                .containsEntry(PersistenceUnitProperties.BATCH_WRITING_SIZE, "50");
+    }
+
+    @Test
+    void otherBeansAreUntouched() {
+        EclipseLinkBatchWritingConfigurer configurer = new EclipseLinkBatchWritingConfigurer();
+        configurer.setEnvironment(new MockEnvironment());
+        Object bean = new Object();
+
+        assertThat(configurer.postProcessBeforeInitialization(bean, "other")).isSameAs(bean);
+    }
+}
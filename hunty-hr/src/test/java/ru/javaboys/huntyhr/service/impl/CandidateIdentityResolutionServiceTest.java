@@ -0,0 +1,80 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import org.junit.jupiter.api.Test;
+import ru.javaboys.huntyhr.service.impl.CandidateIdentityResolutionService.Profile;
+import ru.javaboys.huntyhr.service.impl.CandidateIdentityResolutionService.Scored;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CandidateIdentityResolutionServiceTest {
+
+    private static final LocalDate BIRTH = LocalDate.of(1990, 1, 2);
+
+    @Test
+    void blockingKeysCoverEveryIdentitySignal() {
+        Profile p = profile("Иван", "Петров", BIRTH, "ivan.petrov+hr@mail.ru", "79161234567", "ivanp");
+
+        assertThat(CandidateIdentityResolutionService.blockingKeys(p)).containsExactly(
+                "sb:петров|1990-01-02",
+                "ph:1234567",
+                "em:ivanpetrov",
+                "tg:ivanp",
+                "tri:пет|и", "tri:етр|и", "tri:тро|и", "tri:ров|и");
+    }
+
+    @Test
+    void weakSignalsGiveNoKeys() {
+        assertThat(CandidateIdentityResolutionService.blockingKeys(profile(null, null, null, null, null, null)))
+                .isEmpty();
+        // короткий телефон и email без локальной части длиной от 3 символов не блокируют
+        assertThat(CandidateIdentityResolutionService.blockingKeys(
+                profile(null, "Ли", null, "ab@x.ru", "12345", null))).isEmpty();
+    }
+
+    @Test
+    void sameEmailNameAndBirthDateIsCertain() {
+        Profile a = profile("Иван", "Петров", BIRTH, "ivan@mail.ru", null, null);
+        Profile b = profile("Иван", "Петров", BIRTH, "ivan@mail.ru", null, null);
+
+        Scored s = CandidateIdentityResolutionService.score(a, b);
+
+        assertThat(s.score()).isEqualTo(1.0);
+        assertThat(s.reasons()).contains("email", "ФИО 100%", "дата рождения");
+    }
+
+    @Test
+    void differentBirthDatesOutweighSameName() {
+        Profile a = profile("Иван", "Петров", BIRTH, null, null, null);
+        Profile b = profile("Иван", "Петров", BIRTH.plusYears(1), null, null, null);
+
+        assertThat(CandidateIdentityResolutionService.score(a, b).score()).isZero();
+    }
+
+    @Test
+    void swappedNameAndSurnameStillMatch() {
+        Profile a = profile("Иван", "Петров", null, null, null, null);
+        Profile b = profile("Петров", "Иван", null, null, null, null);
+
+        assertThat(CandidateIdentityResolutionService.score(a, b).score()).isCloseTo(0.35, within(1e-9));
+    }
+
+    @Test
+    void phoneTailIsAWeakSignal() {
+        Profile a = profile(null, null, null, null, "79161234567", null);
+        Profile b = profile(null, null, null, null, "74951234567", null);
+
+        Scored s = CandidateIdentityResolutionService.score(a, b);
+
+        assertThat(s.score()).isCloseTo(0.25, within(1e-9));
+        assertThat(s.reasons()).isEqualTo("хвост телефона");
+    }
+
+    private static Profile profile(String name, String surname, LocalDate birthDate,
+                                   String email, String phone, String telegram) {
+        return new Profile(UUID.randomUUID(), name, surname, birthDate, email, phone, telegram);
+    }
+}
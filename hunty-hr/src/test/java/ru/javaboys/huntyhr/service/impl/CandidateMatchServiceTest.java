@@ -0,0 +1,41 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandidateMatchServiceTest {
+
+    @Test
+    void everythingFitsWhenGroupsAreSmall() {
+        assertThat(CandidateMatchService.takeProportionally(List.of("e1", "e2"), List.of("k1"), 10))
+                .containsExactly("e1", "e2", "k1");
+    }
+
+    @Test
+    void slotsAreSplitProportionally() {
+        List<String> embedded = List.of("e1", "e2", "e3", "e4", "e5", "e6", "e7", "e8", "e9");
+        List<String> keywords = List.of("k1", "k2", "k3");
+
+        assertThat(CandidateMatchService.takeProportionally(embedded, keywords, 4))
+                .containsExactly("e1", "e2", "e3", "k1");
+    }
+
+    @Test
+    void smallGroupGetsAtLeastOneSlot() {
+        List<String> embedded = List.of("e1", "e2", "e3", "e4", "e5", "e6", "e7", "e8", "e9", "e10");
+
+        assertThat(CandidateMatchService.takeProportionally(embedded, List.of("k1"), 3))
+                .containsExactly("e1", "e2", "k1");
+    }
+
+    @Test
+    void shortGroupLeavesItsSlotsToTheOther() {
+        assertThat(CandidateMatchService.takeProportionally(List.of(), List.of("k1", "k2", "k3"), 2))
+                .containsExactly("k1", "k2");
+        assertThat(CandidateMatchService.takeProportionally(List.of("e1", "e2", "e3"), List.of(), 2))
+                .containsExactly("e1", "e2");
+    }
+}
@@ -0,0 +1,91 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import org.junit.jupiter.api.Test;
+import ru.javaboys.huntyhr.service.impl.CandidateSkillIndexService.SkillQuery;
+import ru.javaboys.huntyhr.service.impl.CandidateSkillIndexService.SkillQuery.Binary;
+import ru.javaboys.huntyhr.service.impl.CandidateSkillIndexService.SkillQuery.Not;
+import ru.javaboys.huntyhr.service.impl.CandidateSkillIndexService.SkillQuery.Term;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CandidateSkillIndexServiceTest {
+
+    @Test
+    void parsesOperatorsWithPrecedence() {
+        SkillQuery q = SkillQuery.parse("java AND (kafka OR rabbitmq) NOT php");
+
+        assertThat(q.root()).isEqualTo(new Binary(
+                new Binary(new Term("java"), new Binary(new Term("kafka"), new Term("rabbitmq"), false), true),
+                new Not(new Term("php")), true));
+        assertThat(q.terms()).containsExactly("java", "kafka", "rabbitmq", "php");
+        assertThat(SkillQuery.parse("a OR b AND c").root())
+                .isEqualTo(new Binary(new Term("a"), new Binary(new Term("b"), new Term("c"), true), false));
+    }
+
+    @Test
+    void adjacentWordsAndQuotesFormOneSkill() {
+        assertThat(SkillQuery.parse("spring boot, docker").root())
+                .isEqualTo(new Binary(new Term("spring boot"), new Term("docker"), true));
+        assertThat(SkillQuery.parse("\"C++ 17\" ИЛИ go").root())
+                .isEqualTo(new Binary(new Term("C++ 17"), new Term("go"), false));
+    }
+
+    @Test
+    void russianAndSymbolOperators() {
+        assertThat(SkillQuery.parse("java И НЕ php").root())
+                .isEqualTo(new Binary(new Term("java"), new Not(new Term("php")), true));
+        assertThat(SkillQuery.parse("!x & (y | z)").root()).isEqualTo(new Binary(
+                new Not(new Term("x")), new Binary(new Term("y"), new Term("z"), false), true));
+    }
+
+    @Test
+    void blankQueryMatchesEverything() {
+        assertThat(SkillQuery.parse("  ").root()).isNull();
+        assertThat(SkillQuery.parse(null).terms()).isEmpty();
+    }
+
+    @Test
+    void malformedQueriesAreRejected() {
+        assertThatThrownBy(() -> SkillQuery.parse("java AND")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SkillQuery.parse("(java")).hasMessageContaining("скобка");
+        assertThatThrownBy(() -> SkillQuery.parse("java )")).hasMessageContaining("Лишний символ");
+        assertThatThrownBy(() -> SkillQuery.parse("\"java")).hasMessageContaining("кавычка");
+        assertThatThrownBy(() -> SkillQuery.parse("AND java")).hasMessageContaining("Ожидался навык");
+    }
+
+    @Test
+    void overlappingPeriodsAreCountedOnce() {
+        assertThat(CandidateSkillIndexService.experienceMonths(List.of(
+                period(2020, 1, 2021, 1), period(2020, 7, 2021, 7)))).isEqualTo(18);
+        assertThat(CandidateSkillIndexService.experienceMonths(List.of(
+                period(2015, 1, 2020, 1), period(2016, 1, 2017, 1)))).isEqualTo(60);
+    }
+
+    @Test
+    void gapsAreNotCounted() {
+        assertThat(CandidateSkillIndexService.experienceMonths(List.of(
+                period(2018, 1, 2019, 1), period(2020, 1, 2020, 7)))).isEqualTo(18);
+    }
+
+    @Test
+    void openPeriodLastsUntilToday() {
+        LocalDate[] open = {LocalDate.now().minusMonths(5), null};
+        assertThat(CandidateSkillIndexService.experienceMonths(List.<LocalDate[]>of(open))).isEqualTo(5);
+    }
+
+    @Test
+    void invalidPeriodsAreIgnored() {
+        LocalDate[] reversed = {LocalDate.of(2020, 1, 1), LocalDate.of(2019, 1, 1)};
+        LocalDate[] noStart = {null, LocalDate.of(2019, 1, 1)};
+        assertThat(CandidateSkillIndexService.experienceMonths(List.of(reversed, noStart))).isZero();
+        assertThat(CandidateSkillIndexService.experienceMonths(List.of())).isZero();
+    }
+
+    private static LocalDate[] period(int fromYear, int fromMonth, int toYear, int toMonth) {
+        return new LocalDate[]{LocalDate.of(fromYear, fromMonth, 1), LocalDate.of(toYear, toMonth, 1)};
+    }
+}
@@ -0,0 +1,55 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmbeddingIndexTest {
+
+    private final EmbeddingIndex index = new EmbeddingIndex();
+
+    @Test
+    void topKReturnsNearestInDescendingOrder() {
+        UUID near = put(1f, 0.1f);
+        UUID middle = put(1f, 1f);
+        UUID far = put(0f, 1f);
+
+        List<EmbeddingIndexService.Match> top = index.topK(EmbeddingIndex.normalize(new float[]{1f, 0f}), 2);
+
+        assertThat(top).extracting(EmbeddingIndexService.Match::getId).containsExactly(near, middle);
+        assertThat(top.get(0).getSimilarity()).isGreaterThan(top.get(1).getSimilarity());
+        assertThat(index.topK(new float[]{1f, 0f}, 10)).extracting(EmbeddingIndexService.Match::getId)
+                .containsExactly(near, middle, far);
+    }
+
+    @Test
+    void nonPositiveKIsEmpty() {
+        put(1f, 0f);
+        assertThat(index.topK(new float[]{1f, 0f}, 0)).isEmpty();
+        assertThat(index.topK(new float[]{1f, 0f}, -1)).isEmpty();
+    }
+
+    @Test
+    void vectorsOfOtherDimensionAreSkipped() {
+        UUID same = put(1f, 0f);
+        index.put(UUID.randomUUID(), new EmbeddingIndex.Vector(UUID.randomUUID(), "h", new float[]{1f, 0f, 0f}));
+
+        assertThat(index.topK(new float[]{1f, 0f}, 5)).extracting(EmbeddingIndexService.Match::getId)
+                .containsExactly(same);
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        float[] v = {0.25f, -1.5f, 3f};
+        assertThat(EmbeddingIndex.fromBytes(EmbeddingIndex.toBytes(v))).containsExactly(v);
+    }
+
+    private UUID put(float x, float y) {
+        UUID id = UUID.randomUUID();
+        index.put(id, new EmbeddingIndex.Vector(UUID.randomUUID(), "h", EmbeddingIndex.normalize(new float[]{x, y})));
+        return id;
+    }
+}
@@ -0,0 +1,121 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import io.jmix.core.security.SystemAuthenticator;
+import org.junit.jupiter.api.Test;
+import ru.javaboys.huntyhr.config.BackgroundExecutor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Колесо таймеров и напоминания планировщика на подставных часах: такт — секунда, в колесе 8 ячеек.
+ */
+class InterviewReminderSchedulerTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void timerAddedAfterWrapAroundFiresOnItsTick() {
+        InterviewReminderScheduler.TimerWheel wheel = new InterviewReminderScheduler.TimerWheel(8, 1000, nanos::get);
+        at(6);
+        assertThat(wheel.advance()).isEmpty();
+
+        // такт 11 — ячейка 3, уже пройденная в первом обороте
+        wheel.add("a", 5000);
+        at(10);
+        assertThat(wheel.advance()).isEmpty();
+        at(11);
+        assertThat(wheel.advance()).containsExactly("a");
+    }
+
+    @Test
+    void timerIsCountedFromCurrentTickWhenWheelLags() {
+        InterviewReminderScheduler.TimerWheel wheel = new InterviewReminderScheduler.TimerWheel(8, 1000, nanos::get);
+        // колесо не продвигалось 20 тактов
+        at(20);
+        wheel.add("b", 3000);
+
+        assertThat(wheel.advance()).isEmpty();
+        at(22);
+        assertThat(wheel.advance()).isEmpty();
+        at(23);
+        assertThat(wheel.advance()).containsExactly("b");
+    }
+
+    @Test
+    void timerBeyondOneRoundWaitsForItsRound() {
+        InterviewReminderScheduler.TimerWheel wheel = new InterviewReminderScheduler.TimerWheel(8, 1000, nanos::get);
+        wheel.add("c", 20_000);
+        wheel.add("d", 0);
+
+        at(1);
+        assertThat(wheel.advance()).containsExactly("d");
+        // ячейка 4 посещается на 4 и 12 такте — там таймер только отсчитывает обороты
+        at(19);
+        assertThat(wheel.advance()).isEmpty();
+        at(20);
+        assertThat(wheel.advance()).containsExactly("c");
+        at(40);
+        assertThat(wheel.advance()).isEmpty();
+    }
+
+    @Test
+    void firedReminderIsQueuedAndSessionForgotten() {
+        NotificationOutboxService outbox = mock(NotificationOutboxService.class);
+        InterviewReminderScheduler scheduler = scheduler(outbox);
+        UUID sessionId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(scheduler.schedule(sessionId, now.plusMinutes(10).plusSeconds(3), null, now.plusHours(1)))
+                .isEqualTo(1);
+        assertThat(scheduler.trackedSessions()).isEqualTo(1);
+
+        at(5);
+        scheduler.tick();
+
+        verify(outbox).enqueueReminder(sessionId, 10);
+        assertThat(scheduler.trackedSessions()).isZero();
+    }
+
+    @Test
+    void cancelledReminderIsNotQueued() {
+        NotificationOutboxService outbox = mock(NotificationOutboxService.class);
+        InterviewReminderScheduler scheduler = scheduler(outbox);
+        UUID sessionId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        scheduler.schedule(sessionId, now.plusMinutes(10).plusSeconds(3), null, now.plusHours(1));
+
+        scheduler.cancel(sessionId);
+        at(5);
+        scheduler.tick();
+
+        verify(outbox, never()).enqueueReminder(any(), anyInt());
+        assertThat(scheduler.trackedSessions()).isZero();
+    }
+
+    private InterviewReminderScheduler scheduler(NotificationOutboxService outbox) {
+        SystemAuthenticator authenticator = mock(SystemAuthenticator.class);
+        doAnswer(inv -> {
+            ((Runnable) inv.getArgument(0)).run();
+            return null;
+        }).when(authenticator).runWithSystem(any(Runnable.class));
+        BackgroundExecutor backgroundExecutor = mock(BackgroundExecutor.class);
+        when(backgroundExecutor.sequential()).thenReturn(Runnable::run);
+        return new InterviewReminderScheduler(outbox, authenticator, new int[]{10}, 30, backgroundExecutor, nanos::get);
+    }
+
+    private void at(long seconds) {
+        nanos.set(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
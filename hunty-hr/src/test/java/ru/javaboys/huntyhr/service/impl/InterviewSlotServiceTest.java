@@ -0,0 +1,187 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import org.junit.jupiter.api.Test;
+import ru.javaboys.huntyhr.entity.InterviewStateEnum;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Дерево интервалов и расчёт слотов: мощность 2 сессии, встреча 45 минут, сетка 15 минут, рабочий день
+ * 10:00–19:00. 15.09.2025 — понедельник.
+ */
+class InterviewSlotServiceTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 9, 15, 0, 0);
+
+    private final InterviewSlotService service = new InterviewSlotService(2, 45, 15, "10:00", "19:00", 30);
+
+    @Test
+    void treeFindsSameIntervalsAsFullScan() {
+        InterviewSlotService.IntervalTree tree = new InterviewSlotService.IntervalTree();
+        List<long[]> all = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            long start = random.nextInt(10_000);
+            long end = start + 1 + random.nextInt(120);
+            tree.insert(start, end);
+            all.add(new long[]{start, end});
+        }
+
+        for (int q = 0; q < 200; q++) {
+            long from = random.nextInt(10_000);
+            long to = from + 1 + random.nextInt(90);
+            List<long[]> found = new ArrayList<>();
+            tree.overlapping(from, to, found);
+            List<long[]> expected = all.stream().filter(iv -> iv[0] < to && iv[1] > from).toList();
+            assertThat(sorted(found)).containsExactlyElementsOf(sorted(expected));
+        }
+    }
+
+    @Test
+    void treeRemovesOneIntervalAmongEqualStarts() {
+        InterviewSlotService.IntervalTree tree = new InterviewSlotService.IntervalTree();
+        List<long[]> all = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            long start = random.nextInt(50) * 15L;
+            long end = start + 15 + random.nextInt(3) * 15L;
+            tree.insert(start, end);
+            all.add(new long[]{start, end});
+        }
+
+        for (int i = 0; i < 150; i++) {
+            long[] removed = all.remove(random.nextInt(all.size()));
+            tree.remove(removed[0], removed[1]);
+        }
+        tree.remove(10_000, 10_045);
+
+        assertThat(sorted(overlapping(tree, 0, 10_000))).containsExactlyElementsOf(sorted(all));
+    }
+
+    @Test
+    void treePrunesSubtreesOutsideQuery() {
+        InterviewSlotService.IntervalTree tree = new InterviewSlotService.IntervalTree();
+        for (int i = 0; i < 1000; i++) {
+            tree.insert(i * 60L, i * 60L + 45);
+        }
+
+        List<long[]> found = new ArrayList<>();
+        int visited = tree.overlapping(30_000, 30_100, found);
+
+        assertThat(found).hasSize(2);
+        assertThat(visited).isLessThan(100);
+    }
+
+    @Test
+    void treeIntervalsAreHalfOpen() {
+        InterviewSlotService.IntervalTree tree = new InterviewSlotService.IntervalTree();
+        tree.insert(100, 145);
+
+        assertThat(overlapping(tree, 145, 190)).isEmpty();
+        assertThat(overlapping(tree, 55, 100)).isEmpty();
+        assertThat(overlapping(tree, 144, 145)).hasSize(1);
+        assertThat(overlapping(tree, 99, 101)).hasSize(1);
+    }
+
+    @Test
+    void peakTouchingSessionsDoNotOverlap() {
+        InterviewSlotService.Schedule schedule = service.newSchedule(MONDAY.plusDays(30));
+        schedule.book(MONDAY.withHour(10));
+
+        assertThat(schedule.peak(MONDAY.withHour(10).withMinute(45))).isZero();
+        assertThat(schedule.peak(MONDAY.withHour(9).withMinute(15))).isZero();
+        assertThat(schedule.peak(MONDAY.withHour(10).withMinute(30))).isEqualTo(1);
+    }
+
+    @Test
+    void peakClipsSessionsStartedBeforeSlot() {
+        InterviewSlotService.Schedule schedule = service.newSchedule(MONDAY.plusDays(30));
+        // 9:30–10:15 начата до слота 10:00–10:45 и кончается ровно тогда, когда начинается 10:15–11:00
+        schedule.book(MONDAY.withHour(9).withMinute(30));
+        schedule.book(MONDAY.withHour(10).withMinute(15));
+
+        assertThat(schedule.peak(MONDAY.withHour(10))).isEqualTo(1);
+        assertThat(schedule.fits(MONDAY.withHour(10))).isTrue();
+
+        schedule.book(MONDAY.withHour(9).withMinute(45));
+        assertThat(schedule.peak(MONDAY.withHour(10))).isEqualTo(2);
+        assertThat(schedule.fits(MONDAY.withHour(10))).isFalse();
+    }
+
+    @Test
+    void nextFreeSkipsFullSlot() {
+        InterviewSlotService.Schedule schedule = service.newSchedule(MONDAY.plusDays(30));
+        schedule.book(MONDAY.withHour(10));
+        schedule.book(MONDAY.withHour(10));
+
+        assertThat(schedule.nextFree(MONDAY.withHour(10))).isEqualTo(MONDAY.withHour(10).withMinute(45));
+        // 8:05 выравнивается по сетке и переносится на начало рабочего дня
+        assertThat(schedule.nextFree(MONDAY.withHour(8).withMinute(5))).isEqualTo(MONDAY.withHour(10).withMinute(45));
+    }
+
+    @Test
+    void releasedSlotIsFreeUntilRestored() {
+        InterviewSlotService.Schedule schedule = service.newSchedule(MONDAY.plusDays(30));
+        UUID moved = UUID.randomUUID();
+        schedule.occupy(moved, MONDAY.withHour(10));
+        schedule.occupy(UUID.randomUUID(), MONDAY.withHour(10));
+
+        assertThat(schedule.release(UUID.randomUUID())).isNull();
+        assertThat(schedule.nextFree(MONDAY.withHour(10))).isEqualTo(MONDAY.withHour(10).withMinute(45));
+
+        assertThat(schedule.release(moved)).isEqualTo(MONDAY.withHour(10));
+        assertThat(schedule.nextFree(MONDAY.withHour(10))).isEqualTo(MONDAY.withHour(10));
+
+        schedule.restore(moved, MONDAY.withHour(10));
+        assertThat(schedule.nextFree(MONDAY.withHour(10))).isEqualTo(MONDAY.withHour(10).withMinute(45));
+    }
+
+    @Test
+    void nextFreeMovesToNextWorkDayWhenEveningIsFull() {
+        InterviewSlotService.Schedule schedule = service.newSchedule(MONDAY.plusDays(30));
+        schedule.book(MONDAY.withHour(18).withMinute(15));
+        schedule.book(MONDAY.withHour(18).withMinute(15));
+
+        assertThat(schedule.nextFree(MONDAY.withHour(18))).isEqualTo(MONDAY.plusDays(1).withHour(10));
+        // пятница вечером — следующий слот в понедельник
+        assertThat(schedule.nextFree(MONDAY.plusDays(4).withHour(18).withMinute(30)))
+                .isEqualTo(MONDAY.plusDays(7).withHour(10));
+    }
+
+    @Test
+    void nextFreeIsNullBeyondSearchLimit() {
+        InterviewSlotService.Schedule schedule = service.newSchedule(MONDAY.withHour(12));
+
+        assertThat(schedule.nextFree(MONDAY.withHour(11))).isEqualTo(MONDAY.withHour(11));
+        assertThat(schedule.nextFree(MONDAY.withHour(13))).isNull();
+    }
+
+    @Test
+    void sessionWithoutStateOccupiesCapacityAsPending() {
+        assertThat(InterviewSlotService.isActive(null)).isTrue();
+        assertThat(InterviewSlotService.isActive(InterviewStateEnum.PENDING)).isTrue();
+        assertThat(InterviewSlotService.isActive(InterviewStateEnum.LIVE)).isTrue();
+        assertThat(InterviewSlotService.isActive(InterviewStateEnum.CANCELED)).isFalse();
+        assertThat(InterviewSlotService.isActive(InterviewStateEnum.COMPLETED)).isFalse();
+    }
+
+    private static List<long[]> overlapping(InterviewSlotService.IntervalTree tree, long from, long to) {
+        List<long[]> out = new ArrayList<>();
+        tree.overlapping(from, to, out);
+        return out;
+    }
+
+    private static List<String> sorted(List<long[]> intervals) {
+        return intervals.stream()
+                .sorted(Comparator.<long[]>comparingLong(iv -> iv[0]).thenComparingLong(iv -> iv[1]))
+                .map(iv -> iv[0] + "-" + iv[1])
+                .toList();
+    }
+}
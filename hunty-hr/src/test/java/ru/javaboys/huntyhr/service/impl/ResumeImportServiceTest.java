@@ -0,0 +1,125 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import io.jmix.core.DataManager;
+import io.jmix.core.FileRef;
+import io.jmix.core.FluentLoader;
+import io.jmix.core.SaveContext;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.mockito.invocation.Invocation;
+import ru.javaboys.huntyhr.ai.OpenAiService;
+import ru.javaboys.huntyhr.dto.ResumeStructuredDto;
+import ru.javaboys.huntyhr.entity.ApplicationEntity;
+import ru.javaboys.huntyhr.entity.CandidateEntity;
+import ru.javaboys.huntyhr.entity.CompanyEntity;
+import ru.javaboys.huntyhr.entity.ResumeEducationEntity;
+import ru.javaboys.huntyhr.entity.ResumeExperienceEntity;
+import ru.javaboys.huntyhr.entity.ResumeSkillEntity;
+import ru.javaboys.huntyhr.entity.ResumeVersionEntity;
+import ru.javaboys.huntyhr.entity.SearchDocumentEntity;
+import ru.javaboys.huntyhr.entity.StorageObjectEntity;
+import ru.javaboys.huntyhr.entity.VacancyEntity;
+import ru.javaboys.huntyhr.service.DocParseService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Обращения к DataManager при сохранении одного резюме нового кандидата: одно чтение вакансии и
+ * один {@code dm.save} на весь граф вместе с документом поиска; файл повторно не разбирается.
+ */
+class ResumeImportServiceTest {
+
+    private final DataManager dm = mock(DataManager.class);
+    private final CandidateIdentityService identityService = mock(CandidateIdentityService.class);
+    private final CompanyDirectoryService companyDirectoryService = mock(CompanyDirectoryService.class);
+    private final SkillTaxonomyService skillTaxonomyService = mock(SkillTaxonomyService.class);
+    private final FullTextSearchService fullTextSearchService = mock(FullTextSearchService.class);
+    private final DocParseService docParseService = mock(DocParseService.class);
+
+    private final ResumeImportService service = new ResumeImportService(dm, docParseService,
+            mock(OpenAiService.class), identityService, companyDirectoryService, skillTaxonomyService,
+            fullTextSearchService);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void newCandidateGraphIsSavedInOneRoundTrip() {
+        UUID vacancyId = UUID.randomUUID();
+        FluentLoader<VacancyEntity> loader = mock(FluentLoader.class);
+        FluentLoader.ById<VacancyEntity> byId = mock(FluentLoader.ById.class);
+        when(dm.load(VacancyEntity.class)).thenReturn(loader);
+        when(loader.id(vacancyId)).thenReturn(byId);
+        when(byId.optional()).thenReturn(Optional.of(new VacancyEntity()));
+        when(dm.create(any(Class.class))).thenAnswer(inv ->
+                ((Class<?>) inv.getArgument(0)).getDeclaredConstructor().newInstance());
+        when(companyDirectoryService.resolveAll(anyCollection()))
+                .thenReturn(Map.of("Яндекс", new CompanyEntity(), "Сбер", new CompanyEntity()));
+        when(fullTextSearchService.prepareResumeDocument(any(), anyBoolean(), any(), any()))
+                .thenReturn(new SearchDocumentEntity());
+
+        FileRef fileRef = FileRef.create("fs", "cv.pdf", "cv.pdf");
+        service.persist(vacancyId, fileRef, "Иван Петров, Java-разработчик", dto());
+
+        ArgumentCaptor<SaveContext> saved = ArgumentCaptor.forClass(SaveContext.class);
+        verify(dm).save(saved.capture());
+        assertThat(calls("save")).isEqualTo(1);
+        assertThat(calls("load")).isEqualTo(1);
+        verify(fullTextSearchService)
+                .prepareResumeDocument(any(), eq(true), any(), eq("Иван Петров, Java-разработчик"));
+        verify(docParseService, never()).parseToText(any(FileRef.class));
+        assertThat(saved.getValue().getEntitiesToSave())
+                .hasSize(11)
+                .hasAtLeastOneElementOfType(SearchDocumentEntity.class)
+                .hasAtLeastOneElementOfType(CandidateEntity.class)
+                .hasAtLeastOneElementOfType(StorageObjectEntity.class)
+                .hasAtLeastOneElementOfType(ResumeVersionEntity.class)
+                .hasAtLeastOneElementOfType(ResumeSkillEntity.class)
+                .hasAtLeastOneElementOfType(ResumeEducationEntity.class)
+                .hasAtLeastOneElementOfType(ResumeExperienceEntity.class)
+                .hasAtLeastOneElementOfType(ApplicationEntity.class);
+    }
+
+    private long calls(String method) {
+        return Mockito.mockingDetails(dm).getInvocations().stream()
+                .map(Invocation::getMethod)
+                .filter(m -> m.getName().equals(method))
+                .count();
+    }
+
+    private static ResumeStructuredDto dto() {
+        ResumeStructuredDto dto = new ResumeStructuredDto();
+        dto.setName("Иван");
+        dto.setSurname("Петров");
+        dto.setEmail("ivan@mail.ru");
+        // кандидат, файл, версия, документ поиска, 3 навыка, образование, 2 места работы, заявка — 11 сущностей
+        dto.setSkills(List.of("Java", "Spring", "SQL"));
+
+        ResumeStructuredDto.EducationItem education = new ResumeStructuredDto.EducationItem();
+        education.setLevel("MASTER");
+        education.setPlace("МГУ");
+        dto.setEducation(List.of(education));
+
+        ResumeStructuredDto.ExperienceItem yandex = new ResumeStructuredDto.ExperienceItem();
+        yandex.setCompany("Яндекс");
+        yandex.setStartDate("2019-03");
+        ResumeStructuredDto.ExperienceItem sber = new ResumeStructuredDto.ExperienceItem();
+        sber.setCompany("Сбер");
+        sber.setStartDate("2021");
+        sber.setEndDate("настоящее время");
+        dto.setExperience(List.of(yandex, sber));
+        return dto;
+    }
+}
@@ -0,0 +1,43 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import org.junit.jupiter.api.Test;
+import ru.javaboys.huntyhr.entity.VacancyEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScoringServiceTest {
+
+    private static VacancyEntity vacancy(Integer tech, Integer comm, Integer cases) {
+        VacancyEntity vacancy = new VacancyEntity();
+        vacancy.setWeightTech(tech);
+        vacancy.setWeightComm(comm);
+        vacancy.setWeightCases(cases);
+        return vacancy;
+    }
+
+    @Test
+    void weightedTotalUsesDefaultWeightsWhenUnset() {
+        // 80 * 0.60 + 50 * 0.25 + 20 * 0.15 = 63.5
+        assertThat(ScoringService.weightedTotal(vacancy(null, null, null), 80, 50, 20)).isEqualTo(64);
+    }
+
+    @Test
+    void weightedTotalNormalizesWeightsToHundred() {
+        assertThat(ScoringService.weightedTotal(vacancy(1, 1, 2), 100, 0, 50)).isEqualTo(50);
+        assertThat(ScoringService.weightedTotal(vacancy(6, 0, 0), 70, 100, 100)).isEqualTo(70);
+        assertThat(ScoringService.weightedTotal(vacancy(60, 25, 15), 100, 100, 100)).isEqualTo(100);
+    }
+
+    @Test
+    void weightedTotalWithZeroWeightsIsZero() {
+        assertThat(ScoringService.weightedTotal(vacancy(0, 0, 0), 100, 100, 100)).isZero();
+    }
+
+    @Test
+    void normalizeScoreClampsToPercentRange() {
+        assertThat(ScoringService.normalizeScore(null)).isZero();
+        assertThat(ScoringService.normalizeScore(-5)).isZero();
+        assertThat(ScoringService.normalizeScore(42)).isEqualTo(42);
+        assertThat(ScoringService.normalizeScore(140)).isEqualTo(100);
+    }
+}
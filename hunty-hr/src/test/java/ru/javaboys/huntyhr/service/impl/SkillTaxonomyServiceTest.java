@@ -0,0 +1,89 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import io.jmix.core.DataManager;
+import io.jmix.core.FluentLoader;
+import io.jmix.core.FluentValueLoader;
+import io.jmix.core.Id;
+import io.jmix.core.SaveContext;
+import io.jmix.core.security.SystemAuthenticator;
+import org.junit.jupiter.api.Test;
+import ru.javaboys.huntyhr.entity.SkillEntity;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SkillTaxonomyServiceTest {
+
+    @Test
+    void normalizeKeepsSignificantSymbols() {
+        assertThat(SkillTaxonomyService.normalize("  Node.JS ")).isEqualTo("node.js");
+        assertThat(SkillTaxonomyService.normalize("C#")).isEqualTo("c#");
+        assertThat(SkillTaxonomyService.normalize("C++")).isEqualTo("c++");
+        assertThat(SkillTaxonomyService.normalize("CI/CD")).isEqualTo("ci/cd");
+    }
+
+    @Test
+    void normalizeDropsSeparatorsCaseAndTrailingDots() {
+        assertThat(SkillTaxonomyService.normalize("Spring-Boot")).isEqualTo("springboot");
+        assertThat(SkillTaxonomyService.normalize("spring_boot")).isEqualTo("springboot");
+        assertThat(SkillTaxonomyService.normalize("Java.")).isEqualTo("java");
+        assertThat(SkillTaxonomyService.normalize("Ёлка")).isEqualTo("елка");
+    }
+
+    @Test
+    void normalizeOfBlankIsNull() {
+        assertThat(SkillTaxonomyService.normalize(null)).isNull();
+        assertThat(SkillTaxonomyService.normalize(" - ")).isNull();
+        assertThat(SkillTaxonomyService.normalize("...")).isNull();
+        assertThat(SkillTaxonomyService.normalizedKey("...")).isEmpty();
+        assertThat(SkillTaxonomyService.normalize("x".repeat(300))).hasSize(255);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resolveAllMapsSynonymsAndNeverCreatesSkills() {
+        DataManager dm = mock(DataManager.class);
+        FluentValueLoader<Long> count = mock(FluentValueLoader.class);
+        when(dm.loadValue(anyString(), any(Class.class))).thenReturn(count);
+        when(count.one()).thenReturn(2L);
+        FluentLoader<SkillEntity> loader = mock(FluentLoader.class);
+        FluentLoader.ByQuery<SkillEntity> all = mock(FluentLoader.ByQuery.class);
+        FluentLoader.ByQuery<SkillEntity> byKeys = mock(FluentLoader.ByQuery.class);
+        when(dm.load(SkillEntity.class)).thenReturn(loader);
+        when(loader.all()).thenReturn(all);
+        when(all.list()).thenReturn(List.of(skill(1, "Java", null), skill(2, "PostgreSQL", "postgres, psql")));
+        when(loader.query(anyString())).thenReturn(byKeys);
+        when(byKeys.parameter(anyString(), any())).thenReturn(byKeys);
+        when(byKeys.list()).thenReturn(List.of());
+        when(dm.getReference(any(Id.class))).thenAnswer(inv -> {
+            Id<SkillEntity> id = inv.getArgument(0);
+            return skill((Integer) id.getValue(), null, null);
+        });
+        SkillTaxonomyService service = new SkillTaxonomyService(dm, mock(SystemAuthenticator.class));
+
+        Map<String, SkillEntity> resolved = service.resolveAll(List.of("Postgres", " JAVA ", "pg", "Jenkins"));
+
+        assertThat(resolved).containsOnlyKeys("Postgres", " JAVA ");
+        assertThat(resolved.get("Postgres").getId()).isEqualTo(2);
+        assertThat(resolved.get(" JAVA ").getId()).isEqualTo(1);
+        assertThat(service.findId("pg")).isNull();
+        verify(dm, never()).save(any(SaveContext.class));
+    }
+
+    private static SkillEntity skill(int id, String name, String synonyms) {
+        SkillEntity s = new SkillEntity();
+        s.setId(id);
+        s.setName(name);
+        s.setNormalizedName(SkillTaxonomyService.normalizedKey(name));
+        s.setSynonyms(synonyms);
+        return s;
+    }
+}
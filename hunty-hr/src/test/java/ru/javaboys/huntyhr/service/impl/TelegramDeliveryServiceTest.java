@@ -0,0 +1,43 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelegramDeliveryServiceTest {
+
+    @Test
+    void bucketGivesBurstThenPacesByRate() {
+        TelegramDeliveryService.TokenBucket bucket = new TelegramDeliveryService.TokenBucket(25, 0);
+        for (int i = 0; i < 25; i++) {
+            assertThat(bucket.take(0)).isZero();
+        }
+        // 25 в секунду — токен раз в 40 мс
+        assertThat(bucket.take(0)).isEqualTo(40);
+        assertThat(bucket.take(20)).isEqualTo(20);
+        assertThat(bucket.take(40)).isZero();
+        assertThat(bucket.take(40)).isEqualTo(40);
+    }
+
+    @Test
+    void idleBucketRefillsOnlyUpToBurst() {
+        TelegramDeliveryService.TokenBucket bucket = new TelegramDeliveryService.TokenBucket(5, 0);
+        for (int i = 0; i < 5; i++) {
+            bucket.take(0);
+        }
+
+        long later = 60_000;
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.take(later)).isZero();
+        }
+        assertThat(bucket.take(later)).isEqualTo(200);
+    }
+
+    @Test
+    void bucketIgnoresClockGoingBack() {
+        TelegramDeliveryService.TokenBucket bucket = new TelegramDeliveryService.TokenBucket(1, 1000);
+        assertThat(bucket.take(1000)).isZero();
+        assertThat(bucket.take(500)).isEqualTo(1000);
+        assertThat(bucket.take(2000)).isZero();
+    }
+}
@@ -0,0 +1,27 @@
+package ru.javaboys.huntyhr.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelegramTemplatesTest {
+
+    @Test
+    void leadTimeInMinutesAgreesWithNumber() {
+        assertThat(TelegramTemplates.leadTime(1)).isEqualTo("1 минуту");
+        assertThat(TelegramTemplates.leadTime(2)).isEqualTo("2 минуты");
+        assertThat(TelegramTemplates.leadTime(10)).isEqualTo("10 минут");
+        assertThat(TelegramTemplates.leadTime(11)).isEqualTo("11 минут");
+        assertThat(TelegramTemplates.leadTime(21)).isEqualTo("21 минуту");
+        assertThat(TelegramTemplates.leadTime(54)).isEqualTo("54 минуты");
+    }
+
+    @Test
+    void leadTimeFromAboutAnHourIsInHours() {
+        assertThat(TelegramTemplates.leadTime(55)).isEqualTo("1 час");
+        assertThat(TelegramTemplates.leadTime(60)).isEqualTo("1 час");
+        assertThat(TelegramTemplates.leadTime(120)).isEqualTo("2 часа");
+        assertThat(TelegramTemplates.leadTime(300)).isEqualTo("5 часов");
+        assertThat(TelegramTemplates.leadTime(1440)).isEqualTo("24 часа");
+    }
+}
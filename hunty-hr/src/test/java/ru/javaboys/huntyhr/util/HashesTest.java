@@ -0,0 +1,35 @@
+package ru.javaboys.huntyhr.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashesTest {
+
+    @Test
+    void sha256MatchesKnownVector() {
+        assertThat(Hashes.sha256("abc"))
+                .isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+        assertThat(Hashes.sha256("abc".getBytes(StandardCharsets.UTF_8))).isEqualTo(Hashes.sha256("abc"));
+    }
+
+    @Test
+    void partsAreLengthPrefixed() {
+        assertThat(Hashes.sha256Parts("ab", "c")).isNotEqualTo(Hashes.sha256Parts("a", "bc"));
+        assertThat(Hashes.sha256Parts("a", null)).isEqualTo(Hashes.sha256Parts("a", ""));
+    }
+
+    @Test
+    void unwrapReachesRootCause() {
+        IllegalStateException root = new IllegalStateException("boom");
+        Throwable wrapped = new CompletionException(new ExecutionException(root));
+
+        assertThat(Futures.unwrap(wrapped)).isSameAs(root);
+        assertThat(Futures.unwrap(root)).isSameAs(root);
+        assertThat(Futures.unwrap(null)).isNull();
+    }
+}